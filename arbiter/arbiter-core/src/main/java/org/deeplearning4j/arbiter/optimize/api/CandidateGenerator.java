@@ -45,7 +45,7 @@ public interface CandidateGenerator {
     Candidate getCandidate();
 
     /**
-     * Report results for the candidate generator.
+     * Report results for the candidate generator. Called for both completed and failed candidates.
      *
      * @param result The results to report
      */
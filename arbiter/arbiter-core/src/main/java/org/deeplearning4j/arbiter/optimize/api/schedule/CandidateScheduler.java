@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.api.schedule;
+
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.nd4j.shade.jackson.annotation.JsonInclude;
+import org.nd4j.shade.jackson.annotation.JsonTypeInfo;
+
+/**
+ * A CandidateScheduler decides, while a candidate is training, whether it should continue, be stopped early,
+ * or continue from the state of a better candidate. Running tasks call {@link #onCheckpoint} at the end of
+ * each epoch for which {@link #isCheckpoint(Candidate, int)} returns true, scoring the model with the configured
+ * {@link org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction}.<br>
+ * Schedulers are shared by all tasks of an optimization run, so implementations must be thread safe.
+ *
+ * @see SuccessiveHalvingScheduler
+ * @see HyperbandScheduler
+ * @see PopulationBasedTrainingScheduler
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "@class")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public interface CandidateScheduler {
+
+    /**
+     * @param candidate Candidate being trained
+     * @param epoch     Number of epochs the candidate has completed so far
+     * @return True if the candidate should be scored and {@link #onCheckpoint} called after this epoch
+     */
+    boolean isCheckpoint(Candidate candidate, int epoch);
+
+    /**
+     * @param candidate Candidate being trained
+     * @param epoch     Number of epochs the candidate has completed so far
+     * @return True if a copy of the model should be passed to {@link #onCheckpoint} for this epoch
+     */
+    boolean requiresModelSnapshot(Candidate candidate, int epoch);
+
+    /**
+     * Report the score of a candidate at a checkpoint.
+     *
+     * @param candidate     Candidate being trained
+     * @param epoch         Number of epochs the candidate has completed so far
+     * @param score         Score of the candidate's model at this point
+     * @param minimize      Whether the score should be minimized
+     * @param modelSnapshot Independent copy of the model, if {@link #requiresModelSnapshot(Candidate, int)}; null otherwise
+     * @return What the task should do next
+     */
+    SchedulerDecision onCheckpoint(Candidate candidate, int epoch, double score, boolean minimize,
+                    Object modelSnapshot);
+
+    /**
+     * Called when a candidate's task finishes (completed, stopped or failed), so any state kept for it can be released
+     *
+     * @param candidate Candidate that has finished
+     */
+    void onCandidateFinished(Candidate candidate);
+
+}
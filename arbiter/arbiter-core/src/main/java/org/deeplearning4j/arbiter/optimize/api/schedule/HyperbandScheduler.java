@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.api.schedule;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.nd4j.shade.jackson.annotation.JsonIgnore;
+import org.nd4j.shade.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Asynchronous Hyperband: a set of {@link SuccessiveHalvingScheduler} brackets that differ in how aggressively they
+ * stop candidates. Bracket s first checks candidates after minEpochs * reductionFactor^s epochs, so low brackets
+ * explore many configurations cheaply while high brackets give every candidate a larger budget before judging it.
+ * Candidates are assigned to brackets in turn, by candidate index.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(exclude = {"brackets"})
+public class HyperbandScheduler implements CandidateScheduler {
+
+    private int minEpochs;
+    private int reductionFactor;
+    private int numBrackets;
+    @JsonIgnore
+    private List<SuccessiveHalvingScheduler> brackets;
+
+    /**
+     * @param minEpochs       Number of epochs before the first rung of the most aggressive bracket
+     * @param reductionFactor Only the best 1/reductionFactor candidates at each rung continue training. Must be >= 2
+     * @param numBrackets     Number of brackets. Must be >= 1
+     */
+    public HyperbandScheduler(@JsonProperty("minEpochs") int minEpochs,
+                    @JsonProperty("reductionFactor") int reductionFactor,
+                    @JsonProperty("numBrackets") int numBrackets) {
+        if (numBrackets <= 0)
+            throw new IllegalArgumentException("numBrackets must be > 0 (got: " + numBrackets + ")");
+        this.minEpochs = minEpochs;
+        this.reductionFactor = reductionFactor;
+        this.numBrackets = numBrackets;
+        initBrackets();
+    }
+
+    private void initBrackets() {
+        brackets = new ArrayList<>(numBrackets);
+        int bracketMinEpochs = minEpochs;
+        for (int s = 0; s < numBrackets; s++) {
+            brackets.add(new SuccessiveHalvingScheduler(bracketMinEpochs, reductionFactor));
+            bracketMinEpochs *= reductionFactor;
+        }
+    }
+
+    protected synchronized SuccessiveHalvingScheduler bracketFor(Candidate candidate) {
+        if (brackets == null)
+            initBrackets();
+        return brackets.get(candidate.getIndex() % numBrackets);
+    }
+
+    @Override
+    public boolean isCheckpoint(Candidate candidate, int epoch) {
+        return bracketFor(candidate).isCheckpoint(candidate, epoch);
+    }
+
+    @Override
+    public boolean requiresModelSnapshot(Candidate candidate, int epoch) {
+        return false;
+    }
+
+    @Override
+    public SchedulerDecision onCheckpoint(Candidate candidate, int epoch, double score, boolean minimize,
+                    Object modelSnapshot) {
+        return bracketFor(candidate).onCheckpoint(candidate, epoch, score, minimize, modelSnapshot);
+    }
+
+    @Override
+    public void onCandidateFinished(Candidate candidate) {
+        bracketFor(candidate).onCandidateFinished(candidate);
+    }
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.api.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.nd4j.shade.jackson.annotation.JsonIgnore;
+import org.nd4j.shade.jackson.annotation.JsonProperty;
+
+import java.util.*;
+
+/**
+ * Population based training: the candidates that are training concurrently form the population. Every
+ * perturbationInterval epochs each candidate reports its score and a copy of its model. A candidate in the bottom
+ * quantile of the population is told to exploit a randomly chosen candidate from the top quantile - i.e., to
+ * continue training from a copy of that candidate's model (configuration, weights and updater state) - and to
+ * explore by multiplying its continuous hyperparameters (learning rate) by one of the perturbation factors.<br>
+ * Candidates leave the population when they finish. Donor models are shared between tasks and must not be
+ * modified; tasks train a copy of them.<br>
+ * After exploiting, a candidate is reported with the donor's flat parameters and the donor's configuration with
+ * the perturbed learning rates - i.e., the configuration it continues training with - so that later scores and the
+ * final result are recorded against the hyperparameters that produced them. Note that the flat parameters do not
+ * reflect the perturbation of the learning rates.
+ */
+@Slf4j
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(exclude = {"population", "rng"})
+public class PopulationBasedTrainingScheduler implements CandidateScheduler {
+
+    private int perturbationInterval;
+    private double quantileFraction = 0.25;
+    private double[] perturbationFactors = new double[] {0.8, 1.2};
+    private long rngSeed;
+    @JsonIgnore
+    private Map<Integer, Member> population = new HashMap<>();
+    @JsonIgnore
+    private Random rng;
+
+    /**
+     * @param perturbationInterval Number of epochs between exploit/explore steps
+     */
+    public PopulationBasedTrainingScheduler(int perturbationInterval) {
+        this(perturbationInterval, 0.25, new double[] {0.8, 1.2}, System.currentTimeMillis());
+    }
+
+    /**
+     * @param perturbationInterval Number of epochs between exploit/explore steps
+     * @param quantileFraction     Fraction of the population in the top (donor) and bottom (exploiting) quantiles.
+     *                             Must be in (0, 0.5]
+     * @param perturbationFactors  Factors, one chosen at random, for perturbing hyperparameters after exploiting
+     * @param rngSeed              Seed for choosing donors and perturbation factors
+     */
+    public PopulationBasedTrainingScheduler(@JsonProperty("perturbationInterval") int perturbationInterval,
+                    @JsonProperty("quantileFraction") double quantileFraction,
+                    @JsonProperty("perturbationFactors") double[] perturbationFactors,
+                    @JsonProperty("rngSeed") long rngSeed) {
+        if (perturbationInterval <= 0)
+            throw new IllegalArgumentException(
+                            "perturbationInterval must be > 0 (got: " + perturbationInterval + ")");
+        if (quantileFraction <= 0 || quantileFraction > 0.5)
+            throw new IllegalArgumentException("quantileFraction must be in (0, 0.5] (got: " + quantileFraction + ")");
+        if (perturbationFactors == null || perturbationFactors.length == 0)
+            throw new IllegalArgumentException("At least one perturbation factor must be provided");
+        this.perturbationInterval = perturbationInterval;
+        this.quantileFraction = quantileFraction;
+        this.perturbationFactors = perturbationFactors;
+        this.rngSeed = rngSeed;
+    }
+
+    @Override
+    public boolean isCheckpoint(Candidate candidate, int epoch) {
+        return epoch > 0 && epoch % perturbationInterval == 0;
+    }
+
+    @Override
+    public boolean requiresModelSnapshot(Candidate candidate, int epoch) {
+        return isCheckpoint(candidate, epoch);
+    }
+
+    @Override
+    public synchronized SchedulerDecision onCheckpoint(Candidate candidate, int epoch, double score,
+                    final boolean minimize, Object modelSnapshot) {
+        if (Double.isNaN(score))
+            score = minimize ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        int index = candidate.getIndex();
+        population.put(index, new Member(index, score, candidate.getFlatParameters(), modelSnapshot));
+
+        int n = population.size();
+        if (n < 2)
+            return SchedulerDecision.continueTraining();
+
+        List<Member> ranked = new ArrayList<>(population.values());
+        Collections.sort(ranked, new Comparator<Member>() {
+            @Override
+            public int compare(Member m1, Member m2) {
+                return minimize ? Double.compare(m1.getScore(), m2.getScore())
+                                : Double.compare(m2.getScore(), m1.getScore());
+            }
+        });
+
+        int quantileSize = Math.max(1, (int) (n * quantileFraction));
+        int rank = 0;
+        while (ranked.get(rank).getIndex() != index)
+            rank++;
+        if (rank < n - quantileSize)
+            return SchedulerDecision.continueTraining();
+
+        if (rng == null)
+            rng = new Random(rngSeed);
+        Member donor = ranked.get(rng.nextInt(quantileSize));
+        if (donor.getIndex() == index || donor.getModel() == null)
+            return SchedulerDecision.continueTraining();
+
+        double factor = perturbationFactors[rng.nextInt(perturbationFactors.length)];
+        log.info("Candidate {} (score {}) exploiting candidate {} (score {}) at epoch {}, perturbation factor {}",
+                        index, score, donor.getIndex(), donor.getScore(), epoch, factor);
+        return SchedulerDecision.exploit(donor.getModel(), donor.getIndex(), donor.getFlatParameters(), factor);
+    }
+
+    @Override
+    public synchronized void onCandidateFinished(Candidate candidate) {
+        population.remove(candidate.getIndex());
+    }
+
+    @AllArgsConstructor
+    @Data
+    protected static class Member {
+        private final int index;
+        private final double score;
+        private final double[] flatParameters;
+        private final Object model;
+    }
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.api.schedule;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The result of a {@link CandidateScheduler} checkpoint: continue training, stop training (the candidate is
+ * then scored and reported as usual), or exploit another candidate by continuing from a copy of its model.
+ */
+@Data
+@AllArgsConstructor
+public class SchedulerDecision {
+
+    public enum Action {
+        CONTINUE, STOP, EXPLOIT
+    }
+
+    private static final SchedulerDecision CONTINUE_DECISION = new SchedulerDecision(Action.CONTINUE, null, -1, null, 1.0);
+    private static final SchedulerDecision STOP_DECISION = new SchedulerDecision(Action.STOP, null, -1, null, 1.0);
+
+    private final Action action;
+    /** Snapshot of the donor candidate's model, for {@link Action#EXPLOIT} */
+    private final Object donorModel;
+    /** Index of the donor candidate, for {@link Action#EXPLOIT} */
+    private final int donorIndex;
+    /** Flat parameters of the donor candidate's hyperparameters, for {@link Action#EXPLOIT} */
+    private final double[] donorFlatParameters;
+    /** Multiplicative perturbation to apply to continuous training hyperparameters (such as learning rate) */
+    private final double perturbationFactor;
+
+    public static SchedulerDecision continueTraining() {
+        return CONTINUE_DECISION;
+    }
+
+    public static SchedulerDecision stopTraining() {
+        return STOP_DECISION;
+    }
+
+    public static SchedulerDecision exploit(Object donorModel, int donorIndex, double[] donorFlatParameters,
+                    double perturbationFactor) {
+        return new SchedulerDecision(Action.EXPLOIT, donorModel, donorIndex, donorFlatParameters, perturbationFactor);
+    }
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.api.schedule;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.nd4j.shade.jackson.annotation.JsonIgnore;
+import org.nd4j.shade.jackson.annotation.JsonProperty;
+
+import java.util.*;
+
+/**
+ * Asynchronous successive halving: candidates are checked at "rungs" after minEpochs, minEpochs * reductionFactor,
+ * minEpochs * reductionFactor^2, ... epochs. At each rung, a candidate only continues training if its score is in
+ * the top 1/reductionFactor of all scores reported at that rung so far; otherwise it is stopped, freeing its slot
+ * for a new candidate. Until reductionFactor scores have been reported at a rung, all candidates continue.<br>
+ * Candidates are trained for at most their configured number of epochs; rungs beyond that are never reached.
+ *
+ * @see HyperbandScheduler
+ */
+@Slf4j
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(exclude = {"rungScores"})
+public class SuccessiveHalvingScheduler implements CandidateScheduler {
+
+    private int minEpochs;
+    private int reductionFactor;
+    @JsonIgnore
+    private Map<Integer, List<Double>> rungScores = new HashMap<>();
+
+    /**
+     * @param minEpochs       Number of epochs before the first rung (minimum resource for every candidate)
+     * @param reductionFactor Only the best 1/reductionFactor candidates at each rung continue training. Must be >= 2
+     */
+    public SuccessiveHalvingScheduler(@JsonProperty("minEpochs") int minEpochs,
+                    @JsonProperty("reductionFactor") int reductionFactor) {
+        if (minEpochs <= 0)
+            throw new IllegalArgumentException("minEpochs must be > 0 (got: " + minEpochs + ")");
+        if (reductionFactor < 2)
+            throw new IllegalArgumentException("reductionFactor must be >= 2 (got: " + reductionFactor + ")");
+        this.minEpochs = minEpochs;
+        this.reductionFactor = reductionFactor;
+    }
+
+    @Override
+    public boolean isCheckpoint(Candidate candidate, int epoch) {
+        if (epoch < minEpochs || epoch % minEpochs != 0)
+            return false;
+        int r = epoch / minEpochs;
+        while (r % reductionFactor == 0)
+            r /= reductionFactor;
+        return r == 1;
+    }
+
+    @Override
+    public boolean requiresModelSnapshot(Candidate candidate, int epoch) {
+        return false;
+    }
+
+    @Override
+    public synchronized SchedulerDecision onCheckpoint(Candidate candidate, int epoch, double score, boolean minimize,
+                    Object modelSnapshot) {
+        if (Double.isNaN(score))
+            score = minimize ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+
+        List<Double> scores = rungScores.get(epoch);
+        if (scores == null) {
+            scores = new ArrayList<>();
+            rungScores.put(epoch, scores);
+        }
+        scores.add(score);
+
+        if (scores.size() < reductionFactor)
+            return SchedulerDecision.continueTraining();
+
+        List<Double> sorted = new ArrayList<>(scores);
+        Collections.sort(sorted);
+        if (!minimize)
+            Collections.reverse(sorted);
+        double cutoff = sorted.get(scores.size() / reductionFactor - 1);
+
+        boolean keep = minimize ? score <= cutoff : score >= cutoff;
+        if (!keep) {
+            log.info("Stopping candidate {} at epoch {}: score {} not in top 1/{} of {} candidates (cutoff {})",
+                            candidate.getIndex(), epoch, score, reductionFactor, scores.size(), cutoff);
+            return SchedulerDecision.stopTraining();
+        }
+        return SchedulerDecision.continueTraining();
+    }
+
+    @Override
+    public void onCandidateFinished(Candidate candidate) {
+        //No op - rung scores are kept for comparison with later candidates
+    }
+}
@@ -20,6 +20,7 @@ import lombok.*;
 import org.deeplearning4j.arbiter.optimize.api.CandidateGenerator;
 import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
 import org.deeplearning4j.arbiter.optimize.api.data.DataSource;
+import org.deeplearning4j.arbiter.optimize.api.schedule.CandidateScheduler;
 import org.deeplearning4j.arbiter.optimize.api.saving.ResultSaver;
 import org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction;
 import org.deeplearning4j.arbiter.optimize.api.termination.TerminationCondition;
@@ -43,7 +44,8 @@ import java.util.Properties;
  */
 @Data
 @NoArgsConstructor
-@EqualsAndHashCode(exclude = {"dataProvider", "terminationConditions", "candidateGenerator", "resultSaver"})
+@EqualsAndHashCode(exclude = {"dataProvider", "terminationConditions", "candidateGenerator", "resultSaver",
+                "candidateScheduler"})
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "@class")
 public class OptimizationConfiguration {
     @JsonSerialize
@@ -62,6 +64,8 @@ public class OptimizationConfiguration {
     private List<TerminationCondition> terminationConditions;
     @JsonSerialize
     private Long rngSeed;
+    @JsonSerialize
+    private CandidateScheduler candidateScheduler;
 
     @Getter
     @Setter
@@ -77,6 +81,7 @@ public class OptimizationConfiguration {
         this.scoreFunction = builder.scoreFunction;
         this.terminationConditions = builder.terminationConditions;
         this.rngSeed = builder.rngSeed;
+        this.candidateScheduler = builder.candidateScheduler;
 
         if (rngSeed != null)
             candidateGenerator.setRngSeed(rngSeed);
@@ -104,6 +109,7 @@ public class OptimizationConfiguration {
         private ScoreFunction scoreFunction;
         private List<TerminationCondition> terminationConditions;
         private Long rngSeed;
+        private CandidateScheduler candidateScheduler;
 
         /**
          * @deprecated Use {@link #dataSource(Class, Properties)}
@@ -161,6 +167,19 @@ public class OptimizationConfiguration {
             return this;
         }
 
+        /**
+         * Scheduler used to stop poorly performing candidates early (successive halving, Hyperband) or to let
+         * candidates continue from better ones (population based training), at epoch checkpoints during training.
+         * If not set, every candidate is trained to completion.<br>
+         * Note: schedulers are applied by the task creator; the DL4J task creators apply them to candidates trained
+         * for a fixed number of epochs (not to those using an early stopping configuration).
+         * @param candidateScheduler Scheduler to use. May be null
+         */
+        public Builder candidateScheduler(CandidateScheduler candidateScheduler) {
+            this.candidateScheduler = candidateScheduler;
+            return this;
+        }
+
         public OptimizationConfiguration build() {
             return new OptimizationConfiguration(this);
         }
@@ -0,0 +1,406 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.generator;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.math3.special.Erf;
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.deeplearning4j.arbiter.optimize.api.OptimizationResult;
+import org.deeplearning4j.arbiter.optimize.api.ParameterSpace;
+import org.deeplearning4j.arbiter.optimize.parameter.BooleanSpace;
+import org.deeplearning4j.arbiter.optimize.parameter.discrete.DiscreteParameterSpace;
+import org.deeplearning4j.arbiter.optimize.runner.CandidateStatus;
+import org.deeplearning4j.arbiter.util.LeafUtils;
+import org.nd4j.shade.jackson.annotation.JsonCreator;
+import org.nd4j.shade.jackson.annotation.JsonIgnoreProperties;
+import org.nd4j.shade.jackson.annotation.JsonProperty;
+
+import java.util.*;
+
+/**
+ * TPECandidateGenerator: model-based (Bayesian) candidate generation using the Tree-structured Parzen Estimator
+ * (Bergstra et al., 2011).<br>
+ * After numInitialRandom random candidates, completed results are split into the best gamma fraction ("good")
+ * and the rest ("bad"), and a density is fitted to each: a Parzen (truncated Gaussian kernel) estimator for
+ * continuous and integer parameters, and smoothed category frequencies for discrete and boolean parameters.
+ * numEICandidates points are sampled from the "good" density and the one maximizing good(x)/bad(x) - equivalent
+ * to maximizing expected improvement - is proposed.<br>
+ * Candidates that have been proposed but not yet reported are included using the "constant liar" strategy: they are
+ * treated as completed with a fixed (by default, the worst observed) score. Consecutive calls to
+ * {@link #getCandidate()} (or {@link #getCandidates(int)}) therefore produce a diverse batch of candidates for
+ * concurrent evaluation, rather than the same candidate repeatedly.<br>
+ * Parameters are modelled independently, in the [0,1] space used by {@link ParameterSpace#getValue(double[])}, so any
+ * distribution configured on a continuous or integer parameter space acts as the prior.
+ *
+ * @see RandomSearchGenerator
+ */
+@Slf4j
+@EqualsAndHashCode(callSuper = true, exclude = {"dimensionCategories", "observedParams", "observedScores", "pending"})
+@JsonIgnoreProperties({"candidateCounter", "rng", "candidate", "candidates", "dimensionCategories", "observedParams",
+                "observedScores", "pending"})
+public class TPECandidateGenerator extends BaseCandidateGenerator {
+
+    /**
+     * Score used for pending (proposed, but not yet completed) candidates
+     */
+    public enum LiarStrategy {
+        WORST, MEAN, BEST
+    }
+
+    public static final int DEFAULT_NUM_INITIAL_RANDOM = 10;
+    public static final double DEFAULT_GAMMA = 0.25;
+    public static final int DEFAULT_NUM_EI_CANDIDATES = 24;
+
+    @Getter
+    private boolean minimize;
+    @Getter
+    private int numInitialRandom;
+    @Getter
+    private double gamma;
+    @Getter
+    private int numEICandidates;
+    @Getter
+    private LiarStrategy liarStrategy;
+
+    //Number of categories for each dimension of the flattened [0,1] parameter vector; 0 for continuous
+    private int[] dimensionCategories;
+    private List<double[]> observedParams = new ArrayList<>();
+    private List<Double> observedScores = new ArrayList<>();
+    private Map<Integer, double[]> pending = new LinkedHashMap<>();
+
+    /**
+     * @param parameterSpace   ParameterSpace from which to generate candidates
+     * @param dataParameters   Parameters for the data. May be null
+     * @param minimize         True if the score (see {@link org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction#minimize()})
+     *                         should be minimized
+     * @param numInitialRandom Number of completed candidates required before the model is used; random search
+     *                         is used until then
+     * @param gamma            Fraction of results considered "good". Must be in (0,1)
+     * @param numEICandidates  Number of points sampled from the "good" density when proposing each candidate
+     * @param liarStrategy     Score used for pending candidates
+     */
+    @JsonCreator
+    public TPECandidateGenerator(@JsonProperty("parameterSpace") ParameterSpace<?> parameterSpace,
+                    @JsonProperty("dataParameters") Map<String, Object> dataParameters,
+                    @JsonProperty("minimize") boolean minimize,
+                    @JsonProperty("numInitialRandom") int numInitialRandom,
+                    @JsonProperty("gamma") double gamma,
+                    @JsonProperty("numEICandidates") int numEICandidates,
+                    @JsonProperty("liarStrategy") LiarStrategy liarStrategy,
+                    @JsonProperty("initDone") boolean initDone) {
+        super(parameterSpace, dataParameters, initDone);
+        if (gamma <= 0 || gamma >= 1)
+            throw new IllegalArgumentException("gamma must be in (0,1) (got: " + gamma + ")");
+        if (numEICandidates <= 0)
+            throw new IllegalArgumentException("numEICandidates must be > 0 (got: " + numEICandidates + ")");
+        this.minimize = minimize;
+        this.numInitialRandom = Math.max(1, numInitialRandom);
+        this.gamma = gamma;
+        this.numEICandidates = numEICandidates;
+        this.liarStrategy = (liarStrategy == null ? LiarStrategy.WORST : liarStrategy);
+        initialize();
+    }
+
+    public TPECandidateGenerator(ParameterSpace<?> parameterSpace, Map<String, Object> dataParameters,
+                    boolean minimize) {
+        this(parameterSpace, dataParameters, minimize, DEFAULT_NUM_INITIAL_RANDOM, DEFAULT_GAMMA,
+                        DEFAULT_NUM_EI_CANDIDATES, LiarStrategy.WORST, false);
+    }
+
+    public TPECandidateGenerator(ParameterSpace<?> parameterSpace, boolean minimize) {
+        this(parameterSpace, null, minimize);
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+
+        //Same leaf order as used to assign the indices in BaseCandidateGenerator.initialize()
+        List<ParameterSpace> leaves = LeafUtils.getUniqueObjects(parameterSpace.collectLeaves());
+        dimensionCategories = new int[parameterSpace.numParameters()];
+        int d = 0;
+        for (ParameterSpace ps : leaves) {
+            int np = ps.numParameters();
+            int categories = 0;
+            if (ps instanceof DiscreteParameterSpace) {
+                categories = ((DiscreteParameterSpace) ps).numValues();
+            } else if (ps instanceof BooleanSpace) {
+                categories = 2;
+            }
+            for (int j = 0; j < np && d < dimensionCategories.length; j++) {
+                dimensionCategories[d++] = categories;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasMoreCandidates() {
+        return true;
+    }
+
+    @Override
+    public synchronized Candidate getCandidate() {
+        double[] values;
+        if (observedScores.size() < numInitialRandom) {
+            values = new double[parameterSpace.numParameters()];
+            for (int i = 0; i < values.length; i++)
+                values[i] = rng.nextDouble();
+        } else {
+            values = suggest();
+        }
+
+        Object value = null;
+        Exception e = null;
+        try {
+            value = parameterSpace.getValue(values);
+        } catch (Exception e2) {
+            log.warn("Error getting configuration for candidate", e2);
+            e = e2;
+        }
+
+        int index = candidateCounter.getAndIncrement();
+        if (e == null)
+            pending.put(index, values);
+        return new Candidate(value, index, values, dataParameters, e);
+    }
+
+    /**
+     * Propose a batch of candidates for concurrent evaluation. Each candidate accounts for the (pending) candidates
+     * proposed before it.
+     *
+     * @param numCandidates Number of candidates to generate
+     */
+    public synchronized List<Candidate> getCandidates(int numCandidates) {
+        List<Candidate> out = new ArrayList<>(numCandidates);
+        for (int i = 0; i < numCandidates; i++)
+            out.add(getCandidate());
+        return out;
+    }
+
+    @Override
+    public synchronized void reportResults(OptimizationResult result) {
+        //Always remove the candidate from the pending set, including failed candidates
+        double[] params = pending.remove(result.getIndex());
+        if (result.getCandidateInfo() != null
+                        && result.getCandidateInfo().getCandidateStatus() == CandidateStatus.Failed)
+            return;
+        if (params == null && result.getCandidate() != null)
+            params = result.getCandidate().getFlatParameters();
+
+        Double score = result.getScore();
+        if (params == null || score == null || Double.isNaN(score) || Double.isInfinite(score))
+            return;
+        observedParams.add(params);
+        observedScores.add(score);
+    }
+
+    /**
+     * @return Number of completed candidates used to fit the model
+     */
+    public synchronized int numObservations() {
+        return observedScores.size();
+    }
+
+    /**
+     * @return Number of candidates proposed but not yet reported
+     */
+    public synchronized int numPending() {
+        return pending.size();
+    }
+
+    protected double[] suggest() {
+        List<double[]> points = new ArrayList<>(observedParams);
+        final List<Double> scores = new ArrayList<>(observedScores);
+        if (!pending.isEmpty()) {
+            double lie = liarScore();
+            for (double[] p : pending.values()) {
+                points.add(p);
+                scores.add(lie);
+            }
+        }
+
+        //Sort best first
+        Integer[] order = new Integer[points.size()];
+        for (int i = 0; i < order.length; i++)
+            order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                int c = Double.compare(scores.get(i1), scores.get(i2));
+                return minimize ? c : -c;
+            }
+        });
+
+        int nGood = Math.max(1, (int) Math.ceil(gamma * order.length));
+        List<double[]> good = new ArrayList<>(nGood);
+        List<double[]> bad = new ArrayList<>(order.length - nGood);
+        for (int i = 0; i < order.length; i++) {
+            if (i < nGood)
+                good.add(points.get(order[i]));
+            else
+                bad.add(points.get(order[i]));
+        }
+
+        int nDims = parameterSpace.numParameters();
+        Estimator[] l = new Estimator[nDims];
+        Estimator[] g = new Estimator[nDims];
+        for (int d = 0; d < nDims; d++) {
+            l[d] = new Estimator(good, d, dimensionCategories[d]);
+            g[d] = new Estimator(bad, d, dimensionCategories[d]);
+        }
+
+        double[] best = null;
+        double bestScore = -Double.MAX_VALUE;
+        for (int c = 0; c < numEICandidates; c++) {
+            double[] x = new double[nDims];
+            double logRatio = 0.0;
+            for (int d = 0; d < nDims; d++) {
+                x[d] = l[d].sample();
+                logRatio += Math.log(l[d].density(x[d])) - Math.log(g[d].density(x[d]));
+            }
+            if (best == null || logRatio > bestScore) {
+                best = x;
+                bestScore = logRatio;
+            }
+        }
+        return best;
+    }
+
+    private double liarScore() {
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        double sum = 0.0;
+        for (Double d : observedScores) {
+            min = Math.min(min, d);
+            max = Math.max(max, d);
+            sum += d;
+        }
+        switch (liarStrategy) {
+            case MEAN:
+                return sum / observedScores.size();
+            case BEST:
+                return minimize ? min : max;
+            case WORST:
+            default:
+                return minimize ? max : min;
+        }
+    }
+
+    /**
+     * Density estimate for one dimension of one group ("good" or "bad") of points.<br>
+     * Categorical dimensions: category frequencies, with one pseudo-count per category.<br>
+     * Continuous dimensions: mixture of a uniform prior on [0,1] and one Gaussian (truncated to [0,1]) per point,
+     * with each point's bandwidth set by the distance to its neighbours, clipped to [1/min(100, n+1), 1] as in
+     * Bergstra et al.
+     */
+    private class Estimator {
+        private final int categories;
+        private double[] categoryWeights;
+        private double totalWeight;
+        private double[] mus;
+        private double[] sigmas;
+        private double[] truncatedMass;
+
+        private Estimator(List<double[]> points, int d, int categories) {
+            this.categories = categories;
+            int n = points.size();
+            if (categories > 0) {
+                categoryWeights = new double[categories];
+                Arrays.fill(categoryWeights, 1.0);
+                for (double[] p : points)
+                    categoryWeights[Math.min((int) (p[d] * categories), categories - 1)] += 1.0;
+                totalWeight = n + categories;
+                return;
+            }
+
+            mus = new double[n];
+            for (int i = 0; i < n; i++)
+                mus[i] = points.get(i)[d];
+            Arrays.sort(mus);
+
+            //Neighbour distances, including the prior's mean (0.5) as a neighbour
+            double[] withPrior = Arrays.copyOf(mus, n + 1);
+            withPrior[n] = 0.5;
+            Arrays.sort(withPrior);
+            double minSigma = 1.0 / Math.min(100.0, n + 1.0);
+            sigmas = new double[n];
+            truncatedMass = new double[n];
+            for (int i = 0; i < n; i++) {
+                int pos = Arrays.binarySearch(withPrior, mus[i]);
+                double left = pos > 0 ? withPrior[pos] - withPrior[pos - 1] : withPrior[pos];
+                double right = pos < n ? withPrior[pos + 1] - withPrior[pos] : 1.0 - withPrior[pos];
+                sigmas[i] = Math.min(1.0, Math.max(minSigma, Math.max(left, right)));
+                truncatedMass[i] = Math.max(1e-12,
+                                normalCdf((1.0 - mus[i]) / sigmas[i]) - normalCdf(-mus[i] / sigmas[i]));
+            }
+        }
+
+        private double sample() {
+            if (categories > 0) {
+                double r = rng.nextDouble() * totalWeight;
+                int k = 0;
+                while (k < categories - 1 && r >= categoryWeights[k]) {
+                    r -= categoryWeights[k];
+                    k++;
+                }
+                return (k + 0.5) / categories;
+            }
+
+            int component = rng.nextInt(mus.length + 1);
+            if (component == mus.length)
+                return rng.nextDouble();
+            for (int i = 0; i < 100; i++) {
+                double x = mus[component] + sigmas[component] * rng.nextGaussian();
+                if (x >= 0.0 && x <= 1.0)
+                    return x;
+            }
+            return Math.min(1.0, Math.max(0.0, mus[component]));
+        }
+
+        private double density(double x) {
+            if (categories > 0) {
+                int k = Math.min((int) (x * categories), categories - 1);
+                return categoryWeights[k] / totalWeight;
+            }
+
+            double sum = 1.0; //Uniform prior on [0,1]
+            for (int i = 0; i < mus.length; i++) {
+                double z = (x - mus[i]) / sigmas[i];
+                sum += Math.exp(-0.5 * z * z) / (sigmas[i] * Math.sqrt(2 * Math.PI) * truncatedMass[i]);
+            }
+            return sum / (mus.length + 1);
+        }
+    }
+
+    private static double normalCdf(double z) {
+        return 0.5 * (1.0 + Erf.erf(z / Math.sqrt(2.0)));
+    }
+
+    @Override
+    public Class<?> getCandidateType() {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "TPECandidateGenerator(minimize=" + minimize + ",gamma=" + gamma + ",numInitialRandom="
+                        + numInitialRandom + ")";
+    }
+}
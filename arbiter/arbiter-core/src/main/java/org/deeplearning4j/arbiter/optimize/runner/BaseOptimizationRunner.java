@@ -225,15 +225,14 @@ public abstract class BaseOptimizationRunner implements IOptimizationRunner {
 
         //Listeners (on complete, etc) should be executed in underlying task
 
+        //Report completion (or failure) to candidate generator
+        config.getCandidateGenerator().reportResults(result);
 
         if (result.getCandidateInfo().getCandidateStatus() == CandidateStatus.Failed) {
             log.info("Task {} failed during execution: {}", result.getIndex(), result.getCandidateInfo().getExceptionStackTrace());
             numCandidatesFailed.getAndIncrement();
         } else {
 
-            //Report completion to candidate generator
-            config.getCandidateGenerator().reportResults(result);
-
             Double score = result.getScore();
             log.info("Completed task {}, score = {}", result.getIndex(), result.getScore());
 
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize;
+
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.deeplearning4j.arbiter.optimize.api.CandidateGenerator;
+import org.deeplearning4j.arbiter.optimize.api.OptimizationResult;
+import org.deeplearning4j.arbiter.optimize.api.data.DataProvider;
+import org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction;
+import org.deeplearning4j.arbiter.optimize.api.termination.MaxCandidatesCondition;
+import org.deeplearning4j.arbiter.optimize.config.OptimizationConfiguration;
+import org.deeplearning4j.arbiter.optimize.generator.RandomSearchGenerator;
+import org.deeplearning4j.arbiter.optimize.generator.TPECandidateGenerator;
+import org.deeplearning4j.arbiter.optimize.parameter.discrete.DiscreteParameterSpace;
+import org.deeplearning4j.arbiter.optimize.runner.CandidateInfo;
+import org.deeplearning4j.arbiter.optimize.runner.CandidateStatus;
+import org.deeplearning4j.arbiter.optimize.runner.IOptimizationRunner;
+import org.deeplearning4j.arbiter.optimize.runner.LocalOptimizationRunner;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test TPE search on the Branin Function:
+ * http://www.sfu.ca/~ssurjano/branin.html
+ */
+public class TestTPESearch {
+
+    private static double bestScore(CandidateGenerator generator, ScoreFunction scoreFunction, int numCandidates) {
+        double best = Double.MAX_VALUE;
+        for (int i = 0; i < numCandidates; i++) {
+            Candidate c = generator.getCandidate();
+            double score = scoreFunction.score(c.getValue(), (DataProvider) null, null);
+            generator.reportResults(new OptimizationResult(c, score, c.getIndex(), null, null, null));
+            best = Math.min(best, score);
+        }
+        return best;
+    }
+
+    @Test
+    public void testTPEBetterThanRandom() {
+        ScoreFunction sf = new TestGridSearch.BraninScoreFunction();
+        int numCandidates = 60;
+        double sumTpe = 0.0;
+        double sumRandom = 0.0;
+        int numRepeats = 5;
+        for (int r = 0; r < numRepeats; r++) {
+            CandidateGenerator tpe = new TPECandidateGenerator(new TestGridSearch.BraninSpace(), true);
+            tpe.setRngSeed(12345 + r);
+            CandidateGenerator random = new RandomSearchGenerator(new TestGridSearch.BraninSpace());
+            random.setRngSeed(12345 + r);
+
+            sumTpe += bestScore(tpe, sf, numCandidates);
+            sumRandom += bestScore(random, sf, numCandidates);
+        }
+
+        //Global minimum of the Branin function is 0.397887
+        assertTrue("TPE: " + sumTpe / numRepeats + ", random: " + sumRandom / numRepeats, sumTpe < sumRandom);
+        assertTrue(sumTpe / numRepeats < 1.0);
+    }
+
+    @Test
+    public void testDiscrete() {
+        TPECandidateGenerator tpe = new TPECandidateGenerator(new DiscreteParameterSpace<>(0, 1, 2, 3, 4, 5, 6, 7),
+                        null, true, 5, 0.25, 24, TPECandidateGenerator.LiarStrategy.WORST, false);
+        tpe.setRngSeed(12345);
+
+        int countBest = 0;
+        for (int i = 0; i < 40; i++) {
+            Candidate c = tpe.getCandidate();
+            int value = (Integer) c.getValue();
+            if (i >= 20 && value == 3)
+                countBest++;
+            tpe.reportResults(new OptimizationResult(c, (double) Math.abs(value - 3), c.getIndex(), null, null, null));
+        }
+        assertEquals(40, tpe.numObservations());
+        assertEquals(0, tpe.numPending());
+        assertTrue("Best value proposed " + countBest + " of 20 times", countBest >= 10);
+    }
+
+    @Test
+    public void testConstantLiarBatch() {
+        TPECandidateGenerator tpe = new TPECandidateGenerator(new TestGridSearch.BraninSpace(), true);
+        tpe.setRngSeed(12345);
+        bestScore(tpe, new TestGridSearch.BraninScoreFunction(), TPECandidateGenerator.DEFAULT_NUM_INITIAL_RANDOM);
+
+        //Pending candidates are taken into account: a batch should not contain duplicates
+        List<Candidate> batch = tpe.getCandidates(8);
+        assertEquals(8, tpe.numPending());
+        Set<String> seen = new HashSet<>();
+        for (Candidate c : batch) {
+            TestGridSearch.BraninConfig conf = (TestGridSearch.BraninConfig) c.getValue();
+            assertTrue(seen.add(conf.getX1() + "," + conf.getX2()));
+        }
+    }
+
+    @Test
+    public void testFailedCandidateNotPending() {
+        TPECandidateGenerator tpe = new TPECandidateGenerator(new TestGridSearch.BraninSpace(), true);
+        Candidate c = tpe.getCandidate();
+        assertEquals(1, tpe.numPending());
+
+        CandidateInfo info = new CandidateInfo(c.getIndex(), CandidateStatus.Failed, null, 0, 0L, 0L,
+                        c.getFlatParameters(), "Failed");
+        tpe.reportResults(new OptimizationResult(c, null, c.getIndex(), null, info, null));
+        assertEquals(0, tpe.numPending());
+        assertEquals(0, tpe.numObservations());
+    }
+
+    @Test
+    public void testLocalExecution() throws Exception {
+        TPECandidateGenerator tpe = new TPECandidateGenerator(new TestGridSearch.BraninSpace(), true);
+        OptimizationConfiguration configuration = new OptimizationConfiguration.Builder()
+                        .candidateGenerator(tpe).scoreFunction(new TestGridSearch.BraninScoreFunction())
+                        .terminationConditions(new MaxCandidatesCondition(30)).build();
+
+        IOptimizationRunner runner = new LocalOptimizationRunner(4, configuration, new TestGridSearch.BraninTaskCreator());
+        runner.execute();
+
+        assertEquals(30, runner.numCandidatesCompleted());
+        assertEquals(30, tpe.numObservations());
+        assertEquals(0, tpe.numPending());
+    }
+}
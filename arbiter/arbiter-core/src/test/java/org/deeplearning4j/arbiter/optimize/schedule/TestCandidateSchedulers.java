@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.arbiter.optimize.schedule;
+
+import org.deeplearning4j.arbiter.optimize.api.Candidate;
+import org.deeplearning4j.arbiter.optimize.api.schedule.CandidateScheduler;
+import org.deeplearning4j.arbiter.optimize.api.schedule.HyperbandScheduler;
+import org.deeplearning4j.arbiter.optimize.api.schedule.PopulationBasedTrainingScheduler;
+import org.deeplearning4j.arbiter.optimize.api.schedule.SchedulerDecision;
+import org.deeplearning4j.arbiter.optimize.api.schedule.SuccessiveHalvingScheduler;
+import org.deeplearning4j.arbiter.optimize.serde.jackson.JsonMapper;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestCandidateSchedulers {
+
+    private static Candidate<String> candidate(int index) {
+        return new Candidate<>("candidate" + index, index, new double[] {index / 10.0});
+    }
+
+    @Test
+    public void testSuccessiveHalvingRungs() {
+        SuccessiveHalvingScheduler s = new SuccessiveHalvingScheduler(2, 3);
+        Candidate c = candidate(0);
+        assertFalse(s.isCheckpoint(c, 1));
+        assertTrue(s.isCheckpoint(c, 2));
+        assertFalse(s.isCheckpoint(c, 4));
+        assertTrue(s.isCheckpoint(c, 6));
+        assertFalse(s.isCheckpoint(c, 12));
+        assertTrue(s.isCheckpoint(c, 18));
+    }
+
+    @Test
+    public void testSuccessiveHalvingStopsPoorCandidates() {
+        SuccessiveHalvingScheduler s = new SuccessiveHalvingScheduler(1, 2);
+
+        //Too few scores at the rung to compare: continue
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(0), 1, 1.0, true, null).getAction());
+        //Worse than the best half of {1.0, 5.0}: stop
+        assertEquals(SchedulerDecision.Action.STOP, s.onCheckpoint(candidate(1), 1, 5.0, true, null).getAction());
+        //Best so far: continue
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(2), 1, 0.5, true, null).getAction());
+        //Maximizing: higher is better
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(3), 2, 1.0, false, null).getAction());
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(4), 2, 2.0, false, null).getAction());
+        assertEquals(SchedulerDecision.Action.STOP, s.onCheckpoint(candidate(5), 2, Double.NaN, false, null).getAction());
+    }
+
+    @Test
+    public void testHyperbandBrackets() {
+        HyperbandScheduler s = new HyperbandScheduler(1, 2, 3);
+        //Candidates assigned to brackets in turn: first checkpoint after 1, 2 and 4 epochs
+        assertTrue(s.isCheckpoint(candidate(0), 1));
+        assertFalse(s.isCheckpoint(candidate(1), 1));
+        assertTrue(s.isCheckpoint(candidate(1), 2));
+        assertFalse(s.isCheckpoint(candidate(2), 2));
+        assertTrue(s.isCheckpoint(candidate(2), 4));
+        assertTrue(s.isCheckpoint(candidate(3), 1));
+    }
+
+    @Test
+    public void testPopulationBasedTraining() {
+        PopulationBasedTrainingScheduler s =
+                        new PopulationBasedTrainingScheduler(2, 0.5, new double[] {0.5}, 12345);
+        assertFalse(s.isCheckpoint(candidate(0), 1));
+        assertTrue(s.isCheckpoint(candidate(0), 2));
+        assertTrue(s.requiresModelSnapshot(candidate(0), 4));
+
+        Object model0 = "model0";
+        Object model1 = "model1";
+        //Single member population: nothing to exploit
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(0), 2, 1.0, true, model0).getAction());
+
+        //Candidate 1 is worse: exploits candidate 0
+        SchedulerDecision d = s.onCheckpoint(candidate(1), 2, 3.0, true, model1);
+        assertEquals(SchedulerDecision.Action.EXPLOIT, d.getAction());
+        assertEquals(0, d.getDonorIndex());
+        assertSame(model0, d.getDonorModel());
+        assertArrayEquals(candidate(0).getFlatParameters(), d.getDonorFlatParameters(), 0.0);
+        assertEquals(0.5, d.getPerturbationFactor(), 0.0);
+
+        //Candidate 0 is still the best: continues
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(0), 4, 0.5, true, model0).getAction());
+
+        //Once candidate 0 has finished, it can no longer be used as a donor
+        s.onCandidateFinished(candidate(0));
+        assertEquals(SchedulerDecision.Action.CONTINUE, s.onCheckpoint(candidate(1), 4, 3.0, true, model1).getAction());
+    }
+
+    @Test
+    public void testJson() throws Exception {
+        CandidateScheduler[] schedulers = new CandidateScheduler[] {new SuccessiveHalvingScheduler(2, 3),
+                        new HyperbandScheduler(1, 3, 4),
+                        new PopulationBasedTrainingScheduler(2, 0.2, new double[] {0.8, 1.2}, 12345)};
+
+        for (CandidateScheduler s : schedulers) {
+            s.onCheckpoint(candidate(0), 2, 1.0, true, "model");
+
+            String json = JsonMapper.getMapper().writeValueAsString(s);
+            CandidateScheduler fromJson = JsonMapper.getMapper().readValue(json, CandidateScheduler.class);
+            assertEquals(s, fromJson);
+        }
+    }
+}
@@ -32,6 +32,8 @@ import org.deeplearning4j.arbiter.optimize.api.data.DataSource;
 import org.deeplearning4j.arbiter.optimize.api.evaluation.ModelEvaluator;
 import org.deeplearning4j.arbiter.optimize.api.saving.ResultReference;
 import org.deeplearning4j.arbiter.optimize.api.saving.ResultSaver;
+import org.deeplearning4j.arbiter.optimize.api.schedule.CandidateScheduler;
+import org.deeplearning4j.arbiter.optimize.api.schedule.SchedulerDecision;
 import org.deeplearning4j.arbiter.optimize.api.score.ScoreFunction;
 import org.deeplearning4j.arbiter.optimize.runner.CandidateInfo;
 import org.deeplearning4j.arbiter.optimize.runner.CandidateStatus;
@@ -42,12 +44,19 @@ import org.deeplearning4j.earlystopping.EarlyStoppingConfiguration;
 import org.deeplearning4j.earlystopping.EarlyStoppingResult;
 import org.deeplearning4j.earlystopping.trainer.EarlyStoppingGraphTrainer;
 import org.deeplearning4j.nn.api.Model;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.graph.GraphVertex;
+import org.deeplearning4j.nn.conf.graph.LayerVertex;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.Layer;
 import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.function.BiConsumer;
 import org.nd4j.linalg.function.BiFunction;
+import org.nd4j.linalg.learning.config.IUpdater;
 
 import java.io.IOException;
 import java.util.List;
@@ -155,6 +164,10 @@ public class ComputationGraphTaskCreator implements TaskCreator {
                         null, null, candidate.getFlatParameters(), stackTrace);
                 return new OptimizationResult(candidate, null, candidate.getIndex(), null, ci, null);
             }  finally {
+                CandidateScheduler scheduler = getScheduler();
+                if (scheduler != null) {
+                    scheduler.onCandidateFinished(candidate);
+                }
                 //Destroy workspaces to free memory
                 Nd4j.getWorkspaceManager().destroyAllWorkspacesForCurrentThread();
                 System.gc();
@@ -219,8 +232,30 @@ public class ComputationGraphTaskCreator implements TaskCreator {
             } else {
                 //Fixed number of epochs
                 int nEpochs = ((GraphConfiguration) candidate.getValue()).getNumEpochs();
+                CandidateScheduler scheduler = getScheduler();
                 for (int i = 0; i < nEpochs; i++) {
                     net.fit(iterator);
+
+                    //Successive halving, population based training etc: check with the scheduler at checkpoints
+                    if (scheduler != null && i + 1 < nEpochs && scheduler.isCheckpoint(candidate, i + 1)) {
+                        Object snapshot = scheduler.requiresModelSnapshot(candidate, i + 1) ? net.clone() : null;
+                        SchedulerDecision decision = scheduler.onCheckpoint(candidate, i + 1, calculateScore(net),
+                                scoreFunction.minimize(), snapshot);
+                        if (decision.getAction() == SchedulerDecision.Action.STOP) {
+                            log.info("Candidate {} stopped by scheduler after {} epochs", candidate.getIndex(), i + 1);
+                            break;
+                        } else if (decision.getAction() == SchedulerDecision.Action.EXPLOIT) {
+                            ComputationGraph donor = (ComputationGraph) decision.getDonorModel();
+                            net = exploit(net, donor, decision.getPerturbationFactor());
+                            //Later scores and the result belong to the donor's (perturbed) hyperparameters
+                            GraphConfiguration conf = (GraphConfiguration) candidate.getValue();
+                            GraphConfiguration exploited = new GraphConfiguration(net.getConfiguration().clone(),
+                                    conf.getEarlyStoppingConfiguration(), conf.getNumEpochs());
+                            candidate = new Candidate<>(exploited, candidate.getIndex(),
+                                    decision.getDonorFlatParameters(), candidate.getDataParameters(), null);
+                            ci.setFlatParams(candidate.getFlatParameters());
+                        }
+                    }
                 }
                 ci.setCandidateStatus(CandidateStatus.Complete);
             }
@@ -234,11 +269,7 @@ public class ComputationGraphTaskCreator implements TaskCreator {
 
             Double score = null;
             if (net != null) {
-                if(dataSource != null){
-                    score = scoreFunction.score(net, dataSource, dataSourceProperties);
-                } else {
-                    score = scoreFunction.score(net, dataProvider, candidate.getDataParameters());
-                }
+                score = calculateScore(net);
                 ci.setScore(score);
             }
 
@@ -262,5 +293,60 @@ public class ComputationGraphTaskCreator implements TaskCreator {
             result.setResultReference(resultReference);
             return result;
         }
+
+        private CandidateScheduler getScheduler() {
+            if (runner == null || runner.getConfiguration() == null)
+                return null;
+            return runner.getConfiguration().getCandidateScheduler();
+        }
+
+        private double calculateScore(ComputationGraph net) {
+            if (dataSource != null) {
+                return scoreFunction.score(net, dataSource, dataSourceProperties);
+            } else {
+                return scoreFunction.score(net, dataProvider, candidate.getDataParameters());
+            }
+        }
+
+        /**
+         * Continue training from a copy of the donor's model - configuration, weights and updater state - with
+         * perturbed learning rates. The donor model is shared with other tasks, and is not modified
+         * @return The network to continue training
+         */
+        private ComputationGraph exploit(ComputationGraph net, ComputationGraph donor, double perturbationFactor) {
+            //Copy the donor's configuration before perturbing it: clones of the donor would share the updater configs
+            String donorJson = donor.getConfiguration().toJson();
+            ComputationGraphConfiguration conf = ComputationGraphConfiguration.fromJson(donorJson);
+            for (GraphVertex v : conf.getVertices().values()) {
+                if (v instanceof LayerVertex) {
+                    perturbLearningRate(((LayerVertex) v).getLayerConf().getLayer(), perturbationFactor,
+                            conf.getIterationCount(), conf.getEpochCount());
+                }
+            }
+            ComputationGraph exploited = new ComputationGraph(conf);
+            exploited.init(donor.params(), true);
+            INDArray donorState = donor.getUpdater(false) == null ? null : donor.getUpdater(false).getStateViewArray();
+            if (donorState != null) {
+                exploited.getUpdater(true).getStateViewArray().assign(donorState);
+            }
+            exploited.setListeners(net.getListeners());
+            return exploited;
+        }
+
+        /**
+         * Multiply the (current) learning rate of the layer's updater by the perturbation factor. As when setting the
+         * learning rate of a network, any learning rate schedule is replaced by the new fixed learning rate
+         */
+        private void perturbLearningRate(Layer layer, double perturbationFactor, int iteration, int epoch) {
+            if (!(layer instanceof BaseLayer))
+                return;
+            IUpdater u = ((BaseLayer) layer).getIUpdater();
+            if (u != null && u.hasLearningRate()) {
+                double lr = u.getLearningRate(iteration, epoch);
+                if (!Double.isNaN(lr)) {
+                    u.setLrAndSchedule(lr * perturbationFactor, null);
+                }
+            }
+        }
     }
 }
@@ -16,6 +16,7 @@
 
 package org.datavec.api.transform.analysis;
 
+import com.tdunning.math.stats.TDigest;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.analysis.columns.*;
 import org.datavec.api.transform.analysis.counter.*;
@@ -60,6 +61,56 @@ public class DataVecAnalysisUtils {
     }
 
 
+    /**
+     * Set approximate histograms for the numerical columns (Integer, Long, Double and Time), computed from the
+     * t-digest of each column. This avoids a second pass over the data, at the cost of the bucket counts being
+     * approximate. Bucket boundaries are the same as for exact histograms.
+     *
+     * @param columnAnalysis      Column analysis to set the histograms for
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @return True if all columns that have histograms were handled; false if an exact pass is still required
+     * (String and NDArray columns)
+     */
+    public static boolean histogramsFromDigests(List<ColumnAnalysis> columnAnalysis, int maxHistogramBuckets) {
+        boolean allHandled = true;
+        for (ColumnAnalysis ca : columnAnalysis) {
+            if (ca instanceof StringAnalysis || ca instanceof NDArrayAnalysis) {
+                allHandled = false;
+                continue;
+            }
+            if (!(ca instanceof NumericalColumnAnalysis))
+                continue;
+
+            NumericalColumnAnalysis nca = (NumericalColumnAnalysis) ca;
+            TDigest digest = nca.getDigest();
+            if (digest == null || nca.getCountTotal() == 0)
+                continue;
+
+            double min = nca.getMinDouble();
+            double max = nca.getMaxDouble();
+            double[] bins = new double[maxHistogramBuckets + 1];
+            double step = (max - min) / maxHistogramBuckets;
+            for (int i = 0; i < bins.length; i++) {
+                bins[i] = (i == bins.length - 1 ? max : min + i * step);
+            }
+
+            //Counts from the differences of the (rounded) cumulative counts, so that they sum to the total count
+            long total = nca.getCountTotal();
+            long[] counts = new long[maxHistogramBuckets];
+            long prev = 0;
+            for (int i = 0; i < maxHistogramBuckets; i++) {
+                long cumulative = (i == maxHistogramBuckets - 1 ? total
+                                : Math.min(total, Math.max(prev, Math.round(digest.cdf(bins[i + 1]) * total))));
+                counts[i] = cumulative - prev;
+                prev = cumulative;
+            }
+
+            nca.setHistogramBuckets(bins);
+            nca.setHistogramBucketCounts(counts);
+        }
+        return allHandled;
+    }
+
     public static List<ColumnAnalysis> convertCounters(List<AnalysisCounter> counters, double[][] minsMaxes, List<ColumnType> columnTypes){
         int nColumns = columnTypes.size();
 
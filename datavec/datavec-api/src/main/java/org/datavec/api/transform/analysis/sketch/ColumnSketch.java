@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.datavec.api.transform.analysis.sketch;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+import com.clearspring.analytics.stream.frequency.CountMinSketch;
+import org.datavec.api.writable.Writable;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * A mergeable, fixed-size summary of the values in a single column. Unlike collecting the set of unique values
+ * (which requires memory proportional to the number of distinct values) the memory used by a ColumnSketch is
+ * bounded, and sketches computed on different subsets of the data (on different threads, or on different Spark
+ * partitions) can be merged.<br>
+ * Contains:<br>
+ * - A HyperLogLog++ sketch, for estimating the number of distinct values (see {@link #getCardinality()})<br>
+ * - A count-min sketch, along with a bounded set of candidate values, for estimating the most frequent values and
+ * their counts (see {@link #getTopK()}). Counts are never underestimated; with the default settings they are
+ * overestimated by at most 0.1% of the total count, with 99% probability.<br>
+ * Quantiles for numerical columns are already available from the (mergeable) t-digest in the column analysis.
+ */
+public class ColumnSketch implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_TOP_K = 10;
+    public static final double DEFAULT_RELATIVE_SD = 0.01;
+    public static final double DEFAULT_COUNT_EPSILON = 1e-3;
+    public static final double DEFAULT_COUNT_CONFIDENCE = 0.99;
+    private static final int COUNT_MIN_SEED = 12345;
+
+    private final int topK;
+    private final int maxCandidates;
+    private final HyperLogLogPlus hll;
+    private transient CountMinSketch countMin;
+    private Map<Writable, Long> candidates = new HashMap<>();
+    private long countTotal;
+
+    public ColumnSketch() {
+        this(DEFAULT_TOP_K);
+    }
+
+    /**
+     * @param topK Number of most frequent values to track
+     */
+    public ColumnSketch(int topK) {
+        this(topK, DEFAULT_RELATIVE_SD, DEFAULT_COUNT_EPSILON, DEFAULT_COUNT_CONFIDENCE);
+    }
+
+    /**
+     * @param topK            Number of most frequent values to track
+     * @param relativeSD      Relative standard deviation for the cardinality estimate
+     * @param countEpsilon    Maximum overestimation of the frequency counts, as a fraction of the total count
+     * @param countConfidence Probability that the frequency counts are within the countEpsilon bound
+     */
+    public ColumnSketch(int topK, double relativeSD, double countEpsilon, double countConfidence) {
+        if (topK <= 0)
+            throw new IllegalArgumentException("topK must be > 0, got " + topK);
+        this.topK = topK;
+        //Candidates beyond the top K make the top K values more robust to the order in which values were seen
+        this.maxCandidates = Math.max(4 * topK, 64);
+        //See StringQuality for the precision calculation
+        this.hll = new HyperLogLogPlus((int) Math.ceil(2.0 * Math.log(1.054 / relativeSD) / Math.log(2)), 0);
+        this.countMin = new CountMinSketch(countEpsilon, countConfidence, COUNT_MIN_SEED);
+    }
+
+    /**
+     * Add a value to the sketch
+     */
+    public ColumnSketch add(Writable w) {
+        String s = w.toString();
+        hll.offer(s);
+        countMin.add(s, 1);
+        countTotal++;
+
+        Long current = candidates.get(w);
+        if (current != null) {
+            candidates.put(w, current + 1);
+        } else {
+            candidates.put(w, countMin.estimateCount(s));
+            if (candidates.size() > 2 * maxCandidates) {
+                pruneCandidates();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Merge another sketch into this one. Both sketches must have been created with the same configuration.
+     * The other sketch is not modified.
+     */
+    public ColumnSketch merge(ColumnSketch other) {
+        if (other == null)
+            return this;
+        try {
+            hll.addAll(other.hll);
+            countMin = CountMinSketch.merge(countMin, other.countMin);
+        } catch (Exception e) {
+            throw new IllegalStateException("Cannot merge column sketches: sketches have different configurations", e);
+        }
+        countTotal += other.countTotal;
+
+        //Re-estimate all candidates using the merged count-min sketch: a value may be frequent overall, but only
+        //have been a candidate in one of the sketches
+        Set<Writable> all = new HashSet<>(candidates.keySet());
+        all.addAll(other.candidates.keySet());
+        Map<Writable, Long> merged = new HashMap<>();
+        for (Writable w : all) {
+            merged.put(w, countMin.estimateCount(w.toString()));
+        }
+        candidates = merged;
+        if (candidates.size() > maxCandidates) {
+            pruneCandidates();
+        }
+        return this;
+    }
+
+    /**
+     * @return Estimate of the number of distinct values in the column
+     */
+    public long getCardinality() {
+        return hll.cardinality();
+    }
+
+    /**
+     * @return Total number of values added to the sketch
+     */
+    public long getCountTotal() {
+        return countTotal;
+    }
+
+    /**
+     * @return The (approximately) most frequent values, in descending order of their estimated counts, along with
+     * the estimated counts
+     */
+    public Map<Writable, Long> getTopK() {
+        List<Map.Entry<Writable, Long>> entries = sortedCandidates();
+        Map<Writable, Long> out = new LinkedHashMap<>();
+        for (int i = 0; i < entries.size() && i < topK; i++) {
+            out.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return out;
+    }
+
+    private void pruneCandidates() {
+        List<Map.Entry<Writable, Long>> entries = sortedCandidates();
+        Map<Writable, Long> pruned = new HashMap<>();
+        for (int i = 0; i < maxCandidates && i < entries.size(); i++) {
+            pruned.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        candidates = pruned;
+    }
+
+    private List<Map.Entry<Writable, Long>> sortedCandidates() {
+        List<Map.Entry<Writable, Long>> entries = new ArrayList<>(candidates.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<Writable, Long>>() {
+            @Override
+            public int compare(Map.Entry<Writable, Long> o1, Map.Entry<Writable, Long> o2) {
+                return Long.compare(o2.getValue(), o1.getValue());
+            }
+        });
+        return entries;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        //CountMinSketch is not Serializable
+        byte[] bytes = CountMinSketch.serialize(countMin);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        countMin = CountMinSketch.deserialize(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnSketch(countTotal=" + countTotal + ", cardinality=" + getCardinality() + ", topK=" + getTopK()
+                        + ")";
+    }
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.datavec.api.transform.ColumnType;
+import org.datavec.api.transform.schema.Schema;
+import org.datavec.api.writable.Writable;
+import org.nd4j.linalg.function.BiFunction;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Add function for computing a {@link ColumnSketch} for each column. Bytes and NDArray columns are not sketched
+ * (their sketch is null).
+ * Used with {@link ColumnSketchCombineFunction}, both locally and on Spark
+ */
+public class ColumnSketchAddFunction
+                implements BiFunction<List<ColumnSketch>, List<Writable>, List<ColumnSketch>>, Serializable {
+
+    private final Schema schema;
+    private final int topK;
+
+    public ColumnSketchAddFunction(Schema schema) {
+        this(schema, ColumnSketch.DEFAULT_TOP_K);
+    }
+
+    /**
+     * @param schema Schema of the data
+     * @param topK   Number of most frequent values to track for each column
+     */
+    public ColumnSketchAddFunction(Schema schema, int topK) {
+        this.schema = schema;
+        this.topK = topK;
+    }
+
+    @Override
+    public List<ColumnSketch> apply(List<ColumnSketch> sketches, List<Writable> writables) {
+        if (sketches == null) {
+            sketches = new ArrayList<>();
+            for (ColumnType ct : schema.getColumnTypes()) {
+                if (ct == ColumnType.Bytes || ct == ColumnType.NDArray) {
+                    sketches.add(null);
+                } else {
+                    sketches.add(new ColumnSketch(topK));
+                }
+            }
+        }
+
+        int size = sketches.size();
+        if (size != writables.size())
+            throw new IllegalStateException("Writables list and number of sketches does not match (" + writables.size()
+                            + " vs " + size + ")");
+        for (int i = 0; i < size; i++) {
+            ColumnSketch cs = sketches.get(i);
+            if (cs != null)
+                cs.add(writables.get(i));
+        }
+        return sketches;
+    }
+}
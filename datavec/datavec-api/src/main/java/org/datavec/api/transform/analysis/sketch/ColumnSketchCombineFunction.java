@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.datavec.api.transform.analysis.sketch;
+
+import org.nd4j.linalg.function.BiFunction;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combine function for merging per-column {@link ColumnSketch} lists, as produced by {@link ColumnSketchAddFunction}
+ */
+public class ColumnSketchCombineFunction
+                implements BiFunction<List<ColumnSketch>, List<ColumnSketch>, List<ColumnSketch>>, Serializable {
+    @Override
+    public List<ColumnSketch> apply(List<ColumnSketch> l1, List<ColumnSketch> l2) {
+        if (l1 == null)
+            return l2;
+        if (l2 == null)
+            return l1;
+
+        int size = l1.size();
+        if (size != l2.size())
+            throw new IllegalStateException("List lengths differ");
+
+        List<ColumnSketch> out = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ColumnSketch c1 = l1.get(i);
+            ColumnSketch c2 = l2.get(i);
+            out.add(c1 == null ? c2 : c1.merge(c2));
+        }
+        return out;
+    }
+}
@@ -41,6 +41,7 @@ import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataJdbc;
 import org.datavec.api.records.reader.BaseRecordReader;
 import org.datavec.api.split.InputSplit;
+import org.datavec.api.util.jdbc.JdbcColumnBatch;
 import org.datavec.api.util.jdbc.JdbcWritableConverter;
 import org.datavec.api.util.jdbc.ResettableResultSetIterator;
 import org.datavec.api.writable.Writable;
@@ -63,6 +64,8 @@ public class JDBCRecordReader extends BaseRecordReader {
     @Setter
     private int resultSetType = ResultSet.TYPE_SCROLL_INSENSITIVE;
     @Setter
+    private int fetchSize = 0;
+    @Setter
     private DataSource dataSource;
     private final String metadataQuery;
     private final int[] metadataIndices;
@@ -73,6 +76,7 @@ public class JDBCRecordReader extends BaseRecordReader {
     public final static String JDBC_USERNAME = NAME_SPACE + ".jdbcUsername";
     public final static String JDBC_PASSWORD = NAME_SPACE + ".jdbcPassword";
     public final static String JDBC_RESULTSET_TYPE = NAME_SPACE + ".resultSetType";
+    public final static String JDBC_FETCH_SIZE = NAME_SPACE + ".fetchSize";
 
     /**
      * Build a new JDBCRecordReader with a given query. After constructing the reader in this way, the initialize method
@@ -139,6 +143,9 @@ public class JDBCRecordReader extends BaseRecordReader {
      *     <li>JDBCRecordReader.JDBC_DRIVER_CLASS_NAME : Driver class to use for datasource configuration</li>
      *     <li>JDBCRecordReader.JDBC_USERNAME && JDBC_PASSWORD : Username and password to use for datasource configuration</li>
      *     <li>JDBCRecordReader.JDBC_RESULTSET_TYPE : ResultSet type to use (int value defined in jdbc doc)</li>
+     *     <li>JDBCRecordReader.JDBC_FETCH_SIZE : Number of rows the driver should fetch from the database at a time
+     *     (0, the default, leaves the choice to the driver). Combined with ResultSet.TYPE_FORWARD_ONLY, this allows
+     *     most drivers to stream large results instead of loading them entirely into memory</li>
      * </ol>
      *
      * Url and driver class name are not mandatory. If one of them is specified, the other must be specified as well. If
@@ -153,6 +160,7 @@ public class JDBCRecordReader extends BaseRecordReader {
         this.setConf(conf);
         this.setTrimStrings(conf.getBoolean(TRIM_STRINGS, trimStrings));
         this.setResultSetType(conf.getInt(JDBC_RESULTSET_TYPE, resultSetType));
+        this.setFetchSize(conf.getInt(JDBC_FETCH_SIZE, fetchSize));
 
         String jdbcUrl = conf.get(JDBC_URL);
         String driverClassName = conf.get(JDBC_DRIVER_CLASS_NAME);
@@ -175,6 +183,9 @@ public class JDBCRecordReader extends BaseRecordReader {
             this.conn = dataSource.getConnection();
             this.statement = conn.createStatement(this.resultSetType, ResultSet.CONCUR_READ_ONLY);
             this.statement.closeOnCompletion();
+            if (fetchSize > 0) {
+                this.statement.setFetchSize(fetchSize);
+            }
             ResultSet rs = statement.executeQuery(this.query);
             this.meta = rs.getMetaData();
             this.iter = new ResettableResultSetIterator(rs);
@@ -217,6 +228,26 @@ public class JDBCRecordReader extends BaseRecordReader {
         return iter.hasNext();
     }
 
+    /**
+     * Read up to maxRows rows as a single batch, stored column by column as primitive arrays. This avoids creating
+     * one Writable per value, and is considerably faster than {@link #next()} when extracting large tables.
+     * Batches and single records may be interleaved; each row is returned exactly once.
+     *
+     * @param maxRows Maximum number of rows in the batch
+     * @return Batch of rows. May have fewer than maxRows rows if the end of the results is reached
+     */
+    public JdbcColumnBatch nextColumnBatch(int maxRows) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("Invalid number of rows: must be positive, got " + maxRows);
+        }
+        try {
+            return JdbcColumnBatch.read(iter, meta, maxRows, trimStrings);
+        } catch (SQLException e) {
+            closeJdbc();
+            throw new RuntimeException("Error reading column batch from database", e);
+        }
+    }
+
     @Override
     public List<String> getLabels() {
         throw new UnsupportedOperationException("JDBCRecordReader does not support getLabels yet");
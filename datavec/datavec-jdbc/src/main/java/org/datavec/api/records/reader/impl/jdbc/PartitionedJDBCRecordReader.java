@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.datavec.api.records.reader.impl.jdbc;
+
+import com.zaxxer.hikari.util.DriverDataSource;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.sql.DataSource;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.dbutils.DbUtils;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.Record;
+import org.datavec.api.records.metadata.RecordMetaData;
+import org.datavec.api.records.reader.BaseRecordReader;
+import org.datavec.api.split.InputSplit;
+import org.datavec.api.writable.Writable;
+
+/**
+ * Reads the rows of a JDBC query in parallel, using one connection per partition.<br>
+ * The query is split on an integer key column, either into contiguous ranges of key values between the minimum and
+ * maximum key ({@link PartitionType#RANGE}, best for dense keys such as auto-increment ids), or by key modulo the
+ * number of partitions ({@link PartitionType#HASH}, robust to gaps and skew in the key values). Each partition is read
+ * by a {@link JDBCRecordReader} on its own thread, with a forward-only cursor and the configured fetch size, and the
+ * converted records are handed over through a bounded queue.<br>
+ * Rows with a NULL key are read by the first partition.<br>
+ * Note that records from different partitions are interleaved: the order of the records is not deterministic.
+ * The query must be usable as a derived table, i.e., "SELECT * FROM (query) t WHERE ..." must be valid SQL.
+ */
+@Slf4j
+public class PartitionedJDBCRecordReader extends BaseRecordReader {
+
+    public enum PartitionType {
+        RANGE, HASH
+    }
+
+    public final static String NUM_PARTITIONS = NAME_SPACE + ".numPartitions";
+    public final static String PARTITION_TYPE = NAME_SPACE + ".partitionType";
+    public final static String QUEUE_SIZE = NAME_SPACE + ".queueSize";
+
+    private static final List<Writable> END = new ArrayList<>(0);
+
+    private final String query;
+    private final String keyColumn;
+    @Setter
+    private int numPartitions;
+    @Setter
+    private PartitionType partitionType = PartitionType.RANGE;
+    @Setter
+    private boolean trimStrings = false;
+    @Setter
+    private int fetchSize = 1000;
+    @Setter
+    private int queueSize = 1024;
+    @Setter
+    private DataSource dataSource;
+    private Configuration configuration;
+
+    private List<String> partitionQueries;
+    private BlockingQueue<List<Writable>> queue;
+    private Thread[] threads;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private volatile boolean shutdown;
+    private int numFinished;
+    private List<Writable> next;
+
+    /**
+     * Build a new PartitionedJDBCRecordReader. After constructing the reader in this way, the initialize method must
+     * be called and provided with configuration values for the datasource initialization.
+     *
+     * @param query         Query to execute
+     * @param keyColumn     Name of the integer column (in the query results) used to partition the query
+     * @param numPartitions Number of partitions, i.e., number of connections and threads used to read the query
+     */
+    public PartitionedJDBCRecordReader(String query, String keyColumn, int numPartitions) {
+        this(query, keyColumn, numPartitions, null);
+    }
+
+    /**
+     * @param query         Query to execute
+     * @param keyColumn     Name of the integer column (in the query results) used to partition the query
+     * @param numPartitions Number of partitions, i.e., number of connections and threads used to read the query
+     * @param dataSource    Initialized DataSource. Must be able to provide numPartitions concurrent connections
+     */
+    public PartitionedJDBCRecordReader(String query, String keyColumn, int numPartitions, DataSource dataSource) {
+        this.query = query;
+        this.keyColumn = keyColumn;
+        this.numPartitions = numPartitions;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Initialize all required jdbc elements and start reading.
+     *
+     * @param split not handled yet, will be discarded
+     */
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        if (dataSource == null) {
+            throw new IllegalStateException("Cannot initialize : no datasource");
+        }
+        if (numPartitions <= 0) {
+            throw new IllegalStateException("Invalid number of partitions: must be positive, got " + numPartitions);
+        }
+        this.partitionQueries = partitionQueries();
+        start();
+    }
+
+    /**
+     * Initialize all required jdbc elements and start reading.<br>
+     * Supports the same configuration keys as {@link JDBCRecordReader#initialize(Configuration, InputSplit)} (except
+     * for the ResultSet type: forward-only cursors are always used), plus:
+     * <ol>
+     *     <li>PartitionedJDBCRecordReader.NUM_PARTITIONS : Number of partitions/connections</li>
+     *     <li>PartitionedJDBCRecordReader.PARTITION_TYPE : RANGE or HASH</li>
+     *     <li>PartitionedJDBCRecordReader.QUEUE_SIZE : Maximum number of records read ahead of the consumer</li>
+     * </ol>
+     *
+     * @param conf a configuration for initialization
+     * @param split not handled yet, will be discarded
+     */
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        this.setConf(conf);
+        this.setTrimStrings(conf.getBoolean(JDBCRecordReader.TRIM_STRINGS, trimStrings));
+        this.setFetchSize(conf.getInt(JDBCRecordReader.JDBC_FETCH_SIZE, fetchSize));
+        this.setNumPartitions(conf.getInt(NUM_PARTITIONS, numPartitions));
+        this.setQueueSize(conf.getInt(QUEUE_SIZE, queueSize));
+        String type = conf.get(PARTITION_TYPE);
+        if (type != null) {
+            this.setPartitionType(PartitionType.valueOf(type.toUpperCase()));
+        }
+
+        String jdbcUrl = conf.get(JDBCRecordReader.JDBC_URL);
+        String driverClassName = conf.get(JDBCRecordReader.JDBC_DRIVER_CLASS_NAME);
+        // url and driver must be both unset or both present
+        if (jdbcUrl == null ^ driverClassName == null) {
+            throw new IllegalArgumentException(
+                "Both jdbc url and driver class name must be provided in order to configure PartitionedJDBCRecordReader's datasource");
+        } else if (jdbcUrl != null) {
+            this.dataSource = new DriverDataSource(jdbcUrl, driverClassName, new Properties(),
+                conf.get(JDBCRecordReader.JDBC_USERNAME), conf.get(JDBCRecordReader.JDBC_PASSWORD));
+        }
+        this.initialize(split);
+    }
+
+    /**
+     * @return The queries executed for each partition
+     */
+    public List<String> getPartitionQueries() {
+        return partitionQueries;
+    }
+
+    private List<String> partitionQueries() {
+        String base = "SELECT * FROM (" + query + ") t WHERE ";
+        //Comparisons with NULL are never true: rows with a NULL key are added to the first partition explicitly
+        String nullKey = " OR t." + keyColumn + " IS NULL";
+        List<String> out = new ArrayList<>(numPartitions);
+        if (partitionType == PartitionType.HASH) {
+            for (int i = 0; i < numPartitions; i++) {
+                String condition = "ABS(MOD(t." + keyColumn + ", " + numPartitions + ")) = " + i;
+                out.add(base + (i == 0 ? "(" + condition + nullKey + ")" : condition));
+            }
+            return out;
+        }
+
+        Connection conn = null;
+        Statement stmt = null;
+        try {
+            conn = dataSource.getConnection();
+            stmt = conn.createStatement();
+            ResultSet rs = stmt.executeQuery(
+                "SELECT MIN(t." + keyColumn + "), MAX(t." + keyColumn + ") FROM (" + query + ") t");
+            rs.next();
+            long min = rs.getLong(1);
+            boolean empty = rs.wasNull();
+            long max = rs.getLong(2);
+            if (empty) {
+                //No rows, or only rows with a NULL key: a single partition returns all results
+                out.add(query);
+                return out;
+            }
+
+            long span = max - min + 1;
+            if (span <= 0) {
+                throw new IllegalStateException("Key range too large for range partitioning: [" + min + ", " + max
+                    + "]. Use hash partitioning instead");
+            }
+            int n = (int) Math.min(numPartitions, span);
+            long step = span / n;
+            long rem = span % n;
+            long lower = min;
+            for (int i = 0; i < n; i++) {
+                long upper = lower + step + (i < rem ? 1 : 0);
+                String condition;
+                if (i == n - 1) {
+                    condition = "t." + keyColumn + " >= " + lower + " AND t." + keyColumn + " <= " + max;
+                } else {
+                    condition = "t." + keyColumn + " >= " + lower + " AND t." + keyColumn + " < " + upper;
+                }
+                out.add(base + (i == 0 ? "(" + condition + nullKey + ")" : condition));
+                lower = upper;
+            }
+            return out;
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not determine range of key column \"" + keyColumn + "\"", e);
+        } finally {
+            DbUtils.closeQuietly(stmt);
+            DbUtils.closeQuietly(conn);
+        }
+    }
+
+    private void start() {
+        shutdown = false;
+        error.set(null);
+        numFinished = 0;
+        next = null;
+        queue = new ArrayBlockingQueue<>(queueSize);
+        threads = new Thread[partitionQueries.size()];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new PartitionReader(partitionQueries.get(i)),
+                "PartitionedJDBCRecordReader-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    private void stop() {
+        shutdown = true;
+        if (threads != null) {
+            for (Thread t : threads) {
+                t.interrupt();
+            }
+            for (Thread t : threads) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            threads = null;
+        }
+        if (queue != null) {
+            queue.clear();
+        }
+    }
+
+    private void checkError() {
+        Throwable t = error.get();
+        if (t != null) {
+            stop();
+            throw new RuntimeException("Error reading partition from database", t);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (threads == null) {
+            return false;
+        }
+        while (numFinished < threads.length) {
+            checkError();
+            List<Writable> l;
+            try {
+                l = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for records", e);
+            }
+            if (l == null) {
+                continue;
+            }
+            if (l == END) {
+                numFinished++;
+                continue;
+            }
+            next = l;
+            return true;
+        }
+        checkError();
+        return false;
+    }
+
+    @Override
+    public List<Writable> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more records");
+        }
+        List<Writable> out = next;
+        next = null;
+        invokeListeners(out);
+        return out;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        throw new UnsupportedOperationException("PartitionedJDBCRecordReader does not support getLabels yet");
+    }
+
+    /**
+     * Reset the reader: the partition queries are executed again. Note that as records from different partitions
+     * are interleaved, the order of the records will usually differ between epochs
+     */
+    @Override
+    public void reset() {
+        if (partitionQueries == null) {
+            throw new IllegalStateException("Cannot reset: reader has not been initialized");
+        }
+        stop();
+        start();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    @Override
+    public List<Writable> record(URI uri, DataInputStream dataInputStream) throws IOException {
+        throw new UnsupportedOperationException(
+            "PartitionedJDBCRecordReader does not support reading from a DataInputStream");
+    }
+
+    @Override
+    public Record nextRecord() {
+        return new org.datavec.api.records.impl.Record(next(), null);
+    }
+
+    @Override
+    public Record loadFromMetaData(RecordMetaData recordMetaData) throws IOException {
+        throw new UnsupportedOperationException("PartitionedJDBCRecordReader does not support loading from metadata");
+    }
+
+    @Override
+    public List<Record> loadFromMetaData(List<RecordMetaData> recordMetaDatas) throws IOException {
+        throw new UnsupportedOperationException("PartitionedJDBCRecordReader does not support loading from metadata");
+    }
+
+    /**
+     * Stops the reader threads and closes their JDBC connections
+     */
+    @Override
+    public void close() throws IOException {
+        stop();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.configuration = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return this.configuration;
+    }
+
+    private class PartitionReader implements Runnable {
+        private final String partitionQuery;
+
+        private PartitionReader(String partitionQuery) {
+            this.partitionQuery = partitionQuery;
+        }
+
+        @Override
+        public void run() {
+            JDBCRecordReader reader = new JDBCRecordReader(partitionQuery, dataSource);
+            reader.setTrimStrings(trimStrings);
+            reader.setResultSetType(ResultSet.TYPE_FORWARD_ONLY);
+            reader.setFetchSize(fetchSize);
+            try {
+                reader.initialize(null);
+                while (!shutdown && reader.hasNext()) {
+                    queue.put(reader.next());
+                }
+                if (!shutdown) {
+                    queue.put(END);
+                }
+            } catch (InterruptedException e) {
+                //Reader was closed or reset
+            } catch (Throwable t) {
+                log.error("Error reading partition: {}", partitionQuery, t);
+                error.compareAndSet(null, t);
+            } finally {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    log.warn("Error closing JDBC connection", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.datavec.api.util.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import lombok.Getter;
+
+/**
+ * A batch of rows from a JDBC ResultSet, stored column by column as primitive arrays instead of one Writable per
+ * value. Column types are mapped in the same way as {@link JdbcWritableConverter}:
+ * <ul>
+ *     <li>DOUBLE, DECIMAL, NUMERIC: double[]</li>
+ *     <li>FLOAT, REAL: float[]</li>
+ *     <li>INTEGER, SMALLINT, TINYINT: int[]</li>
+ *     <li>BIGINT: long[]</li>
+ *     <li>BOOLEAN, BIT: boolean[]</li>
+ *     <li>DATE, TIME, TIMESTAMP and character types: String[]</li>
+ * </ul>
+ * SQL NULL values are recorded in {@link #isNull(int, int)}; the corresponding array entry is 0, false or null.
+ */
+@Getter
+public class JdbcColumnBatch {
+
+    private final String[] columnNames;
+    private final int[] columnTypes;
+    private final Object[] columns;
+    private final boolean[][] nulls;
+    private final int numRows;
+
+    private JdbcColumnBatch(String[] columnNames, int[] columnTypes, Object[] columns, boolean[][] nulls,
+                    int numRows) {
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.columns = columns;
+        this.nulls = nulls;
+        this.numRows = numRows;
+    }
+
+    /**
+     * Read up to maxRows rows from the iterator into a new batch. The returned batch may contain fewer rows than
+     * requested (including zero) if the result set is exhausted.
+     *
+     * @param iter        Iterator to read rows from
+     * @param meta        Metadata of the underlying result set
+     * @param maxRows     Maximum number of rows to read
+     * @param trimStrings Whether string values should be trimmed
+     * @return The batch of rows
+     */
+    public static JdbcColumnBatch read(ResettableResultSetIterator iter, ResultSetMetaData meta, int maxRows,
+                    boolean trimStrings) throws SQLException {
+        int numColumns = meta.getColumnCount();
+        String[] names = new String[numColumns];
+        int[] types = new int[numColumns];
+        Object[] columns = new Object[numColumns];
+        boolean[][] nulls = new boolean[numColumns][maxRows];
+        for (int i = 0; i < numColumns; i++) {
+            names[i] = meta.getColumnLabel(i + 1);
+            types[i] = meta.getColumnType(i + 1);
+            columns[i] = allocate(types[i], maxRows);
+        }
+
+        int row = 0;
+        while (row < maxRows && iter.hasNext()) {
+            ResultSet rs = iter.nextRow();
+            for (int i = 0; i < numColumns; i++) {
+                read(rs, i, types[i], columns[i], row, trimStrings);
+                nulls[i][row] = rs.wasNull();
+            }
+            row++;
+        }
+
+        if (row < maxRows) {
+            for (int i = 0; i < numColumns; i++) {
+                columns[i] = truncate(columns[i], row);
+                nulls[i] = Arrays.copyOf(nulls[i], row);
+            }
+        }
+        return new JdbcColumnBatch(names, types, columns, nulls, row);
+    }
+
+    private static Object allocate(int columnType, int n) {
+        switch (columnType) {
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return new double[n];
+            case Types.FLOAT:
+            case Types.REAL:
+                return new float[n];
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return new int[n];
+            case Types.BIGINT:
+                return new long[n];
+            case Types.BOOLEAN:
+            case Types.BIT:
+                return new boolean[n];
+            case Types.DATE:
+            case Types.TIME:
+            case Types.TIMESTAMP:
+            case Types.CHAR:
+            case Types.LONGVARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.VARCHAR:
+                return new String[n];
+            default:
+                throw new IllegalArgumentException("Column type unknown");
+        }
+    }
+
+    private static void read(ResultSet rs, int column, int columnType, Object arr, int row, boolean trimStrings)
+                    throws SQLException {
+        int idx = column + 1;
+        switch (columnType) {
+            case Types.DOUBLE:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                ((double[]) arr)[row] = rs.getDouble(idx);
+                break;
+            case Types.FLOAT:
+            case Types.REAL:
+                ((float[]) arr)[row] = rs.getFloat(idx);
+                break;
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                ((int[]) arr)[row] = rs.getInt(idx);
+                break;
+            case Types.BIGINT:
+                ((long[]) arr)[row] = rs.getLong(idx);
+                break;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                ((boolean[]) arr)[row] = rs.getBoolean(idx);
+                break;
+            default:
+                String s = rs.getString(idx);
+                ((String[]) arr)[row] = (trimStrings && s != null ? s.trim() : s);
+        }
+    }
+
+    private static Object truncate(Object arr, int n) {
+        if (arr instanceof double[])
+            return Arrays.copyOf((double[]) arr, n);
+        if (arr instanceof float[])
+            return Arrays.copyOf((float[]) arr, n);
+        if (arr instanceof int[])
+            return Arrays.copyOf((int[]) arr, n);
+        if (arr instanceof long[])
+            return Arrays.copyOf((long[]) arr, n);
+        if (arr instanceof boolean[])
+            return Arrays.copyOf((boolean[]) arr, n);
+        return Arrays.copyOf((String[]) arr, n);
+    }
+
+    public int getNumColumns() {
+        return columns.length;
+    }
+
+    /**
+     * @return True if the value at the specified column and row is SQL NULL
+     */
+    public boolean isNull(int column, int row) {
+        return nulls[column][row];
+    }
+
+    public double[] getDoubleColumn(int column) {
+        return getColumn(column, double[].class);
+    }
+
+    public float[] getFloatColumn(int column) {
+        return getColumn(column, float[].class);
+    }
+
+    public int[] getIntColumn(int column) {
+        return getColumn(column, int[].class);
+    }
+
+    public long[] getLongColumn(int column) {
+        return getColumn(column, long[].class);
+    }
+
+    public boolean[] getBooleanColumn(int column) {
+        return getColumn(column, boolean[].class);
+    }
+
+    public String[] getStringColumn(int column) {
+        return getColumn(column, String[].class);
+    }
+
+    /**
+     * Get the values of a numerical or boolean column as a double[], converting if necessary
+     */
+    public double[] getColumnAsDouble(int column) {
+        Object arr = columns[column];
+        if (arr instanceof double[])
+            return (double[]) arr;
+        double[] out = new double[numRows];
+        for (int i = 0; i < numRows; i++) {
+            if (arr instanceof float[]) {
+                out[i] = ((float[]) arr)[i];
+            } else if (arr instanceof int[]) {
+                out[i] = ((int[]) arr)[i];
+            } else if (arr instanceof long[]) {
+                out[i] = ((long[]) arr)[i];
+            } else if (arr instanceof boolean[]) {
+                out[i] = ((boolean[]) arr)[i] ? 1.0 : 0.0;
+            } else {
+                throw new IllegalStateException("Cannot convert column " + column + " (\"" + columnNames[column]
+                                + "\") to double: not a numerical column");
+            }
+        }
+        return out;
+    }
+
+    private <T> T getColumn(int column, Class<T> type) {
+        Object arr = columns[column];
+        if (!type.isInstance(arr)) {
+            throw new IllegalStateException("Column " + column + " (\"" + columnNames[column] + "\") is of type "
+                            + arr.getClass().getSimpleName() + ", not " + type.getSimpleName());
+        }
+        return type.cast(arr);
+    }
+}
@@ -19,26 +19,34 @@ package org.datavec.api.util.jdbc;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
-import org.apache.commons.dbutils.ResultSetIterator;
+import java.util.NoSuchElementException;
+import org.apache.commons.dbutils.BasicRowProcessor;
+import org.apache.commons.dbutils.RowProcessor;
 
 /**
- * Encapsulation of ResultSetIterator to allow resetting
+ * Encapsulation of a ResultSet as an iterator, allowing resetting.<br>
+ * Iteration only relies on {@link ResultSet#next()}, so it also works with forward-only result sets (which, together
+ * with a fetch size, allow the driver to stream rows instead of materializing the whole result). Resetting requires a
+ * scrollable result set.
  *
  * @author Adrien Plagnol
  */
 public class ResettableResultSetIterator implements Iterator<Object[]> {
 
+    private static final RowProcessor ROW_PROCESSOR = new BasicRowProcessor();
+
     private ResultSet rs;
-    private ResultSetIterator base;
+    private boolean advanced;
+    private boolean hasRow;
 
     public ResettableResultSetIterator(ResultSet rs) {
         this.rs = rs;
-        this.base = new ResultSetIterator(rs);
     }
 
     public void reset() {
         try {
             this.rs.beforeFirst();
+            this.advanced = false;
         } catch (SQLException e) {
             throw new RuntimeException("Could not reset ResultSetIterator", e);
         }
@@ -46,16 +54,43 @@ public class ResettableResultSetIterator implements Iterator<Object[]> {
 
     @Override
     public boolean hasNext() {
-        return this.base.hasNext();
+        if (!advanced) {
+            try {
+                hasRow = rs.next();
+            } catch (SQLException e) {
+                throw new RuntimeException("Could not read next row", e);
+            }
+            advanced = true;
+        }
+        return hasRow;
     }
 
     @Override
     public Object[] next() {
-        return base.next();
+        try {
+            return ROW_PROCESSOR.toArray(nextRow());
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not read next row", e);
+        }
+    }
+
+    /**
+     * Move to the next row and return the underlying ResultSet, positioned on that row. This allows callers to read
+     * column values directly (for example with {@link ResultSet#getDouble(int)}) without creating an Object[] per row.
+     *
+     * @return The ResultSet, positioned on the next row
+     * @throws NoSuchElementException If there are no more rows
+     */
+    public ResultSet nextRow() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more rows");
+        }
+        advanced = false;
+        return rs;
     }
 
     @Override
     public void remove() {
-        base.remove();
+        throw new UnsupportedOperationException("ResultSetIterator does not support remove");
     }
 }
@@ -38,6 +38,7 @@ import org.datavec.api.records.metadata.RecordMetaData;
 import org.datavec.api.records.metadata.RecordMetaDataJdbc;
 import org.datavec.api.records.metadata.RecordMetaDataLine;
 import org.datavec.api.records.reader.impl.jdbc.JDBCRecordReader;
+import org.datavec.api.util.jdbc.JdbcColumnBatch;
 import org.datavec.api.writable.BooleanWritable;
 import org.datavec.api.writable.DoubleWritable;
 import org.datavec.api.writable.FloatWritable;
@@ -261,6 +262,79 @@ public class JDBCRecordReaderTest {
         }
     }
 
+    @Test
+    public void testForwardOnlyFetchSize() throws Exception {
+        TestDb.buildItemsTable(conn, 100);
+        try (JDBCRecordReader reader = new JDBCRecordReader("SELECT * FROM Items ORDER BY Id", dataSource)) {
+            Configuration conf = new Configuration();
+            conf.setInt(JDBCRecordReader.JDBC_RESULTSET_TYPE, ResultSet.TYPE_FORWARD_ONLY);
+            conf.setInt(JDBCRecordReader.JDBC_FETCH_SIZE, 7);
+            reader.initialize(conf, null);
+
+            int count = 0;
+            while (reader.hasNext()) {
+                List<Writable> next = reader.next();
+                assertEquals(new IntWritable(count), next.get(0));
+                count++;
+            }
+            assertEquals(100, count);
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testColumnBatch() throws Exception {
+        TestDb.buildItemsTable(conn, 25);
+        try (JDBCRecordReader reader = new JDBCRecordReader("SELECT * FROM Items ORDER BY Id", dataSource)) {
+            reader.setResultSetType(ResultSet.TYPE_FORWARD_ONLY);
+            reader.initialize(null);
+
+            //Single records and batches can be interleaved
+            assertEquals(new IntWritable(0), reader.next().get(0));
+
+            JdbcColumnBatch batch = reader.nextColumnBatch(10);
+            assertEquals(10, batch.getNumRows());
+            assertEquals(4, batch.getNumColumns());
+            assertEquals("ID", batch.getColumnNames()[0].toUpperCase());
+            int[] ids = batch.getIntColumn(0);
+            String[] names = batch.getStringColumn(1);
+            double[] prices = batch.getDoubleColumn(2);
+            long[] quantities = batch.getLongColumn(3);
+            for (int i = 0; i < 10; i++) {
+                int id = i + 1;
+                assertEquals(id, ids[i]);
+                assertEquals("item" + id, names[i]);
+                assertEquals(id == 10, batch.isNull(2, i));
+                if (id != 10) {
+                    assertEquals(id / 2.0, prices[i], 0.0);
+                }
+                assertEquals(1000L * id, quantities[i]);
+                assertEquals(id, batch.getColumnAsDouble(0)[i], 0.0);
+            }
+
+            batch = reader.nextColumnBatch(10);
+            assertEquals(10, batch.getNumRows());
+            assertEquals(11, batch.getIntColumn(0)[0]);
+
+            batch = reader.nextColumnBatch(10);
+            assertEquals(4, batch.getNumRows());
+            assertEquals(4, batch.getIntColumn(0).length);
+            assertEquals(24, batch.getIntColumn(0)[3]);
+            assertFalse(reader.hasNext());
+
+            batch = reader.nextColumnBatch(10);
+            assertEquals(0, batch.getNumRows());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testColumnBatchWrongTypeShouldFail() throws Exception {
+        try (JDBCRecordReader reader = getInitializedReader("SELECT * FROM Coffee")) {
+            JdbcColumnBatch batch = reader.nextColumnBatch(10);
+            batch.getDoubleColumn(0);
+        }
+    }
+
     private JDBCRecordReader getInitializedReader(String query) throws Exception {
         int[] indices = {1}; // ProdNum column
         JDBCRecordReader reader = new JDBCRecordReader(query, dataSource, "SELECT * FROM Coffee WHERE ProdNum = ?",
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.datavec.api.records.reader.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.dbutils.DbUtils;
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.datavec.api.conf.Configuration;
+import org.datavec.api.records.reader.impl.jdbc.JDBCRecordReader;
+import org.datavec.api.records.reader.impl.jdbc.PartitionedJDBCRecordReader;
+import org.datavec.api.records.reader.impl.jdbc.PartitionedJDBCRecordReader.PartitionType;
+import org.datavec.api.writable.DoubleWritable;
+import org.datavec.api.writable.NullWritable;
+import org.datavec.api.writable.Text;
+import org.datavec.api.writable.Writable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PartitionedJDBCRecordReaderTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    Connection conn;
+    EmbeddedDataSource dataSource;
+
+    private final String dbName = "datavecTests";
+    private final String driverClassName = "org.apache.derby.jdbc.EmbeddedDriver";
+    private final int numRows = 1000;
+
+    @Before
+    public void setUp() throws Exception {
+        File f = testDir.newFolder();
+        System.setProperty("derby.system.home", f.getAbsolutePath());
+
+        dataSource = new EmbeddedDataSource();
+        dataSource.setDatabaseName(dbName);
+        dataSource.setCreateDatabase("create");
+        conn = dataSource.getConnection();
+
+        TestDb.dropTables(conn);
+        TestDb.buildItemsTable(conn, numRows);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DbUtils.closeQuietly(conn);
+    }
+
+    @Test
+    public void testRangePartitions() throws Exception {
+        try (PartitionedJDBCRecordReader reader =
+                        new PartitionedJDBCRecordReader("SELECT * FROM Items", "Id", 4, dataSource)) {
+            reader.initialize(null);
+            assertEquals(4, reader.getPartitionQueries().size());
+            checkAllRead(reader);
+        }
+    }
+
+    @Test
+    public void testHashPartitions() throws Exception {
+        try (PartitionedJDBCRecordReader reader =
+                        new PartitionedJDBCRecordReader("SELECT * FROM Items", "Id", 3, dataSource)) {
+            reader.setPartitionType(PartitionType.HASH);
+            reader.setQueueSize(10);
+            reader.setFetchSize(16);
+            reader.initialize(null);
+            assertEquals(3, reader.getPartitionQueries().size());
+            checkAllRead(reader);
+        }
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        try (PartitionedJDBCRecordReader reader =
+                        new PartitionedJDBCRecordReader("SELECT * FROM Items", "Id", 4, dataSource)) {
+            reader.setQueueSize(5);
+            reader.initialize(null);
+            //Reset part way through an epoch
+            for (int i = 0; i < 20; i++) {
+                reader.next();
+            }
+            reader.reset();
+            checkAllRead(reader);
+            reader.reset();
+            checkAllRead(reader);
+        }
+    }
+
+    @Test
+    public void testMorePartitionsThanKeys() throws Exception {
+        try (PartitionedJDBCRecordReader reader = new PartitionedJDBCRecordReader(
+                        "SELECT * FROM Items WHERE Id < 3", "Id", 8, dataSource)) {
+            reader.initialize(null);
+            assertEquals(3, reader.getPartitionQueries().size());
+            int count = 0;
+            while (reader.hasNext()) {
+                reader.next();
+                count++;
+            }
+            assertEquals(3, count);
+        }
+    }
+
+    @Test
+    public void testNullKeys() throws Exception {
+        //Every 10th row has a NULL key
+        String query = "SELECT Id, CASE WHEN MOD(Id, 10) = 0 THEN CAST(NULL AS INTEGER) ELSE Id END AS NullableId "
+                        + "FROM Items";
+        for (PartitionType type : PartitionType.values()) {
+            try (PartitionedJDBCRecordReader reader = new PartitionedJDBCRecordReader(query, "NullableId", 4,
+                            dataSource)) {
+                reader.setPartitionType(type);
+                reader.initialize(null);
+                Set<Integer> seen = new HashSet<>();
+                int nullKeys = 0;
+                while (reader.hasNext()) {
+                    List<Writable> next = reader.next();
+                    int id = next.get(0).toInt();
+                    assertTrue("Duplicate id: " + id, seen.add(id));
+                    if (next.get(1) instanceof NullWritable) {
+                        assertEquals(0, id % 10);
+                        nullKeys++;
+                    }
+                }
+                assertEquals(numRows, seen.size());
+                assertEquals(numRows / 10, nullKeys);
+            }
+        }
+    }
+
+    @Test
+    public void testEmptyResults() throws Exception {
+        try (PartitionedJDBCRecordReader reader = new PartitionedJDBCRecordReader(
+                        "SELECT * FROM Items WHERE Id < 0", "Id", 4, dataSource)) {
+            reader.initialize(null);
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testConfigurationInitialization() throws Exception {
+        try (PartitionedJDBCRecordReader reader = new PartitionedJDBCRecordReader("SELECT * FROM Items", "Id", 1)) {
+            Configuration conf = new Configuration();
+            conf.set(JDBCRecordReader.JDBC_URL, "jdbc:derby:" + dbName + ";create=true");
+            conf.set(JDBCRecordReader.JDBC_DRIVER_CLASS_NAME, driverClassName);
+            conf.setInt(PartitionedJDBCRecordReader.NUM_PARTITIONS, 2);
+            conf.set(PartitionedJDBCRecordReader.PARTITION_TYPE, "hash");
+            reader.initialize(conf, null);
+            assertEquals(2, reader.getPartitionQueries().size());
+            checkAllRead(reader);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidQueryShouldFail() throws Exception {
+        try (PartitionedJDBCRecordReader reader = new PartitionedJDBCRecordReader("SELECT * FROM Items", "NoSuchColumn",
+                        2, dataSource)) {
+            reader.setPartitionType(PartitionType.HASH);
+            reader.initialize(null);
+            reader.hasNext();
+        }
+    }
+
+    private void checkAllRead(PartitionedJDBCRecordReader reader) {
+        Set<Integer> seen = new HashSet<>();
+        while (reader.hasNext()) {
+            List<Writable> next = reader.next();
+            assertEquals(4, next.size());
+            int id = next.get(0).toInt();
+            assertTrue("Duplicate id: " + id, seen.add(id));
+            assertEquals(new Text("item" + id), next.get(1));
+            if (id % 10 == 0) {
+                assertEquals(NullWritable.class, next.get(2).getClass());
+            } else {
+                assertEquals(new DoubleWritable(id / 2.0), next.get(2));
+            }
+            assertEquals(1000L * id, next.get(3).toLong());
+        }
+        assertEquals(numRows, seen.size());
+    }
+}
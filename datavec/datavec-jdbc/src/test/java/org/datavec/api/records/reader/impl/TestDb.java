@@ -17,8 +17,10 @@
 package org.datavec.api.records.reader.impl;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 
 /**
  * Parts of this are from datavec-dataframe
@@ -34,6 +36,10 @@ public class TestDb {
                 stmt.execute("DROP TABLE AllTypes");
             } catch (SQLException ex) {
             }
+            try {
+                stmt.execute("DROP TABLE Items");
+            } catch (SQLException ex) {
+            }
         } catch (SQLException ex) {
             System.out.println("ERROR: " + ex.getMessage());
             ex.printStackTrace();
@@ -102,5 +108,31 @@ public class TestDb {
         }
     }
 
+    /**
+     * Creates the Items table, with ids 0 to numRows-1
+     */
+    public static void buildItemsTable(Connection conn, int numRows) {
+        try {
+            Statement stmt = conn.createStatement();
+            stmt.execute("CREATE TABLE Items (" + "Id INTEGER NOT NULL PRIMARY KEY, " + "Name VARCHAR(20), "
+                + "Price DOUBLE, " + "Quantity BIGINT " + ")");
 
+            PreparedStatement ps = conn.prepareStatement("INSERT INTO Items VALUES (?, ?, ?, ?)");
+            for (int i = 0; i < numRows; i++) {
+                ps.setInt(1, i);
+                ps.setString(2, "item" + i);
+                if (i % 10 == 0) {
+                    ps.setNull(3, Types.DOUBLE);
+                } else {
+                    ps.setDouble(3, i / 2.0);
+                }
+                ps.setLong(4, 1000L * i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        } catch (SQLException ex) {
+            System.out.println("ERROR: " + ex.getMessage());
+            ex.printStackTrace();
+        }
+    }
 }
@@ -18,6 +18,8 @@ package org.datavec.local.transforms;
 
 import org.datavec.api.records.reader.RecordReader;
 import org.datavec.api.records.reader.SequenceRecordReader;
+import org.datavec.api.records.reader.factory.RecordReaderFactory;
+import org.datavec.api.split.InputSplit;
 import org.datavec.api.transform.ColumnType;
 import org.datavec.api.transform.analysis.AnalysisCounter;
 import org.datavec.api.transform.analysis.DataAnalysis;
@@ -27,14 +29,23 @@ import org.datavec.api.transform.analysis.histogram.HistogramCounter;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisCombineFunction;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
+import org.datavec.api.transform.analysis.sketch.ColumnSketch;
+import org.datavec.api.transform.analysis.sketch.ColumnSketchAddFunction;
+import org.datavec.api.transform.analysis.sketch.ColumnSketchCombineFunction;
 import org.datavec.api.transform.quality.DataQualityAnalysis;
 import org.datavec.api.transform.quality.columns.ColumnQuality;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.writable.Writable;
 import org.datavec.local.transforms.analysis.aggregate.AnalysisAddFunction;
+import org.datavec.local.transforms.analysis.aggregate.AnalysisCombineFunction;
 import org.datavec.local.transforms.analysis.histogram.HistogramAddFunction;
+import org.datavec.local.transforms.analysis.histogram.HistogramCombineFunction;
+import org.nd4j.linalg.function.BiFunction;
 
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AnalyzeLocal {
     private static final int DEFAULT_MAX_HISTOGRAM_BUCKETS = 30;
@@ -86,6 +97,180 @@ public class AnalyzeLocal {
     }
 
 
+    /**
+     * Analyse the specified data using multiple threads, with the default number of histogram buckets.
+     * See {@link #analyze(Schema, InputSplit, RecordReaderFactory, int, int)}
+     */
+    public static DataAnalysis analyze(Schema schema, InputSplit split, RecordReaderFactory readerFactory,
+                    int numThreads) {
+        return analyze(schema, split, readerFactory, numThreads, DEFAULT_MAX_HISTOGRAM_BUCKETS);
+    }
+
+    /**
+     * Analyse the specified data using multiple threads - returns a DataAnalysis object with summary information
+     * about each column.<br>
+     * One RecordReader is created (using the provided factory) for each location of the InputSplit, and the
+     * locations are distributed across the threads; the per-thread statistics are then merged. Consequently, the
+     * number of threads used is at most the number of locations in the split.<br>
+     * Unlike {@link #analyze(Schema, RecordReader, int)}, this is a single pass over the data for numerical columns:
+     * histograms for these columns are approximated from the t-digest of each column. Exact histograms (requiring a
+     * second pass) are computed only if the schema contains String or NDArray columns.
+     *
+     * @param schema              Schema for data
+     * @param split               Input split containing the locations of the data
+     * @param readerFactory       Factory used to create an (initialized) RecordReader for each location
+     * @param numThreads          Maximum number of threads to use
+     * @param maxHistogramBuckets Number of histogram buckets
+     * @return DataAnalysis for data
+     */
+    public static DataAnalysis analyze(Schema schema, InputSplit split, RecordReaderFactory readerFactory,
+                    int numThreads, int maxHistogramBuckets) {
+        List<AnalysisCounter> counters = parallelAggregate(split, readerFactory, numThreads,
+                        new AnalysisAddFunction(schema), new AnalysisCombineFunction());
+        if (counters == null)
+            throw new IllegalStateException("Cannot analyze data: no records found");
+
+        double[][] minsMaxes = new double[counters.size()][2];
+        List<ColumnAnalysis> list = DataVecAnalysisUtils.convertCounters(counters, minsMaxes, schema.getColumnTypes());
+
+        if (!DataVecAnalysisUtils.histogramsFromDigests(list, maxHistogramBuckets)) {
+            List<HistogramCounter> histogramCounters = parallelAggregate(split, readerFactory, numThreads,
+                            new HistogramAddFunction(maxHistogramBuckets, schema, minsMaxes),
+                            new HistogramCombineFunction());
+            DataVecAnalysisUtils.mergeCounters(list, histogramCounters);
+        }
+
+        return new DataAnalysis(schema, list);
+    }
+
+    /**
+     * Compute a {@link ColumnSketch} for each column - approximate number of unique values, and approximate most
+     * frequent values - using bounded memory, unlike {@link #getUnique(String, Schema, RecordReader)}.
+     * Bytes and NDArray columns are not included.
+     *
+     * @param schema Schema for data
+     * @param rr     Data to analyze
+     * @param topK   Number of most frequent values to track for each column
+     * @return Map of column name to sketch, in the order of the columns in the schema
+     */
+    public static Map<String, ColumnSketch> analyzeSketches(Schema schema, RecordReader rr, int topK) {
+        ColumnSketchAddFunction addFn = new ColumnSketchAddFunction(schema, topK);
+        List<ColumnSketch> sketches = null;
+        while (rr.hasNext()) {
+            sketches = addFn.apply(sketches, rr.next());
+        }
+        return toSketchMap(schema, sketches);
+    }
+
+    /**
+     * Compute a {@link ColumnSketch} for each column using multiple threads. See
+     * {@link #analyzeSketches(Schema, RecordReader, int)} and
+     * {@link #analyze(Schema, InputSplit, RecordReaderFactory, int, int)} for details.
+     *
+     * @param schema        Schema for data
+     * @param split         Input split containing the locations of the data
+     * @param readerFactory Factory used to create an (initialized) RecordReader for each location
+     * @param numThreads    Maximum number of threads to use
+     * @param topK          Number of most frequent values to track for each column
+     * @return Map of column name to sketch, in the order of the columns in the schema
+     */
+    public static Map<String, ColumnSketch> analyzeSketches(Schema schema, InputSplit split,
+                    RecordReaderFactory readerFactory, int numThreads, int topK) {
+        List<ColumnSketch> sketches = parallelAggregate(split, readerFactory, numThreads,
+                        new ColumnSketchAddFunction(schema, topK), new ColumnSketchCombineFunction());
+        return toSketchMap(schema, sketches);
+    }
+
+    private static Map<String, ColumnSketch> toSketchMap(Schema schema, List<ColumnSketch> sketches) {
+        Map<String, ColumnSketch> m = new LinkedHashMap<>();
+        if (sketches == null)
+            return m;
+        for (int i = 0; i < sketches.size(); i++) {
+            if (sketches.get(i) != null) {
+                m.put(schema.getName(i), sketches.get(i));
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Analyze the data quality of data using multiple threads - provides a report on missing values, values that
+     * don't comply with schema, etc. See {@link #analyze(Schema, InputSplit, RecordReaderFactory, int, int)} for
+     * details on how the data is split between threads.
+     *
+     * @param schema        Schema for data
+     * @param split         Input split containing the locations of the data
+     * @param readerFactory Factory used to create an (initialized) RecordReader for each location
+     * @param numThreads    Maximum number of threads to use
+     * @return DataQualityAnalysis object
+     */
+    public static DataQualityAnalysis analyzeQuality(Schema schema, InputSplit split, RecordReaderFactory readerFactory,
+                    int numThreads) {
+        List<QualityAnalysisState> states = parallelAggregate(split, readerFactory, numThreads,
+                        new QualityAnalysisAddFunction(schema), new QualityAnalysisCombineFunction());
+        if (states == null)
+            throw new IllegalStateException("Cannot analyze data quality: no records found");
+
+        List<ColumnQuality> list = new ArrayList<>(schema.numColumns());
+        for (QualityAnalysisState qualityState : states) {
+            list.add(qualityState.getColumnQuality());
+        }
+        return new DataQualityAnalysis(schema, list);
+    }
+
+    private static <T> T parallelAggregate(InputSplit split, final RecordReaderFactory readerFactory, int numThreads,
+                    final BiFunction<T, List<Writable>, T> addFn, BiFunction<T, T, T> combineFn) {
+        final URI[] locations = split.locations();
+        if (locations == null || locations.length == 0)
+            return null;
+        numThreads = Math.max(1, Math.min(numThreads, locations.length));
+
+        final AtomicInteger nextLocation = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "AnalyzeLocal-" + count.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            List<Future<T>> futures = new ArrayList<>(numThreads);
+            for (int i = 0; i < numThreads; i++) {
+                futures.add(executor.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        T state = null;
+                        int idx;
+                        while ((idx = nextLocation.getAndIncrement()) < locations.length) {
+                            try (RecordReader rr = readerFactory.create(locations[idx])) {
+                                while (rr.hasNext()) {
+                                    state = addFn.apply(state, rr.next());
+                                }
+                            }
+                        }
+                        return state;
+                    }
+                }));
+            }
+
+            T result = null;
+            for (Future<T> f : futures) {
+                result = combineFn.apply(result, f.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during analysis", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error during analysis", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     /**
      * Analyze the data quality of sequence data - provides a report on missing values, values that don't comply with schema, etc
      * @param schema Schema for data
@@ -135,7 +320,9 @@ public class AnalyzeLocal {
 
     /**
      * Get a list of unique values from the specified columns.
-     * For sequence data, use {@link #getUniqueSequence(List, Schema, SequenceRecordReader)}
+     * For sequence data, use {@link #getUniqueSequence(List, Schema, SequenceRecordReader)}.
+     * Note that all unique values are kept in memory: for high cardinality columns, consider
+     * {@link #analyzeSketches(Schema, RecordReader, int)} instead
      *
      * @param columnName    Name of the column to get unique values from
      * @param schema        Data schema
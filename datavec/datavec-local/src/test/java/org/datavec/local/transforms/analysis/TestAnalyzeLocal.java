@@ -16,11 +16,16 @@
 
 package org.datavec.local.transforms.analysis;
 
+import org.apache.commons.io.FileUtils;
 import org.datavec.api.records.reader.RecordReader;
+import org.datavec.api.records.reader.factory.RecordReaderFactory;
 import org.datavec.api.records.reader.impl.csv.CSVRecordReader;
 import org.datavec.api.split.FileSplit;
 import org.datavec.api.transform.analysis.DataAnalysis;
+import org.datavec.api.transform.analysis.columns.IntegerAnalysis;
 import org.datavec.api.transform.analysis.columns.NumericalColumnAnalysis;
+import org.datavec.api.transform.analysis.sketch.ColumnSketch;
+import org.datavec.api.transform.quality.DataQualityAnalysis;
 import org.datavec.api.transform.schema.Schema;
 import org.datavec.api.util.ndarray.RecordConverter;
 import org.datavec.api.writable.Writable;
@@ -31,10 +36,16 @@ import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.io.ClassPathResource;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class TestAnalyzeLocal {
 
@@ -76,4 +87,82 @@ public class TestAnalyzeLocal {
 
     }
 
+    @Test
+    public void testAnalysisParallel() throws Exception {
+        //Split iris into multiple files, and compare parallel analysis to sequential analysis
+        List<String> lines = FileUtils.readLines(new ClassPathResource("iris.txt").getFile(), StandardCharsets.UTF_8);
+        File dir = testDir.newFolder();
+        int numFiles = 7;
+        for (int i = 0; i < numFiles; i++) {
+            List<String> subset = new ArrayList<>();
+            for (int j = i; j < lines.size(); j += numFiles) {
+                subset.add(lines.get(j));
+            }
+            FileUtils.writeLines(new File(dir, i + ".csv"), subset);
+        }
+
+        Schema s = new Schema.Builder()
+                .addColumnsDouble("0", "1", "2", "3")
+                .addColumnInteger("label")
+                .build();
+
+        RecordReader rr = new CSVRecordReader();
+        rr.initialize(new FileSplit(new ClassPathResource("iris.txt").getFile()));
+        DataAnalysis expected = AnalyzeLocal.analyze(s, rr);
+
+        RecordReaderFactory factory = new CSVRecordReaderFactory();
+        FileSplit split = new FileSplit(dir);
+        DataAnalysis da = AnalyzeLocal.analyze(s, split, factory, 3);
+
+        for (int i = 0; i < 5; i++) {
+            NumericalColumnAnalysis e = (NumericalColumnAnalysis) expected.getColumnAnalysis().get(i);
+            NumericalColumnAnalysis a = (NumericalColumnAnalysis) da.getColumnAnalysis().get(i);
+            assertEquals(e.getCountTotal(), a.getCountTotal());
+            assertEquals(e.getMean(), a.getMean(), 1e-6);
+            assertEquals(e.getSampleStdev(), a.getSampleStdev(), 1e-6);
+            assertEquals(e.getMinDouble(), a.getMinDouble(), 0.0);
+            assertEquals(e.getMaxDouble(), a.getMaxDouble(), 0.0);
+
+            //Histograms are approximated from the digest, but must account for every value
+            long sum = 0;
+            for (long l : a.getHistogramBucketCounts()) {
+                sum += l;
+            }
+            assertEquals(e.getCountTotal(), sum);
+            assertEquals(e.getHistogramBuckets().length, a.getHistogramBuckets().length);
+        }
+        IntegerAnalysis labels = (IntegerAnalysis) da.getColumnAnalysis().get(4);
+        assertEquals(0, labels.getMin());
+        assertEquals(2, labels.getMax());
+
+        DataQualityAnalysis dqa = AnalyzeLocal.analyzeQuality(s, split, factory, 3);
+        assertEquals(150, dqa.getColumnQualityList().get(0).getCountTotal());
+        assertEquals(150, dqa.getColumnQualityList().get(0).getCountValid());
+
+        Map<String, ColumnSketch> sketches = AnalyzeLocal.analyzeSketches(s, split, factory, 3, 2);
+        assertEquals(Arrays.asList("0", "1", "2", "3", "label"), new ArrayList<>(sketches.keySet()));
+        ColumnSketch labelSketch = sketches.get("label");
+        assertEquals(150, labelSketch.getCountTotal());
+        assertEquals(3, labelSketch.getCardinality());
+        Map<Writable, Long> top = labelSketch.getTopK();
+        assertEquals(2, top.size());
+        for (Map.Entry<Writable, Long> e : top.entrySet()) {
+            assertTrue(e.getKey().toString().matches("[012]"));
+            assertEquals(50L, (long) e.getValue());
+        }
+    }
+
+    private static class CSVRecordReaderFactory implements RecordReaderFactory {
+        @Override
+        public RecordReader create(URI uri) {
+            RecordReader rr = new CSVRecordReader();
+            try {
+                rr.initialize(new FileSplit(new File(uri)));
+            } catch (IOException | InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return rr;
+        }
+    }
+
 }
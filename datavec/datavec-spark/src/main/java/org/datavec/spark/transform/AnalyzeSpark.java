@@ -30,6 +30,9 @@ import org.datavec.api.transform.analysis.quality.QualityAnalysisAddFunction;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisCombineFunction;
 import org.datavec.api.transform.analysis.quality.QualityAnalysisState;
 import org.datavec.api.transform.analysis.sequence.SequenceLengthAnalysis;
+import org.datavec.api.transform.analysis.sketch.ColumnSketch;
+import org.datavec.api.transform.analysis.sketch.ColumnSketchAddFunction;
+import org.datavec.api.transform.analysis.sketch.ColumnSketchCombineFunction;
 import org.datavec.api.transform.metadata.ColumnMetaData;
 import org.datavec.api.transform.quality.DataQualityAnalysis;
 import org.datavec.api.transform.quality.columns.ColumnQuality;
@@ -185,9 +188,37 @@ public class AnalyzeSpark {
         return sampleFromColumn(count, columnName, schema, flattenedSequence);
     }
 
+    /**
+     * Compute a {@link ColumnSketch} for each column in a single pass over the data: approximate number of distinct
+     * values (HyperLogLog) and approximate most frequent values (count-min sketch), using bounded memory per column.
+     * Unlike {@link #getUnique(String, Schema, JavaRDD)}, this does not require a shuffle or collecting all
+     * distinct values to the driver. Bytes and NDArray columns are not sketched and are omitted from the result.
+     *
+     * @param schema Schema for data
+     * @param data   Data to analyze
+     * @param topK   Number of most frequent values to track for each column
+     * @return Map of column name to sketch, in the order of the columns in the schema
+     */
+    public static Map<String, ColumnSketch> analyzeSketches(Schema schema, JavaRDD<List<Writable>> data, int topK) {
+        List<ColumnSketch> sketches = data.aggregate(null,
+                new BiFunctionAdapter<>(new ColumnSketchAddFunction(schema, topK)),
+                new BiFunctionAdapter<>(new ColumnSketchCombineFunction()));
+
+        Map<String, ColumnSketch> out = new LinkedHashMap<>();
+        if (sketches == null)
+            return out;
+        for (int i = 0; i < sketches.size(); i++) {
+            if (sketches.get(i) != null) {
+                out.put(schema.getName(i), sketches.get(i));
+            }
+        }
+        return out;
+    }
+
     /**
      * Get a list of unique values from the specified columns.
-     * For sequence data, use {@link #getUniqueSequence(List, Schema, JavaRDD)}
+     * For sequence data, use {@link #getUniqueSequence(List, Schema, JavaRDD)}.
+     * For high cardinality columns, consider {@link #analyzeSketches(Schema, JavaRDD, int)} instead
      *
      * @param columnName    Name of the column to get unique values from
      * @param schema        Data schema
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.datasets.iterator;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.bucketing.BucketingSequenceDataSetIterator;
+import org.deeplearning4j.datasets.iterator.bucketing.BucketingSequenceMultiDataSetIterator;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TestBucketingSequenceIterators extends BaseDL4JTest {
+
+    private static final int MAX_LENGTH = 40;
+
+    /**
+     * Minibatches of sequences with random lengths (padded to MAX_LENGTH, with masks). Feature values encode the
+     * example number and time step, so the content of the bucketed minibatches can be checked
+     */
+    private static List<DataSet> getData(int numBatches, int batchSize, Map<Integer, Integer> lengthsOut) {
+        Random r = new Random(12345);
+        List<DataSet> list = new ArrayList<>();
+        int exampleNum = 0;
+        for (int b = 0; b < numBatches; b++) {
+            INDArray f = Nd4j.zeros(batchSize, 1, MAX_LENGTH);
+            INDArray l = Nd4j.zeros(batchSize, 2, MAX_LENGTH);
+            INDArray fm = Nd4j.zeros(batchSize, MAX_LENGTH);
+            for (int i = 0; i < batchSize; i++) {
+                int length = 1 + r.nextInt(MAX_LENGTH);
+                lengthsOut.put(exampleNum, length);
+                for (int t = 0; t < length; t++) {
+                    f.putScalar(i, 0, t, 1000 * exampleNum + t);
+                    l.putScalar(i, t % 2, t, 1.0);
+                    fm.putScalar(i, t, 1.0);
+                }
+                exampleNum++;
+            }
+            list.add(new DataSet(f, l, fm, fm.dup()));
+        }
+        return list;
+    }
+
+    @Test
+    public void testBucketingDataSetIterator() {
+        int[] boundaries = {10, 20, 30};
+        Map<Integer, Integer> lengths = new HashMap<>();
+        List<DataSet> data = getData(10, 8, lengths);
+
+        for (Random rng : new Random[] {null, new Random(12345)}) {
+            BucketingSequenceDataSetIterator iter = new BucketingSequenceDataSetIterator(
+                            new ExistingDataSetIterator(data), 8, boundaries, 2, rng);
+
+            for (int epoch = 0; epoch < 2; epoch++) {
+                Set<Integer> seen = new HashSet<>();
+                while (iter.hasNext()) {
+                    DataSet ds = iter.next();
+                    assertTrue(ds.numExamples() <= 8);
+                    int bucket = -1;
+                    long maxLength = 0;
+                    for (int i = 0; i < ds.numExamples(); i++) {
+                        int exampleNum = (int) (ds.getFeatures().getDouble(i, 0, 0) / 1000);
+                        int length = lengths.get(exampleNum);
+                        maxLength = Math.max(maxLength, length);
+                        assertTrue(seen.add(exampleNum));
+
+                        int b = iter.bucketIndex(length);
+                        if (bucket == -1) {
+                            bucket = b;
+                        }
+                        assertEquals(bucket, b);
+
+                        for (int t = 0; t < length; t++) {
+                            assertEquals(1000 * exampleNum + t, ds.getFeatures().getDouble(i, 0, t), 0.0);
+                            assertEquals(1.0, ds.getLabels().getDouble(i, t % 2, t), 0.0);
+                        }
+                        if (ds.getFeaturesMaskArray() != null) {
+                            assertEquals(length, ds.getFeaturesMaskArray().getRow(i).sumNumber().intValue());
+                        }
+                    }
+                    //Minibatch should only be padded to the longest sequence in the minibatch
+                    assertEquals(maxLength, ds.getFeatures().size(2));
+                }
+                assertEquals(80, seen.size());
+                assertTrue(iter.getPaddingEfficiency() > iter.getSourcePaddingEfficiency());
+                assertEquals(iter.getNumSourceTimeSteps(), 80 * MAX_LENGTH);
+                iter.reset();
+            }
+        }
+    }
+
+    @Test
+    public void testBucketingMultiDataSetIterator() {
+        int[] boundaries = {5, 15, 25};
+        Map<Integer, Integer> lengths = new HashMap<>();
+        List<MultiDataSet> data = new ArrayList<>();
+        for (DataSet ds : getData(6, 5, lengths)) {
+            data.add(new org.nd4j.linalg.dataset.MultiDataSet(new INDArray[] {ds.getFeatures(), Nd4j.ones(5, 3)},
+                            new INDArray[] {ds.getLabels()},
+                            new INDArray[] {ds.getFeaturesMaskArray(), null},
+                            new INDArray[] {ds.getLabelsMaskArray()}));
+        }
+
+        MultiDataSetIterator underlying = new IteratorMultiDataSetIterator(data.iterator(), 5);
+        BucketingSequenceMultiDataSetIterator iter =
+                        new BucketingSequenceMultiDataSetIterator(underlying, 4, boundaries);
+
+        int count = 0;
+        while (iter.hasNext()) {
+            MultiDataSet mds = iter.next();
+            assertEquals(2, mds.numFeatureArrays());
+            assertArrayEquals(new long[] {mds.getFeatures(0).size(0), 3}, mds.getFeatures(1).shape());
+            assertEquals(mds.getFeatures(0).size(2), mds.getLabels(0).size(2));
+            count += mds.getFeatures(0).size(0);
+        }
+        assertEquals(30, count);
+        assertTrue(iter.getPaddingEfficiency() > iter.getSourcePaddingEfficiency());
+    }
+}
@@ -66,6 +66,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
@@ -231,6 +232,74 @@ public class TestEarlyStopping extends BaseDL4JTest {
         assertEquals(EarlyStoppingResult.TerminationReason.EpochTerminationCondition, result.getTerminationReason());
     }
 
+    @Test
+    public void testEarlyStoppingAsyncScoreCalculation() {
+        Nd4j.getRandom().setSeed(12345);
+        DataSet ds = new DataSet(Nd4j.rand(100, 4), Nd4j.zeros(100, 3));
+        for (int i = 0; i < 100; i++) {
+            //Label: index of the largest of the first 3 features
+            int label = 0;
+            for (int j = 1; j < 3; j++) {
+                if (ds.getFeatures().getDouble(i, j) > ds.getFeatures().getDouble(i, label)) {
+                    label = j;
+                }
+            }
+            ds.getLabels().putScalar(i, label, 1.0);
+        }
+
+        for (boolean async : new boolean[] {false, true}) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().seed(12345)
+                            .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                            .updater(new Sgd(0.1)).weightInit(WeightInit.XAVIER).list()
+                            .layer(0, new OutputLayer.Builder().nIn(4).nOut(3).activation(Activation.SOFTMAX)
+                                            .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                            .build();
+            MultiLayerNetwork net = new MultiLayerNetwork(conf);
+            net.init();
+
+            DataSetIterator trainIter = new ListDataSetIterator<>(ds.asList(), 10);
+            DataSetIterator testIter = new ListDataSetIterator<>(ds.asList(), 50);
+            ScoreCalculator<Model> sc = new DataSetLossCalculator(testIter, true);
+            if (async) {
+                //Slow score calculation: the score of each epoch is only available once the next epoch has been trained
+                final Semaphore epochsEnded = new Semaphore(-1);
+                net.setListeners(new BaseTrainingListener() {
+                    @Override
+                    public void onEpochEnd(Model model) {
+                        epochsEnded.release();
+                    }
+                });
+                sc = new BlockingScoreCalculator(sc, epochsEnded);
+            }
+            EarlyStoppingModelSaver<MultiLayerNetwork> saver = new InMemoryModelSaver<>();
+            EarlyStoppingConfiguration<MultiLayerNetwork> esConf =
+                            new EarlyStoppingConfiguration.Builder<MultiLayerNetwork>()
+                                            .epochTerminationConditions(new MaxEpochsTerminationCondition(5))
+                                            .scoreCalculator(sc)
+                                            .asyncScoreCalculation(async).modelSaver(saver).build();
+
+            LoggingEarlyStoppingListener listener = new LoggingEarlyStoppingListener();
+            IEarlyStoppingTrainer<MultiLayerNetwork> trainer = new EarlyStoppingTrainer(esConf, net, trainIter, listener);
+            EarlyStoppingResult<MultiLayerNetwork> result = trainer.fit();
+
+            //Async: termination is applied once the score of the last epoch is available, after one more epoch
+            assertEquals(async ? 6 : 5, result.getTotalEpochs());
+            assertEquals(EarlyStoppingResult.TerminationReason.EpochTerminationCondition, result.getTerminationReason());
+            assertEquals(5, result.getScoreVsEpoch().size());
+            assertEquals(5, listener.onEpochCallCount);
+            assertEquals(1, listener.onCompletionCallCount);
+
+            //Best model score should match the score of the returned (best) model
+            MultiLayerNetwork bestModel = result.getBestModel();
+            assertNotNull(bestModel);
+            assertNotSame(net, bestModel);
+            testIter.reset();
+            double bestScore = new DataSetLossCalculator(testIter, true).calculateScore(bestModel);
+            assertEquals(result.getBestModelScore(), bestScore, 1e-5);
+            assertEquals(result.getScoreVsEpoch().get(result.getBestModelEpoch()), result.getBestModelScore(), 0.0);
+        }
+    }
+
     @Test
     public void testEarlyStoppingIrisMultiEpoch() {
         MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
@@ -541,6 +610,38 @@ public class TestEarlyStopping extends BaseDL4JTest {
         }
     }
 
+    /**
+     * Score calculator that takes one permit before calculating each score
+     */
+    private static class BlockingScoreCalculator implements ScoreCalculator<Model> {
+
+        private final ScoreCalculator<Model> underlying;
+        private final Semaphore permits;
+
+        private BlockingScoreCalculator(ScoreCalculator<Model> underlying, Semaphore permits) {
+            this.underlying = underlying;
+            this.permits = permits;
+        }
+
+        @Override
+        public double calculateScore(Model network) {
+            try {
+                if (!permits.tryAcquire(1, TimeUnit.MINUTES)) {
+                    throw new IllegalStateException("Timed out waiting for score calculation permit");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            return underlying.calculateScore(network);
+        }
+
+        @Override
+        public boolean minimizeScore() {
+            return underlying.minimizeScore();
+        }
+    }
+
 
     @Test
     public void testRegressionScoreFunctionSimple() throws Exception {
@@ -1319,4 +1319,88 @@ public class EvalTest extends BaseDL4JTest {
         assertEquals(150, e.getNumRowCounter());
         assertEquals(150, e2.getExampleCountPerColumn().getInt(0));
     }
+
+    @Test
+    public void testEvalBatchedAndConcurrent() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        int nClasses = 50;
+        int nExamples = 2000;
+        int nThreads = 4;
+
+        INDArray labels = Nd4j.zeros(nExamples, nClasses);
+        INDArray predictions = Nd4j.rand(nExamples, nClasses);
+        Random r = new Random(12345);
+        for (int i = 0; i < nExamples; i++) {
+            labels.putScalar(i, r.nextInt(nClasses), 1.0);
+        }
+        int[] actual = Nd4j.argMax(labels, 1).toIntVector();
+        int[] predicted = Nd4j.argMax(predictions, 1).toIntVector();
+
+        //Per-example evaluation is used as reference
+        Evaluation expected = new Evaluation(nClasses);
+        for (int i = 0; i < nExamples; i++) {
+            expected.eval(predicted[i], actual[i]);
+        }
+
+        Evaluation batched = new Evaluation(nClasses);
+        batched.eval(labels, predictions);
+        assertEquals(expected, batched);
+
+        //Multiple threads evaluating into the same instance
+        final Evaluation shared = new Evaluation(createLabelsList(nClasses), 5);
+        final Evaluation sequential = new Evaluation(createLabelsList(nClasses), 5);
+        final List<INDArray[]> batches = new ArrayList<>();
+        for (int i = 0; i < nExamples; i += 100) {
+            INDArray l = labels.get(interval(i, i + 100), all());
+            INDArray p = predictions.get(interval(i, i + 100), all());
+            batches.add(new INDArray[] {l, p});
+            sequential.eval(l, p);
+        }
+
+        Thread[] threads = new Thread[nThreads];
+        for (int t = 0; t < nThreads; t++) {
+            final int thread = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = thread; i < batches.size(); i += nThreads) {
+                        shared.eval(batches.get(i)[0], batches.get(i)[1]);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        int expectedTopN = 0;
+        for (int i = 0; i < nExamples; i++) {
+            double labelProb = predictions.getDouble(i, actual[i]);
+            int countGreater = 0;
+            for (int j = 0; j < nClasses; j++) {
+                if (predictions.getDouble(i, j) > labelProb)
+                    countGreater++;
+            }
+            if (countGreater < 5)
+                expectedTopN++;
+        }
+
+        assertEquals(nExamples, shared.getNumRowCounter());
+        assertEquals(expectedTopN, sequential.getTopNCorrectCount());
+        assertEquals(sequential.getTopNCorrectCount(), shared.getTopNCorrectCount());
+        assertEquals(nExamples, shared.getTopNTotalCount());
+        assertEquals(sequential.getConfusionMatrix(), shared.getConfusionMatrix());
+        assertEquals(expected.getConfusionMatrix(), shared.getConfusionMatrix());
+        assertEquals(expected.accuracy(), shared.accuracy(), 1e-10);
+        assertEquals(expected.f1(), shared.f1(), 1e-10);
+    }
+
+    private static List<String> createLabelsList(int nClasses) {
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < nClasses; i++) {
+            list.add(String.valueOf(i));
+        }
+        return list;
+    }
 }
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.graph.util;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.graph.ElementWiseVertex;
+import org.deeplearning4j.nn.conf.graph.ScaleVertex;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.*;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.*;
+
+public class TestInferenceOptimizer extends BaseDL4JTest {
+
+    @Test
+    public void testInferenceOptimizer() {
+        Nd4j.getRandom().setSeed(12345);
+        ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .seed(12345)
+                        .updater(new Adam(0.01))
+                        .dropOut(0.8)
+                        .graphBuilder()
+                        .addInputs("in")
+                        .addLayer("conv", new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(4)
+                                        .activation(Activation.IDENTITY).build(), "in")
+                        .addLayer("bn", new BatchNormalization.Builder().build(), "conv")
+                        .addLayer("relu", new ActivationLayer.Builder().activation(Activation.RELU).build(), "bn")
+                        .addLayer("dropout", new DropoutLayer.Builder(0.5).build(), "relu")
+                        .addLayer("pool", new SubsamplingLayer.Builder().kernelSize(2, 2).stride(2, 2).build(), "dropout")
+                        //Branching: conv2 output is used twice, can't be fused
+                        .addLayer("conv2", new ConvolutionLayer.Builder().kernelSize(1, 1).nOut(4)
+                                        .activation(Activation.IDENTITY).hasBias(false).build(), "pool")
+                        .addLayer("bn2", new BatchNormalization.Builder().lockGammaBeta(true).gamma(2.0).beta(0.5).build(), "conv2")
+                        .addVertex("add", new ElementWiseVertex(ElementWiseVertex.Op.Add), "bn2", "conv2")
+                        .addVertex("scale", new ScaleVertex(1.0), "add")
+                        .addLayer("dense", new DenseLayer.Builder().nOut(10).activation(Activation.IDENTITY)
+                                        .hasBias(false).build(), "scale")
+                        .addLayer("bn3", new BatchNormalization.Builder().build(), "dense")
+                        .addLayer("tanh", new ActivationLayer.Builder().activation(Activation.TANH).build(), "bn3")
+                        .addLayer("identity", new ActivationLayer.Builder().activation(Activation.IDENTITY).build(), "tanh")
+                        .addLayer("out", new OutputLayer.Builder().nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "identity")
+                        .setOutputs("out")
+                        .setInputTypes(InputType.convolutional(10, 10, 2))
+                        .build();
+
+        ComputationGraph net = new ComputationGraph(conf);
+        net.init();
+
+        INDArray f = Nd4j.rand(new int[] {8, 2, 10, 10});
+        INDArray l = Nd4j.zeros(8, 3);
+        for (int i = 0; i < 8; i++) {
+            l.putScalar(i, i % 3, 1.0);
+        }
+        DataSet ds = new DataSet(f, l);
+        for (int i = 0; i < 5; i++) {
+            net.fit(ds);
+        }
+        INDArray paramsBefore = net.params().dup();
+
+        ComputationGraph optimized = InferenceOptimizer.optimize(net, 1e-4, f);
+        assertEquals(paramsBefore, net.params());
+
+        ComputationGraphConfiguration c = optimized.getConfiguration();
+        for (String s : new String[] {"bn", "relu", "dropout", "scale", "bn3", "tanh", "identity"}) {
+            assertFalse(s, c.getVertices().containsKey(s));
+        }
+        //conv2 output is used by both bn2 and add - should not be folded
+        for (String s : new String[] {"conv", "pool", "conv2", "bn2", "add", "dense", "out"}) {
+            assertTrue(s, c.getVertices().containsKey(s));
+        }
+        assertEquals(6, optimized.getNumLayers());
+        assertNull(((ConvolutionLayer) optimized.getLayer("conv").conf().getLayer()).getIDropout());
+        assertEquals(Activation.RELU.getActivationFunction(),
+                        ((ConvolutionLayer) optimized.getLayer("conv").conf().getLayer()).getActivationFn());
+        assertEquals(Activation.TANH.getActivationFunction(),
+                        ((DenseLayer) optimized.getLayer("dense").conf().getLayer()).getActivationFn());
+        assertTrue(((DenseLayer) optimized.getLayer("dense").conf().getLayer()).hasBias());
+
+        assertEquals(net.outputSingle(f), optimized.outputSingle(f));
+        assertTrue(InferenceOptimizer.maxAbsoluteDifference(net, optimized, f) < 1e-4);
+    }
+}
@@ -33,6 +33,9 @@ import org.junit.Test;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.learning.config.IUpdater;
 import org.nd4j.linalg.learning.config.Sgd;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
@@ -43,6 +46,7 @@ import java.util.Random;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 
 public class EmbeddingLayerTest extends BaseDL4JTest {
 
@@ -516,4 +520,66 @@ public class EmbeddingLayerTest extends BaseDL4JTest {
         }
     }
 
+    @Test
+    public void testEmbeddingSparseUpdates() {
+        int nClassesIn = 10;
+        int embeddingDim = 5;
+        int nOut = 4;
+
+        for (IUpdater u : new IUpdater[] {new Sgd(0.1), new Adam(0.1)}) {
+            for (boolean sequence : new boolean[] {false, true}) {
+                MultiLayerNetwork[] nets = new MultiLayerNetwork[2];
+                for (int i = 0; i < 2; i++) {
+                    boolean sparse = (i == 1);
+                    org.deeplearning4j.nn.conf.layers.Layer l0 = sequence
+                            ? new EmbeddingSequenceLayer.Builder().inputLength(1).sparseUpdates(sparse)
+                                    .nIn(nClassesIn).nOut(embeddingDim).build()
+                            : new EmbeddingLayer.Builder().hasBias(true).sparseUpdates(sparse)
+                                    .nIn(nClassesIn).nOut(embeddingDim).build();
+                    org.deeplearning4j.nn.conf.layers.Layer l1 = sequence
+                            ? new RnnOutputLayer.Builder().activation(Activation.SOFTMAX).nIn(embeddingDim).nOut(nOut).build()
+                            : new OutputLayer.Builder().activation(Activation.SOFTMAX).nIn(embeddingDim).nOut(nOut).build();
+                    MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder().updater(u).seed(12345)
+                            .activation(Activation.TANH).list().layer(0, l0).layer(1, l1).build();
+                    nets[i] = new MultiLayerNetwork(conf);
+                    nets[i].init();
+                }
+                nets[1].setParams(nets[0].params().dup());
+
+                //First minibatch: uses rows 0 to 4 only. Second minibatch: uses rows 5 to 9 only
+                for (int iter = 0; iter < 2; iter++) {
+                    INDArray in = Nd4j.create(new double[] {5 * iter, 5 * iter + 1, 5 * iter + 2, 5 * iter + 3,
+                            5 * iter + 4, 5 * iter}, new int[] {6, 1});
+                    INDArray labels = Nd4j.zeros(6, nOut);
+                    for (int j = 0; j < 6; j++) {
+                        labels.putScalar(j, j % nOut, 1.0);
+                    }
+                    if (sequence) {
+                        in = in.reshape(6, 1, 1);
+                        labels = labels.reshape(6, nOut, 1);
+                    }
+
+                    INDArray wBefore = nets[1].getParam("0_W").dup();
+                    nets[0].fit(in, labels);
+                    nets[1].fit(in, labels);
+
+                    INDArray wDense = nets[0].getParam("0_W");
+                    INDArray wSparse = nets[1].getParam("0_W");
+                    if (iter == 0 || u instanceof Sgd) {
+                        //No updater history for unused rows yet (or none at all for SGD): dense and sparse are identical
+                        assertEquals(nets[0].params(), nets[1].params());
+                    } else {
+                        //Lazy updates: rows not present in the minibatch are unchanged for the sparse net only...
+                        assertEquals(wBefore.get(NDArrayIndex.interval(0, 5), NDArrayIndex.all()),
+                                wSparse.get(NDArrayIndex.interval(0, 5), NDArrayIndex.all()));
+                        assertNotEquals(wBefore.get(NDArrayIndex.interval(0, 5), NDArrayIndex.all()),
+                                wDense.get(NDArrayIndex.interval(0, 5), NDArrayIndex.all()));
+                        //... whereas the rows that are present are updated
+                        assertNotEquals(wBefore.get(NDArrayIndex.interval(5, 10), NDArrayIndex.all()),
+                                wSparse.get(NDArrayIndex.interval(5, 10), NDArrayIndex.all()));
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.quantization;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.datasets.iterator.impl.ListDataSetIterator;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.inputs.InputType;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestPostTrainingQuantization extends BaseDL4JTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testInt8WeightsRoundTrip() {
+        Nd4j.getRandom().setSeed(12345);
+        for (int channelDim : new int[] {0, 1, 2}) {
+            INDArray w = Nd4j.rand(new int[] {3, 4, 5}).subi(0.5);
+            Int8Weights q = Int8Weights.quantize(w, channelDim);
+            assertEquals(w.size(channelDim), q.numChannels());
+            assertArrayEquals(w.shape(), q.getShape());
+
+            INDArray dequantized = q.dequantize();
+            assertArrayEquals(w.shape(), dequantized.shape());
+            //Max error: half of the largest scale
+            double maxScale = 0;
+            for (float f : q.getScales()) {
+                maxScale = Math.max(maxScale, f);
+            }
+            double maxError = w.sub(dequantized).amaxNumber().doubleValue();
+            assertTrue(maxError <= maxScale / 2 + 1e-6);
+        }
+    }
+
+    @Test
+    public void testInt8Gemm() {
+        int m = 3, k = 7, n = 4;
+        byte[] a = new byte[m * k];
+        byte[] b = new byte[n * k];
+        INDArray aArr = Nd4j.create(m, k);
+        INDArray bArr = Nd4j.create(n, k);
+        for (int i = 0; i < a.length; i++) {
+            a[i] = (byte) (127 - 19 * i);
+            aArr.putScalar(i / k, i % k, a[i]);
+        }
+        for (int i = 0; i < b.length; i++) {
+            b[i] = (byte) (-127 + 23 * i);
+            bArr.putScalar(i / k, i % k, b[i]);
+        }
+
+        int[] out = QuantizationUtils.int8Gemm(a, b, m, k, n);
+        INDArray exp = aArr.mmul(bArr.transpose());
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(exp.getDouble(i, j), out[i * n + j], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testInt8GemmTiled() {
+        //Large enough to be split into (partial) tiles and executed in parallel
+        int m = 37, k = 301, n = 203;
+        Random r = new Random(12345);
+        byte[] a = new byte[m * k];
+        byte[] b = new byte[n * k];
+        r.nextBytes(a);
+        r.nextBytes(b);
+
+        int[] out = QuantizationUtils.int8Gemm(a, b, m, k, n);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                int exp = 0;
+                for (int p = 0; p < k; p++) {
+                    exp += a[i * k + p] * b[j * k + p];
+                }
+                assertEquals(exp, out[i * n + j]);
+            }
+        }
+    }
+
+    @Test
+    public void testQuantizedNetwork() throws Exception {
+        Nd4j.getRandom().setSeed(12345);
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                        .seed(12345)
+                        .updater(new Adam(0.01))
+                        .list()
+                        .layer(new ConvolutionLayer.Builder().kernelSize(3, 3).nOut(4).activation(Activation.RELU).build())
+                        .layer(new DenseLayer.Builder().nOut(32).activation(Activation.TANH).build())
+                        .layer(new OutputLayer.Builder().nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                        .setInputType(InputType.convolutionalFlat(8, 8, 1))
+                        .build();
+        MultiLayerNetwork net = new MultiLayerNetwork(conf);
+        net.init();
+
+        INDArray features = Nd4j.rand(30, 64);
+        INDArray labels = Nd4j.zeros(30, 3);
+        for (int i = 0; i < 30; i++) {
+            labels.putScalar(i, i % 3, 1.0);
+        }
+        DataSet ds = new DataSet(features, labels);
+        for (int i = 0; i < 10; i++) {
+            net.fit(ds);
+        }
+        INDArray paramsBefore = net.params().dup();
+
+        QuantizedMultiLayerNetwork quantized = PostTrainingQuantization.quantize(net,
+                        new ListDataSetIterator<>(ds.asList(), 10));
+        assertEquals(paramsBefore, net.params());
+        assertTrue(quantized.isQuantized(0));
+        assertTrue(quantized.isQuantized(1));
+        assertTrue(quantized.isQuantized(2));
+        //No floating point copy of the quantized weights: only the biases are kept
+        for (int i = 0; i < 3; i++) {
+            assertNull(quantized.getLayers()[i]);
+            assertEquals(net.getLayer(i).getParam("b").length(), quantized.getLayerParams()[i].length());
+        }
+
+        INDArray expected = net.output(features);
+        INDArray out = quantized.output(features);
+        assertArrayEquals(expected.shape(), out.shape());
+        double maxDiff = expected.sub(out).amaxNumber().doubleValue();
+        assertTrue("Max difference: " + maxDiff, maxDiff < 0.02);
+
+        //INT8 execution: quantized inputs, INT8 matrix multiplication
+        quantized.setInt8Gemm(true);
+        INDArray outInt8 = quantized.output(features);
+        quantized.setInt8Gemm(false);
+        maxDiff = expected.sub(outInt8).amaxNumber().doubleValue();
+        assertTrue("Max difference: " + maxDiff, maxDiff < 0.02);
+
+        //Save and restore
+        File fFloat = testDir.newFile();
+        File fQuantized = testDir.newFile();
+        ModelSerializer.writeModel(net, fFloat, false);
+        ModelSerializer.writeModel(quantized, fQuantized);
+        assertTrue(fQuantized.length() < fFloat.length());
+
+        QuantizedMultiLayerNetwork restored = ModelSerializer.restoreQuantizedMultiLayerNetwork(fQuantized);
+        assertArrayEquals(quantized.getInputScales(), restored.getInputScales(), 0.0f);
+        assertArrayEquals(quantized.getWeights(), restored.getWeights());
+        assertArrayEquals(quantized.getLayerParams(), restored.getLayerParams());
+        assertEquals(out, restored.output(features));
+    }
+}
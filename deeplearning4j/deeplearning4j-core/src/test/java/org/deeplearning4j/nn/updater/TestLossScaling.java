@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.updater;
+
+import org.deeplearning4j.BaseDL4JTest;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.LossScaling;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.gradient.Gradient;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.deeplearning4j.util.ModelSerializer;
+import org.junit.Test;
+import org.nd4j.linalg.activations.Activation;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.util.DataTypeUtil;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.learning.config.Adam;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestLossScaling extends BaseDL4JTest {
+
+    private static MultiLayerConfiguration getConf(LossScaling lossScaling) {
+        return new NeuralNetConfiguration.Builder()
+                        .seed(12345)
+                        .updater(new Adam(0.01))
+                        .lossScaling(lossScaling)
+                        .list()
+                        .layer(new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build())
+                        .layer(new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build())
+                        .build();
+    }
+
+    private static ComputationGraphConfiguration getGraphConf(LossScaling lossScaling) {
+        return new NeuralNetConfiguration.Builder()
+                        .seed(12345)
+                        .updater(new Adam(0.01))
+                        .lossScaling(lossScaling)
+                        .graphBuilder()
+                        .addInputs("in")
+                        .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build(), "in")
+                        .addLayer("1", new OutputLayer.Builder().nIn(5).nOut(3).activation(Activation.SOFTMAX)
+                                        .lossFunction(LossFunctions.LossFunction.MCXENT).build(), "0")
+                        .setOutputs("1")
+                        .build();
+    }
+
+    private static DataSet getData() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray f = Nd4j.rand(10, 4);
+        INDArray l = Nd4j.zeros(10, 3);
+        for (int i = 0; i < 10; i++) {
+            l.putScalar(i, i % 3, 1.0);
+        }
+        return new DataSet(f, l);
+    }
+
+    @Test
+    public void testLossScalingMatchesNoScaling() {
+        DataBuffer.Type initialType = Nd4j.dataType();
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.DOUBLE);
+        try {
+            DataSet ds = getData();
+
+            MultiLayerNetwork netNoScaling = new MultiLayerNetwork(getConf(null));
+            netNoScaling.init();
+            //Power of 2 scaling: should be exact
+            MultiLayerNetwork netStatic = new MultiLayerNetwork(getConf(LossScaling.staticScaling(1024)));
+            netStatic.init();
+            MultiLayerNetwork netDynamic = new MultiLayerNetwork(getConf(new LossScaling.Builder()
+                            .initialScale(256).growthInterval(3).build()));
+            netDynamic.init();
+
+            ComputationGraph cgNoScaling = new ComputationGraph(getGraphConf(null));
+            cgNoScaling.init();
+            ComputationGraph cgDynamic = new ComputationGraph(getGraphConf(new LossScaling.Builder()
+                            .initialScale(256).growthInterval(3).build()));
+            cgDynamic.init();
+
+            assertEquals(netNoScaling.params(), netStatic.params());
+            assertEquals(netNoScaling.params(), cgDynamic.params());
+
+            for (int i = 0; i < 10; i++) {
+                netNoScaling.fit(ds);
+                netStatic.fit(ds);
+                netDynamic.fit(ds);
+                cgNoScaling.fit(ds);
+                cgDynamic.fit(ds);
+            }
+
+            assertEquals(1.0, ((BaseMultiLayerUpdater) netNoScaling.getUpdater()).getLossScale(), 0.0);
+            assertEquals(1024, ((BaseMultiLayerUpdater) netStatic.getUpdater()).getLossScale(), 0.0);
+            assertEquals(256 * 8, ((BaseMultiLayerUpdater) netDynamic.getUpdater()).getLossScale(), 0.0);
+            assertEquals(256 * 8, cgDynamic.getUpdater().getLossScale(), 0.0);
+
+            assertEquals(netNoScaling.params(), netStatic.params());
+            assertEquals(netNoScaling.params(), netDynamic.params());
+            assertEquals(cgNoScaling.params(), cgDynamic.params());
+        } finally {
+            DataTypeUtil.setDTypeForContext(initialType);
+        }
+    }
+
+    @Test
+    public void testLossScalingAppliedBeforeBackprop() {
+        DataBuffer.Type initialType = Nd4j.dataType();
+        DataTypeUtil.setDTypeForContext(DataBuffer.Type.DOUBLE);
+        try {
+            DataSet ds = getData();
+            double scale = 1024;
+
+            //Output layer: the loss function gradient is scaled, hence the gradients of all layers are scaled
+            MultiLayerNetwork net = new MultiLayerNetwork(getConf(null));
+            net.init();
+            MultiLayerNetwork netScaled = new MultiLayerNetwork(getConf(LossScaling.staticScaling(scale)));
+            netScaled.init();
+            for (MultiLayerNetwork n : new MultiLayerNetwork[] {net, netScaled}) {
+                n.setInput(ds.getFeatures());
+                n.setLabels(ds.getLabels());
+                n.computeGradientAndScore();
+            }
+            assertEquals(net.getFlattenedGradients().mul(scale), netScaled.getFlattenedGradients());
+            assertEquals(net.score(), netScaled.score(), 0.0);
+
+            //External errors: scaled in the same way, and unscaled by the updater
+            ComputationGraph[] graphs = new ComputationGraph[2];
+            Gradient[] gradients = new Gradient[2];
+            INDArray epsilon = Nd4j.rand(10, 5);
+            INDArray epsilonCopy = epsilon.dup();
+            for (int i = 0; i < 2; i++) {
+                ComputationGraphConfiguration conf = new NeuralNetConfiguration.Builder()
+                                .seed(12345)
+                                .updater(new Adam(0.01))
+                                .lossScaling(i == 0 ? null : LossScaling.staticScaling(scale))
+                                .graphBuilder()
+                                .addInputs("in")
+                                .addLayer("0", new DenseLayer.Builder().nIn(4).nOut(5).activation(Activation.TANH).build(), "in")
+                                .setOutputs("0")
+                                .build();
+                graphs[i] = new ComputationGraph(conf);
+                graphs[i].init();
+                graphs[i].feedForward(new INDArray[] {ds.getFeatures()}, true, false);
+                gradients[i] = graphs[i].backpropGradient(epsilon);
+            }
+            assertEquals(epsilonCopy, epsilon);
+            assertEquals(gradients[0].gradient().mul(scale), gradients[1].gradient());
+
+            for (int i = 0; i < 2; i++) {
+                graphs[i].getUpdater().update(gradients[i], 0, 0, 10, LayerWorkspaceMgr.noWorkspaces());
+            }
+            assertEquals(gradients[0].gradient(), gradients[1].gradient());
+        } finally {
+            DataTypeUtil.setDTypeForContext(initialType);
+        }
+    }
+
+    @Test
+    public void testLossScalingJson() {
+        MultiLayerConfiguration conf = getConf(new LossScaling.Builder().initialScale(512).growthInterval(100)
+                        .scaleRange(2, 4096).build());
+        MultiLayerConfiguration fromJson = MultiLayerConfiguration.fromJson(conf.toJson());
+        assertEquals(conf, fromJson);
+        assertEquals(conf.getConf(0).getLossScaling(), fromJson.getConf(1).getLossScaling());
+
+        ComputationGraphConfiguration graphConf = getGraphConf(LossScaling.staticScaling(128));
+        assertEquals(graphConf, ComputationGraphConfiguration.fromJson(graphConf.toJson()));
+    }
+
+    @Test
+    public void testLossScalingOverflowSkipsUpdate() {
+        DataSet ds = getData();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf(new LossScaling.Builder()
+                        .initialScale(1024).scaleRange(256, 65536).build()));
+        net.init();
+        MultiLayerUpdater updater = (MultiLayerUpdater) net.getUpdater();
+        INDArray paramsBefore = net.params().dup();
+        INDArray stateBefore = updater.getStateViewArray().dup();
+
+        for (int i = 0; i < 3; i++) {
+            net.setInput(ds.getFeatures());
+            net.setLabels(ds.getLabels());
+            net.computeGradientAndScore();
+            net.getFlattenedGradients().putScalar(0, Double.NaN);
+            updater.update(net.gradient(), i, 0, 10, LayerWorkspaceMgr.noWorkspaces());
+
+            assertEquals(0.0, net.getFlattenedGradients().norm1Number().doubleValue(), 0.0);
+            assertEquals(i + 1, updater.getLossScaleSkippedIterations());
+        }
+
+        //Scale should be reduced on each overflow, down to the minimum
+        assertEquals(256, updater.getLossScale(), 0.0);
+        assertEquals(paramsBefore, net.params());
+        assertEquals(stateBefore, updater.getStateViewArray());
+    }
+
+    @Test
+    public void testLossScalingStateCloneAndSerialization() throws Exception {
+        DataSet ds = getData();
+        LossScaling lossScaling = new LossScaling.Builder().initialScale(256).growthInterval(3).build();
+
+        MultiLayerNetwork net = new MultiLayerNetwork(getConf(lossScaling));
+        net.init();
+        ComputationGraph cg = new ComputationGraph(getGraphConf(lossScaling));
+        cg.init();
+        for (int i = 0; i < 7; i++) {
+            net.fit(ds);
+            cg.fit(ds);
+        }
+
+        BaseMultiLayerUpdater u = (BaseMultiLayerUpdater) net.getUpdater();
+        assertEquals(256 * 4, u.getLossScale(), 0.0);
+        assertEquals(1, u.getLossScaleStepsSinceChange());
+
+        List<MultiLayerNetwork> nets = new ArrayList<>();
+        nets.add(net.clone());
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(net, baos, true);
+        byte[] netBytes = baos.toByteArray();
+        nets.add(ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(netBytes), true));
+        for (MultiLayerNetwork n : nets) {
+            BaseMultiLayerUpdater restored = (BaseMultiLayerUpdater) n.getUpdater();
+            assertEquals(u.getLossScale(), restored.getLossScale(), 0.0);
+            assertEquals(u.getLossScaleStepsSinceChange(), restored.getLossScaleStepsSinceChange());
+            assertEquals(u.getLossScaleSkippedIterations(), restored.getLossScaleSkippedIterations());
+        }
+
+        List<ComputationGraph> graphs = new ArrayList<>();
+        graphs.add(cg.clone());
+        baos = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(cg, baos, true);
+        graphs.add(ModelSerializer.restoreComputationGraph(new ByteArrayInputStream(baos.toByteArray()), true));
+        for (ComputationGraph g : graphs) {
+            assertEquals(cg.getUpdater().getLossScale(), g.getUpdater().getLossScale(), 0.0);
+            assertEquals(cg.getUpdater().getLossScaleStepsSinceChange(),
+                            g.getUpdater().getLossScaleStepsSinceChange());
+        }
+
+        //Without the updater, the scale starts again from the initial value
+        MultiLayerNetwork noUpdater =
+                        ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(netBytes), false);
+        assertEquals(256, ((BaseMultiLayerUpdater) noUpdater.getUpdater()).getLossScale(), 0.0);
+    }
+}
@@ -284,4 +284,71 @@ public class TestCheckpointListener extends BaseDL4JTest {
         assertNotNull(fList);
         assertEquals(2, fList.length);
     }
+
+    @Test
+    public void testCheckpointListenerAsyncAndIncremental() throws Exception {
+        //Reference: synchronous, full checkpoints
+        File fRef = tempDir.newFolder();
+        Pair<MultiLayerNetwork, DataSetIterator> p = getNetAndData();
+        MultiLayerNetwork net = p.getFirst();
+        DataSetIterator iter = p.getSecond();
+        MultiLayerNetwork netAsync = net.clone();
+        MultiLayerNetwork netIncremental = net.clone();
+
+        CheckpointListener lRef = new CheckpointListener.Builder(fRef)
+                .keepAll()
+                .saveEveryNIterations(5)
+                .build();
+        net.setListeners(lRef);
+
+        File fAsync = tempDir.newFolder();
+        CheckpointListener lAsync = new CheckpointListener.Builder(fAsync)
+                .keepAll()
+                .saveEveryNIterations(5)
+                .asyncSaving(true)
+                .build();
+        netAsync.setListeners(lAsync);
+
+        File fIncremental = tempDir.newFolder();
+        CheckpointListener lIncremental = new CheckpointListener.Builder(fIncremental)
+                .keepLast(2)
+                .saveEveryNIterations(5)
+                .asyncSaving(true)
+                .incrementalCheckpoints(3)
+                .build();
+        netIncremental.setListeners(lIncremental);
+
+        for(int i=0; i<20; i++ ){   //40 iterations total
+            net.fit(iter);
+            netAsync.fit(iter);
+            netIncremental.fit(iter);
+        }
+
+        //Expect models saved at iterations: 5, 10, 15, 20, 25, 30, 35 -> checkpoints 0 to 6
+        //No waitForPendingSave() call needed: listing and loading checkpoints waits for the pending save
+        assertEquals(7, lRef.availableCheckpoints().size());
+        assertEquals(7, lAsync.availableCheckpoints().size());
+        for( int i=0; i<7; i++ ){
+            MultiLayerNetwork exp = lRef.loadCheckpointMLN(i);
+            MultiLayerNetwork act = lAsync.loadCheckpointMLN(i);
+            assertEquals(5 * (i+1), act.getIterationCount());
+            assertEquals(exp.params(), act.params());
+            assertEquals(exp.getUpdater().getStateViewArray(), act.getUpdater().getStateViewArray());
+        }
+
+        //Checkpoints 0, 3 and 6 are full checkpoints, others are incremental
+        //Keep last 2 (5 and 6) - but 3 is also kept, as checkpoint 5 depends on it
+        assertEquals(3, lIncremental.availableCheckpoints().size());
+        assertTrue(new File(fIncremental, "checkpoint_3_MultiLayerNetwork.zip").exists());
+        assertTrue(new File(fIncremental, "checkpoint_5_MultiLayerNetwork_delta.bin").exists());
+        assertTrue(new File(fIncremental, "checkpoint_6_MultiLayerNetwork.zip").exists());
+        assertFalse(new File(fIncremental, "checkpoint_4_MultiLayerNetwork_delta.bin").exists());
+        for( int i=5; i<7; i++ ){
+            MultiLayerNetwork exp = lRef.loadCheckpointMLN(i);
+            MultiLayerNetwork act = lIncremental.loadCheckpointMLN(i);
+            assertEquals(5 * (i+1), act.getIterationCount());
+            assertEquals(exp.params(), act.params());
+            assertEquals(exp.getUpdater().getStateViewArray(), act.getUpdater().getStateViewArray());
+        }
+    }
 }
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.datasets.iterator.bucketing;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.nd4j.linalg.api.memory.MemoryWorkspace;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.*;
+
+/**
+ * Base class for iterators that group variable length sequences into buckets of similar length before batching them.<br>
+ * Each example from the underlying iterator is trimmed to the part of the sequence that is actually present (as defined
+ * by the mask arrays), assigned to a bucket based on its length, and buffered. Once a bucket holds enough examples,
+ * a minibatch is drawn from it and merged, so that the minibatch only needs to be padded to the longest sequence in
+ * that bucket instead of the longest sequence in the original minibatch.<br>
+ * <br>
+ * Bucket boundaries are specified as an increasing array of sequence lengths: bucket i contains sequences with length
+ * in range [boundaries[i-1], boundaries[i]), with the first bucket containing all sequences shorter than boundaries[0]
+ * and the last bucket containing all sequences with length >= boundaries[boundaries.length-1].<br>
+ * <br>
+ * Note that the order of the examples is not preserved.
+ *
+ * @param <T> Type of dataset
+ * @param <P> Type of preprocessor
+ */
+public abstract class BaseBucketingSequenceIterator<T, P> implements Iterator<T> {
+
+    protected final int batchSize;
+    protected final int[] bucketBoundaries;
+    protected final int bufferSize;
+    protected final Random rng;
+
+    private final List<List<MultiDataSet>> buckets;
+    private final List<List<Integer>> bucketLengths;
+    private final LinkedList<MultiDataSet> ready = new LinkedList<>();
+
+    @Getter
+    @Setter
+    protected P preProcessor;
+
+    /**
+     * Total number of (unpadded) time steps, summed over all examples returned so far
+     */
+    @Getter
+    protected long numRealTimeSteps;
+    /**
+     * Total number of time steps (including padding) in the minibatches returned so far
+     */
+    @Getter
+    protected long numPaddedTimeSteps;
+    /**
+     * Total number of time steps (including padding) in the minibatches read from the underlying iterator so far
+     */
+    @Getter
+    protected long numSourceTimeSteps;
+
+    /**
+     * @param batchSize        Size of the minibatches to return
+     * @param bucketBoundaries Increasing sequence lengths defining the bucket boundaries
+     * @param bufferBatches    Number of minibatches to buffer per bucket before returning one. Values larger than 1
+     *                         (in combination with a non-null RNG) allow examples to be shuffled within each bucket
+     * @param rng              May be null. If non-null, used to shuffle the examples within each bucket
+     */
+    protected BaseBucketingSequenceIterator(int batchSize, @NonNull int[] bucketBoundaries, int bufferBatches, Random rng) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be > 0: got " + batchSize);
+        }
+        if (bufferBatches <= 0) {
+            throw new IllegalArgumentException("Number of buffered batches per bucket must be > 0: got " + bufferBatches);
+        }
+        for (int i = 0; i < bucketBoundaries.length; i++) {
+            if (bucketBoundaries[i] <= 0 || (i > 0 && bucketBoundaries[i] <= bucketBoundaries[i - 1])) {
+                throw new IllegalArgumentException("Bucket boundaries must be positive and strictly increasing: got "
+                                + Arrays.toString(bucketBoundaries));
+            }
+        }
+
+        this.batchSize = batchSize;
+        this.bucketBoundaries = bucketBoundaries;
+        this.bufferSize = batchSize * bufferBatches;
+        this.rng = rng;
+
+        this.buckets = new ArrayList<>(bucketBoundaries.length + 1);
+        this.bucketLengths = new ArrayList<>(bucketBoundaries.length + 1);
+        for (int i = 0; i <= bucketBoundaries.length; i++) {
+            buckets.add(new ArrayList<MultiDataSet>());
+            bucketLengths.add(new ArrayList<Integer>());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        fill();
+        return !ready.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No next element");
+        }
+        T ret = convert(ready.removeFirst());
+        applyPreprocessor(ret);
+        return ret;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Not supported");
+    }
+
+    public void reset() {
+        resetSource();
+        ready.clear();
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.get(i).clear();
+            bucketLengths.get(i).clear();
+        }
+        numRealTimeSteps = 0;
+        numPaddedTimeSteps = 0;
+        numSourceTimeSteps = 0;
+    }
+
+    public boolean asyncSupported() {
+        return true;
+    }
+
+    public int batch() {
+        return batchSize;
+    }
+
+    /**
+     * Fraction of the time steps in the returned minibatches that are real (i.e., not padding) time steps.
+     * A value of 1.0 means no padding was required. Statistics are cleared when the iterator is reset.
+     */
+    public double getPaddingEfficiency() {
+        return numPaddedTimeSteps == 0 ? 1.0 : numRealTimeSteps / (double) numPaddedTimeSteps;
+    }
+
+    /**
+     * Padding efficiency of the minibatches read from the underlying iterator, for comparison with
+     * {@link #getPaddingEfficiency()}. Statistics are cleared when the iterator is reset.
+     */
+    public double getSourcePaddingEfficiency() {
+        return numSourceTimeSteps == 0 ? 1.0 : numRealTimeSteps / (double) numSourceTimeSteps;
+    }
+
+    /**
+     * Get the index of the bucket for sequences of the specified length
+     */
+    public int bucketIndex(int sequenceLength) {
+        int idx = Arrays.binarySearch(bucketBoundaries, sequenceLength);
+        return idx >= 0 ? idx + 1 : -(idx + 1);
+    }
+
+    private void fill() {
+        while (ready.isEmpty()) {
+            if (sourceHasNext()) {
+                MultiDataSet mds = sourceNext();
+                try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                    numSourceTimeSteps += mds.getFeatures(0).size(0) * maxTimeSeriesLength(mds);
+                    for (MultiDataSet example : mds.asList()) {
+                        int[] length = new int[1];
+                        MultiDataSet trimmed = trim(example, length);
+                        int b = bucketIndex(length[0]);
+                        buckets.get(b).add(trimmed);
+                        bucketLengths.get(b).add(length[0]);
+                        if (buckets.get(b).size() >= bufferSize) {
+                            emit(b, batchSize);
+                        }
+                    }
+                }
+            } else {
+                //Underlying iterator is exhausted: return whatever is left, one bucket at a time
+                try (MemoryWorkspace ws = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                    for (int b = 0; b < buckets.size(); b++) {
+                        while (!buckets.get(b).isEmpty()) {
+                            emit(b, Math.min(batchSize, buckets.get(b).size()));
+                        }
+                    }
+                }
+                if (rng != null) {
+                    Collections.shuffle(ready, rng);
+                }
+                return;
+            }
+        }
+    }
+
+    private void emit(int bucket, int num) {
+        List<MultiDataSet> examples = buckets.get(bucket);
+        List<Integer> lengths = bucketLengths.get(bucket);
+        if (rng != null && examples.size() > num) {
+            //Shuffle examples and lengths together, then take the first num
+            long seed = rng.nextLong();
+            Collections.shuffle(examples, new Random(seed));
+            Collections.shuffle(lengths, new Random(seed));
+        }
+
+        List<MultiDataSet> toMerge = new ArrayList<>(examples.subList(0, num));
+        int maxLength = 0;
+        for (int i = 0; i < num; i++) {
+            int l = lengths.get(i);
+            numRealTimeSteps += l;
+            maxLength = Math.max(maxLength, l);
+        }
+        numPaddedTimeSteps += (long) num * maxLength;
+        examples.subList(0, num).clear();
+        lengths.subList(0, num).clear();
+
+        ready.add(org.nd4j.linalg.dataset.MultiDataSet.merge(toMerge));
+    }
+
+    /**
+     * Trim a single example to the time steps actually present. Time series arrays (rank 3) are grouped by their
+     * (original) length; all arrays in a group are trimmed to the union of the ranges defined by their mask arrays,
+     * so that features and labels remain aligned (for example, many-to-one with labels at the last time step only)
+     *
+     * @param example Single example to trim
+     * @param lengthOut Length 1 array, used to return the sequence length (maximum over all time series arrays)
+     * @return Trimmed example
+     */
+    protected MultiDataSet trim(MultiDataSet example, int[] lengthOut) {
+        INDArray[] f = example.getFeatures();
+        INDArray[] l = example.getLabels();
+        INDArray[] fm = example.getFeaturesMaskArrays();
+        INDArray[] lm = example.getLabelsMaskArrays();
+
+        //Key: original time series length. Value: {start, end} of the union of all mask ranges
+        Map<Long, long[]> ranges = new HashMap<>();
+        updateRanges(f, fm, ranges);
+        updateRanges(l, lm, ranges);
+
+        INDArray[] fOut = new INDArray[f.length];
+        INDArray[] fmOut = fm == null ? null : new INDArray[fm.length];
+        trimArrays(f, fm, ranges, fOut, fmOut);
+        INDArray[] lOut = l == null ? null : new INDArray[l.length];
+        INDArray[] lmOut = lm == null ? null : new INDArray[lm.length];
+        if (l != null) {
+            trimArrays(l, lm, ranges, lOut, lmOut);
+        }
+
+        long maxLength = 0;
+        for (long[] r : ranges.values()) {
+            maxLength = Math.max(maxLength, r[1] - r[0]);
+        }
+        lengthOut[0] = (int) maxLength;
+
+        return new org.nd4j.linalg.dataset.MultiDataSet(fOut, lOut, allNull(fmOut) ? null : fmOut,
+                        allNull(lmOut) ? null : lmOut);
+    }
+
+    private static void updateRanges(INDArray[] arrays, INDArray[] masks, Map<Long, long[]> ranges) {
+        if (arrays == null) {
+            return;
+        }
+        for (int i = 0; i < arrays.length; i++) {
+            if (arrays[i] == null || arrays[i].rank() != 3) {
+                continue;
+            }
+            long tsLength = arrays[i].size(2);
+            long start = 0;
+            long end = tsLength;
+            INDArray mask = (masks == null ? null : masks[i]);
+            if (mask != null) {
+                float[] m = mask.dup().data().asFloat();
+                start = tsLength;
+                end = 0;
+                for (int j = 0; j < m.length; j++) {
+                    if (m[j] != 0.0f) {
+                        start = Math.min(start, j);
+                        end = j + 1;
+                    }
+                }
+                if (end <= start) {
+                    //Entirely masked out - can't infer the present range from this array
+                    continue;
+                }
+            }
+
+            long[] r = ranges.get(tsLength);
+            if (r == null) {
+                ranges.put(tsLength, new long[] {start, end});
+            } else {
+                r[0] = Math.min(r[0], start);
+                r[1] = Math.max(r[1], end);
+            }
+        }
+    }
+
+    private static void trimArrays(INDArray[] arrays, INDArray[] masks, Map<Long, long[]> ranges, INDArray[] out,
+                    INDArray[] masksOut) {
+        for (int i = 0; i < arrays.length; i++) {
+            INDArray mask = (masks == null ? null : masks[i]);
+            long[] r = (arrays[i] == null || arrays[i].rank() != 3 ? null : ranges.get(arrays[i].size(2)));
+            if (r == null || (r[0] == 0 && r[1] == arrays[i].size(2))) {
+                //Not a time series, or nothing to trim
+                out[i] = arrays[i].dup();
+                if (masksOut != null) {
+                    masksOut[i] = (mask == null ? null : mask.dup());
+                }
+                continue;
+            }
+
+            out[i] = arrays[i].get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(r[0], r[1])).dup();
+            if (mask != null) {
+                INDArray m = mask.get(NDArrayIndex.all(), NDArrayIndex.interval(r[0], r[1])).dup();
+                //A mask that is all ones after trimming is redundant; removing it allows merging without masks
+                masksOut[i] = (m.sumNumber().longValue() == r[1] - r[0] ? null : m);
+            }
+        }
+    }
+
+    private static boolean allNull(INDArray[] arrays) {
+        if (arrays == null) {
+            return true;
+        }
+        for (INDArray a : arrays) {
+            if (a != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long maxTimeSeriesLength(MultiDataSet mds) {
+        long max = 0;
+        for (INDArray[] arrays : new INDArray[][] {mds.getFeatures(), mds.getLabels()}) {
+            if (arrays == null) {
+                continue;
+            }
+            for (INDArray a : arrays) {
+                if (a != null && a.rank() == 3) {
+                    max = Math.max(max, a.size(2));
+                }
+            }
+        }
+        return max;
+    }
+
+    protected abstract boolean sourceHasNext();
+
+    protected abstract MultiDataSet sourceNext();
+
+    protected abstract void resetSource();
+
+    protected abstract T convert(MultiDataSet mds);
+
+    protected abstract void applyPreprocessor(T toPreProcess);
+}
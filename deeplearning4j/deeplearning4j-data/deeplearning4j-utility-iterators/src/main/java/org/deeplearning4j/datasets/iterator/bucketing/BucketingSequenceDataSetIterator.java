@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.datasets.iterator.bucketing;
+
+import lombok.NonNull;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A {@link DataSetIterator} wrapper that groups variable length sequences of similar length into the same minibatch,
+ * reducing the amount of padding (and hence wasted computation) for recurrent neural networks.<br>
+ * See {@link BaseBucketingSequenceIterator} for details. Usage example:<br>
+ * <pre>
+ * {@code
+ * DataSetIterator iter = new SequenceRecordReaderDataSetIterator(...);
+ * BucketingSequenceDataSetIterator bucketed =
+ *         new BucketingSequenceDataSetIterator(iter, 32, new int[]{50, 100, 200, 500}, 4, new Random(12345));
+ * net.fit(bucketed);
+ * log.info("Padding efficiency: {} (was {})", bucketed.getPaddingEfficiency(), bucketed.getSourcePaddingEfficiency());
+ * }
+ * </pre>
+ */
+public class BucketingSequenceDataSetIterator extends BaseBucketingSequenceIterator<DataSet, DataSetPreProcessor>
+                implements DataSetIterator {
+
+    private final DataSetIterator underlying;
+
+    /**
+     * Create a bucketing iterator without shuffling within buckets
+     *
+     * @param underlying       Underlying iterator to wrap
+     * @param batchSize        Size of the minibatches to return
+     * @param bucketBoundaries Increasing sequence lengths defining the bucket boundaries
+     */
+    public BucketingSequenceDataSetIterator(DataSetIterator underlying, int batchSize, int[] bucketBoundaries) {
+        this(underlying, batchSize, bucketBoundaries, 1, null);
+    }
+
+    /**
+     * @param underlying       Underlying iterator to wrap
+     * @param batchSize        Size of the minibatches to return
+     * @param bucketBoundaries Increasing sequence lengths defining the bucket boundaries
+     * @param bufferBatches    Number of minibatches to buffer per bucket before returning one
+     * @param rng              May be null. If non-null, used to shuffle the examples within each bucket
+     */
+    public BucketingSequenceDataSetIterator(@NonNull DataSetIterator underlying, int batchSize, int[] bucketBoundaries,
+                    int bufferBatches, Random rng) {
+        super(batchSize, bucketBoundaries, bufferBatches, rng);
+        this.underlying = underlying;
+    }
+
+    @Override
+    protected boolean sourceHasNext() {
+        return underlying.hasNext();
+    }
+
+    @Override
+    protected MultiDataSet sourceNext() {
+        DataSet ds = underlying.next();
+        return new org.nd4j.linalg.dataset.MultiDataSet(ds.getFeatures(), ds.getLabels(), ds.getFeaturesMaskArray(),
+                        ds.getLabelsMaskArray());
+    }
+
+    @Override
+    protected void resetSource() {
+        underlying.reset();
+    }
+
+    @Override
+    protected DataSet convert(MultiDataSet mds) {
+        return new DataSet(mds.getFeatures(0), mds.getLabels(0), mds.getFeaturesMaskArray(0),
+                        mds.getLabelsMaskArray(0));
+    }
+
+    @Override
+    protected void applyPreprocessor(DataSet toPreProcess) {
+        if (preProcessor != null) {
+            preProcessor.preProcess(toPreProcess);
+        }
+    }
+
+    @Override
+    public DataSet next(int num) {
+        throw new UnsupportedOperationException("Not supported for this iterator");
+    }
+
+    @Override
+    public int inputColumns() {
+        return underlying.inputColumns();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return underlying.totalOutcomes();
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return underlying.resetSupported();
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return underlying.getLabels();
+    }
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.datasets.iterator.bucketing;
+
+import lombok.NonNull;
+import org.nd4j.linalg.dataset.api.MultiDataSet;
+import org.nd4j.linalg.dataset.api.MultiDataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.MultiDataSetIterator;
+
+import java.util.Random;
+
+/**
+ * A {@link MultiDataSetIterator} wrapper that groups variable length sequences of similar length into the same
+ * minibatch, reducing the amount of padding (and hence wasted computation) for recurrent neural networks.<br>
+ * For MultiDataSets with multiple time series arrays, the sequence length used for bucketing is the maximum over all
+ * time series arrays in the example. See {@link BaseBucketingSequenceIterator} for details.
+ */
+public class BucketingSequenceMultiDataSetIterator extends BaseBucketingSequenceIterator<MultiDataSet, MultiDataSetPreProcessor>
+                implements MultiDataSetIterator {
+
+    private final MultiDataSetIterator underlying;
+
+    /**
+     * Create a bucketing iterator without shuffling within buckets
+     *
+     * @param underlying       Underlying iterator to wrap
+     * @param batchSize        Size of the minibatches to return
+     * @param bucketBoundaries Increasing sequence lengths defining the bucket boundaries
+     */
+    public BucketingSequenceMultiDataSetIterator(MultiDataSetIterator underlying, int batchSize, int[] bucketBoundaries) {
+        this(underlying, batchSize, bucketBoundaries, 1, null);
+    }
+
+    /**
+     * @param underlying       Underlying iterator to wrap
+     * @param batchSize        Size of the minibatches to return
+     * @param bucketBoundaries Increasing sequence lengths defining the bucket boundaries
+     * @param bufferBatches    Number of minibatches to buffer per bucket before returning one
+     * @param rng              May be null. If non-null, used to shuffle the examples within each bucket
+     */
+    public BucketingSequenceMultiDataSetIterator(@NonNull MultiDataSetIterator underlying, int batchSize,
+                    int[] bucketBoundaries, int bufferBatches, Random rng) {
+        super(batchSize, bucketBoundaries, bufferBatches, rng);
+        this.underlying = underlying;
+    }
+
+    @Override
+    protected boolean sourceHasNext() {
+        return underlying.hasNext();
+    }
+
+    @Override
+    protected MultiDataSet sourceNext() {
+        return underlying.next();
+    }
+
+    @Override
+    protected void resetSource() {
+        underlying.reset();
+    }
+
+    @Override
+    protected MultiDataSet convert(MultiDataSet mds) {
+        return mds;
+    }
+
+    @Override
+    protected void applyPreprocessor(MultiDataSet toPreProcess) {
+        if (preProcessor != null) {
+            preProcessor.preProcess(toPreProcess);
+        }
+    }
+
+    @Override
+    public MultiDataSet next(int num) {
+        throw new UnsupportedOperationException("Not supported for this iterator");
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return underlying.resetSupported();
+    }
+}
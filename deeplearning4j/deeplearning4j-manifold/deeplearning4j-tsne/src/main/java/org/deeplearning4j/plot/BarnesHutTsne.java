@@ -21,6 +21,8 @@ import com.google.common.util.concurrent.AtomicDouble;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.math3.util.FastMath;
+import org.deeplearning4j.clustering.randomprojection.RPForest;
+import org.deeplearning4j.clustering.randomprojection.RPUtils;
 import org.deeplearning4j.clustering.sptree.DataPoint;
 import org.deeplearning4j.clustering.sptree.SpTree;
 import org.deeplearning4j.clustering.vptree.VPTree;
@@ -51,8 +53,13 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.nd4j.linalg.factory.Nd4j.*;
 import static org.nd4j.linalg.ops.transforms.Transforms.pow;
@@ -107,6 +114,9 @@ public class BarnesHutTsne implements Model {
     private INDArray gains;
     private INDArray yIncs;
     private int vpTreeWorkers;
+    private int numThreads = 1;
+    private int randomProjectionTrees = 0;
+    private transient ForkJoinPool forkJoinPool;
     protected transient TrainingListener trainingListener;
     protected WorkspaceMode workspaceMode;
     protected final static WorkspaceConfiguration workspaceConfigurationExternal = WorkspaceConfiguration.builder()
@@ -199,7 +209,9 @@ public class BarnesHutTsne implements Model {
 
     /**
      * Convert data to probability
-     * co-occurrences (aka calculating the kernel)
+     * co-occurrences (aka calculating the kernel).
+     * Neighbour search and the binary search for each point's beta are independent per point,
+     * so they are computed over blocks of points on {@link #getNumThreads()} threads.
      * @param d the data to convert
      * @param u the perplexity of the model
      * @return the probabilities of co-occurrence
@@ -213,18 +225,28 @@ public class BarnesHutTsne implements Model {
 
 
         rows = zeros(1, N + 1);
-        cols = zeros(1, N * k);
-        vals = zeros(1, N * k);
 
         for (int n = 0; n < N; n++)
             rows.putScalar(n + 1, rows.getDouble(n) + k);
 
 
-        final INDArray beta = ones(N, 1);
+        final double[] colsArr = new double[N * k];
+        final double[] valsArr = new double[N * k];
 
         final double logU = FastMath.log(u);
-        VPTree tree = new VPTree(d, simiarlityFunction, vpTreeWorkers,invert);
+        final VPTree tree;
+        final RPForest forest;
+        if (randomProjectionTrees > 0) {
+            log.info("Building random projection forest with {} trees...", randomProjectionTrees);
+            tree = null;
+            forest = new RPForest(randomProjectionTrees, 2 * (k + 1), simiarlityFunction);
+            forest.fit(d);
+        } else {
+            tree = new VPTree(d, simiarlityFunction, vpTreeWorkers, invert);
+            forest = null;
+        }
 
+        final AtomicInteger handled = new AtomicInteger(0);
         MemoryWorkspace workspace =
                 workspaceMode == WorkspaceMode.NONE ? new DummyWorkspace()
                         : Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(
@@ -232,72 +254,164 @@ public class BarnesHutTsne implements Model {
                         workspaceExternal);
         try (MemoryWorkspace ws = workspace.notifyScopeEntered()) {
             log.info("Calculating probabilities of data similarities...");
-            for (int i = 0; i < N; i++) {
-                if (i % 500 == 0)
-                    log.info("Handled " + i + " records");
-
-                double betaMin = -Double.MAX_VALUE;
-                double betaMax = Double.MAX_VALUE;
-                List<DataPoint> results = new ArrayList<>();
-                tree.search(d.slice(i), k + 1, results, new ArrayList<Double>());
-                double betas = beta.getDouble(i);
-
-                if(results.size() == 0){
-                    throw new IllegalStateException("Search returned no values for vector " + i +
-                            " - similarity \"" + simiarlityFunction + "\" may not be defined (for example, vector is" +
-                            " all zeros with cosine similarity)");
-                }
-
-                INDArray cArr = VPTree.buildFromData(results);
-                Pair<INDArray, Double> pair = computeGaussianKernel(cArr, beta.getDouble(i), k);
-                INDArray currP = pair.getFirst();
-                double hDiff = pair.getSecond() - logU;
-                int tries = 0;
-                boolean found = false;
-                //binary search
-                while (!found && tries < 200) {
-                    if (hDiff < tolerance && -hDiff < tolerance)
-                        found = true;
-                    else {
-                        if (hDiff > 0) {
-                            betaMin = betas;
-
-                            if (betaMax == Double.MAX_VALUE || betaMax == -Double.MAX_VALUE)
-                                betas *= 2;
-                            else
-                                betas = (betas + betaMax) / 2.0;
-                        } else {
-                            betaMax = betas;
-                            if (betaMin == -Double.MAX_VALUE || betaMin == Double.MAX_VALUE)
-                                betas /= 2.0;
-                            else
-                                betas = (betas + betaMin) / 2.0;
+            parallelFor(N, new BlockTask() {
+                @Override
+                public void run(int from, int to) {
+                    for (int i = from; i < to; i++) {
+                        int count = handled.getAndIncrement();
+                        if (count % 500 == 0)
+                            log.info("Handled " + count + " records");
+
+                        List<DataPoint> results = forest != null ? approximateNeighbours(forest, d, i, k + 1)
+                                        : exactNeighbours(tree, d, i, k + 1);
+                        if (results.size() == 0) {
+                            throw new IllegalStateException("Search returned no values for vector " + i
+                                            + " - similarity \"" + simiarlityFunction
+                                            + "\" may not be defined (for example, vector is"
+                                            + " all zeros with cosine similarity)");
                         }
 
-                        pair = computeGaussianKernel(cArr, betas, k);
-                        hDiff = pair.getSecond() - logU;
-                        tries++;
+                        INDArray currP = calibrateRow(VPTree.buildFromData(results), k, logU);
+                        for (int l = 0; l < k; l++) {
+                            colsArr[i * k + l] = l + 1 < results.size() ? results.get(l + 1).getIndex() : 0;
+                            valsArr[i * k + l] = currP.getDouble(l);
+                        }
                     }
-
                 }
+            });
+        }
 
+        cols = Nd4j.create(colsArr, new int[] {1, N * k});
+        vals = Nd4j.create(valsArr, new int[] {1, N * k});
+        return vals;
 
-                currP.divi(currP.sum(Integer.MAX_VALUE));
-                INDArray indices = Nd4j.create(1, k + 1);
-                for (int j = 0; j < indices.length(); j++) {
-                    if (j >= results.size())
-                        break;
-                    indices.putScalar(j, results.get(j).getIndex());
-                }
+    }
 
-                for (int l = 0; l < k; l++) {
-                    cols.putScalar(rows.getInt(i) + l, indices.getDouble(l + 1));
-                    vals.putScalar(rows.getInt(i) + l, currP.getDouble(l));
+    /**
+     * Binary search for the beta (precision) giving the row of conditional probabilities
+     * the requested perplexity.
+     * @param cArr the neighbour data for a single point
+     * @param k the number of neighbours
+     * @param logU the log of the target perplexity
+     * @return the normalized row of probabilities
+     */
+    protected INDArray calibrateRow(INDArray cArr, int k, double logU) {
+        double betaMin = -Double.MAX_VALUE;
+        double betaMax = Double.MAX_VALUE;
+        double betas = 1.0;
+        Pair<INDArray, Double> pair = computeGaussianKernel(cArr, betas, k);
+        double hDiff = pair.getSecond() - logU;
+        int tries = 0;
+        boolean found = false;
+        //binary search
+        while (!found && tries < 200) {
+            if (hDiff < tolerance && -hDiff < tolerance)
+                found = true;
+            else {
+                if (hDiff > 0) {
+                    betaMin = betas;
+
+                    if (betaMax == Double.MAX_VALUE || betaMax == -Double.MAX_VALUE)
+                        betas *= 2;
+                    else
+                        betas = (betas + betaMax) / 2.0;
+                } else {
+                    betaMax = betas;
+                    if (betaMin == -Double.MAX_VALUE || betaMin == Double.MAX_VALUE)
+                        betas /= 2.0;
+                    else
+                        betas = (betas + betaMin) / 2.0;
                 }
+
+                pair = computeGaussianKernel(cArr, betas, k);
+                hDiff = pair.getSecond() - logU;
+                tries++;
             }
+
+        }
+
+        INDArray currP = pair.getFirst();
+        return currP.divi(currP.sum(Integer.MAX_VALUE));
+    }
+
+    protected List<DataPoint> exactNeighbours(VPTree tree, INDArray d, int i, int k) {
+        List<DataPoint> results = new ArrayList<>();
+        tree.search(d.slice(i), k, results, new ArrayList<Double>());
+        return results;
+    }
+
+    /**
+     * Approximate nearest neighbours from the union of the random projection tree leaves the point falls into,
+     * ranked with the same distance as the exact search. Falls back to a scan over all points
+     * if the leaves hold fewer than {@code k} candidates.
+     */
+    protected List<DataPoint> approximateNeighbours(RPForest forest, INDArray d, int i, int k) {
+        INDArray point = d.slice(i);
+        List<Integer> candidates = RPUtils.getCandidates(point, forest.getTrees(), simiarlityFunction);
+        if (candidates.size() < Math.min(k, d.rows())) {
+            candidates = new ArrayList<>(d.rows());
+            for (int j = 0; j < d.rows(); j++)
+                candidates.add(j);
         }
-        return vals;
 
+        List<Pair<Double, Integer>> ranked = new ArrayList<>(candidates.size());
+        for (Integer c : candidates) {
+            double dist = RPUtils.computeDistance(simiarlityFunction, d.slice(c), point);
+            ranked.add(new Pair<>(c == i ? -Double.MAX_VALUE : (invert ? -dist : dist), c));
+        }
+        Collections.sort(ranked, new Comparator<Pair<Double, Integer>>() {
+            @Override
+            public int compare(Pair<Double, Integer> o1, Pair<Double, Integer> o2) {
+                return Double.compare(o1.getFirst(), o2.getFirst());
+            }
+        });
+
+        List<DataPoint> results = new ArrayList<>(k);
+        for (int j = 0; j < ranked.size() && results.size() < k; j++) {
+            int idx = ranked.get(j).getSecond();
+            results.add(new DataPoint(idx, d.slice(idx)));
+        }
+        return results;
+    }
+
+    protected interface BlockTask {
+        void run(int from, int to);
+    }
+
+    /**
+     * Split [0, n) into contiguous blocks and run them on the fork-join pool,
+     * or on the calling thread if only one thread is configured.
+     * Exceptions thrown by a block are rethrown on the calling thread.
+     */
+    protected void parallelFor(int n, final BlockTask task) {
+        int threads = Math.max(1, Math.min(numThreads, n));
+        if (threads == 1) {
+            task.run(0, n);
+            return;
+        }
+
+        if (forkJoinPool == null || forkJoinPool.getParallelism() != threads) {
+            if (forkJoinPool != null)
+                forkJoinPool.shutdown();
+            forkJoinPool = new ForkJoinPool(threads);
+        }
+
+        // a few blocks per thread, so that uneven search costs are balanced
+        int numBlocks = Math.min(n, threads * 4);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(numBlocks);
+        for (int b = 0; b < numBlocks; b++) {
+            final int from = (int) ((long) n * b / numBlocks);
+            final int to = (int) ((long) n * (b + 1) / numBlocks);
+            tasks.add(forkJoinPool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    task.run(from, to);
+                }
+            }));
+        }
+
+        for (ForkJoinTask<?> t : tasks)
+            t.join();
     }
 
     @Override
@@ -547,10 +661,23 @@ public class BarnesHutTsne implements Model {
                         trainingListener.iterationDone(this, i, 0);
                     }
                 }
+            } finally {
+                shutdownPool();
             }
         }
     }
 
+    /**
+     * Shut down the fork-join pool used by {@link #parallelFor(int, BlockTask)}, if any.
+     * A new pool is created if parallel work is submitted afterwards.
+     */
+    protected void shutdownPool() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+            forkJoinPool = null;
+        }
+    }
+
     @Override
     public void update(Gradient gradient) {
 
@@ -681,10 +808,19 @@ public class BarnesHutTsne implements Model {
 
 
             // Get estimate of normalization term
+            final AtomicDouble sum_Q = new AtomicDouble(0.0);
+            parallelFor(N, new BlockTask() {
+                @Override
+                public void run(int from, int to) {
+                    INDArray negF = Nd4j.create(numDimensions);
+                    INDArray buf = Nd4j.create(numDimensions);
+                    AtomicDouble localSumQ = new AtomicDouble(0.0);
+                    for (int n = from; n < to; n++)
+                        tree.computeNonEdgeForces(n, theta, negF, localSumQ, buf);
+                    sum_Q.addAndGet(localSumQ.get());
+                }
+            });
             INDArray buff = Nd4j.create(numDimensions);
-            AtomicDouble sum_Q = new AtomicDouble(0.0);
-            for (int n = 0; n < N; n++)
-                tree.computeNonEdgeForces(n, theta, buff, sum_Q);
 
             // Loop over all edges to compute t-SNE error
             double C = .0;
@@ -791,18 +927,28 @@ public class BarnesHutTsne implements Model {
             if (gains == null)
                 gains = ones(Y.shape());
 
-            AtomicDouble sumQ = new AtomicDouble(0);
+            final AtomicDouble sumQ = new AtomicDouble(0);
             /* Calculate gradient based on barnes hut approximation with positive and negative forces */
-            INDArray posF = Nd4j.create(Y.shape());
-            INDArray negF = Nd4j.create(Y.shape());
+            final INDArray posF = Nd4j.create(Y.shape());
+            final INDArray negF = Nd4j.create(Y.shape());
             if (tree == null) {
                 tree = new SpTree(Y);
                 tree.setWorkspaceMode(workspaceMode);
             }
-            tree.computeEdgeForces(rows, cols, vals, N, posF);
 
-            for (int n = 0; n < N; n++)
-                tree.computeNonEdgeForces(n, theta, negF.slice(n), sumQ);
+            // each point only writes its own rows of posF/negF, so blocks of points are independent
+            parallelFor(N, new BlockTask() {
+                @Override
+                public void run(int from, int to) {
+                    tree.computeEdgeForces(rows, cols, vals, from, to, posF);
+
+                    INDArray buf = Nd4j.create(numDimensions);
+                    AtomicDouble localSumQ = new AtomicDouble(0);
+                    for (int n = from; n < to; n++)
+                        tree.computeNonEdgeForces(n, theta, negF.slice(n), localSumQ, buf);
+                    sumQ.addAndGet(localSumQ.get());
+                }
+            });
 
 
             INDArray dC = posF.subi(negF.divi(sumQ));
@@ -863,6 +1009,8 @@ public class BarnesHutTsne implements Model {
         private int numDim = 2;
         private String similarityFunction = "cosinesimilarity";
         private int vpTreeWorkers = 1;
+        private int numThreads = 1;
+        private int randomProjectionTrees = 0;
         protected WorkspaceMode workspaceMode = WorkspaceMode.NONE;
 
         public Builder vpTreeWorkers(int vpTreeWorkers) {
@@ -870,6 +1018,24 @@ public class BarnesHutTsne implements Model {
             return this;
         }
 
+        /**
+         * Number of threads used for the neighbour search, perplexity calibration and force computation.
+         * Defaults to 1, which computes everything on the calling thread.
+         */
+        public Builder numThreads(int numThreads) {
+            this.numThreads = numThreads;
+            return this;
+        }
+
+        /**
+         * Use approximate nearest neighbours from a random projection forest with the given number of trees
+         * instead of the exact VP tree search. 0 (the default) uses the exact search.
+         */
+        public Builder randomProjectionTrees(int randomProjectionTrees) {
+            this.randomProjectionTrees = randomProjectionTrees;
+            return this;
+        }
+
         public Builder minGain(double minGain) {
             this.minGain = minGain;
             return this;
@@ -963,9 +1129,13 @@ public class BarnesHutTsne implements Model {
         }
 
         public BarnesHutTsne build() {
-            return new BarnesHutTsne(numDim, similarityFunction, theta, invert, maxIter, realMin, initialMomentum,
-                    finalMomentum, momentum, switchMomentumIteration, normalize, stopLyingIteration, tolerance,
-                    learningRate, useAdaGrad, perplexity, null, minGain, vpTreeWorkers, workspaceMode);
+            BarnesHutTsne ret = new BarnesHutTsne(numDim, similarityFunction, theta, invert, maxIter, realMin,
+                    initialMomentum, finalMomentum, momentum, switchMomentumIteration, normalize,
+                    stopLyingIteration, tolerance, learningRate, useAdaGrad, perplexity, null, minGain,
+                    vpTreeWorkers, workspaceMode);
+            ret.setNumThreads(numThreads);
+            ret.setRandomProjectionTrees(randomProjectionTrees);
+            return ret;
         }
 
     }
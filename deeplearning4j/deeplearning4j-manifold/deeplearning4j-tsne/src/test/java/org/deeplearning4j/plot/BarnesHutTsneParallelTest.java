@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.plot;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BarnesHutTsneParallelTest extends BaseDL4JTest {
+
+    private static BarnesHutTsne tsne(int numThreads, int rpTrees) {
+        return new BarnesHutTsne.Builder().setMaxIter(5).perplexity(5).similarityFunction("euclidean")
+                        .invertDistanceMetric(false).normalize(false).useAdaGrad(false)
+                        .numThreads(numThreads).randomProjectionTrees(rpTrees).build();
+    }
+
+    @Test
+    public void testParallelPerplexityMatchesSerial() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray data = Nd4j.rand(200, 10);
+
+        BarnesHutTsne serial = tsne(1, 0);
+        INDArray serialVals = serial.computeGaussianPerplexity(data, 5).dup();
+        INDArray serialCols = serial.getCols().dup();
+
+        BarnesHutTsne parallel = tsne(4, 0);
+        INDArray parallelVals = parallel.computeGaussianPerplexity(data, 5);
+
+        assertEquals(serialCols, parallel.getCols());
+        assertEquals(serialVals, parallelVals);
+    }
+
+    @Test
+    public void testParallelGradientMatchesSerial() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray data = Nd4j.rand(100, 10);
+        INDArray y = Nd4j.randn(100, 2).muli(1e-2);
+
+        BarnesHutTsne serial = tsne(1, 0);
+        serial.computeGaussianPerplexity(data, 5);
+        serial.setY(y.dup());
+        INDArray serialGrad = serial.gradient().getGradientFor(BarnesHutTsne.Y_GRAD);
+
+        BarnesHutTsne parallel = tsne(4, 0);
+        parallel.computeGaussianPerplexity(data, 5);
+        parallel.setY(y.dup());
+        INDArray parallelGrad = parallel.gradient().getGradientFor(BarnesHutTsne.Y_GRAD);
+
+        assertTrue(serialGrad.equalsWithEps(parallelGrad, 1e-5));
+    }
+
+    @Test
+    public void testRandomProjectionForestNeighbours() {
+        Nd4j.getRandom().setSeed(12345);
+        int n = 200;
+        int k = 15;
+        INDArray data = Nd4j.rand(n, 10);
+
+        BarnesHutTsne tsne = tsne(4, 5);
+        INDArray vals = tsne.computeGaussianPerplexity(data, 5);
+        INDArray cols = tsne.getCols();
+
+        for (int i = 0; i < n; i++) {
+            double rowSum = 0;
+            for (int l = 0; l < k; l++) {
+                assertTrue(cols.getInt(i * k + l) != i);
+                rowSum += vals.getDouble(i * k + l);
+            }
+            assertEquals(1.0, rowSum, 1e-4);
+        }
+    }
+}
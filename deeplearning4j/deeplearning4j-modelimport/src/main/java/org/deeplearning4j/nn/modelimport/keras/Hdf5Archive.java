@@ -18,10 +18,13 @@ package org.deeplearning4j.nn.modelimport.keras;
 
 import lombok.extern.slf4j.Slf4j;
 import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.DoublePointer;
 import org.bytedeco.javacpp.FloatPointer;
 import org.bytedeco.javacpp.Loader;
 import org.bytedeco.javacpp.hdf5;
 import org.deeplearning4j.nn.modelimport.keras.exceptions.UnsupportedKerasConfigurationException;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.shade.jackson.databind.DeserializationFeature;
@@ -56,6 +59,7 @@ public class Hdf5Archive implements Closeable {
 
     private hdf5.H5File file;
     private static hdf5.DataType dataType = new hdf5.DataType(hdf5.PredType.NATIVE_FLOAT());
+    private static hdf5.DataType doubleDataType = new hdf5.DataType(hdf5.PredType.NATIVE_DOUBLE());
 
     public Hdf5Archive(String archiveFilename) {
         this.file = new hdf5.H5File(archiveFilename, hdf5.H5F_ACC_RDONLY());
@@ -194,6 +198,9 @@ public class Hdf5Archive implements Closeable {
     /**
      * Read data set as ND4J array from HDF5 group.
      *
+     * The data is read by HDF5 directly into the (c order) buffer of the returned array, converting to the
+     * array's data type on the fly, so no intermediate Java array is needed.
+     *
      * @param fileGroup   HDF5 file or group
      * @param datasetName Name of data set
      * @return INDArray from HDF5 data set
@@ -206,63 +213,40 @@ public class Hdf5Archive implements Closeable {
         int nbDims = space.getSimpleExtentNdims();
         long[] dims = new long[nbDims];
         space.getSimpleExtentDims(dims);
-        float[] dataBuffer;
-        FloatPointer fp;
-        int j;
-        INDArray data;
-        switch (nbDims) {
-            case 4: /* 2D Convolution weights */
-                dataBuffer = new float[(int) (dims[0] * dims[1] * dims[2] * dims[3])];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0], (int) dims[1], (int) dims[2], (int) dims[3]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    for (int i2 = 0; i2 < dims[1]; i2++)
-                        for (int i3 = 0; i3 < dims[2]; i3++)
-                            for (int i4 = 0; i4 < dims[3]; i4++)
-                                data.putScalar(i1, i2, i3, i4, dataBuffer[j++]);
-                break;
-            case 3:
-                dataBuffer = new float[(int) (dims[0] * dims[1] * dims[2])];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0], (int) dims[1], (int) dims[2]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    for (int i2 = 0; i2 < dims[1]; i2++)
-                        for (int i3 = 0; i3 < dims[2]; i3++)
-                            data.putScalar(i1, i2, i3, dataBuffer[j++]);
-                break;
-            case 2: /* Dense and Recurrent weights */
-                dataBuffer = new float[(int) (dims[0] * dims[1])];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0], (int) dims[1]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    for (int i2 = 0; i2 < dims[1]; i2++)
-                        data.putScalar(i1, i2, dataBuffer[j++]);
-                break;
-            case 1: /* Bias */
-                dataBuffer = new float[(int) dims[0]];
-                fp = new FloatPointer(dataBuffer);
-                dataset.read(fp, dataType);
-                fp.get(dataBuffer);
-                data = Nd4j.create((int) dims[0]);
-                j = 0;
-                for (int i1 = 0; i1 < dims[0]; i1++)
-                    data.putScalar(i1, dataBuffer[j++]);
-                break;
-            default:
+        space.deallocate();
+        try {
+            if (nbDims < 1 || nbDims > 4)
                 throw new UnsupportedKerasConfigurationException("Cannot import weights with rank " + nbDims);
+            /* Biases are imported as row vectors */
+            long[] shape = nbDims == 1 ? new long[] {1, dims[0]} : dims;
+            INDArray data = Nd4j.create(shape, 'c');
+            readInto(dataset, data);
+            return data;
+        } finally {
+            dataset.deallocate();
         }
-        space.deallocate();
-        dataset.deallocate();
-        return data;
+    }
+
+    /**
+     * Read the full content of a data set into a contiguous, c order array of the same length.
+     */
+    private void readInto(hdf5.DataSet dataset, INDArray data) {
+        DataBuffer.Type type = data.data().dataType();
+        if (type == DataBuffer.Type.FLOAT) {
+            dataset.read(new FloatPointer(data.data().addressPointer()).position(data.offset()), dataType);
+        } else if (type == DataBuffer.Type.DOUBLE) {
+            dataset.read(new DoublePointer(data.data().addressPointer()).position(data.offset()), doubleDataType);
+        } else {
+            /* No native HDF5 memory type for other data types (i.e., half precision): read as float and convert */
+            FloatPointer fp = new FloatPointer(data.length());
+            dataset.read(fp, dataType);
+            float[] dataBuffer = new float[(int) data.length()];
+            fp.get(dataBuffer);
+            fp.deallocate();
+            data.assign(Nd4j.create(dataBuffer, data.shape(), 'c'));
+            return;
+        }
+        Nd4j.getAffinityManager().tagLocation(data, AffinityManager.Location.HOST);
     }
 
     /**
@@ -285,6 +285,13 @@ public class KerasLayer {
         return this.weights;
     }
 
+    /**
+     * Release the weights stored in this Keras layer, for example after they have been copied to a DL4J layer.
+     */
+    public void clearWeights() {
+        this.weights = null;
+    }
+
     /**
      * Copy Keras layer weights to DL4J Layer.
      *
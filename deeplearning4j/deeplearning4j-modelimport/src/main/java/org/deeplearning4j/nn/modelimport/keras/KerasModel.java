@@ -18,6 +18,7 @@ package org.deeplearning4j.nn.modelimport.keras;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.conf.BackpropType;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.InputPreProcessor;
@@ -75,6 +76,9 @@ public class KerasModel {
     protected String kerasBackend;
     protected KerasLayer.DimOrder dimOrder = null;
     protected IUpdater optimizer = null;
+    protected Hdf5Archive weightsArchive = null; // archive to stream weights from (see KerasModelBuilder.streamWeights)
+    protected String weightsRoot = null;
+    protected boolean weightsStreamed = false; // whether weights were already streamed into a model
 
     public KerasModel() {
     }
@@ -93,9 +97,14 @@ public class KerasModel {
      */
     public KerasModel(KerasModelBuilder modelBuilder)
             throws UnsupportedKerasConfigurationException, IOException, InvalidKerasConfigurationException {
-        this(modelBuilder.getModelJson(), modelBuilder.getModelYaml(), modelBuilder.getWeightsArchive(),
+        this(modelBuilder.getModelJson(), modelBuilder.getModelYaml(),
+                modelBuilder.isStreamWeights() ? null : modelBuilder.getWeightsArchive(),
                 modelBuilder.getWeightsRoot(), modelBuilder.getTrainingJson(), modelBuilder.getTrainingArchive(),
                 modelBuilder.isEnforceTrainingConfig(), modelBuilder.getInputShape(), modelBuilder.getDimOrder());
+        if (modelBuilder.isStreamWeights()) {
+            this.weightsArchive = modelBuilder.getWeightsArchive();
+            this.weightsRoot = modelBuilder.getWeightsRoot();
+        }
     }
 
     /**
@@ -415,7 +424,33 @@ public class KerasModel {
         ComputationGraph model = new ComputationGraph(getComputationGraphConfiguration());
         model.init();
         if (importWeights)
-            model = (ComputationGraph) KerasModelUtils.copyWeightsToModel(model, this.layers);
+            model = (ComputationGraph) importWeightsToModel(model);
         return model;
     }
+
+    /**
+     * Import weights into an initialized model: either copy the weights stored in the Keras layers, or, if weights
+     * are streamed (see {@link KerasModelBuilder#streamWeights(boolean)}), read them one layer at a time directly
+     * from the weights archive, which is closed afterwards.
+     *
+     * @param model DL4J Model interface
+     * @return DL4J Model interface
+     */
+    protected Model importWeightsToModel(Model model)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        if (weightsArchive == null) {
+            if (weightsStreamed)
+                throw new IllegalStateException("Weights were streamed into a previously created network and are no "
+                        + "longer available. Build the model without streamWeights to create multiple networks");
+            return KerasModelUtils.copyWeightsToModel(model, this.layers);
+        }
+        try {
+            return KerasModelUtils.importWeightsToModel(model, weightsArchive, weightsRoot, layers,
+                    kerasMajorVersion, kerasBackend);
+        } finally {
+            weightsArchive.close();
+            weightsArchive = null;
+            weightsStreamed = true;
+        }
+    }
 }
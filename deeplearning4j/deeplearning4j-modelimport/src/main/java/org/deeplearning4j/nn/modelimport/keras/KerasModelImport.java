@@ -105,7 +105,7 @@ public class KerasModelImport {
                                                               boolean enforceTrainingConfig)
             throws IOException, UnsupportedKerasConfigurationException, InvalidKerasConfigurationException {
         KerasModel kerasModel = new KerasModel().modelBuilder.modelHdf5Filename(modelHdf5Filename)
-                .enforceTrainingConfig(enforceTrainingConfig).inputShape(inputShape).buildModel();
+                .enforceTrainingConfig(enforceTrainingConfig).inputShape(inputShape).streamWeights(true).buildModel();
         return kerasModel.getComputationGraph();
     }
 
@@ -124,7 +124,7 @@ public class KerasModelImport {
     public static ComputationGraph importKerasModelAndWeights(String modelHdf5Filename, boolean enforceTrainingConfig)
             throws IOException, UnsupportedKerasConfigurationException, InvalidKerasConfigurationException {
         KerasModel kerasModel = new KerasModel().modelBuilder.modelHdf5Filename(modelHdf5Filename)
-                .enforceTrainingConfig(enforceTrainingConfig).buildModel();
+                .enforceTrainingConfig(enforceTrainingConfig).streamWeights(true).buildModel();
         return kerasModel.getComputationGraph();
     }
 
@@ -141,7 +141,7 @@ public class KerasModelImport {
     public static ComputationGraph importKerasModelAndWeights(String modelHdf5Filename)
             throws IOException, UnsupportedKerasConfigurationException, InvalidKerasConfigurationException {
         KerasModel kerasModel = new KerasModel().modelBuilder().modelHdf5Filename(modelHdf5Filename)
-                .enforceTrainingConfig(true).buildModel();
+                .enforceTrainingConfig(true).streamWeights(true).buildModel();
         return kerasModel.getComputationGraph();
     }
 
@@ -160,7 +160,8 @@ public class KerasModelImport {
                                                                          boolean enforceTrainingConfig)
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasSequentialModel kerasModel = new KerasSequentialModel().modelBuilder().modelHdf5Filename(modelHdf5Filename)
-                .enforceTrainingConfig(enforceTrainingConfig).inputShape(inputShape).buildSequential();
+                .enforceTrainingConfig(enforceTrainingConfig).inputShape(inputShape)
+                .streamWeights(true).buildSequential();
         return kerasModel.getMultiLayerNetwork();
     }
 
@@ -177,7 +178,7 @@ public class KerasModelImport {
                                                                          boolean enforceTrainingConfig)
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasSequentialModel kerasModel = new KerasSequentialModel().modelBuilder().modelHdf5Filename(modelHdf5Filename)
-                .enforceTrainingConfig(enforceTrainingConfig).buildSequential();
+                .enforceTrainingConfig(enforceTrainingConfig).streamWeights(true).buildSequential();
         return kerasModel.getMultiLayerNetwork();
     }
 
@@ -192,7 +193,7 @@ public class KerasModelImport {
     public static MultiLayerNetwork importKerasSequentialModelAndWeights(String modelHdf5Filename)
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasSequentialModel kerasModel = new KerasSequentialModel().modelBuilder().modelHdf5Filename(modelHdf5Filename)
-                .enforceTrainingConfig(true).buildSequential();
+                .enforceTrainingConfig(true).streamWeights(true).buildSequential();
         return kerasModel.getMultiLayerNetwork();
     }
 
@@ -213,7 +214,7 @@ public class KerasModelImport {
         KerasModel kerasModel = new KerasModel().modelBuilder().modelJsonFilename(modelJsonFilename)
                 .enforceTrainingConfig(false)
                 .weightsHdf5FilenameNoRoot(weightsHdf5Filename).enforceTrainingConfig(enforceTrainingConfig)
-                .buildModel();
+                .streamWeights(true).buildModel();
         return kerasModel.getComputationGraph();
     }
 
@@ -231,7 +232,8 @@ public class KerasModelImport {
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasModel kerasModel = new KerasModel().modelBuilder().modelJsonFilename(modelJsonFilename)
                 .enforceTrainingConfig(false)
-                .weightsHdf5FilenameNoRoot(weightsHdf5Filename).enforceTrainingConfig(true).buildModel();
+                .weightsHdf5FilenameNoRoot(weightsHdf5Filename).enforceTrainingConfig(true)
+                .streamWeights(true).buildModel();
         return kerasModel.getComputationGraph();
     }
 
@@ -252,7 +254,7 @@ public class KerasModelImport {
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasSequentialModel kerasModel = new KerasSequentialModel().modelBuilder().modelJsonFilename(modelJsonFilename)
                 .weightsHdf5FilenameNoRoot(weightsHdf5Filename).enforceTrainingConfig(enforceTrainingConfig)
-                .buildSequential();
+                .streamWeights(true).buildSequential();
         return kerasModel.getMultiLayerNetwork();
     }
 
@@ -270,7 +272,8 @@ public class KerasModelImport {
                                                                          String weightsHdf5Filename)
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasSequentialModel kerasModel = new KerasSequentialModel().modelBuilder().modelJsonFilename(modelJsonFilename)
-                .weightsHdf5FilenameNoRoot(weightsHdf5Filename).enforceTrainingConfig(false).buildSequential();
+                .weightsHdf5FilenameNoRoot(weightsHdf5Filename).enforceTrainingConfig(false)
+                .streamWeights(true).buildSequential();
         return kerasModel.getMultiLayerNetwork();
     }
 
@@ -58,9 +58,14 @@ public class KerasSequentialModel extends KerasModel {
      */
     public KerasSequentialModel(KerasModelBuilder modelBuilder)
             throws UnsupportedKerasConfigurationException, IOException, InvalidKerasConfigurationException {
-        this(modelBuilder.getModelJson(), modelBuilder.getModelYaml(), modelBuilder.getWeightsArchive(),
+        this(modelBuilder.getModelJson(), modelBuilder.getModelYaml(),
+                modelBuilder.isStreamWeights() ? null : modelBuilder.getWeightsArchive(),
                 modelBuilder.getWeightsRoot(), modelBuilder.getTrainingJson(), modelBuilder.getTrainingArchive(),
                 modelBuilder.isEnforceTrainingConfig(), modelBuilder.getInputShape());
+        if (modelBuilder.isStreamWeights()) {
+            this.weightsArchive = modelBuilder.getWeightsArchive();
+            this.weightsRoot = modelBuilder.getWeightsRoot();
+        }
     }
 
     /**
@@ -236,7 +241,7 @@ public class KerasSequentialModel extends KerasModel {
         MultiLayerNetwork model = new MultiLayerNetwork(getMultiLayerConfiguration());
         model.init();
         if (importWeights)
-            model = (MultiLayerNetwork) KerasModelUtils.copyWeightsToModel(model, this.layers);
+            model = (MultiLayerNetwork) importWeightsToModel(model);
         return model;
     }
 }
@@ -241,6 +241,13 @@ public class KerasBidirectional extends KerasLayer {
     }
 
 
+    @Override
+    public void clearWeights() {
+        super.clearWeights();
+        kerasRnnlayer.clearWeights();
+    }
+
+
     private Map<String, INDArray> getUnderlyingWeights(Map<String, INDArray> weights, String direction)
             throws InvalidKerasConfigurationException {
         int keras1SubstringLength;
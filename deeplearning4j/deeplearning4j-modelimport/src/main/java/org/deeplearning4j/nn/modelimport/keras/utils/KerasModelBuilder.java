@@ -45,6 +45,7 @@ public class KerasModelBuilder implements Cloneable, Closeable {
     protected KerasModelConfiguration config;
     protected int[] inputShape = null;
     protected KerasLayer.DimOrder dimOrder = null;
+    protected boolean streamWeights = false;
 
 
     /**
@@ -292,6 +293,20 @@ public class KerasModelBuilder implements Cloneable, Closeable {
         return this;
     }
 
+    /**
+     * If true, weights are not read when building the Keras model. Instead, the weights archive is kept open
+     * and the weights are read one layer at a time directly into the network created by
+     * {@link KerasModel#getComputationGraph()} or {@link KerasSequentialModel#getMultiLayerNetwork()}, after which
+     * the archive is closed. This considerably reduces the memory required to import large models, but weights can
+     * then only be imported into a single network. Default: false.
+     *
+     * @param streamWeights whether to stream weights into the network, instead of loading them at build time
+     */
+    public KerasModelBuilder streamWeights(boolean streamWeights) {
+        this.streamWeights = streamWeights;
+        return this;
+    }
+
     /**
      * Build a KerasModel (corresponding to ComputationGraph) from this model builder.
      *
@@ -303,6 +318,8 @@ public class KerasModelBuilder implements Cloneable, Closeable {
     public KerasModel buildModel()
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasModel model = new KerasModel(this);
+        if (streamWeights)
+            releaseWeightsArchive();
         close();
         return model;
     }
@@ -318,6 +335,8 @@ public class KerasModelBuilder implements Cloneable, Closeable {
     public KerasSequentialModel buildSequential()
             throws IOException, InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
         KerasSequentialModel sequentialModel = new KerasSequentialModel(this);
+        if (streamWeights)
+            releaseWeightsArchive();
         close();
         return sequentialModel;
     }
@@ -337,6 +356,13 @@ public class KerasModelBuilder implements Cloneable, Closeable {
         }
     }
 
+    // Hand over the weights archive to the model, which closes it once the weights have been imported
+    private void releaseWeightsArchive() {
+        if (trainingArchive == weightsArchive)
+            trainingArchive = null;
+        weightsArchive = null;
+    }
+
     /**
      * Check if the file corresponding to model JSON/YAML or HDF5 files actually exists
      * and throw an explicit exception.
@@ -169,140 +169,219 @@ public class KerasModelUtils {
     public static void importWeights(Hdf5Archive weightsArchive, String weightsRoot, Map<String, KerasLayer> layers,
                                      int kerasVersion, String backend)
             throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        List<String> layerGroups = getLayerGroups(weightsArchive, weightsRoot, layers);
+        /* Set weights in KerasLayer for each entry in weights map. */
+        for (String layerName : layerGroups) {
+            Map<String, INDArray> weights =
+                    readLayerWeights(weightsArchive, weightsRoot, layers, layerName, kerasVersion, backend);
+            if (weights != null)
+                layers.get(layerName).setWeights(weights);
+        }
+        checkAllWeightsFound(layerGroups, layers);
+    }
+
+    /**
+     * Import weights from an HDF5 archive into an initialized model, one layer at a time: the weights of each
+     * layer are read, converted by the associated Keras layer, copied into the parameters of the model and released
+     * before the weights of the next layer are read. Unlike {@link #importWeights(Hdf5Archive, String, Map, int,
+     * String)} followed by {@link #copyWeightsToModel(Model, Map)}, at most one layer's weights are held in memory
+     * in addition to the model parameters.
+     *
+     * @param model          Initialized DL4J Model (MultiLayerNetwork or ComputationGraph)
+     * @param weightsArchive Hdf5Archive
+     * @param weightsRoot    root of weights in HDF5 archive
+     * @return DL4J Model interface
+     * @throws InvalidKerasConfigurationException Invalid Keras configuration
+     */
+    public static Model importWeightsToModel(Model model, Hdf5Archive weightsArchive, String weightsRoot,
+                                             Map<String, KerasLayer> layers, int kerasVersion, String backend)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        Layer[] layersFromModel;
+        if (model instanceof MultiLayerNetwork)
+            layersFromModel = ((MultiLayerNetwork) model).getLayers();
+        else
+            layersFromModel = ((ComputationGraph) model).getLayers();
+        Map<String, Layer> modelLayers = new HashMap<>();
+        for (Layer layer : layersFromModel) {
+            String layerName = layer.conf().getLayer().getLayerName();
+            if (!layers.containsKey(layerName))
+                throw new InvalidKerasConfigurationException(
+                        "No weights found for layer in model (named " + layerName + ")");
+            modelLayers.put(layerName, layer);
+        }
+
+        List<String> layerGroups = getLayerGroups(weightsArchive, weightsRoot, layers);
+        for (String layerName : layerGroups) {
+            Map<String, INDArray> weights =
+                    readLayerWeights(weightsArchive, weightsRoot, layers, layerName, kerasVersion, backend);
+            if (weights == null) {
+                /* Fails for layers that have parameters, as copyWeightsToModel would */
+                if (modelLayers.containsKey(layerName))
+                    layers.get(layerName).copyWeightsToLayer(modelLayers.get(layerName));
+                continue;
+            }
+            KerasLayer kerasLayer = layers.get(layerName);
+            kerasLayer.setWeights(weights);
+            Layer layer = modelLayers.get(layerName);
+            if (layer == null) {
+                if (kerasLayer.getNumParams() > 0)
+                    throw new InvalidKerasConfigurationException(
+                            "Attemping to copy weights for layer not in model (named " + layerName + ")");
+            } else {
+                kerasLayer.copyWeightsToLayer(layer);
+            }
+            kerasLayer.clearWeights();
+        }
+        checkAllWeightsFound(layerGroups, layers);
+        return model;
+    }
+
+    private static List<String> getLayerGroups(Hdf5Archive weightsArchive, String weightsRoot,
+                                               Map<String, KerasLayer> layers) {
         // check to ensure naming scheme doesn't include forward slash
         boolean includesSlash = false;
         for (String layerName : layers.keySet()) {
             if (layerName.contains("/"))
                 includesSlash = true;
         }
-        List<String> layerGroups;
         if (!includesSlash) {
-            layerGroups = weightsRoot != null ? weightsArchive.getGroups(weightsRoot) : weightsArchive.getGroups();
+            return weightsRoot != null ? weightsArchive.getGroups(weightsRoot) : weightsArchive.getGroups();
         } else {
-            layerGroups = new ArrayList<>(layers.keySet());
+            return new ArrayList<>(layers.keySet());
         }
-        /* Set weights in KerasLayer for each entry in weights map. */
-        for (String layerName : layerGroups) {
-            List<String> layerParamNames;
-
-            // there's a bug where if a layer name contains a forward slash, the first fragment must be appended
-            // to the name of the dataset; it appears h5 interprets the forward slash as a data group
-            String[] layerFragments = layerName.split("/");
-
-            // Find nested groups when using Tensorflow
-            String rootPrefix = weightsRoot != null ? weightsRoot + "/" : "";
-            List<String> attributeStrParts = new ArrayList<>();
-            String attributeStr = weightsArchive.readAttributeAsString(
-                    "weight_names", rootPrefix + layerName
-            );
-            String attributeJoinStr;
-            Matcher attributeMatcher = Pattern.compile(":\\d+").matcher(attributeStr);
-            Boolean foundTfGroups = attributeMatcher.find();
+    }
 
-            if (foundTfGroups) {
-                for (String part : attributeStr.split("/")) {
-                    part = part.trim();
-                    if (part.length() == 0)
-                        break;
-                    Matcher tfSuffixMatcher = Pattern.compile(":\\d+").matcher(part);
-                    if (tfSuffixMatcher.find())
-                        break;
-                    attributeStrParts.add(part);
-                }
-                attributeJoinStr = StringUtils.join("/", attributeStrParts);
-            } else {
-                attributeJoinStr = layerFragments[0];
+    /**
+     * Read the weights of a single layer from the archive.
+     *
+     * @return Map of parameter name to weights, or null if there are no weights for this layer
+     */
+    private static Map<String, INDArray> readLayerWeights(Hdf5Archive weightsArchive, String weightsRoot,
+                                                          Map<String, KerasLayer> layers, String layerName,
+                                                          int kerasVersion, String backend)
+            throws InvalidKerasConfigurationException, UnsupportedKerasConfigurationException {
+        List<String> layerParamNames;
+
+        // there's a bug where if a layer name contains a forward slash, the first fragment must be appended
+        // to the name of the dataset; it appears h5 interprets the forward slash as a data group
+        String[] layerFragments = layerName.split("/");
+
+        // Find nested groups when using Tensorflow
+        String rootPrefix = weightsRoot != null ? weightsRoot + "/" : "";
+        List<String> attributeStrParts = new ArrayList<>();
+        String attributeStr = weightsArchive.readAttributeAsString(
+                "weight_names", rootPrefix + layerName
+        );
+        String attributeJoinStr;
+        Matcher attributeMatcher = Pattern.compile(":\\d+").matcher(attributeStr);
+        Boolean foundTfGroups = attributeMatcher.find();
+
+        if (foundTfGroups) {
+            for (String part : attributeStr.split("/")) {
+                part = part.trim();
+                if (part.length() == 0)
+                    break;
+                Matcher tfSuffixMatcher = Pattern.compile(":\\d+").matcher(part);
+                if (tfSuffixMatcher.find())
+                    break;
+                attributeStrParts.add(part);
             }
+            attributeJoinStr = StringUtils.join("/", attributeStrParts);
+        } else {
+            attributeJoinStr = layerFragments[0];
+        }
 
-            String baseAttributes = layerName + "/" + attributeJoinStr;
-            if (layerFragments.length > 1) {
-                try {
-                    layerParamNames = weightsArchive.getDataSets(rootPrefix + baseAttributes);
-                } catch (Exception e) {
-                    layerParamNames = weightsArchive.getDataSets(rootPrefix + layerName);
-                }
+        String baseAttributes = layerName + "/" + attributeJoinStr;
+        if (layerFragments.length > 1) {
+            try {
+                layerParamNames = weightsArchive.getDataSets(rootPrefix + baseAttributes);
+            } catch (Exception e) {
+                layerParamNames = weightsArchive.getDataSets(rootPrefix + layerName);
+            }
+        } else {
+            if (foundTfGroups) {
+                layerParamNames = weightsArchive.getDataSets(rootPrefix + baseAttributes);
             } else {
-                if (foundTfGroups) {
-                    layerParamNames = weightsArchive.getDataSets(rootPrefix + baseAttributes);
-                } else {
-                    if (kerasVersion == 2) {
-                        if (backend.equals("theano") && layerName.contains("bidirectional")) {
-                            for (String part : attributeStr.split("/")) {
-                                if (part.contains("forward"))
-                                    baseAttributes = baseAttributes + "/" + part;
-                            }
-
-                        }
-                        if (layers.get(layerName).getNumParams() > 0) {
-                            try {
-                                layerParamNames = weightsArchive.getDataSets(rootPrefix + baseAttributes);
-                            } catch (Exception e) {
-                                log.warn("No HDF5 group with weights found for layer with name "
-                                        + layerName + ", continuing import.");
-                                layerParamNames = Collections.emptyList();
-                            }
-                        } else {
-                            layerParamNames = weightsArchive.getDataSets(rootPrefix + layerName);
+                if (kerasVersion == 2) {
+                    if (backend.equals("theano") && layerName.contains("bidirectional")) {
+                        for (String part : attributeStr.split("/")) {
+                            if (part.contains("forward"))
+                                baseAttributes = baseAttributes + "/" + part;
                         }
 
+                    }
+                    if (layers.get(layerName).getNumParams() > 0) {
+                        try {
+                            layerParamNames = weightsArchive.getDataSets(rootPrefix + baseAttributes);
+                        } catch (Exception e) {
+                            log.warn("No HDF5 group with weights found for layer with name "
+                                    + layerName + ", continuing import.");
+                            layerParamNames = Collections.emptyList();
+                        }
                     } else {
                         layerParamNames = weightsArchive.getDataSets(rootPrefix + layerName);
                     }
 
+                } else {
+                    layerParamNames = weightsArchive.getDataSets(rootPrefix + layerName);
                 }
+
             }
-            if (layerParamNames.isEmpty())
-                continue;
-            if (!layers.containsKey(layerName))
-                throw new InvalidKerasConfigurationException(
-                        "Found weights for layer not in model (named " + layerName + ")");
-            KerasLayer layer = layers.get(layerName);
+        }
+        if (layerParamNames.isEmpty())
+            return null;
+        if (!layers.containsKey(layerName))
+            throw new InvalidKerasConfigurationException(
+                    "Found weights for layer not in model (named " + layerName + ")");
+        KerasLayer layer = layers.get(layerName);
 
 
-            if (layerParamNames.size() != layer.getNumParams())
-                if (kerasVersion == 2
-                        && layer instanceof KerasBidirectional && 2 * layerParamNames.size() != layer.getNumParams())
-                    throw new InvalidKerasConfigurationException(
-                            "Found " + layerParamNames.size() + " weights for layer with " + layer.getNumParams()
-                                    + " trainable params (named " + layerName + ")");
-            Map<String, INDArray> weights = new HashMap<>();
-
-
-            for (String layerParamName : layerParamNames) {
-                String paramName = KerasModelUtils.findParameterName(layerParamName, layerFragments);
-                INDArray paramValue;
-
-                if (kerasVersion == 2 && layer instanceof KerasBidirectional) {
-                    String backwardAttributes = baseAttributes.replace("forward", "backward");
-                    INDArray forwardParamValue = weightsArchive.readDataSet(layerParamName,
-                            rootPrefix + baseAttributes);
-                    INDArray backwardParamValue = weightsArchive.readDataSet(
-                            layerParamName, rootPrefix + backwardAttributes);
-                    weights.put("forward_" + paramName, forwardParamValue);
-                    weights.put("backward_" + paramName, backwardParamValue);
+        if (layerParamNames.size() != layer.getNumParams())
+            if (kerasVersion == 2
+                    && layer instanceof KerasBidirectional && 2 * layerParamNames.size() != layer.getNumParams())
+                throw new InvalidKerasConfigurationException(
+                        "Found " + layerParamNames.size() + " weights for layer with " + layer.getNumParams()
+                                + " trainable params (named " + layerName + ")");
+        Map<String, INDArray> weights = new HashMap<>();
+
+
+        for (String layerParamName : layerParamNames) {
+            String paramName = KerasModelUtils.findParameterName(layerParamName, layerFragments);
+            INDArray paramValue;
+
+            if (kerasVersion == 2 && layer instanceof KerasBidirectional) {
+                String backwardAttributes = baseAttributes.replace("forward", "backward");
+                INDArray forwardParamValue = weightsArchive.readDataSet(layerParamName,
+                        rootPrefix + baseAttributes);
+                INDArray backwardParamValue = weightsArchive.readDataSet(
+                        layerParamName, rootPrefix + backwardAttributes);
+                weights.put("forward_" + paramName, forwardParamValue);
+                weights.put("backward_" + paramName, backwardParamValue);
+            } else {
+                if (foundTfGroups) {
+                    paramValue = weightsArchive.readDataSet(layerParamName, rootPrefix + baseAttributes);
                 } else {
-                    if (foundTfGroups) {
-                        paramValue = weightsArchive.readDataSet(layerParamName, rootPrefix + baseAttributes);
+                    if (layerFragments.length > 1) {
+                        paramValue = weightsArchive.readDataSet(
+                                layerFragments[0] + "/" + layerParamName, rootPrefix, layerName);
                     } else {
-                        if (layerFragments.length > 1) {
+                        if (kerasVersion == 2) {
                             paramValue = weightsArchive.readDataSet(
-                                    layerFragments[0] + "/" + layerParamName, rootPrefix, layerName);
+                                    layerParamName, rootPrefix + baseAttributes);
                         } else {
-                            if (kerasVersion == 2) {
-                                paramValue = weightsArchive.readDataSet(
-                                        layerParamName, rootPrefix + baseAttributes);
-                            } else {
-                                paramValue = weightsArchive.readDataSet(layerParamName, rootPrefix, layerName);
-                            }
+                            paramValue = weightsArchive.readDataSet(layerParamName, rootPrefix, layerName);
                         }
                     }
-                    weights.put(paramName, paramValue);
                 }
+                weights.put(paramName, paramValue);
             }
-            layer.setWeights(weights);
         }
+        return weights;
+    }
 
-        /* Look for layers in model with no corresponding entries in weights map. */
+    /* Look for layers in model with no corresponding entries in weights map. */
+    private static void checkAllWeightsFound(List<String> layerGroups, Map<String, KerasLayer> layers)
+            throws InvalidKerasConfigurationException {
         Set<String> layerNames = new HashSet<>(layers.keySet());
         layerNames.removeAll(layerGroups);
         for (String layerName : layerNames) {
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.modelimport.keras.e2e;
+
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.modelimport.keras.KerasModel;
+import org.deeplearning4j.nn.modelimport.keras.KerasSequentialModel;
+import org.deeplearning4j.nn.modelimport.keras.utils.KerasModelBuilder;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.io.ClassPathResource;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares importing weights one layer at a time (streamed directly into the network) with importing all weights
+ * into the Keras model first, for models of the size found in the model zoo. Also logs the import time of both.
+ */
+@Slf4j
+public class KerasWeightStreamingTest {
+
+    @Rule
+    public final TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testStreamMnistMlp() throws Exception {
+        compareSequential("modelimport/keras/examples/mnist_mlp/mnist_mlp_tf_keras_2_model.h5");
+    }
+
+    @Test
+    public void testStreamResNet50() throws Exception {
+        compareFunctional("modelimport/keras/examples/resnet/resnet50_weights_tf_dim_ordering_tf_kernels.h5", null);
+    }
+
+    @Test
+    public void testStreamDenseNet() throws Exception {
+        compareFunctional("modelimport/keras/examples/densenet/densenet121_tf_keras_2.h5", null);
+    }
+
+    @Test
+    public void testStreamXception() throws Exception {
+        compareFunctional("modelimport/keras/examples/xception/xception_tf_keras_2.h5", new int[]{299, 299, 3});
+    }
+
+    @Test
+    public void testStreamInception() throws Exception {
+        compareFunctional("modelimport/keras/examples/inception/inception_tf_keras_2.h5", new int[]{299, 299, 3});
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamOnlyOnce() throws Exception {
+        File modelFile = copyResource("modelimport/keras/examples/squeezenet/squeezenet.h5");
+        KerasModel model = new KerasModel().modelBuilder().modelHdf5Filename(modelFile.getAbsolutePath())
+                .enforceTrainingConfig(false).streamWeights(true).buildModel();
+        model.getComputationGraph();
+        model.getComputationGraph();
+    }
+
+    private void compareFunctional(String modelPath, int[] inputShape) throws Exception {
+        File modelFile = copyResource(modelPath);
+
+        long start = System.currentTimeMillis();
+        ComputationGraph expected = functionalBuilder(modelFile, inputShape).buildModel().getComputationGraph();
+        long eagerTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        ComputationGraph streamed = functionalBuilder(modelFile, inputShape).streamWeights(true).buildModel()
+                .getComputationGraph();
+        long streamTime = System.currentTimeMillis() - start;
+
+        log.info("{}: {} parameters, import time {} ms (eager) vs. {} ms (streamed)", modelPath, streamed.numParams(),
+                eagerTime, streamTime);
+        assertEquals(expected.params(), streamed.params());
+    }
+
+    private void compareSequential(String modelPath) throws Exception {
+        File modelFile = copyResource(modelPath);
+
+        long start = System.currentTimeMillis();
+        MultiLayerNetwork expected = sequentialBuilder(modelFile).buildSequential().getMultiLayerNetwork();
+        long eagerTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        KerasSequentialModel model = sequentialBuilder(modelFile).streamWeights(true).buildSequential();
+        MultiLayerNetwork streamed = model.getMultiLayerNetwork();
+        long streamTime = System.currentTimeMillis() - start;
+
+        log.info("{}: {} parameters, import time {} ms (eager) vs. {} ms (streamed)", modelPath, streamed.numParams(),
+                eagerTime, streamTime);
+        assertEquals(expected.params(), streamed.params());
+    }
+
+    private KerasModelBuilder functionalBuilder(File modelFile, int[] inputShape) throws Exception {
+        KerasModelBuilder builder = new KerasModel().modelBuilder().modelHdf5Filename(modelFile.getAbsolutePath())
+                .enforceTrainingConfig(false);
+        if (inputShape != null) {
+            builder.inputShape(inputShape);
+        }
+        return builder;
+    }
+
+    private KerasModelBuilder sequentialBuilder(File modelFile) throws Exception {
+        return new KerasModel().modelBuilder().modelHdf5Filename(modelFile.getAbsolutePath())
+                .enforceTrainingConfig(false);
+    }
+
+    private File copyResource(String path) throws Exception {
+        ClassPathResource modelResource =
+                new ClassPathResource(path, KerasWeightStreamingTest.class.getClassLoader());
+        File modelFile = testDir.newFile("tempModel-" + System.nanoTime() + ".h5");
+        Files.copy(modelResource.getInputStream(), modelFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return modelFile;
+    }
+}
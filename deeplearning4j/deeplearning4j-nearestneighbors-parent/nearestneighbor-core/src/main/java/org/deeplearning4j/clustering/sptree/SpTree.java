@@ -47,7 +47,6 @@ public class SpTree implements Serializable {
     private INDArray data;
     public final static int NODE_RATIO = 8000;
     private int N;
-    private INDArray buf;
     private int size;
     private int cumSize;
     private Cell boundary;
@@ -154,7 +153,6 @@ public class SpTree implements Serializable {
         boundary.setCorner(corner.dup());
         boundary.setWidth(width.dup());
         centerOfMass = Nd4j.create(D);
-        buf = Nd4j.create(D);
     }
 
 
@@ -256,13 +254,29 @@ public class SpTree implements Serializable {
 
 
     /**
-     * Compute non edge forces using barnes hut
+     * Compute non edge forces using barnes hut.
+     * The tree is only read here, so this may be called concurrently for different points
+     * (each call with its own {@code negativeForce} row).
      * @param pointIndex
      * @param theta
      * @param negativeForce
      * @param sumQ
      */
     public void computeNonEdgeForces(int pointIndex, double theta, INDArray negativeForce, AtomicDouble sumQ) {
+        computeNonEdgeForces(pointIndex, theta, negativeForce, sumQ, Nd4j.create(D));
+    }
+
+    /**
+     * Compute non edge forces using barnes hut, using the given buffer for intermediate results.
+     * Callers computing the forces for many points should reuse one buffer per thread.
+     * @param pointIndex
+     * @param theta
+     * @param negativeForce
+     * @param sumQ
+     * @param buf a scratch vector of length D, overwritten by this call
+     */
+    public void computeNonEdgeForces(int pointIndex, double theta, INDArray negativeForce, AtomicDouble sumQ,
+                    INDArray buf) {
         // Make sure that we spend no time on empty nodes or self-interactions
         if (cumSize == 0 || (isLeaf() && size == 1 && index[0] == pointIndex))
             return;
@@ -294,7 +308,7 @@ public class SpTree implements Serializable {
 
                 // Recursively apply Barnes-Hut to children
                 for (int i = 0; i < numChildren; i++) {
-                    children[i].computeNonEdgeForces(pointIndex, theta, negativeForce, sumQ);
+                    children[i].computeNonEdgeForces(pointIndex, theta, negativeForce, sumQ, buf);
                 }
 
             }
@@ -312,17 +326,27 @@ public class SpTree implements Serializable {
      * @param posF the positive force
      */
     public void computeEdgeForces(INDArray rowP, INDArray colP, INDArray valP, int N, INDArray posF) {
+        computeEdgeForces(rowP, colP, valP, 0, N, posF);
+    }
+
+    /**
+     * Compute edge forces for the points in [from, to) only.
+     * Each point only writes its own row of {@code posF}, so disjoint ranges may be computed concurrently.
+     * @param rowP a vector
+     * @param colP
+     * @param valP
+     * @param from the first point (inclusive)
+     * @param to the last point (exclusive)
+     * @param posF the positive force
+     */
+    public void computeEdgeForces(INDArray rowP, INDArray colP, INDArray valP, int from, int to, INDArray posF) {
         if (!rowP.isVector())
             throw new IllegalArgumentException("RowP must be a vector");
-        MemoryWorkspace workspace =
-                workspaceMode == WorkspaceMode.NONE ? new DummyWorkspace()
-                        : Nd4j.getWorkspaceManager().getWorkspaceForCurrentThread(
-                        workspaceConfigurationExternal,
-                        workspaceExternal);
 
         // Loop over all edges in the graph
+        INDArray buf = Nd4j.create(D);
         double D;
-        for (int n = 0; n < N; n++) {
+        for (int n = from; n < to; n++) {
             INDArray slice = data.slice(n);
             for (int i = rowP.getInt(n); i < rowP.getInt(n + 1); i++) {
 
@@ -604,6 +604,34 @@ public class WordVectorSerializerTest {
         assertEquals(arrayLive, arrayStatic);
     }
 
+    /**
+     * This method tests saving and memory-mapping of mapped model
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testMappedModel() throws Exception {
+        WordVectors vectorsStatic = WordVectorSerializer.loadStaticModel(binaryFile);
+
+        File mappedFile = testDir.newFile("vectors.mapped");
+        WordVectorSerializer.writeMappedModel(vectorsStatic, mappedFile);
+        WordVectors vectorsMapped = WordVectorSerializer.loadMappedModel(mappedFile);
+
+        assertEquals(vectorsStatic.vocab().numWords(), vectorsMapped.vocab().numWords());
+        for (int i = 0; i < vectorsStatic.vocab().numWords(); i++) {
+            String word = vectorsStatic.vocab().wordAtIndex(i);
+            assertTrue(vectorsMapped.hasWord(word));
+            assertEquals(i, vectorsMapped.indexOf(word));
+            assertEquals(vectorsStatic.getWordVectorMatrix(word), vectorsMapped.getWordVectorMatrix(word));
+        }
+
+        assertFalse(vectorsMapped.hasWord("NOT_IN_VOCABULARY"));
+        assertEquals(null, vectorsMapped.getWordVectorMatrix("NOT_IN_VOCABULARY"));
+        String word1 = vectorsStatic.vocab().wordAtIndex(0);
+        String word2 = vectorsStatic.vocab().wordAtIndex(1);
+        assertEquals(vectorsStatic.similarity(word1, word2), vectorsMapped.similarity(word1, word2), 1e-5);
+    }
+
     /**
      * This method tests ZIP file loading as static model
      *
@@ -150,6 +150,30 @@ public class CBOW<T extends SequenceElement> implements ElementsLearningAlgorith
 
     public void iterateSample(T currentWord, int[] windowWords, AtomicLong nextRandom, double alpha,
                     boolean isInference, int numLabels, boolean trainWords, INDArray inferenceVector) {
+        AggregateCBOW cbow = buildAggregate(currentWord, windowWords, nextRandom, alpha, numLabels, trainWords,
+                        inferenceVector);
+
+        if (batches.get() == null)
+            batches.set(new ArrayList<Aggregate>());
+
+        if (!isInference) {
+            batches.get().add(cbow);
+            if (batches.get().size() > 4096) {
+                Nd4j.getExecutioner().exec(batches.get());
+                batches.get().clear();
+            }
+        } else
+            Nd4j.getExecutioner().exec(cbow);
+
+    }
+
+    /**
+     * This method builds CBOW aggregate for given sample, without executing it
+     *
+     * @return aggregate op, to be executed individually or as part of batch
+     */
+    public AggregateCBOW buildAggregate(T currentWord, int[] windowWords, AtomicLong nextRandom, double alpha,
+                    int numLabels, boolean trainWords, INDArray inferenceVector) {
         int[] idxSyn1 = null;
         int[] codes = null;
 
@@ -171,29 +195,22 @@ public class CBOW<T extends SequenceElement> implements ElementsLearningAlgorith
 
         if (negative > 0) {
             if (syn1Neg == null) {
-                ((InMemoryLookupTable<T>) lookupTable).initNegative();
-                syn1Neg = new DeviceLocalNDArray(((InMemoryLookupTable<T>) lookupTable).getSyn1Neg());
+                synchronized (this) {
+                    if (syn1Neg == null) {
+                        ((InMemoryLookupTable<T>) lookupTable).initNegative();
+                        syn1Neg = new DeviceLocalNDArray(((InMemoryLookupTable<T>) lookupTable).getSyn1Neg());
+                    }
+                }
             }
         }
 
-        if (batches.get() == null)
-            batches.set(new ArrayList<Aggregate>());
-
         AggregateCBOW cbow = new AggregateCBOW(syn0.get(), syn1.get(), syn1Neg.get(), expTable.get(), table.get(),
                         currentWord.getIndex(), windowWords, idxSyn1, codes, (int) negative, currentWord.getIndex(),
                         lookupTable.layerSize(), alpha, nextRandom.get(), vocabCache.numWords(), numLabels, trainWords,
                         inferenceVector);
         nextRandom.set(Math.abs(nextRandom.get() * 25214903917L + 11));
 
-        if (!isInference) {
-            batches.get().add(cbow);
-            if (batches.get().size() > 4096) {
-                Nd4j.getExecutioner().exec(batches.get());
-                batches.get().clear();
-            }
-        } else
-            Nd4j.getExecutioner().exec(cbow);
-
+        return cbow;
     }
 
     public void cbow(int i, List<T> sentence, int b, AtomicLong nextRandom, double alpha, int currentWindow) {
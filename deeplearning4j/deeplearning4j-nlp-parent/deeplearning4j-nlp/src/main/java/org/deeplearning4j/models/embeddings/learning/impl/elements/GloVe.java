@@ -21,7 +21,7 @@ import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
-import org.deeplearning4j.models.glove.AbstractCoOccurrences;
+import org.deeplearning4j.models.glove.ExternalSortCoOccurrences;
 import org.deeplearning4j.models.sequencevectors.interfaces.SequenceIterator;
 import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
@@ -39,6 +39,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -51,7 +52,7 @@ import java.util.concurrent.atomic.AtomicLong;
 public class GloVe<T extends SequenceElement> implements ElementsLearningAlgorithm<T> {
 
     private VocabCache<T> vocabCache;
-    private AbstractCoOccurrences<T> coOccurrences;
+    private ExternalSortCoOccurrences<T> coOccurrences;
     private WeightLookupTable<T> lookupTable;
     private VectorsConfiguration configuration;
 
@@ -124,7 +125,7 @@ public class GloVe<T extends SequenceElement> implements ElementsLearningAlgorit
     @Override
     public void pretrain(@NonNull SequenceIterator<T> iterator) {
         // CoOccurence table should be built here
-        coOccurrences = new AbstractCoOccurrences.Builder<T>()
+        coOccurrences = new ExternalSortCoOccurrences.Builder<T>()
                         // TODO: symmetric should be handled via VectorsConfiguration
                         .symmetric(this.symmetric).windowSize(configuration.getWindow()).iterate(iterator)
                         .workers(workers).vocabCache(vocabCache).maxMemory(maxmemory).build();
@@ -157,11 +158,10 @@ public class GloVe<T extends SequenceElement> implements ElementsLearningAlgorit
 
         for (int i = 0; i < configuration.getEpochs(); i++) {
 
-            // TODO: shuffle should be built in another way.
-            //if (shuffle)
-            //Collections.shuffle(coList);
-
-            Iterator<Pair<Pair<T, T>, Double>> pairs = coOccurrences.iterator();
+            // pairs are visited in random order over the whole epoch: a new order every epoch if shuffle is enabled,
+            // otherwise the same order for every epoch
+            Random rng = new Random(shuffle ? configuration.getSeed() + i : configuration.getSeed());
+            Iterator<Pair<Pair<T, T>, Double>> pairs = coOccurrences.iterator(rng);
 
             List<GloveCalculationsThread> threads = new ArrayList<>();
             for (int x = 0; x < workers; x++) {
@@ -280,7 +280,12 @@ public class GloVe<T extends SequenceElement> implements ElementsLearningAlgorit
                 List<Pair<Pair<T, T>, Double>> pairs = new ArrayList<>();
                 int cnt = 0;
                 while (coList.hasNext() && cnt < batchSize) {
-                    pairs.add(coList.next());
+                    Pair<Pair<T, T>, Double> pair = coList.next();
+                    if (pair == null) {
+                        //Iterator is shared between threads: may have been exhausted by another thread
+                        break;
+                    }
+                    pairs.add(pair);
                     cnt++;
                 }
 
@@ -390,7 +395,9 @@ public class GloVe<T extends SequenceElement> implements ElementsLearningAlgorit
         }
 
         /**
-         * Parameter specifying, if cooccurrences list should be shuffled between training epochs
+         * Parameter specifying, if cooccurrences list should be shuffled between training epochs.
+         * Pairs are always visited in random order over the whole cooccurrences list; if shuffle is enabled, the order
+         * changes every epoch, otherwise the same order is used for every epoch.
          *
          * @param reallyShuffle
          * @return
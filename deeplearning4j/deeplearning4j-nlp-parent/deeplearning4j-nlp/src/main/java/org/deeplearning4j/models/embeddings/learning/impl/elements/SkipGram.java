@@ -239,16 +239,42 @@ public class SkipGram<T extends SequenceElement> implements ElementsLearningAlgo
 
     public double iterateSample(T w1, T lastWord, AtomicLong nextRandom, double alpha, boolean isInference,
                     INDArray inferenceVector) {
+        AggregateSkipGram sg = buildAggregate(w1, lastWord, nextRandom, alpha, isInference, inferenceVector);
+        if (sg == null)
+            return 0.0;
+
+        double score = 0.0;
+
+        if (batches.get() == null) {
+            batches.set(new ArrayList<Aggregate>());
+        }
+
+        if (!isInference) {
+            batches.get().add(sg);
+            if (batches.get().size() > 4096) {
+                Nd4j.getExecutioner().exec(batches.get());
+                batches.get().clear();
+            }
+        } else
+            Nd4j.getExecutioner().exec(sg);
+
+        return score;
+    }
+
+    /**
+     * This method builds SkipGram aggregate for given pair of elements, without executing it
+     *
+     * @return aggregate op to be executed individually or as part of batch, or null if this pair should be skipped
+     */
+    public AggregateSkipGram buildAggregate(T w1, T lastWord, AtomicLong nextRandom, double alpha, boolean isInference,
+                    INDArray inferenceVector) {
         if (w1 == null || lastWord == null || (lastWord.getIndex() < 0 && !isInference)
                         || w1.getIndex() == lastWord.getIndex() || w1.getLabel().equals("STOP")
                         || lastWord.getLabel().equals("STOP") || w1.getLabel().equals("UNK")
                         || lastWord.getLabel().equals("UNK")) {
-            return 0.0;
+            return null;
         }
 
-
-        double score = 0.0;
-
         int[] idxSyn1 = null;
         int[] codes = null;
         if (configuration.isUseHierarchicSoftmax()) {
@@ -273,15 +299,15 @@ public class SkipGram<T extends SequenceElement> implements ElementsLearningAlgo
         //negative sampling
         if (negative > 0) {
             if (syn1Neg == null) {
-                ((InMemoryLookupTable<T>) lookupTable).initNegative();
-                syn1Neg = new DeviceLocalNDArray(((InMemoryLookupTable<T>) lookupTable).getSyn1Neg());
+                synchronized (this) {
+                    if (syn1Neg == null) {
+                        ((InMemoryLookupTable<T>) lookupTable).initNegative();
+                        syn1Neg = new DeviceLocalNDArray(((InMemoryLookupTable<T>) lookupTable).getSyn1Neg());
+                    }
+                }
             }
         }
 
-        if (batches.get() == null) {
-            batches.set(new ArrayList<Aggregate>());
-        }
-
         //log.info("VocabWords: {}; lastWordIndex: {}; syn1neg: {}", vocabCache.numWords(), lastWord.getIndex(), syn1Neg.get().rows());
 
         AggregateSkipGram sg = new AggregateSkipGram(syn0.get(), syn1.get(), syn1Neg.get(), expTable.get(), table.get(),
@@ -289,15 +315,6 @@ public class SkipGram<T extends SequenceElement> implements ElementsLearningAlgo
                         nextRandom.get(), vocabCache.numWords(), inferenceVector);
         nextRandom.set(Math.abs(nextRandom.get() * 25214903917L + 11));
 
-        if (!isInference) {
-            batches.get().add(sg);
-            if (batches.get().size() > 4096) {
-                Nd4j.getExecutioner().exec(batches.get());
-                batches.get().clear();
-            }
-        } else
-            Nd4j.getExecutioner().exec(sg);
-
-        return score;
+        return sg;
     }
 }
@@ -27,6 +27,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
@@ -180,6 +181,94 @@ public class DBOW<T extends SequenceElement> implements SequenceLearningAlgorith
         return ret;
     }
 
+    /**
+     * This method does training on several previously unseen paragraphs at once, and returns inferred vectors.
+     * All vectors are trained concurrently: on each step, one sample of every sequence is executed, as single batch of aggregates.
+     * Each vector is equal to the one returned by {@link #inferSequence(Sequence, long, double, double, int)} for the same sequence.
+     *
+     * PLEASE NOTE: This method is thread-safe, so it can be used by multiple threads at once.
+     *
+     * @param sequences sequences to infer vectors for
+     * @return inferred vectors, in the same order as sequences. Null for empty sequences.
+     */
+    public List<INDArray> inferSequences(@NonNull List<Sequence<T>> sequences, long nextRandom, double learningRate,
+                    double minLearningRate, int iterations) {
+        List<INDArray> result = new ArrayList<>(sequences.size());
+        AtomicLong[] nr = new AtomicLong[sequences.size()];
+        for (int k = 0; k < sequences.size(); k++) {
+            Sequence<T> sequence = sequences.get(k);
+            if (sequence.isEmpty()) {
+                result.add(null);
+                continue;
+            }
+
+            Random random = Nd4j.getRandomFactory().getNewRandomInstance(configuration.getSeed() * sequence.hashCode(),
+                            lookupTable.layerSize() + 1);
+            result.add(Nd4j.rand(new int[] {1, lookupTable.layerSize()}, random).subi(0.5)
+                            .divi(lookupTable.layerSize()));
+            nr[k] = new AtomicLong(nextRandom);
+        }
+
+        // samples of each sequence are applied sequentially, samples of different sequences are batched together
+        List<List<Aggregate>> samples = new ArrayList<>(sequences.size());
+        List<Aggregate> batch = new ArrayList<>(sequences.size());
+        for (int iter = 0; iter < iterations; iter++) {
+            int maxSamples = 0;
+            samples.clear();
+            for (int k = 0; k < sequences.size(); k++) {
+                List<Aggregate> list = new ArrayList<>();
+                if (result.get(k) != null) {
+                    nr[k].set(Math.abs(nr[k].get() * 25214903917L + 11));
+                    dbowSamples(sequences.get(k), nr[k], learningRate, result.get(k), list);
+                }
+                samples.add(list);
+                maxSamples = Math.max(maxSamples, list.size());
+            }
+
+            for (int i = 0; i < maxSamples; i++) {
+                for (List<Aggregate> list : samples) {
+                    if (i < list.size())
+                        batch.add(list.get(i));
+                }
+
+                Nd4j.getExecutioner().exec(batch);
+                batch.clear();
+            }
+
+            learningRate = ((learningRate - minLearningRate) / (iterations - iter)) + minLearningRate;
+        }
+
+        return result;
+    }
+
+    /**
+     * Builds inference samples for given sequence, in the same order as {@link #dbow(int, Sequence, int, AtomicLong, double, boolean, INDArray)} executes them
+     */
+    protected void dbowSamples(Sequence<T> sequence, AtomicLong nextRandom, double alpha, INDArray inferenceVector,
+                    List<Aggregate> samples) {
+        List<T> sentence = skipGram.applySubsampling(sequence, nextRandom).getElements();
+
+        if (sequence.getSequenceLabel() == null)
+            return;
+
+        List<T> labels = new ArrayList<>();
+        labels.addAll(sequence.getSequenceLabels());
+
+        if (sentence.isEmpty() || labels.isEmpty())
+            return;
+
+        for (T lastWord : labels) {
+            for (T word : sentence) {
+                if (word == null)
+                    continue;
+
+                Aggregate sg = skipGram.buildAggregate(word, lastWord, nextRandom, alpha, true, inferenceVector);
+                if (sg != null)
+                    samples.add(sg);
+            }
+        }
+    }
+
     @Override
     public void finish() {
         if (skipGram != null && skipGram.getBatch() != null && !skipGram.getBatch().isEmpty()) {
@@ -29,6 +29,7 @@ import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.aggregates.Aggregate;
 import org.nd4j.linalg.api.rng.Random;
 import org.nd4j.linalg.factory.Nd4j;
 
@@ -120,9 +121,21 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
 
     public void dm(int i, Sequence<T> sequence, int b, AtomicLong nextRandom, double alpha, List<T> labels,
                     boolean isInference, INDArray inferenceVector) {
-        int end = window * 2 + 1 - b;
-
         T currentWord = sequence.getElementByIndex(i);
+        int[] windowWords = windowWords(i, sequence, b, labels);
+
+        // pass for underlying
+        cbow.iterateSample(currentWord, windowWords, nextRandom, alpha, isInference, labels == null ? 0 : labels.size(),
+                        configuration.isTrainElementsVectors(), inferenceVector);
+
+        if (cbow.getBatch() != null && cbow.getBatch().size() >= configuration.getBatchSize()) {
+            Nd4j.getExecutioner().exec(cbow.getBatch());
+            cbow.getBatch().clear();
+        }
+    }
+
+    protected int[] windowWords(int i, Sequence<T> sequence, int b, List<T> labels) {
+        int end = window * 2 + 1 - b;
 
         List<Integer> intsList = new ArrayList<>();
         for (int a = b; a < end; a++) {
@@ -147,14 +160,7 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
             windowWords[x] = intsList.get(x);
         }
 
-        // pass for underlying
-        cbow.iterateSample(currentWord, windowWords, nextRandom, alpha, isInference, labels == null ? 0 : labels.size(),
-                        configuration.isTrainElementsVectors(), inferenceVector);
-
-        if (cbow.getBatch() != null && cbow.getBatch().size() >= configuration.getBatchSize()) {
-            Nd4j.getExecutioner().exec(cbow.getBatch());
-            cbow.getBatch().clear();
-        }
+        return windowWords;
     }
 
     @Override
@@ -200,6 +206,62 @@ public class DM<T extends SequenceElement> implements SequenceLearningAlgorithm<
         return ret;
     }
 
+    /**
+     * This method does training on several previously unseen paragraphs at once, and returns inferred vectors.
+     * All vectors are trained concurrently: on each step, one sample of every sequence is executed, as single batch of aggregates.
+     * Each vector is equal to the one returned by {@link #inferSequence(Sequence, long, double, double, int)} for the same sequence.
+     *
+     * PLEASE NOTE: This method is thread-safe, so it can be used by multiple threads at once.
+     *
+     * @param sequences sequences to infer vectors for
+     * @return inferred vectors, in the same order as sequences. Null for empty sequences.
+     */
+    public List<INDArray> inferSequences(@NonNull List<Sequence<T>> sequences, long nr, double learningRate,
+                    double minLearningRate, int iterations) {
+        List<INDArray> result = new ArrayList<>(sequences.size());
+        AtomicLong[] nextRandom = new AtomicLong[sequences.size()];
+        int maxLength = 0;
+        for (int k = 0; k < sequences.size(); k++) {
+            Sequence<T> sequence = sequences.get(k);
+            if (sequence.isEmpty()) {
+                result.add(null);
+                continue;
+            }
+
+            Random random = Nd4j.getRandomFactory().getNewRandomInstance(configuration.getSeed() * sequence.hashCode(),
+                            lookupTable.layerSize() + 1);
+            result.add(Nd4j.rand(new int[] {1, lookupTable.layerSize()}, random).subi(0.5)
+                            .divi(lookupTable.layerSize()));
+            nextRandom[k] = new AtomicLong(nr);
+            maxLength = Math.max(maxLength, sequence.size());
+        }
+
+        // vectors of different sequences are independent, so each batch has at most one sample per sequence
+        List<Aggregate> batch = new ArrayList<>(sequences.size());
+        for (int iter = 0; iter < iterations; iter++) {
+            for (int i = 0; i < maxLength; i++) {
+                for (int k = 0; k < sequences.size(); k++) {
+                    Sequence<T> sequence = sequences.get(k);
+                    if (result.get(k) == null || i >= sequence.size())
+                        continue;
+
+                    nextRandom[k].set(Math.abs(nextRandom[k].get() * 25214903917L + 11));
+                    int[] windowWords = windowWords(i, sequence, (int) nextRandom[k].get() % window, null);
+                    batch.add(cbow.buildAggregate(sequence.getElementByIndex(i), windowWords, nextRandom[k],
+                                    learningRate, 0, configuration.isTrainElementsVectors(), result.get(k)));
+                }
+
+                if (!batch.isEmpty()) {
+                    Nd4j.getExecutioner().exec(batch);
+                    batch.clear();
+                }
+            }
+            learningRate = ((learningRate - minLearningRate) / (iterations - iter)) + minLearningRate;
+        }
+
+        return result;
+    }
+
 
     @Override
     public void finish() {
@@ -28,6 +28,9 @@ import org.deeplearning4j.exception.DL4JInvalidInputException;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.learning.impl.elements.SkipGram;
+import org.deeplearning4j.models.embeddings.mapped.MappedVectorStorage;
+import org.deeplearning4j.models.embeddings.mapped.MappedVectorsFile;
+import org.deeplearning4j.models.embeddings.mapped.MappedVocabCache;
 import org.deeplearning4j.models.embeddings.reader.impl.BasicModelUtils;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
@@ -2606,6 +2609,47 @@ public class WordVectorSerializer {
     }
 
 
+    /**
+     * This method saves word vectors in persistent binary format suitable for memory mapping.
+     * Saved model can be loaded with {@link #loadMappedModel(File)} almost instantly, regardless of its size.
+     *
+     * @param vectors WordVectors to be saved. I.e. Word2Vec, or StaticWord2Vec restored via {@link #loadStaticModel(File)}
+     * @param file    destination file
+     */
+    public static void writeMappedModel(@NonNull WordVectors vectors, @NonNull File file) {
+        try {
+            MappedVectorsFile.write(vectors, file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * This method memory-maps model previously saved with {@link #writeMappedModel(WordVectors, File)}.
+     * Neither vocabulary nor vectors are loaded into memory: lookups read directly from OS page cache,
+     * so multiple JVMs on the same host share single copy of the model.
+     *
+     * In return you get read-only StaticWord2Vec model, which might be used as lookup table only.
+     *
+     * @param file File should point to previously saved mapped model
+     * @return
+     */
+    public static WordVectors loadMappedModel(@NonNull File file) {
+        if (!file.exists() || file.isDirectory())
+            throw new RuntimeException(
+                            new FileNotFoundException("File [" + file.getAbsolutePath() + "] was not found"));
+
+        MappedVectorsFile mapped;
+        try {
+            mapped = MappedVectorsFile.open(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return new StaticWord2Vec.Builder(new MappedVectorStorage(mapped), new MappedVocabCache(mapped)).build();
+    }
+
+
     protected interface Reader extends AutoCloseable {
         boolean hasNext();
 
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.models.embeddings.mapped;
+
+import lombok.NonNull;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.compression.AbstractStorage;
+
+/**
+ * Read-only AbstractStorage implementation, backed by memory-mapped word vectors file.
+ * Keys are vocabulary indexes of words.
+ */
+public class MappedVectorStorage implements AbstractStorage<Integer> {
+    private final MappedVectorsFile file;
+
+    public MappedVectorStorage(@NonNull MappedVectorsFile file) {
+        this.file = file;
+    }
+
+    @Override
+    public void store(Integer key, INDArray object) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void store(Integer key, float[] array) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void store(Integer key, double[] array) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public boolean storeIfAbsent(Integer key, INDArray object) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public INDArray get(Integer key) {
+        return containsKey(key) ? file.getVector(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Integer key) {
+        return key != null && key >= 0 && key < file.getNumWords();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public void drop(Integer key) {
+        throw new UnsupportedOperationException("MappedVectorStorage is read-only");
+    }
+
+    @Override
+    public long size() {
+        return file.getNumWords();
+    }
+}
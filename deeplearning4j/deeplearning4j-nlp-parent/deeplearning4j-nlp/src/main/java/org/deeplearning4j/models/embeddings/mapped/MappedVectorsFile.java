@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.models.embeddings.mapped;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * This class provides read-only access to word vectors stored in persistent binary format, suitable for memory mapping.
+ * Vectors are never loaded onto heap: all lookups read directly from memory-mapped file, so OS page cache is used as storage,
+ * and multiple JVMs on the same host share single copy of the model.
+ *
+ * File layout (all values are big-endian):
+ * <pre>
+ * header:        8 bytes magic, int version, int numWords, int layerSize, int reserved,
+ *                long sortedOffset, long rowsOffset, long stringsOffset, long matrixOffset, long totalWordOccurrences
+ * sorted index:  numWords x int, row indexes sorted by word
+ * rows:          numWords x (long string offset, int string length, int reserved, double frequency), in row order
+ * strings:       UTF-8 encoded words
+ * matrix:        numWords x layerSize float values, row-major, 64-byte aligned
+ * </pre>
+ *
+ * PLEASE NOTE: This class is thread-safe.
+ */
+@Slf4j
+public class MappedVectorsFile {
+    private static final byte[] MAGIC = "DL4JMMAP".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int ROW_RECORD_SIZE = 24;
+    private static final int MATRIX_ALIGNMENT = 64;
+
+    @Getter
+    private final File file;
+    @Getter
+    private final int numWords;
+    @Getter
+    private final int layerSize;
+    @Getter
+    private final long totalWordOccurrences;
+
+    private final long sortedOffset;
+    private final long rowsOffset;
+    private final long matrixOffset;
+    private final int rowsPerSegment;
+
+    // vocabulary part of the file: header, sorted index, rows, strings
+    private final MappedByteBuffer vocabulary;
+    // vectors matrix, split into segments of whole rows, since single mapping is limited to 2GB
+    private final MappedByteBuffer[] segments;
+
+    protected MappedVectorsFile(@NonNull File file) throws IOException {
+        this.file = file;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            if (channel.size() < HEADER_SIZE)
+                throw new IllegalStateException("File [" + file.getAbsolutePath() + "] is not a mapped word vectors file");
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(MAGIC, magic))
+                throw new IllegalStateException("File [" + file.getAbsolutePath() + "] is not a mapped word vectors file");
+
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IllegalStateException("Unsupported mapped word vectors file version: " + version);
+
+            numWords = header.getInt();
+            layerSize = header.getInt();
+            header.getInt();
+            sortedOffset = header.getLong();
+            rowsOffset = header.getLong();
+            header.getLong();
+            matrixOffset = header.getLong();
+            totalWordOccurrences = header.getLong();
+
+            long rowBytes = 4L * layerSize;
+            long expectedSize = matrixOffset + rowBytes * numWords;
+            if (channel.size() < expectedSize)
+                throw new IllegalStateException("File [" + file.getAbsolutePath() + "] is truncated: expected " + expectedSize
+                                + " bytes, got " + channel.size());
+
+            if (matrixOffset > Integer.MAX_VALUE)
+                throw new IllegalStateException("Vocabulary part of mapped word vectors file exceeds 2GB");
+
+            vocabulary = channel.map(FileChannel.MapMode.READ_ONLY, 0, matrixOffset);
+
+            rowsPerSegment = (int) Math.max(1, Integer.MAX_VALUE / Math.max(1, rowBytes));
+            int numSegments = (int) ((numWords + (long) rowsPerSegment - 1) / rowsPerSegment);
+            segments = new MappedByteBuffer[numSegments];
+            for (int i = 0; i < numSegments; i++) {
+                long firstRow = (long) i * rowsPerSegment;
+                long rows = Math.min(rowsPerSegment, numWords - firstRow);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, matrixOffset + firstRow * rowBytes,
+                                rows * rowBytes);
+            }
+        }
+    }
+
+    /**
+     * This method opens previously written mapped word vectors file
+     *
+     * @param file file written with {@link #write(WordVectors, File)}
+     * @return
+     */
+    public static MappedVectorsFile open(@NonNull File file) throws IOException {
+        return new MappedVectorsFile(file);
+    }
+
+    /**
+     * This method writes vectors of all vocabulary words into mapped word vectors file
+     *
+     * @param vectors WordVectors to be saved
+     * @param file    destination file
+     */
+    public static void write(@NonNull WordVectors vectors, @NonNull File file) throws IOException {
+        VocabCache<? extends SequenceElement> vocab = vectors.vocab();
+        int numWords = vocab.numWords();
+
+        final String[] words = new String[numWords];
+        byte[][] encoded = new byte[numWords][];
+        long stringsLength = 0;
+        for (int i = 0; i < numWords; i++) {
+            words[i] = vocab.wordAtIndex(i);
+            if (words[i] == null)
+                throw new IllegalStateException("Vocabulary has no word at index " + i);
+            encoded[i] = words[i].getBytes(StandardCharsets.UTF_8);
+            stringsLength += encoded[i].length;
+        }
+
+        Integer[] sorted = new Integer[numWords];
+        for (int i = 0; i < numWords; i++)
+            sorted[i] = i;
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return words[o1].compareTo(words[o2]);
+            }
+        });
+
+        int layerSize = numWords > 0 ? (int) vectors.getWordVectorMatrix(words[0]).length() : 0;
+
+        long sortedOffset = HEADER_SIZE;
+        long rowsOffset = sortedOffset + 4L * numWords;
+        long stringsOffset = rowsOffset + (long) ROW_RECORD_SIZE * numWords;
+        long stringsEnd = stringsOffset + stringsLength;
+        long matrixOffset = (stringsEnd + MATRIX_ALIGNMENT - 1) / MATRIX_ALIGNMENT * MATRIX_ALIGNMENT;
+
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            dos.write(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(numWords);
+            dos.writeInt(layerSize);
+            dos.writeInt(0);
+            dos.writeLong(sortedOffset);
+            dos.writeLong(rowsOffset);
+            dos.writeLong(stringsOffset);
+            dos.writeLong(matrixOffset);
+            dos.writeLong(vocab.totalWordOccurrences());
+
+            for (int i = 0; i < numWords; i++)
+                dos.writeInt(sorted[i]);
+
+            long offset = stringsOffset;
+            for (int i = 0; i < numWords; i++) {
+                dos.writeLong(offset);
+                dos.writeInt(encoded[i].length);
+                dos.writeInt(0);
+                dos.writeDouble(vocab.wordFrequency(words[i]));
+                offset += encoded[i].length;
+            }
+
+            for (int i = 0; i < numWords; i++)
+                dos.write(encoded[i]);
+
+            for (long i = stringsEnd; i < matrixOffset; i++)
+                dos.writeByte(0);
+
+            for (int i = 0; i < numWords; i++) {
+                INDArray vector = vectors.getWordVectorMatrix(words[i]);
+                if (vector == null || vector.length() != layerSize)
+                    throw new IllegalStateException("Vector for word [" + words[i] + "] is missing or has wrong length");
+
+                for (int j = 0; j < layerSize; j++)
+                    dos.writeFloat(vector.getFloat(j));
+            }
+        }
+
+        log.info("Mapped word vectors file written: {} words, layer size {}, {} bytes", numWords, layerSize,
+                        file.length());
+    }
+
+    /**
+     * This method returns index of the given word, or -2 if word isn't present in vocabulary
+     *
+     * @param word
+     * @return
+     */
+    public int indexOf(@NonNull String word) {
+        int low = 0;
+        int high = numWords - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int row = vocabulary.getInt((int) (sortedOffset + 4L * mid));
+            int cmp = wordAtIndex(row).compareTo(word);
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return row;
+        }
+        return -2;
+    }
+
+    /**
+     * This method returns word at given index, or null if index is out of range
+     *
+     * @param index
+     * @return
+     */
+    public String wordAtIndex(int index) {
+        if (index < 0 || index >= numWords)
+            return null;
+
+        int record = (int) (rowsOffset + (long) ROW_RECORD_SIZE * index);
+        int offset = (int) vocabulary.getLong(record);
+        int length = vocabulary.getInt(record + 8);
+
+        byte[] bytes = new byte[length];
+        ByteBuffer buffer = vocabulary.duplicate();
+        buffer.position(offset);
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method returns frequency of the word at given index
+     *
+     * @param index
+     * @return
+     */
+    public double frequencyAtIndex(int index) {
+        if (index < 0 || index >= numWords)
+            return 0.0;
+
+        return vocabulary.getDouble((int) (rowsOffset + (long) ROW_RECORD_SIZE * index + 16));
+    }
+
+    /**
+     * This method copies vector at given index into provided array
+     *
+     * @param index
+     * @param target array of layerSize length
+     */
+    public void readVector(int index, @NonNull float[] target) {
+        if (index < 0 || index >= numWords)
+            throw new IndexOutOfBoundsException("Index [" + index + "] is out of range: [0, " + numWords + ")");
+
+        ByteBuffer buffer = segments[index / rowsPerSegment].duplicate();
+        buffer.position((int) (4L * layerSize * (index % rowsPerSegment)));
+        buffer.asFloatBuffer().get(target, 0, layerSize);
+    }
+
+    /**
+     * This method returns vector at given index, as row vector
+     *
+     * @param index
+     * @return
+     */
+    public INDArray getVector(int index) {
+        float[] vector = new float[layerSize];
+        readVector(index, vector);
+        return Nd4j.create(vector, new int[] {1, layerSize});
+    }
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.models.embeddings.mapped;
+
+import lombok.NonNull;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Read-only VocabCache implementation, backed by memory-mapped word vectors file.
+ * Words are looked up with binary search over sorted index stored in the file, so vocabulary isn't loaded onto heap.
+ * VocabWord instances are created on each call.
+ */
+public class MappedVocabCache implements VocabCache<VocabWord> {
+    private final MappedVectorsFile file;
+
+    public MappedVocabCache(@NonNull MappedVectorsFile file) {
+        this.file = file;
+    }
+
+    @Override
+    public void loadVocab() {
+        // no-op
+    }
+
+    @Override
+    public boolean vocabExists() {
+        return file.getNumWords() > 0;
+    }
+
+    @Override
+    public void saveVocab() {
+        // no-op
+    }
+
+    @Override
+    public Collection<String> words() {
+        List<String> words = new ArrayList<>(file.getNumWords());
+        for (int i = 0; i < file.getNumWords(); i++)
+            words.add(file.wordAtIndex(i));
+
+        return words;
+    }
+
+    @Override
+    public void incrementWordCount(String word) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void incrementWordCount(String word, int increment) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public int wordFrequency(String word) {
+        int index = indexOf(word);
+        return index >= 0 ? (int) file.frequencyAtIndex(index) : 0;
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        return indexOf(word) >= 0;
+    }
+
+    @Override
+    public String wordAtIndex(int index) {
+        return file.wordAtIndex(index);
+    }
+
+    @Override
+    public VocabWord elementAtIndex(int index) {
+        String word = file.wordAtIndex(index);
+        if (word == null)
+            return null;
+
+        VocabWord element = new VocabWord(file.frequencyAtIndex(index), word);
+        element.setIndex(index);
+        return element;
+    }
+
+    @Override
+    public int indexOf(String word) {
+        if (word == null)
+            return -2;
+
+        return file.indexOf(word);
+    }
+
+    @Override
+    public Collection<VocabWord> vocabWords() {
+        List<VocabWord> words = new ArrayList<>(file.getNumWords());
+        for (int i = 0; i < file.getNumWords(); i++)
+            words.add(elementAtIndex(i));
+
+        return words;
+    }
+
+    @Override
+    public long totalWordOccurrences() {
+        return file.getTotalWordOccurrences();
+    }
+
+    @Override
+    public VocabWord wordFor(String word) {
+        return elementAtIndex(indexOf(word));
+    }
+
+    @Override
+    public VocabWord wordFor(long id) {
+        throw new UnsupportedOperationException("MappedVocabCache doesn't support lookups by element id");
+    }
+
+    @Override
+    public void addWordToIndex(int index, String word) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void addWordToIndex(int index, long elementId) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void putVocabWord(String word) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public int numWords() {
+        return file.getNumWords();
+    }
+
+    @Override
+    public int docAppearedIn(String word) {
+        return -1;
+    }
+
+    @Override
+    public void incrementDocCount(String word, long howMuch) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void setCountForDoc(String word, long count) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public long totalNumberOfDocs() {
+        return 0;
+    }
+
+    @Override
+    public void incrementTotalDocCount() {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void incrementTotalDocCount(long by) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public Collection<VocabWord> tokens() {
+        return vocabWords();
+    }
+
+    @Override
+    public void addToken(VocabWord element) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public VocabWord tokenFor(String word) {
+        return wordFor(word);
+    }
+
+    @Override
+    public VocabWord tokenFor(long id) {
+        throw new UnsupportedOperationException("MappedVocabCache doesn't support lookups by element id");
+    }
+
+    @Override
+    public boolean hasToken(String token) {
+        return containsWord(token);
+    }
+
+    @Override
+    public void importVocabulary(VocabCache<VocabWord> vocabCache) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void updateWordsOccurrences() {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void removeElement(String label) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+
+    @Override
+    public void removeElement(VocabWord element) {
+        throw new UnsupportedOperationException("MappedVocabCache is read-only");
+    }
+}
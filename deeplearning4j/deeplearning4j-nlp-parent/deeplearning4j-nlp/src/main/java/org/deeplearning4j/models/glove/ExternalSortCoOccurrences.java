@@ -0,0 +1,616 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.models.glove;
+
+import lombok.NonNull;
+import org.deeplearning4j.models.glove.count.LongDoubleCountMap;
+import org.deeplearning4j.models.sequencevectors.interfaces.SequenceIterator;
+import org.deeplearning4j.models.sequencevectors.iterators.FilteredSequenceIterator;
+import org.deeplearning4j.models.sequencevectors.iterators.SynchronizedSequenceIterator;
+import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
+import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.primitives.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds the cooccurrence counts for a training corpus using an external merge sort, with bounded memory use.<br>
+ * <br>
+ * Each worker thread accumulates the cooccurrence weights in its own primitive {@link LongDoubleCountMap}, with
+ * element index pairs packed into long keys. When a worker's map reaches its share of the memory budget, the map is
+ * written to disk as a run sorted by key, and cleared. Once the corpus has been processed, the runs are merged with a
+ * k-way merge (summing the weights of equal keys) into a single sorted binary target file.<br>
+ * For training, {@link #iterator(Random)} streams the pairs in a uniformly random order over the whole file: the
+ * records are first scattered at random into bucket files that each fit into the memory budget, and each bucket is
+ * then shuffled in memory when it is reached.<br>
+ * The counts produced are the same as for {@link AbstractCoOccurrences}.
+ */
+public class ExternalSortCoOccurrences<T extends SequenceElement> implements Serializable {
+
+    protected static final Logger logger = LoggerFactory.getLogger(ExternalSortCoOccurrences.class);
+
+    //Size of one (key, weight) record in the run files: long + double
+    protected static final int RECORD_SIZE = 16;
+
+    protected boolean symmetric;
+    protected int windowSize;
+    protected VocabCache<T> vocabCache;
+    protected SequenceIterator<T> sequenceIterator;
+    protected int workers;
+    protected long memoryBudget;
+    protected int mergeFactor;
+    protected File tempDirectory;
+
+    // target file, where sorted cooccurrences will be saved
+    protected File targetFile;
+
+    protected final List<File> runs = Collections.synchronizedList(new ArrayList<File>());
+    protected final AtomicLong processedSequences = new AtomicLong(0);
+    protected long numPairs;
+
+    protected ExternalSortCoOccurrences() {}
+
+    /**
+     * @return Number of distinct element pairs, after {@link #fit()}
+     */
+    public long getNumPairs() {
+        return numPairs;
+    }
+
+    public void fit() {
+        sequenceIterator.reset();
+        runs.clear();
+
+        final long threadBudget = Math.max(memoryBudget / workers, 1024L * RECORD_SIZE);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int x = 0; x < workers; x++) {
+            final SequenceIterator<T> iter = new FilteredSequenceIterator<>(
+                            new SynchronizedSequenceIterator<>(sequenceIterator), vocabCache);
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        countCoOccurrences(iter, threadBudget);
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            }, "CoOccurrencesCalculatorThread " + x);
+            threads.add(t);
+            t.start();
+        }
+
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        if (error.get() != null) {
+            throw new RuntimeException("Error building cooccurrences", error.get());
+        }
+
+        try {
+            List<File> toMerge = new ArrayList<>(runs);
+            logger.info("Merging {} sorted cooccurrence runs", toMerge.size());
+            while (toMerge.size() > mergeFactor) {
+                List<File> merged = new ArrayList<>();
+                for (int i = 0; i < toMerge.size(); i += mergeFactor) {
+                    List<File> group = toMerge.subList(i, Math.min(i + mergeFactor, toMerge.size()));
+                    File out = newRunFile();
+                    mergeRuns(group, out);
+                    merged.add(out);
+                }
+                toMerge = merged;
+            }
+            numPairs = mergeRuns(toMerge, targetFile);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        runs.clear();
+        logger.info("CoOccurrences map was built: {} sequences, {} distinct pairs", processedSequences.get(), numPairs);
+    }
+
+    protected void countCoOccurrences(SequenceIterator<T> iterator, long budget) throws IOException {
+        LongDoubleCountMap counts = new LongDoubleCountMap();
+        while (iterator.hasMoreSequences()) {
+            Sequence<T> sequence = iterator.nextSequence();
+            List<String> tokens = sequence.asLabels();
+
+            for (int x = 0; x < tokens.size(); x++) {
+                int wordIdx = vocabCache.indexOf(tokens.get(x));
+                if (wordIdx < 0) {
+                    continue;
+                }
+
+                int windowStop = Math.min(x + windowSize + 1, tokens.size());
+                for (int j = x; j < windowStop; j++) {
+                    int otherWord = vocabCache.indexOf(tokens.get(j));
+                    if (otherWord < 0 || otherWord == wordIdx
+                                    || vocabCache.wordFor(tokens.get(j)).getLabel().equals(Glove.DEFAULT_UNK)) {
+                        continue;
+                    }
+
+                    double nWeight = 1.0 / (j - x + Nd4j.EPS_THRESHOLD);
+                    int first = Math.min(wordIdx, otherWord);
+                    int second = Math.max(wordIdx, otherWord);
+                    addCount(counts, LongDoubleCountMap.pack(first, second), nWeight, budget);
+                    if (symmetric) {
+                        addCount(counts, LongDoubleCountMap.pack(second, first), nWeight, budget);
+                    }
+                }
+            }
+            processedSequences.incrementAndGet();
+        }
+
+        if (counts.size() > 0) {
+            spill(counts);
+        }
+    }
+
+    /**
+     * Increment the count for the specified key, spilling the map to disk first if inserting the key could grow the map
+     * beyond the memory budget
+     */
+    protected void addCount(LongDoubleCountMap counts, long key, double weight, long budget) throws IOException {
+        if (counts.isAtCapacity(budget)) {
+            spill(counts);
+        }
+        counts.incrementCount(key, weight);
+    }
+
+    /**
+     * Write the counts to a new sorted run file, and clear the map
+     */
+    protected void spill(LongDoubleCountMap counts) throws IOException {
+        File f = newRunFile();
+        int written;
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 20))) {
+            written = counts.writeSortedAndClear(dos);
+        }
+        logger.debug("Spilled {} cooccurrence pairs to disk", written);
+        runs.add(f);
+    }
+
+    protected File newRunFile() throws IOException {
+        File f = File.createTempFile("cooccurrence_run", ".bin", tempDirectory);
+        f.deleteOnExit();
+        return f;
+    }
+
+    /**
+     * Merge the sorted input runs into a single sorted output file, summing the values of equal keys. The input files
+     * are deleted after merging.
+     *
+     * @return Number of records in the output file
+     */
+    protected static long mergeRuns(List<File> inputs, File output) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>(Math.max(1, inputs.size()));
+        long count = 0;
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(output), 1 << 20))) {
+            for (File f : inputs) {
+                RunReader r = new RunReader(f);
+                if (r.advance()) {
+                    queue.add(r);
+                } else {
+                    r.close();
+                }
+            }
+
+            boolean haveCurrent = false;
+            long currentKey = 0;
+            double currentValue = 0.0;
+            while (!queue.isEmpty()) {
+                RunReader r = queue.poll();
+                if (haveCurrent && r.key == currentKey) {
+                    currentValue += r.value;
+                } else {
+                    if (haveCurrent) {
+                        dos.writeLong(currentKey);
+                        dos.writeDouble(currentValue);
+                        count++;
+                    }
+                    currentKey = r.key;
+                    currentValue = r.value;
+                    haveCurrent = true;
+                }
+
+                if (r.advance()) {
+                    queue.add(r);
+                } else {
+                    r.close();
+                }
+            }
+            if (haveCurrent) {
+                dos.writeLong(currentKey);
+                dos.writeDouble(currentValue);
+                count++;
+            }
+        } finally {
+            for (RunReader r : queue) {
+                r.close();
+            }
+        }
+
+        for (File f : inputs) {
+            if (!f.equals(output)) {
+                f.delete();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method returns an iterator over the element pairs and their weights, streamed from the target file in
+     * sorted order. See {@link #iterator(Random)} for iteration in random order, as required for training.<br>
+     * The returned iterator is safe to use from multiple threads; however, as multiple threads may call
+     * {@code hasNext()} concurrently, {@code next()} returns null instead of throwing an exception when there are no
+     * more elements.
+     */
+    public Iterator<Pair<Pair<T, T>, Double>> iterator() {
+        final RunReader reader;
+        try {
+            reader = new RunReader(targetFile);
+        } catch (IOException e) {
+            logger.error("Target file was not found on last stage!");
+            throw new RuntimeException(e);
+        }
+
+        return new PairIterator() {
+            @Override
+            protected long remaining() {
+                return reader.remaining;
+            }
+
+            @Override
+            protected boolean advance() throws IOException {
+                if (!reader.advance()) {
+                    reader.close();
+                    return false;
+                }
+                if (reader.remaining == 0) {
+                    reader.close();
+                }
+                key = reader.key;
+                value = reader.value;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * This method returns an iterator over the element pairs and their weights, in a uniformly random order over all
+     * pairs.<br>
+     * If the target file doesn't fit into half of the memory budget, its records are first scattered at random into
+     * temporary bucket files that do; each bucket is then loaded and shuffled in memory when the iterator reaches it.
+     * Random bucket assignment followed by a uniform shuffle within each bucket yields a uniformly random permutation
+     * of the whole file.<br>
+     * The returned iterator is safe to use from multiple threads, with the same semantics as {@link #iterator()}.
+     *
+     * @param rng Random number generator used for the shuffle
+     */
+    public Iterator<Pair<Pair<T, T>, Double>> iterator(@NonNull final Random rng) {
+        final long numRecords = targetFile.length() / RECORD_SIZE;
+        final Deque<File> buckets;
+        try {
+            buckets = new ArrayDeque<>(scatter(numRecords, rng));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return new PairIterator() {
+            private long remaining = numRecords;
+            private long[] bucketKeys = new long[0];
+            private double[] bucketValues = new double[0];
+            private int bucketSize;
+            private int position;
+
+            @Override
+            protected long remaining() {
+                return remaining;
+            }
+
+            @Override
+            protected boolean advance() throws IOException {
+                if (remaining <= 0) {
+                    return false;
+                }
+                while (position >= bucketSize) {
+                    loadBucket(buckets.poll());
+                }
+                key = bucketKeys[position];
+                value = bucketValues[position];
+                position++;
+                remaining--;
+                return true;
+            }
+
+            private void loadBucket(File f) throws IOException {
+                int n = (int) (f.length() / RECORD_SIZE);
+                if (bucketKeys.length < n) {
+                    bucketKeys = new long[n];
+                    bucketValues = new double[n];
+                }
+                try (RunReader reader = new RunReader(f)) {
+                    for (int i = 0; i < n; i++) {
+                        reader.advance();
+                        bucketKeys[i] = reader.key;
+                        bucketValues[i] = reader.value;
+                    }
+                }
+                if (!f.equals(targetFile)) {
+                    f.delete();
+                }
+
+                //Fisher-Yates shuffle of the keys and values
+                for (int i = n - 1; i > 0; i--) {
+                    int j = rng.nextInt(i + 1);
+                    long k = bucketKeys[i];
+                    bucketKeys[i] = bucketKeys[j];
+                    bucketKeys[j] = k;
+                    double v = bucketValues[i];
+                    bucketValues[i] = bucketValues[j];
+                    bucketValues[j] = v;
+                }
+                bucketSize = n;
+                position = 0;
+            }
+        };
+    }
+
+    /**
+     * Scatter the records of the target file uniformly at random into bucket files, each expected to hold at most half
+     * of the memory budget. If the whole target file fits, it is used as the only bucket.
+     */
+    protected List<File> scatter(long numRecords, Random rng) throws IOException {
+        long maxBucketRecords = Math.min(Math.max(memoryBudget / (2 * RECORD_SIZE), 1024L), Integer.MAX_VALUE / 2);
+        int numBuckets = (int) ((numRecords + maxBucketRecords - 1) / maxBucketRecords);
+        if (numBuckets <= 1) {
+            return Collections.singletonList(targetFile);
+        }
+
+        List<File> buckets = new ArrayList<>(numBuckets);
+        DataOutputStream[] outputs = new DataOutputStream[numBuckets];
+        try (RunReader reader = new RunReader(targetFile)) {
+            for (int i = 0; i < numBuckets; i++) {
+                File f = newRunFile();
+                buckets.add(f);
+                outputs[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16));
+            }
+            while (reader.advance()) {
+                DataOutputStream dos = outputs[rng.nextInt(numBuckets)];
+                dos.writeLong(reader.key);
+                dos.writeDouble(reader.value);
+            }
+        } finally {
+            for (DataOutputStream dos : outputs) {
+                if (dos != null) {
+                    dos.close();
+                }
+            }
+        }
+        logger.debug("Scattered {} cooccurrence pairs into {} buckets for shuffling", numRecords, numBuckets);
+        return buckets;
+    }
+
+    /**
+     * Thread safe iterator over (key, value) records, converting keys to element pairs
+     */
+    protected abstract class PairIterator implements Iterator<Pair<Pair<T, T>, Double>> {
+        protected long key;
+        protected double value;
+
+        protected abstract long remaining();
+
+        /**
+         * Read the next record into {@link #key} and {@link #value}
+         *
+         * @return False if there are no more records
+         */
+        protected abstract boolean advance() throws IOException;
+
+        @Override
+        public synchronized boolean hasNext() {
+            return remaining() > 0;
+        }
+
+        @Override
+        public synchronized Pair<Pair<T, T>, Double> next() {
+            try {
+                if (!advance()) {
+                    return null;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+
+            T element1 = vocabCache.elementAtIndex(LongDoubleCountMap.first(key));
+            T element2 = vocabCache.elementAtIndex(LongDoubleCountMap.second(key));
+            return new Pair<>(new Pair<>(element1, element2), value);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("remove() method can't be supported on read-only interface");
+        }
+    }
+
+    /**
+     * Sequential reader for a sorted run file of (long key, double value) records
+     */
+    protected static class RunReader implements Comparable<RunReader>, Closeable {
+        private final DataInputStream in;
+        private long remaining;
+        private long key;
+        private double value;
+
+        protected RunReader(File f) throws IOException {
+            this.remaining = f.length() / RECORD_SIZE;
+            this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16));
+        }
+
+        protected boolean advance() throws IOException {
+            if (remaining <= 0) {
+                return false;
+            }
+            key = in.readLong();
+            value = in.readDouble();
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public int compareTo(RunReader o) {
+            return Long.compare(key, o.key);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    public static class Builder<T extends SequenceElement> {
+
+        protected boolean symmetric;
+        protected int windowSize = 5;
+        protected VocabCache<T> vocabCache;
+        protected SequenceIterator<T> sequenceIterator;
+        protected int workers = Runtime.getRuntime().availableProcessors();
+        protected File target;
+        protected File tempDirectory;
+        protected long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+        protected int mergeFactor = 64;
+
+        public Builder() {
+
+        }
+
+        public Builder<T> symmetric(boolean reallySymmetric) {
+            this.symmetric = reallySymmetric;
+            return this;
+        }
+
+        public Builder<T> windowSize(int windowSize) {
+            this.windowSize = windowSize;
+            return this;
+        }
+
+        public Builder<T> vocabCache(@NonNull VocabCache<T> cache) {
+            this.vocabCache = cache;
+            return this;
+        }
+
+        public Builder<T> iterate(@NonNull SequenceIterator<T> iterator) {
+            this.sequenceIterator = new SynchronizedSequenceIterator<>(iterator);
+            return this;
+        }
+
+        public Builder<T> workers(int numWorkers) {
+            this.workers = numWorkers;
+            return this;
+        }
+
+        /**
+         * Memory budget for the in-memory cooccurrence counts, in gigabytes, shared between all worker threads.
+         * Once the budget is reached, counts are spilled to disk. Also bounds the size of the buckets used by
+         * {@link ExternalSortCoOccurrences#iterator(Random)}. Default: 1/4 of the maximum JVM heap size.
+         *
+         * @param gbytes memory available, in GigaBytes. Values <= 0 are ignored
+         */
+        public Builder<T> maxMemory(int gbytes) {
+            if (gbytes > 0) {
+                this.memoryBudget = gbytes * 1024L * 1024L * 1024L;
+            }
+            return this;
+        }
+
+        /**
+         * Memory budget for the in-memory cooccurrence counts, in bytes. See {@link #maxMemory(int)}
+         */
+        public Builder<T> memoryBudgetBytes(long bytes) {
+            this.memoryBudget = bytes;
+            return this;
+        }
+
+        /**
+         * Maximum number of sorted runs to merge at once. If more runs than this are produced, they are merged in
+         * multiple passes. Default: 64
+         */
+        public Builder<T> mergeFactor(int mergeFactor) {
+            this.mergeFactor = mergeFactor;
+            return this;
+        }
+
+        /**
+         * Directory for the temporary sorted run files. Default: system temporary directory
+         */
+        public Builder<T> tempDirectory(File tempDirectory) {
+            this.tempDirectory = tempDirectory;
+            return this;
+        }
+
+        /**
+         * Path to save the sorted cooccurrences after construction.
+         * If targetFile is not specified, temporary file will be used.
+         */
+        public Builder<T> targetFile(@NonNull File file) {
+            this.target = file;
+            return this;
+        }
+
+        public ExternalSortCoOccurrences<T> build() {
+            if (mergeFactor < 2) {
+                throw new IllegalStateException("Merge factor must be at least 2: got " + mergeFactor);
+            }
+            ExternalSortCoOccurrences<T> ret = new ExternalSortCoOccurrences<>();
+            ret.sequenceIterator = this.sequenceIterator;
+            ret.windowSize = this.windowSize;
+            ret.vocabCache = this.vocabCache;
+            ret.symmetric = this.symmetric;
+            ret.workers = Math.max(1, this.workers);
+            ret.memoryBudget = this.memoryBudget;
+            ret.mergeFactor = this.mergeFactor;
+            ret.tempDirectory = this.tempDirectory;
+
+            logger.info("Cooccurrence memory budget: [" + this.memoryBudget + "] bytes");
+
+            try {
+                if (this.target == null) {
+                    this.target = File.createTempFile("cooccurrence", "map");
+                }
+                this.target.deleteOnExit();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            ret.targetFile = this.target;
+
+            return ret;
+        }
+    }
+}
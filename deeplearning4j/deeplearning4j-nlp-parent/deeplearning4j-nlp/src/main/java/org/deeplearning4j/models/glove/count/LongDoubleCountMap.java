@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.models.glove.count;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Primitive open-addressing (linear probing) hash map from long keys to double counts, used to accumulate
+ * cooccurrence weights without per-pair object overhead. Pairs of (non-negative) element indices are packed into a
+ * single long key via {@link #pack(int, int)}.<br>
+ * Memory use is exactly {@code 16 * capacity} bytes, see {@link #memoryFootprint()}. Growing the map temporarily
+ * needs 3x that (the old and the doubled arrays are both alive during the rehash), which {@link #isAtCapacity(long)}
+ * takes into account.<br>
+ * Note: this class is not thread safe.
+ */
+public class LongDoubleCountMap {
+    private static final long EMPTY = -1L;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private long[] keys;
+    private double[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+
+    public LongDoubleCountMap() {
+        this(1024);
+    }
+
+    /**
+     * @param initialCapacity Initial capacity. Will be rounded up to a power of 2
+     */
+    public LongDoubleCountMap(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new double[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+        size = 0;
+    }
+
+    /**
+     * Pack two non-negative element indices into a single key
+     */
+    public static long pack(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return The first index from a key created by {@link #pack(int, int)}
+     */
+    public static int first(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * @return The second index from a key created by {@link #pack(int, int)}
+     */
+    public static int second(long key) {
+        return (int) key;
+    }
+
+    private static int hash(long key) {
+        //MurmurHash3 64-bit finalizer
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Increment the count for the specified key
+     *
+     * @param key   Key. Must be non-negative
+     * @param delta Amount to increment by
+     */
+    public void incrementCount(long key, double delta) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must be non-negative: got " + key);
+        }
+        int idx = hash(key) & mask;
+        while (true) {
+            long k = keys[idx];
+            if (k == key) {
+                values[idx] += delta;
+                return;
+            } else if (k == EMPTY) {
+                keys[idx] = key;
+                values[idx] = delta;
+                if (++size > resizeThreshold) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    /**
+     * @return The count for the specified key, or 0.0 if the key is not present
+     */
+    public double getCount(long key) {
+        int idx = hash(key) & mask;
+        while (true) {
+            long k = keys[idx];
+            if (k == key) {
+                return values[idx];
+            } else if (k == EMPTY) {
+                return 0.0;
+            }
+            idx = (idx + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int idx = hash(oldKeys[i]) & mask;
+                while (keys[idx] != EMPTY) {
+                    idx = (idx + 1) & mask;
+                }
+                keys[idx] = oldKeys[i];
+                values[idx] = oldValues[i];
+                size++;
+            }
+        }
+    }
+
+    /**
+     * @return Number of keys in the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Memory used by the map, in bytes
+     */
+    public long memoryFootprint() {
+        return 16L * keys.length;
+    }
+
+    /**
+     * @return True if adding another key could grow the map beyond the specified memory limit (in bytes), including
+     * the temporary arrays allocated while rehashing. Should be checked before every call to
+     * {@link #incrementCount(long, double)}
+     */
+    public boolean isAtCapacity(long maxBytes) {
+        return size >= resizeThreshold && 3 * memoryFootprint() > maxBytes;
+    }
+
+    /**
+     * Remove all keys from the map. The capacity is unchanged.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Write all (key, count) entries to the output stream, sorted by key, as pairs of (long, double) values, and
+     * clear the map.<br>
+     * The entries are sorted in place, within the table arrays: no additional memory is allocated.
+     *
+     * @return Number of entries written
+     */
+    public int writeSortedAndClear(DataOutputStream out) throws IOException {
+        //Compact all entries to the start of the table, then sort them there. This destroys the hash table layout,
+        //which is fine as the map is cleared afterwards anyway
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                keys[n] = keys[i];
+                values[n] = values[i];
+                n++;
+            }
+        }
+        sort(0, n - 1);
+
+        try {
+            for (int i = 0; i < n; i++) {
+                out.writeLong(keys[i]);
+                out.writeDouble(values[i]);
+            }
+        } finally {
+            clear();
+        }
+        return n;
+    }
+
+    /**
+     * In-place quicksort of keys[lo..hi] (inclusive), moving the values along with the keys. Keys are distinct.
+     */
+    private void sort(int lo, int hi) {
+        while (hi - lo > 16) {
+            //Median of three pivot
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < keys[lo])
+                swap(mid, lo);
+            if (keys[hi] < keys[lo])
+                swap(hi, lo);
+            if (keys[hi] < keys[mid])
+                swap(hi, mid);
+            long pivot = keys[mid];
+
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot)
+                    i++;
+                while (keys[j] > pivot)
+                    j--;
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+
+            //Recurse into the smaller part, loop on the larger one: bounds the stack depth to O(log n)
+            if (j - lo < hi - i) {
+                sort(lo, j);
+                lo = i;
+            } else {
+                sort(i, hi);
+                hi = j;
+            }
+        }
+
+        //Insertion sort for small ranges
+        for (int i = lo + 1; i <= hi; i++) {
+            long k = keys[i];
+            double v = values[i];
+            int j = i - 1;
+            while (j >= lo && keys[j] > k) {
+                keys[j + 1] = keys[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            keys[j + 1] = k;
+            values[j + 1] = v;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        double v = values[i];
+        values[i] = values[j];
+        values[j] = v;
+    }
+}
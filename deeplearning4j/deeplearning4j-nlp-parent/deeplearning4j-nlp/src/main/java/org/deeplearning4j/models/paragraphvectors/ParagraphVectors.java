@@ -25,6 +25,7 @@ import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.learning.ElementsLearningAlgorithm;
 import org.deeplearning4j.models.embeddings.learning.SequenceLearningAlgorithm;
+import org.deeplearning4j.models.embeddings.learning.impl.sequence.DBOW;
 import org.deeplearning4j.models.embeddings.learning.impl.sequence.DM;
 import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
 import org.deeplearning4j.models.embeddings.reader.ModelUtils;
@@ -241,38 +242,104 @@ public class ParagraphVectors extends Word2Vec {
         if (this.vocab == null || this.vocab.numWords() == 0)
             reassignExistingModel();
 
-        SequenceLearningAlgorithm<VocabWord> learner = sequenceLearningAlgorithm;
+        SequenceLearningAlgorithm<VocabWord> learner = getInferenceLearner();
 
-        if (learner == null) {
+        if (document.isEmpty())
+            throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
+
+
+        Sequence<VocabWord> sequence = new Sequence<>();
+        sequence.addElements(document);
+        sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(new Random().nextInt())));
+
+        initLearners();
+
+        INDArray inf = learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations);
+
+        return inf;
+    }
+
+    protected SequenceLearningAlgorithm<VocabWord> getInferenceLearner() {
+        if (sequenceLearningAlgorithm == null) {
             synchronized (this) {
                 if (sequenceLearningAlgorithm == null) {
                     log.info("Creating new PV-DM learner...");
-                    learner = new DM<>();
+                    SequenceLearningAlgorithm<VocabWord> learner = new DM<>();
                     learner.configure(vocab, lookupTable, configuration);
                     sequenceLearningAlgorithm = learner;
-                } else {
-                    learner = sequenceLearningAlgorithm;
                 }
             }
         }
 
-        learner = sequenceLearningAlgorithm;
+        return sequenceLearningAlgorithm;
+    }
 
+    /**
+     * This method calculates inferred vectors for given texts, with default parameters for learning rate and iterations.
+     * All vectors are trained concurrently, with samples of all texts executed as shared batches of aggregate ops,
+     * so this method is much faster than calling {@link #inferVector(String)} for each text.
+     *
+     * PLEASE NOTE: This method is thread-safe, so it can be used by multiple threads at once.
+     *
+     * @param texts
+     * @return INDArrays in the same order as input texts
+     */
+    public List<INDArray> inferVectors(@NonNull List<String> texts) {
+        return inferVectors(texts, this.learningRate.get(), this.minLearningRate, this.numEpochs * this.numIterations);
+    }
 
+    /**
+     * This method calculates inferred vectors for given texts.
+     * All vectors are trained concurrently, with samples of all texts executed as shared batches of aggregate ops,
+     * so this method is much faster than calling {@link #inferVector(String, double, double, int)} for each text.
+     *
+     * PLEASE NOTE: This method is thread-safe, so it can be used by multiple threads at once.
+     *
+     * @param texts
+     * @return INDArrays in the same order as input texts
+     */
+    @SuppressWarnings("unchecked")
+    public List<INDArray> inferVectors(@NonNull List<String> texts, double learningRate, double minLearningRate,
+                    int iterations) {
+        if (tokenizerFactory == null)
+            throw new IllegalStateException("TokenizerFactory should be defined, prior to predict() call");
 
-        if (document.isEmpty())
-            throw new ND4JIllegalStateException("Impossible to apply inference to empty list of words");
+        if (this.vocab == null || this.vocab.numWords() == 0)
+            reassignExistingModel();
+
+        Random random = new Random();
+        List<Sequence<VocabWord>> sequences = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            List<String> tokens = tokenizerFactory.create(texts.get(i)).getTokens();
+            Sequence<VocabWord> sequence = new Sequence<>();
+            for (String token : tokens) {
+                if (vocab.containsWord(token)) {
+                    sequence.addElement(vocab.wordFor(token));
+                }
+            }
 
+            if (sequence.isEmpty())
+                throw new ND4JIllegalStateException("Text passed for inference has no matches in model vocabulary: text " + i);
 
-        Sequence<VocabWord> sequence = new Sequence<>();
-        sequence.addElements(document);
-        sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(new Random().nextInt())));
+            sequence.setSequenceLabel(new VocabWord(1.0, String.valueOf(random.nextInt())));
+            sequences.add(sequence);
+        }
+
+        SequenceLearningAlgorithm<VocabWord> learner = getInferenceLearner();
 
         initLearners();
 
-        INDArray inf = learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations);
+        if (learner instanceof DM) {
+            return ((DM<VocabWord>) learner).inferSequences(sequences, seed, learningRate, minLearningRate, iterations);
+        } else if (learner instanceof DBOW) {
+            return ((DBOW<VocabWord>) learner).inferSequences(sequences, seed, learningRate, minLearningRate, iterations);
+        }
 
-        return inf;
+        List<INDArray> result = new ArrayList<>(sequences.size());
+        for (Sequence<VocabWord> sequence : sequences) {
+            result.add(learner.inferSequence(sequence, seed, learningRate, minLearningRate, iterations));
+        }
+        return result;
     }
 
     /**
@@ -1295,7 +1362,7 @@ public class ParagraphVectors extends Word2Vec {
         }
 
         /**
-         * This method defines maximum number of concurrent threads available for training
+         * This method defines maximum number of concurrent threads available for training and vocabulary construction
          *
          * @param numWorkers
          * @return
@@ -130,6 +130,7 @@ public class SequenceVectors<T extends SequenceElement> extends WordVectorsImpl<
                         .setTargetVocabCache(vocab).fetchLabels(trainSequenceVectors).setStopWords(stopWords)
                         .enableScavenger(enableScavenger).setEntriesLimit(vocabLimit)
                         .allowParallelTokenization(configuration.isAllowParallelTokenization())
+                        .setWorkers(Math.max(1, workers))
                         .setUnk(useUnknown && unknownElement != null ? unknownElement : null).build();
 
         if (existingModel != null && lookupTable instanceof InMemoryLookupTable
@@ -592,7 +593,7 @@ public class SequenceVectors<T extends SequenceElement> extends WordVectorsImpl<
         }
 
         /**
-         * Sets number of worker threads to be used in calculations
+         * Sets number of worker threads to be used in calculations, and to build the vocabulary
          *
          * @param numWorkers
          * @return
@@ -413,7 +413,7 @@ public class Word2Vec extends SequenceVectors<VocabWord> {
         }
 
         /**
-         * This method defines maximum number of concurrent threads available for training
+         * This method defines maximum number of concurrent threads available for training and vocabulary construction
          *
          * @param numWorkers
          * @return
@@ -16,6 +16,10 @@
 
 package org.deeplearning4j.models.word2vec.wordstore;
 
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import lombok.Data;
 import lombok.NonNull;
 import lombok.val;
@@ -27,14 +31,13 @@ import org.deeplearning4j.models.sequencevectors.sequence.SequenceElement;
 import org.deeplearning4j.models.word2vec.Huffman;
 import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
-import org.deeplearning4j.util.ThreadUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.threadly.concurrent.PriorityScheduler;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  *
@@ -54,10 +57,23 @@ public class VocabConstructor<T extends SequenceElement> {
     private boolean fetchLabels = false;
     private int limit;
     private AtomicLong seqCount = new AtomicLong(0);
+    private AtomicLong tokenCount = new AtomicLong(0);
     private InvertedIndex<T> index;
     private boolean enableScavenger = false;
     private T unk;
     private boolean allowParallelBuilder = true;
+    private int workers = Math.max(Runtime.getRuntime().availableProcessors() / 2, 2);
+
+    private static final int BATCH_SIZE = 512;
+    // scavenger is checked every scavengerInterval sequences, against the merged counts of all shards
+    // package-private (rather than constants) so that tests can lower them
+    int scavengerInterval = 100000;
+    long scavengerNewElements = 2000000;
+    long scavengerVocabSize = 10000000;
+
+    // markers handed to the workers through the queue, compared by identity
+    private final List<Sequence<T>> poisonPill = new ArrayList<>(0);
+    private final List<Sequence<T>> pauseMarker = new ArrayList<>(0);
 
     protected static final Logger log = LoggerFactory.getLogger(VocabConstructor.class);
 
@@ -102,6 +118,15 @@ public class VocabConstructor<T extends SequenceElement> {
         return seqCount.get();
     }
 
+    /**
+     * This method returns total number of sequence elements passed through VocabConstructor
+     *
+     * @return
+     */
+    public long getNumberOfTokens() {
+        return tokenCount.get();
+    }
+
     /**
      * This method transfers existing vocabulary into current one
      *
@@ -200,140 +225,31 @@ public class VocabConstructor<T extends SequenceElement> {
      * This method scans all sources passed through builder, and returns all words as vocab.
      * If TargetVocabCache was set during instance creation, it'll be filled too.
      *
+     * Each source is processed by a sharded pipeline: sequences are pulled from the iterator in batches,
+     * and counted by worker threads into their own primitive counters. Shards are merged once the source is
+     * exhausted, and minWordFrequency for this source is applied to the merged counts.
      *
      * @return
      */
     public VocabCache<T> buildJointVocabulary(boolean resetCounters, boolean buildHuffmanTree) {
-        long lastTime = System.currentTimeMillis();
-        long lastSequences = 0;
-        long lastElements = 0;
-        long startTime = lastTime;
-        long startWords = 0;
-        AtomicLong parsedCount = new AtomicLong(0);
+        long startTime = System.currentTimeMillis();
         if (resetCounters && buildHuffmanTree)
             throw new IllegalStateException("You can't reset counters and build Huffman tree at the same time!");
 
         if (cache == null)
             cache = new AbstractCache.Builder<T>().build();
         log.debug("Target vocab size before building: [" + cache.numWords() + "]");
-        final AtomicLong loopCounter = new AtomicLong(0);
 
         AbstractCache<T> topHolder = new AbstractCache.Builder<T>().minElementFrequency(0).build();
 
         int cnt = 0;
-        int numProc = Runtime.getRuntime().availableProcessors();
-        int numThreads = Math.max(numProc / 2, 2);
-        PriorityScheduler executorService = new PriorityScheduler(numThreads);
-        final AtomicLong execCounter = new AtomicLong(0);
-        final AtomicLong finCounter = new AtomicLong(0);
-
         for (VocabSource<T> source : sources) {
-            SequenceIterator<T> iterator = source.getIterator();
-            iterator.reset();
-
             log.debug("Trying source iterator: [" + cnt + "]");
             log.debug("Target vocab size before building: [" + cache.numWords() + "]");
             cnt++;
 
-            AbstractCache<T> tempHolder = new AbstractCache.Builder<T>().build();
-
-
-            List<Long> timesHasNext = new ArrayList<>();
-            List<Long> timesNext = new ArrayList<>();
-            int sequences = 0;
-            long time3 = 0;
-            while (iterator.hasMoreSequences()) {
-                Sequence<T> document = iterator.nextSequence();
-
-                seqCount.incrementAndGet();
-                parsedCount.addAndGet(document.size());
-                tempHolder.incrementTotalDocCount();
-                execCounter.incrementAndGet();
-                VocabRunnable runnable = new VocabRunnable(tempHolder, document, finCounter, loopCounter);
-
-                executorService.execute(runnable);
-
-                // if we're not in parallel mode - wait till this runnable finishes
-                if (!allowParallelBuilder) {
-                    try {
-                        runnable.awaitDone();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
-                }
-
-                // as we see in profiler, this lock isn't really happen too often
-                // we don't want too much left in tail
-
-                while (execCounter.get() - finCounter.get() > numProc) {
-                    ThreadUtils.uncheckedSleep(1);
-                }
-
-
-
-                sequences++;
-                if (seqCount.get() % 100000 == 0) {
-                    long currentTime = System.currentTimeMillis();
-                    long currentSequences = seqCount.get();
-                    long currentElements = parsedCount.get();
-
-                    double seconds = (currentTime - lastTime) / (double) 1000;
-
-                    //                    Collections.sort(timesHasNext);
-                    //                    Collections.sort(timesNext);
-
-                    double seqPerSec = (currentSequences - lastSequences) / seconds;
-                    double elPerSec = (currentElements - lastElements) / seconds;
-                    //                    log.info("Document time: {} us; hasNext time: {} us", timesNext.get(timesNext.size() / 2), timesHasNext.get(timesHasNext.size() / 2));
-                    log.info("Sequences checked: [{}]; Current vocabulary size: [{}]; Sequences/sec: {}; Words/sec: {};",
-                                    seqCount.get(), tempHolder.numWords(), String.format("%.2f", seqPerSec),
-                                    String.format("%.2f", elPerSec));
-                    lastTime = currentTime;
-                    lastElements = currentElements;
-                    lastSequences = currentSequences;
-
-                    //                    timesHasNext.clear();
-                    //                    timesNext.clear();
-                }
-
-                /**
-                 * Firing scavenger loop
-                 */
-                if (enableScavenger && loopCounter.get() >= 2000000 && tempHolder.numWords() > 10000000) {
-                    log.info("Starting scavenger...");
-                    while (execCounter.get() != finCounter.get()) {
-                        ThreadUtils.uncheckedSleep(1);
-                    }
-
-                    filterVocab(tempHolder, Math.max(1, source.getMinWordFrequency() / 2));
-                    loopCounter.set(0);
-                }
-
-                //                timesNext.add((time2 - time1) / 1000L);
-                //                timesHasNext.add((time1 - time3) / 1000L);
-
-                //                time3 = System.nanoTime();
-            }
+            AbstractCache<T> tempHolder = buildSourceVocabulary(source);
 
-            // block untill all threads are finished
-            log.debug("Waiting till all processes stop...");
-            while (execCounter.get() != finCounter.get()) {
-                ThreadUtils.uncheckedSleep(1);
-            }
-
-
-            // apply minWordFrequency set for this source
-            log.debug("Vocab size before truncation: [" + tempHolder.numWords() + "],  NumWords: ["
-                            + tempHolder.totalWordOccurrences() + "], sequences parsed: [" + seqCount.get()
-                            + "], counter: [" + parsedCount.get() + "]");
-            if (source.getMinWordFrequency() > 0) {
-                filterVocab(tempHolder, source.getMinWordFrequency());
-            }
-
-            log.debug("Vocab size after truncation: [" + tempHolder.numWords() + "],  NumWords: ["
-                            + tempHolder.totalWordOccurrences() + "], sequences parsed: [" + seqCount.get()
-                            + "], counter: [" + parsedCount.get() + "]");
             // at this moment we're ready to transfer
             topHolder.importVocabulary(tempHolder);
         }
@@ -381,19 +297,216 @@ public class VocabConstructor<T extends SequenceElement> {
             huffman.applyIndexes(cache);
         }
 
-        executorService.shutdown();
-
         System.gc();
 
-        long endSequences = seqCount.get();
         long endTime = System.currentTimeMillis();
-        double seconds = (endTime - startTime) / (double) 1000;
-        double seqPerSec = endSequences / seconds;
-        log.info("Sequences checked: [{}], Current vocabulary size: [{}]; Sequences/sec: [{}];", seqCount.get(),
-                        cache.numWords(), String.format("%.2f", seqPerSec));
+        double seconds = Math.max(endTime - startTime, 1) / (double) 1000;
+        log.info("Sequences checked: [{}], Tokens checked: [{}]; Current vocabulary size: [{}]; Sequences/sec: [{}]; Tokens/sec: [{}];",
+                        seqCount.get(), tokenCount.get(), cache.numWords(),
+                        String.format("%.2f", seqCount.get() / seconds),
+                        String.format("%.2f", tokenCount.get() / seconds));
         return cache;
     }
 
+    /**
+     * This method counts all sequences of the given source, and returns vocabulary with minWordFrequency applied
+     *
+     * @param source
+     * @return
+     */
+    private AbstractCache<T> buildSourceVocabulary(@NonNull VocabSource<T> source) {
+        SequenceIterator<T> iterator = source.getIterator();
+        iterator.reset();
+
+        int numWorkers = allowParallelBuilder ? workers : 1;
+        List<VocabShard> shards = new ArrayList<>();
+        for (int i = 0; i < numWorkers; i++)
+            shards.add(new VocabShard());
+
+        // with a single shard there's nothing to parallelize, so sequences are counted right here
+        List<VocabWorker> threads = new ArrayList<>();
+        BlockingQueue<List<Sequence<T>>> queue = new ArrayBlockingQueue<>(numWorkers * 2);
+        CyclicBarrier pause = new CyclicBarrier(numWorkers + 1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        if (numWorkers > 1) {
+            for (int i = 0; i < numWorkers; i++) {
+                VocabWorker thread = new VocabWorker(i, shards.get(i), queue, pause, error);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+
+        long lastTime = System.currentTimeMillis();
+        long lastSequences = seqCount.get();
+        long lastTokens = tokenCount.get();
+        long sequences = 0;
+        long sizeAfterScavenger = 0;
+        try {
+            List<Sequence<T>> batch = new ArrayList<>(BATCH_SIZE);
+            while (iterator.hasMoreSequences()) {
+                Sequence<T> document = iterator.nextSequence();
+
+                seqCount.incrementAndGet();
+                tokenCount.addAndGet(document.size());
+                sequences++;
+
+                if (threads.isEmpty()) {
+                    shards.get(0).count(document);
+                } else {
+                    batch.add(document);
+                    if (batch.size() >= BATCH_SIZE) {
+                        dispatch(queue, batch, error);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+
+                if (enableScavenger && sequences % scavengerInterval == 0) {
+                    if (!batch.isEmpty()) {
+                        dispatch(queue, batch, error);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                    sizeAfterScavenger = scavenge(shards, !threads.isEmpty(), queue, pause, error,
+                                    sizeAfterScavenger, source.getMinWordFrequency());
+                }
+
+                if (seqCount.get() % 100000 == 0) {
+                    long currentTime = System.currentTimeMillis();
+                    long currentSequences = seqCount.get();
+                    long currentTokens = tokenCount.get();
+
+                    double seconds = Math.max(currentTime - lastTime, 1) / (double) 1000;
+
+                    double seqPerSec = (currentSequences - lastSequences) / seconds;
+                    double tokensPerSec = (currentTokens - lastTokens) / seconds;
+                    log.info("Sequences checked: [{}]; Sequences/sec: {}; Tokens/sec: {};", currentSequences,
+                                    String.format("%.2f", seqPerSec), String.format("%.2f", tokensPerSec));
+                    lastTime = currentTime;
+                    lastTokens = currentTokens;
+                    lastSequences = currentSequences;
+                }
+            }
+
+            if (!batch.isEmpty())
+                dispatch(queue, batch, error);
+        } finally {
+            // block untill all threads are finished
+            log.debug("Waiting till all processes stop...");
+            for (VocabWorker thread : threads) {
+                try {
+                    queue.put(poisonPill);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+
+            for (VocabWorker thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        if (error.get() != null)
+            throw new RuntimeException(error.get());
+
+        // merging all shards into the first one
+        VocabShard merged = shards.get(0);
+        for (int i = 1; i < shards.size(); i++) {
+            merged.merge(shards.get(i));
+            shards.set(i, null);
+        }
+
+        log.debug("Vocab size before truncation: [" + merged.size() + "], sequences parsed: [" + seqCount.get()
+                        + "], counter: [" + tokenCount.get() + "]");
+
+        AbstractCache<T> tempHolder = merged.toVocabulary(source.getMinWordFrequency());
+        tempHolder.incrementTotalDocCount(sequences);
+
+        log.debug("Vocab size after truncation: [" + tempHolder.numWords() + "],  NumWords: ["
+                        + tempHolder.totalWordOccurrences() + "], sequences parsed: [" + seqCount.get()
+                        + "], counter: [" + tokenCount.get() + "]");
+
+        return tempHolder;
+    }
+
+    /**
+     * Scavenger: once enough new elements were added and the vocabulary is large enough, elements seen less than
+     * minWordFrequency / 2 times so far are removed, to bound memory use. Workers are paused while all shards are
+     * merged into the first one, and both the decision and the pruning use the merged counts only, so the resulting
+     * vocabulary doesn't depend on the number of workers.
+     *
+     * @return merged vocabulary size after the last scavenger run
+     */
+    private long scavenge(List<VocabShard> shards, boolean parallel, BlockingQueue<List<Sequence<T>>> queue,
+                    CyclicBarrier pause, AtomicReference<Throwable> error, long sizeAfterScavenger,
+                    int minWordFrequency) {
+        if (parallel) {
+            try {
+                for (int i = 0; i < shards.size(); i++)
+                    queue.put(pauseMarker);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            awaitPause(pause);
+        }
+
+        try {
+            // sum of shard sizes is an upper bound of the merged size: only merge if the thresholds may be reached
+            long upperBound = 0;
+            for (VocabShard shard : shards)
+                upperBound += shard.size();
+            if (upperBound <= scavengerVocabSize || upperBound - sizeAfterScavenger < scavengerNewElements)
+                return sizeAfterScavenger;
+
+            VocabShard merged = shards.get(0);
+            for (int i = 1; i < shards.size(); i++) {
+                merged.merge(shards.get(i));
+                shards.get(i).clear();
+            }
+
+            if (merged.size() <= scavengerVocabSize || merged.size() - sizeAfterScavenger < scavengerNewElements)
+                return sizeAfterScavenger;
+
+            log.info("Starting scavenger...");
+            merged.filter(Math.max(1, minWordFrequency / 2));
+            return merged.size();
+        } finally {
+            if (parallel)
+                awaitPause(pause);
+        }
+    }
+
+    private static void awaitPause(CyclicBarrier pause) {
+        try {
+            pause.await();
+        } catch (InterruptedException e) {
+            // breaking the barrier releases paused workers
+            pause.reset();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (BrokenBarrierException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void dispatch(BlockingQueue<List<Sequence<T>>> queue, List<Sequence<T>> batch,
+                    AtomicReference<Throwable> error) {
+        if (error.get() != null)
+            throw new RuntimeException(error.get());
+
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
     protected void filterVocab(AbstractCache<T> cache, int minWordFrequency) {
         int numWords = cache.numWords();
         LinkedBlockingQueue<String> labelsToRemove = new LinkedBlockingQueue<>();
@@ -420,6 +533,7 @@ public class VocabConstructor<T extends SequenceElement> {
         private boolean enableScavenger = false;
         private T unk;
         private boolean allowParallelBuilder = true;
+        private int workers = Math.max(Runtime.getRuntime().availableProcessors() / 2, 2);
 
         public Builder() {
 
@@ -444,6 +558,22 @@ public class VocabConstructor<T extends SequenceElement> {
             return this;
         }
 
+        /**
+         * This method sets number of threads used to count sequence elements.
+         * Has effect only if parallel tokenization is allowed. The resulting vocabulary is the same for any number of
+         * threads.
+         *
+         * @param workers
+         * @return
+         */
+        public Builder<T> setWorkers(int workers) {
+            if (workers < 1)
+                throw new IllegalArgumentException("Number of workers should be positive");
+
+            this.workers = workers;
+            return this;
+        }
+
         /**
          * Defines, if adaptive gradients should be created during vocabulary mastering
          *
@@ -539,6 +669,7 @@ public class VocabConstructor<T extends SequenceElement> {
             constructor.enableScavenger = this.enableScavenger;
             constructor.unk = this.unk;
             constructor.allowParallelBuilder = this.allowParallelBuilder;
+            constructor.workers = this.workers;
 
             return constructor;
         }
@@ -553,89 +684,198 @@ public class VocabConstructor<T extends SequenceElement> {
     }
 
 
-    protected class VocabRunnable implements Runnable {
-        private final AtomicLong finalCounter;
-        private final Sequence<T> document;
-        private final AbstractCache<T> targetVocab;
-        private final AtomicLong loopCounter;
-        private boolean done;
+    /**
+     * Per-thread counters: frequencies are kept as primitives, and only the first element seen for each label is retained
+     */
+    private class VocabShard {
+        private final Object2LongOpenHashMap<String> frequencies = new Object2LongOpenHashMap<>();
+        private final Object2LongOpenHashMap<String> sequences = new Object2LongOpenHashMap<>();
+        private final Map<String, T> elements = new HashMap<>();
+        private final Map<String, T> labels = new LinkedHashMap<>();
+        private final ObjectOpenHashSet<String> seen = new ObjectOpenHashSet<>();
+
+        private int size() {
+            return frequencies.size() + labels.size();
+        }
 
-        public VocabRunnable(@NonNull AbstractCache<T> targetVocab, @NonNull Sequence<T> sequence,
-                        @NonNull AtomicLong finalCounter, @NonNull AtomicLong loopCounter) {
-            this.finalCounter = finalCounter;
-            this.document = sequence;
-            this.targetVocab = targetVocab;
-            this.loopCounter = loopCounter;
+        private void clear() {
+            frequencies.clear();
+            sequences.clear();
+            elements.clear();
+            labels.clear();
         }
 
-        public void awaitDone() throws InterruptedException {
-            synchronized (this) {
-                while (! done) {
-                    this.wait();
+        private void count(Sequence<T> document) {
+            if (fetchLabels && document.getSequenceLabels() != null) {
+                for (T labelWord : document.getSequenceLabels()) {
+                    if (!labels.containsKey(labelWord.getLabel()))
+                        labels.put(labelWord.getLabel(), labelWord);
+                }
+            }
+
+            seen.clear();
+            for (T element : document.getElements()) {
+                String token = element.getLabel();
+                if (token == null || token.isEmpty())
+                    continue;
+                if (stopWords != null && stopWords.contains(token))
+                    continue;
+
+                if (frequencies.addTo(token, 1) == 0)
+                    elements.put(token, element);
+
+                // sequences count is updated only once per sequence
+                if (seen.add(token))
+                    sequences.addTo(token, 1);
+            }
+
+            if (index != null) {
+                if (document.getSequenceLabel() != null) {
+                    index.addWordsToDoc(index.numDocuments(), document.getElements(), document.getSequenceLabel());
+                } else {
+                    index.addWordsToDoc(index.numDocuments(), document.getElements());
                 }
             }
         }
 
-	@Override
-        public void run() {
-            try {
-                Map<String, AtomicLong> seqMap = new HashMap<>();
-                //  log.info("Sequence length: ["+ document.getElements().size()+"]");
+        private void filter(int minWordFrequency) {
+            int numWords = frequencies.size();
+            ObjectIterator<Object2LongMap.Entry<String>> iterator = frequencies.object2LongEntrySet().fastIterator();
+            while (iterator.hasNext()) {
+                Object2LongMap.Entry<String> entry = iterator.next();
+                if (entry.getLongValue() >= minWordFrequency)
+                    continue;
+
+                T element = elements.get(entry.getKey());
+                if (element.isSpecial() || element.isLabel())
+                    continue;
+
+                iterator.remove();
+                sequences.removeLong(entry.getKey());
+                elements.remove(entry.getKey());
+            }
 
-                if (fetchLabels && document.getSequenceLabels() != null) {
-                    for (T labelWord : document.getSequenceLabels()) {
-                        if (!targetVocab.hasToken(labelWord.getLabel())) {
-                            labelWord.setSpecial(true);
-                            labelWord.markAsLabel(true);
-                            labelWord.setElementFrequency(1);
+            log.debug("Scavenger: Words before: {}; Words after: {};", numWords, frequencies.size());
+        }
 
-                            targetVocab.addToken(labelWord);
-                        }
-                    }
+        private void merge(VocabShard other) {
+            ObjectIterator<Object2LongMap.Entry<String>> iterator =
+                            other.frequencies.object2LongEntrySet().fastIterator();
+            while (iterator.hasNext()) {
+                Object2LongMap.Entry<String> entry = iterator.next();
+                String token = entry.getKey();
+                if (frequencies.addTo(token, entry.getLongValue()) == 0)
+                    elements.put(token, other.elements.get(token));
+                sequences.addTo(token, other.sequences.getLong(token));
+            }
+
+            for (Map.Entry<String, T> entry : other.labels.entrySet()) {
+                if (!labels.containsKey(entry.getKey()))
+                    labels.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        private AbstractCache<T> toVocabulary(int minWordFrequency) {
+            AbstractCache<T> vocabulary = new AbstractCache.Builder<T>().build();
+
+            for (T labelWord : labels.values()) {
+                labelWord.setSpecial(true);
+                labelWord.markAsLabel(true);
+
+                // labels might be used as regular words as well
+                long frequency = frequencies.removeLong(labelWord.getLabel());
+                labelWord.setElementFrequency(1 + frequency);
+                if (frequency > 0)
+                    labelWord.incrementSequencesCount(sequences.removeLong(labelWord.getLabel()));
+                elements.remove(labelWord.getLabel());
+
+                vocabulary.addToken(labelWord);
+            }
+
+            // elements are added in deterministic order, regardless of the way sequences were split between shards
+            List<T> words = new ArrayList<>(frequencies.size());
+            ObjectIterator<Object2LongMap.Entry<String>> iterator = frequencies.object2LongEntrySet().fastIterator();
+            while (iterator.hasNext()) {
+                Object2LongMap.Entry<String> entry = iterator.next();
+                T element = elements.get(entry.getKey());
+                if (minWordFrequency > 0 && entry.getLongValue() < minWordFrequency && !element.isSpecial()
+                                && !element.isLabel())
+                    continue;
+
+                element.setElementFrequency(entry.getLongValue());
+                element.setSequencesCount(sequences.getLong(entry.getKey()));
+                words.add(element);
+            }
+
+            Collections.sort(words, new Comparator<T>() {
+                @Override
+                public int compare(T o1, T o2) {
+                    int result = Double.compare(o2.getElementFrequency(), o1.getElementFrequency());
+                    return result != 0 ? result : o1.getLabel().compareTo(o2.getLabel());
                 }
+            });
 
-                List<String> tokens = document.asLabels();
-                for (String token : tokens) {
-                    if (stopWords != null && stopWords.contains(token))
-                        continue;
-                    if (token == null || token.isEmpty())
-                        continue;
-
-                    if (!targetVocab.containsWord(token)) {
-                        T element = document.getElementByLabel(token);
-                        element.setElementFrequency(1);
-                        element.setSequencesCount(1);
-                        targetVocab.addToken(element);
-                        //                    elementsCounter.incrementAndGet();
-                        loopCounter.incrementAndGet();
-
-                        // if there's no such element in tempHolder, it's safe to set seqCount to 1
-                        seqMap.put(token, new AtomicLong(0));
-                    } else {
-                        targetVocab.incrementWordCount(token);
-
-                        // if element exists in tempHolder, we should update it seqCount, but only once per sequence
-                        if (!seqMap.containsKey(token)) {
-                            seqMap.put(token, new AtomicLong(1));
-                            T element = targetVocab.wordFor(token);
-                            element.incrementSequencesCount();
-                        }
+            for (T element : words)
+                vocabulary.addToken(element);
 
-                        if (index != null) {
-                            if (document.getSequenceLabel() != null) {
-                                index.addWordsToDoc(index.numDocuments(), document.getElements(), document.getSequenceLabel());
-                            } else {
-                                index.addWordsToDoc(index.numDocuments(), document.getElements());
-                            }
-                        }
+            return vocabulary;
+        }
+    }
+
+    private class VocabWorker extends Thread {
+        private final VocabShard shard;
+        private final BlockingQueue<List<Sequence<T>>> queue;
+        private final CyclicBarrier pause;
+        private final AtomicReference<Throwable> error;
+
+        private VocabWorker(int id, @NonNull VocabShard shard, @NonNull BlockingQueue<List<Sequence<T>>> queue,
+                        @NonNull CyclicBarrier pause, @NonNull AtomicReference<Throwable> error) {
+            this.shard = shard;
+            this.queue = queue;
+            this.pause = pause;
+            this.error = error;
+
+            this.setName("VocabConstructor worker " + id);
+            this.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                List<Sequence<T>> batch;
+                try {
+                    batch = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error.compareAndSet(null, e);
+                    return;
+                }
+
+                if (batch == poisonPill)
+                    return;
+
+                // each worker takes exactly one pause marker, and stays paused until the producer is done with shards
+                if (batch == pauseMarker) {
+                    try {
+                        pause.await();
+                        pause.await();
+                    } catch (InterruptedException | BrokenBarrierException e) {
+                        // keep draining the queue, so producer never blocks
+                        error.compareAndSet(null, e);
                     }
+                    continue;
                 }
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            } finally {
-                finalCounter.incrementAndGet();
-                synchronized (this) {
-                    this.notifyAll();
+
+                // after failure we keep draining the queue, so producer never blocks
+                if (error.get() != null)
+                    continue;
+
+                try {
+                    for (Sequence<T> document : batch)
+                        shard.count(document);
+                } catch (Throwable t) {
+                    log.error("", t);
+                    error.compareAndSet(null, t);
                 }
             }
         }
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.models.glove;
+
+import org.deeplearning4j.models.sequencevectors.iterators.AbstractSequenceIterator;
+import org.deeplearning4j.models.sequencevectors.transformers.impl.SentenceTransformer;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabConstructor;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.AbstractCache;
+import org.deeplearning4j.text.sentenceiterator.CollectionSentenceIterator;
+import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.junit.Test;
+import org.nd4j.linalg.primitives.Pair;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ExternalSortCoOccurrencesTest {
+
+    private static List<String> getSentences(int numWords, int numSentences) {
+        Random r = new Random(12345);
+        String[] words = new String[numWords];
+        for (int i = 0; i < words.length; i++) {
+            //Letters only: digits are removed by the CommonPreprocessor
+            words[i] = "word" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+        }
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < numSentences; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 5 + r.nextInt(15);
+            for (int j = 0; j < length; j++) {
+                //Skewed distribution of words
+                sb.append(words[(int) (words.length * Math.pow(r.nextDouble(), 2))]).append(" ");
+            }
+            sentences.add(sb.toString());
+        }
+        return sentences;
+    }
+
+    private static Map<String, Double> toMap(Iterator<Pair<Pair<VocabWord, VocabWord>, Double>> iterator) {
+        Map<String, Double> out = new HashMap<>();
+        while (iterator.hasNext()) {
+            Pair<Pair<VocabWord, VocabWord>, Double> p = iterator.next();
+            String key = p.getFirst().getFirst().getLabel() + "," + p.getFirst().getSecond().getLabel();
+            assertFalse(key, out.containsKey(key));
+            out.put(key, p.getSecond());
+        }
+        return out;
+    }
+
+    @Test
+    public void testMatchesAbstractCoOccurrences() throws Exception {
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+        SentenceTransformer transformer = new SentenceTransformer.Builder()
+                        .iterator(new CollectionSentenceIterator(getSentences(40, 200))).tokenizerFactory(t).build();
+        AbstractSequenceIterator<VocabWord> sequenceIterator =
+                        new AbstractSequenceIterator.Builder<>(transformer).build();
+
+        AbstractCache<VocabWord> vocabCache = new AbstractCache.Builder<VocabWord>().build();
+        VocabConstructor<VocabWord> constructor = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(sequenceIterator, 1).setTargetVocabCache(vocabCache).build();
+        constructor.buildJointVocabulary(false, true);
+        assertEquals(40, vocabCache.numWords());
+
+        for (boolean symmetric : new boolean[] {false, true}) {
+            AbstractCoOccurrences<VocabWord> expected = new AbstractCoOccurrences.Builder<VocabWord>()
+                            .iterate(sequenceIterator).vocabCache(vocabCache).symmetric(symmetric).windowSize(5)
+                            .build();
+            expected.fit();
+            Map<String, Double> expMap = toMap(expected.iterator());
+
+            //Default memory budget: no spilling
+            ExternalSortCoOccurrences<VocabWord> inMemory = new ExternalSortCoOccurrences.Builder<VocabWord>()
+                            .iterate(sequenceIterator).vocabCache(vocabCache).symmetric(symmetric).windowSize(5)
+                            .workers(2).build();
+            inMemory.fit();
+
+            //Tiny memory budget and merge factor: lots of spilled runs, and multiple merge passes
+            ExternalSortCoOccurrences<VocabWord> spilled = new ExternalSortCoOccurrences.Builder<VocabWord>()
+                            .iterate(sequenceIterator).vocabCache(vocabCache).symmetric(symmetric).windowSize(5)
+                            .workers(3).memoryBudgetBytes(1).mergeFactor(2).build();
+            spilled.fit();
+
+            assertEquals(expMap.size(), inMemory.getNumPairs());
+            assertEquals(expMap.size(), spilled.getNumPairs());
+
+            for (ExternalSortCoOccurrences<VocabWord> c : Arrays.asList(inMemory, spilled)) {
+                //Sorted, and shuffled - with the spilled instance, the shuffle uses many buckets
+                for (Iterator<Pair<Pair<VocabWord, VocabWord>, Double>> iter : Arrays.asList(c.iterator(),
+                                c.iterator(new Random(12345)))) {
+                    Map<String, Double> actMap = toMap(iter);
+                    assertEquals(expMap.keySet(), actMap.keySet());
+                    for (String key : expMap.keySet()) {
+                        assertEquals(key, expMap.get(key), actMap.get(key), 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testShuffledIteration() throws Exception {
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+        SentenceTransformer transformer = new SentenceTransformer.Builder()
+                        .iterator(new CollectionSentenceIterator(getSentences(200, 2000))).tokenizerFactory(t).build();
+        AbstractSequenceIterator<VocabWord> sequenceIterator =
+                        new AbstractSequenceIterator.Builder<>(transformer).build();
+
+        AbstractCache<VocabWord> vocabCache = new AbstractCache.Builder<VocabWord>().build();
+        VocabConstructor<VocabWord> constructor = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(sequenceIterator, 1).setTargetVocabCache(vocabCache).build();
+        constructor.buildJointVocabulary(false, true);
+
+        ExternalSortCoOccurrences<VocabWord> c = new ExternalSortCoOccurrences.Builder<VocabWord>()
+                        .iterate(sequenceIterator).vocabCache(vocabCache).windowSize(5).workers(1)
+                        .memoryBudgetBytes(1).build();
+        c.fit();
+        //Enough pairs for the shuffle to use multiple buckets, with the minimum bucket size of 1024 pairs
+        assertTrue(c.getNumPairs() > 5 * 1024);
+
+        List<String> sorted = toList(c.iterator());
+        List<String> shuffled1 = toList(c.iterator(new Random(12345)));
+        List<String> shuffled2 = toList(c.iterator(new Random(12345)));
+        List<String> shuffled3 = toList(c.iterator(new Random(67890)));
+
+        //Same pairs, same seed gives the same order
+        assertEquals(new HashSet<>(sorted), new HashSet<>(shuffled1));
+        assertEquals(shuffled1, shuffled2);
+        assertNotEquals(sorted, shuffled1);
+        assertNotEquals(shuffled1, shuffled3);
+
+        //Order is random over the whole epoch, not just locally: the first half of the shuffled pairs should contain
+        //roughly half of the pairs from each half of the sorted order
+        Set<String> firstSortedHalf = new HashSet<>(sorted.subList(0, sorted.size() / 2));
+        int countInFirstHalf = 0;
+        for (String s : shuffled1.subList(0, shuffled1.size() / 2)) {
+            if (firstSortedHalf.contains(s)) {
+                countInFirstHalf++;
+            }
+        }
+        double fraction = countInFirstHalf / (double) (sorted.size() / 2);
+        assertEquals(0.5, fraction, 0.1);
+    }
+
+    private static List<String> toList(Iterator<Pair<Pair<VocabWord, VocabWord>, Double>> iterator) {
+        List<String> out = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Pair<Pair<VocabWord, VocabWord>, Double> p = iterator.next();
+            out.add(p.getFirst().getFirst().getLabel() + "," + p.getFirst().getSecond().getLabel());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.models.glove.count;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongDoubleCountMapTest {
+
+    @Test
+    public void testPackUnpack() {
+        int[][] pairs = {{0, 0}, {1, 2}, {Integer.MAX_VALUE, 0}, {0, Integer.MAX_VALUE}, {12345, 67890}};
+        for (int[] p : pairs) {
+            long key = LongDoubleCountMap.pack(p[0], p[1]);
+            assertTrue(key >= 0);
+            assertEquals(p[0], LongDoubleCountMap.first(key));
+            assertEquals(p[1], LongDoubleCountMap.second(key));
+        }
+        //Ordering of keys: by first index, then second index
+        assertTrue(LongDoubleCountMap.pack(1, 100) < LongDoubleCountMap.pack(2, 0));
+        assertTrue(LongDoubleCountMap.pack(1, 1) < LongDoubleCountMap.pack(1, 2));
+    }
+
+    @Test
+    public void testCounts() throws Exception {
+        Random r = new Random(12345);
+        LongDoubleCountMap map = new LongDoubleCountMap(16);
+        Map<Long, Double> exp = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            long key = LongDoubleCountMap.pack(r.nextInt(100), r.nextInt(100));
+            double d = r.nextDouble();
+            map.incrementCount(key, d);
+            Double prev = exp.get(key);
+            exp.put(key, (prev == null ? 0.0 : prev) + d);
+        }
+
+        assertEquals(exp.size(), map.size());
+        for (Map.Entry<Long, Double> e : exp.entrySet()) {
+            assertEquals(e.getValue(), map.getCount(e.getKey()), 1e-9);
+        }
+        assertEquals(0.0, map.getCount(LongDoubleCountMap.pack(1000, 1000)), 0.0);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(baos)) {
+            assertEquals(exp.size(), map.writeSortedAndClear(dos));
+        }
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        long last = -1;
+        for (int i = 0; i < exp.size(); i++) {
+            long key = dis.readLong();
+            double value = dis.readDouble();
+            assertTrue(key > last);
+            assertEquals(exp.get(key), value, 1e-9);
+            last = key;
+        }
+        assertEquals(0, dis.available());
+
+        assertEquals(0, map.size());
+        assertEquals(0.0, map.getCount(last), 0.0);
+
+        //Map is still usable after being drained
+        map.incrementCount(last, 2.0);
+        assertEquals(1, map.size());
+        assertEquals(2.0, map.getCount(last), 0.0);
+    }
+
+    @Test
+    public void testCapacity() {
+        LongDoubleCountMap map = new LongDoubleCountMap(16);
+        long footprint = map.memoryFootprint();
+        //Budget allows the table to double once (peak of 3x the footprint during the rehash), but not twice
+        long budget = 3 * 2 * footprint - 1;
+
+        int inserted = 0;
+        while (!map.isAtCapacity(budget)) {
+            map.incrementCount(inserted++, 1.0);
+        }
+        assertEquals(2 * footprint, map.memoryFootprint());
+        assertEquals(inserted, map.size());
+        assertTrue(3 * map.memoryFootprint() > budget);
+
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(2 * footprint, map.memoryFootprint());
+        assertFalse(map.isAtCapacity(budget));
+    }
+}
@@ -29,6 +29,7 @@ import org.deeplearning4j.models.embeddings.learning.impl.sequence.DM;
 import org.deeplearning4j.models.embeddings.loader.VectorsConfiguration;
 import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.deeplearning4j.models.sequencevectors.sequence.Sequence;
 import org.deeplearning4j.models.word2vec.VocabWord;
 import org.deeplearning4j.models.word2vec.Word2Vec;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
@@ -481,6 +482,52 @@ public class ParagraphVectorsTest {
 
     }
 
+    @Test
+    public void testBatchedInference() throws Exception {
+        ClassPathResource resource = new ClassPathResource("/big/raw_sentences.txt");
+        File file = resource.getFile();
+        SentenceIterator iter = new BasicLineIterator(file);
+
+        TokenizerFactory t = new DefaultTokenizerFactory();
+        t.setTokenPreProcessor(new CommonPreprocessor());
+
+        DM<VocabWord> dm = new DM<>();
+        ParagraphVectors vec = new ParagraphVectors.Builder().minWordFrequency(1).iterations(1).seed(119).epochs(1)
+                        .layerSize(100).learningRate(0.025).labelsSource(new LabelsSource("DOC_")).windowSize(5)
+                        .iterate(iter).trainWordVectors(true).tokenizerFactory(t).negativeSample(0)
+                        .useHierarchicSoftmax(true).sampling(0).workers(1).sequenceLearningAlgorithm(dm).build();
+
+        vec.fit();
+
+        List<String> texts = Arrays.asList("This is my work", "This is my work .", "This is my day",
+                        "This is my night", "It is a good day for a walk");
+
+        // batched inference should give exactly the same vectors as one-by-one inference of the same sequences
+        List<Sequence<VocabWord>> sequences = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            Sequence<VocabWord> sequence = new Sequence<>();
+            for (String token : t.create(texts.get(i)).getTokens()) {
+                if (vec.getVocab().containsWord(token))
+                    sequence.addElement(vec.getVocab().wordFor(token));
+            }
+            sequence.setSequenceLabel(new VocabWord(1.0, "INFERENCE_" + i));
+            sequences.add(sequence);
+        }
+
+        List<INDArray> batched = dm.inferSequences(sequences, 119, 0.025, 0.001, 10);
+        assertEquals(texts.size(), batched.size());
+        for (int i = 0; i < texts.size(); i++) {
+            INDArray single = dm.inferSequence(sequences.get(i), 119, 0.025, 0.001, 10);
+            assertEquals(single, batched.get(i));
+        }
+
+        List<INDArray> inferred = vec.inferVectors(texts);
+        assertEquals(texts.size(), inferred.size());
+        for (INDArray v : inferred) {
+            assertArrayEquals(new long[] {1, 100}, v.shape());
+        }
+    }
+
     @Test
     public void testParagraphVectorsWithWordVectorsModelling1() throws Exception {
         ClassPathResource resource = new ClassPathResource("/big/raw_sentences.txt");
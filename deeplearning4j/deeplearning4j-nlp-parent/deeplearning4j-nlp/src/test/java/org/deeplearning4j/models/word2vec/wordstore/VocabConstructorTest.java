@@ -40,8 +40,7 @@ import java.io.File;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 /**
  * @author raver119@gmail.com
@@ -240,6 +239,138 @@ public class VocabConstructorTest {
         assertEquals(1, vocabCache.wordFrequency("test"));
     }
 
+    @Test
+    public void testParallelVocabulary() throws Exception {
+        VocabCache<VocabWord> cacheParallel = new AbstractCache.Builder<VocabWord>().build();
+        VocabCache<VocabWord> cacheSequential = new AbstractCache.Builder<VocabWord>().build();
+
+        VocabConstructor<VocabWord> parallel = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(new AbstractSequenceIterator.Builder<>(buildSequences()).build(), 5)
+                        .fetchLabels(true).allowParallelTokenization(true).setWorkers(4)
+                        .setTargetVocabCache(cacheParallel).build();
+
+        VocabConstructor<VocabWord> sequential = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(new AbstractSequenceIterator.Builder<>(buildSequences()).build(), 5)
+                        .fetchLabels(true).allowParallelTokenization(false).setTargetVocabCache(cacheSequential)
+                        .build();
+
+        parallel.buildJointVocabulary(false, true);
+        sequential.buildJointVocabulary(false, true);
+
+        // manual count, to validate both vocabularies
+        Map<String, Integer> frequencies = new HashMap<>();
+        Map<String, Integer> documents = new HashMap<>();
+        long totalTokens = 0;
+        for (Sequence<VocabWord> sequence : buildSequences()) {
+            for (VocabWord word : sequence.getElements()) {
+                Integer frequency = frequencies.get(word.getLabel());
+                frequencies.put(word.getLabel(), frequency == null ? 1 : frequency + 1);
+                totalTokens++;
+            }
+
+            for (String label : new HashSet<>(sequence.asLabels())) {
+                Integer count = documents.get(label);
+                documents.put(label, count == null ? 1 : count + 1);
+            }
+        }
+
+        int expectedWords = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            if (entry.getValue() >= 5) {
+                expectedWords++;
+                assertEquals(entry.getKey(), (int) entry.getValue(), cacheParallel.wordFrequency(entry.getKey()));
+                assertEquals(entry.getKey(), (int) documents.get(entry.getKey()),
+                                cacheParallel.docAppearedIn(entry.getKey()));
+            } else {
+                assertFalse(entry.getKey(), cacheParallel.containsWord(entry.getKey()));
+            }
+        }
+
+        // 3 labels are added on top of regular words
+        assertEquals(expectedWords + 3, cacheParallel.numWords());
+        assertTrue(cacheParallel.wordFor("DOC_1").isLabel());
+        assertEquals(totalTokens, parallel.getNumberOfTokens());
+        assertEquals(1000, parallel.getNumberOfSequences());
+
+        // sharding should have no effect on resulting vocabulary
+        assertEquals(cacheSequential.numWords(), cacheParallel.numWords());
+        assertEquals(cacheSequential.totalWordOccurrences(), cacheParallel.totalWordOccurrences());
+        for (int i = 0; i < cacheSequential.numWords(); i++) {
+            String word = cacheSequential.wordAtIndex(i);
+            assertEquals(word, cacheParallel.wordAtIndex(i));
+            assertEquals(cacheSequential.wordFrequency(word), cacheParallel.wordFrequency(word));
+            assertArrayEquals(cacheSequential.wordFor(word).getCodes().toArray(),
+                            cacheParallel.wordFor(word).getCodes().toArray());
+        }
+    }
+
+    @Test
+    public void testParallelVocabularyWithScavenger() throws Exception {
+        VocabCache<VocabWord> cacheParallel = new AbstractCache.Builder<VocabWord>().build();
+        VocabCache<VocabWord> cacheSequential = new AbstractCache.Builder<VocabWord>().build();
+        VocabCache<VocabWord> cacheNoScavenger = new AbstractCache.Builder<VocabWord>().build();
+
+        // separate (identical) sequences for each constructor, so that no elements are shared between them
+        VocabConstructor<VocabWord> parallel = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(new AbstractSequenceIterator.Builder<>(buildSequences(20000, 5)).build(), 5)
+                        .enableScavenger(true).allowParallelTokenization(true).setWorkers(3)
+                        .setTargetVocabCache(cacheParallel).build();
+
+        VocabConstructor<VocabWord> sequential = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(new AbstractSequenceIterator.Builder<>(buildSequences(20000, 5)).build(), 5)
+                        .enableScavenger(true).allowParallelTokenization(false).setTargetVocabCache(cacheSequential)
+                        .build();
+
+        VocabConstructor<VocabWord> noScavenger = new VocabConstructor.Builder<VocabWord>()
+                        .addSource(new AbstractSequenceIterator.Builder<>(buildSequences(20000, 5)).build(), 5)
+                        .enableScavenger(false).allowParallelTokenization(false).setTargetVocabCache(cacheNoScavenger)
+                        .build();
+
+        // low thresholds, so that rare words are pruned (with workers paused and their shards merged) several times
+        for (VocabConstructor<VocabWord> constructor : Arrays.asList(parallel, sequential)) {
+            constructor.scavengerInterval = 1000;
+            constructor.scavengerNewElements = 10;
+            constructor.scavengerVocabSize = 100;
+        }
+
+        parallel.buildJointVocabulary(false, true);
+        sequential.buildJointVocabulary(false, true);
+        noScavenger.buildJointVocabulary(false, true);
+
+        // the scavenger did run: counts of pruned words are lost
+        assertTrue(cacheSequential.totalWordOccurrences() < cacheNoScavenger.totalWordOccurrences());
+
+        assertEquals(20000, parallel.getNumberOfSequences());
+        assertEquals(cacheSequential.numWords(), cacheParallel.numWords());
+        assertEquals(cacheSequential.totalWordOccurrences(), cacheParallel.totalWordOccurrences());
+        for (int i = 0; i < cacheSequential.numWords(); i++) {
+            String word = cacheSequential.wordAtIndex(i);
+            assertEquals(word, cacheParallel.wordAtIndex(i));
+            assertEquals(cacheSequential.wordFrequency(word), cacheParallel.wordFrequency(word));
+        }
+    }
+
+    private static List<Sequence<VocabWord>> buildSequences() {
+        return buildSequences(1000, 30);
+    }
+
+    private static List<Sequence<VocabWord>> buildSequences(int numSequences, int maxExtraLength) {
+        Random random = new Random(119);
+        List<Sequence<VocabWord>> sequences = new ArrayList<>();
+        for (int i = 0; i < numSequences; i++) {
+            Sequence<VocabWord> sequence = new Sequence<>();
+            int length = 5 + random.nextInt(maxExtraLength);
+            for (int e = 0; e < length; e++) {
+                // skewed distribution, so there are rare words to be filtered out
+                int id = (int) (Math.pow(random.nextDouble(), 3) * 1000);
+                sequence.addElement(new VocabWord(1.0, "word_" + id));
+            }
+            sequence.addSequenceLabel(new VocabWord(1.0, "DOC_" + (i % 3)));
+            sequences.add(sequence);
+        }
+        return sequences;
+    }
+
     /**
      * Here we test basic vocab transfer, done WITHOUT labels
      * @throws Exception
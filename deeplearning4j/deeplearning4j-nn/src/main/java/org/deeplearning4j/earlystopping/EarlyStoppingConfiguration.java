@@ -40,6 +40,7 @@ import java.util.List;
  *     (ii) Epoch termination conditions: calculated once per epoch. For example, maxEpochs or no improvement for N epochs<br>
  * (c) Score calculator: what score should be calculated at every epoch? (For example: test set loss or test set accuracy)<br>
  * (d) How frequently (ever N epochs) should scores be calculated? (Default: every epoch)<br>
+ * (e) Should scores be calculated asynchronously, while training continues? (Default: false)<br>
  * @param <T> Type of model. For example, {@link org.deeplearning4j.nn.multilayer.MultiLayerNetwork} or {@link org.deeplearning4j.nn.graph.ComputationGraph}
  * @author Alex Black
  */
@@ -54,6 +55,7 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
     private int evaluateEveryNEpochs;
     private ScoreCalculator<T> scoreCalculator;
     private Supplier<ScoreCalculator> scoreCalculatorSupplier;
+    private boolean asyncScoreCalculation;
 
     private EarlyStoppingConfiguration(Builder<T> builder) {
         this.modelSaver = builder.modelSaver;
@@ -63,6 +65,7 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
         this.evaluateEveryNEpochs = builder.evaluateEveryNEpochs;
         this.scoreCalculator = builder.scoreCalculator;
         this.scoreCalculatorSupplier = builder.scoreCalculatorSupplier;
+        this.asyncScoreCalculation = builder.asyncScoreCalculation;
     }
 
     public ScoreCalculator<T> getScoreCalculator(){
@@ -106,6 +109,7 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
         private int evaluateEveryNEpochs = 1;
         private ScoreCalculator<T> scoreCalculator;
         private Supplier<ScoreCalculator> scoreCalculatorSupplier;
+        private boolean asyncScoreCalculation = false;
 
 
         /** How should models be saved? (Default: in memory)*/
@@ -166,6 +170,21 @@ public class EarlyStoppingConfiguration<T extends Model> implements Serializable
             return this;
         }
 
+        /** If true: scores are calculated on a copy of the model in a separate thread, while training of the next
+         * epoch continues. Score-based decisions (best model saving, epoch termination conditions) are applied as soon
+         * as the score becomes available, hence termination is applied up to one epoch late: training may proceed
+         * for up to one more epoch after the epoch that triggered termination (for example, with
+         * MaxEpochsTerminationCondition(5), up to 6 epochs may be trained). The total number of epochs in the
+         * EarlyStoppingResult is the number of epochs that were actually completed, and may be one more than the last
+         * scored epoch + 1. At most one score calculation is in progress at any time.<br>
+         * Note that the score calculator must not share its iterator with the training data when this is enabled.<br>
+         * If false: scores are calculated on the training thread at the end of each epoch. Default: false
+         */
+        public Builder<T> asyncScoreCalculation(boolean asyncScoreCalculation) {
+            this.asyncScoreCalculation = asyncScoreCalculation;
+            return this;
+        }
+
         /** Create the early stopping configuration */
         public EarlyStoppingConfiguration<T> build() {
             return new EarlyStoppingConfiguration<>(this);
@@ -40,6 +40,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.*;
 
 /**Base/abstract class for conducting early stopping training locally (single machine).<br>
  * Can be used to train a {@link MultiLayerNetwork} or a {@link ComputationGraph} via early stopping
@@ -60,6 +61,10 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
     private double bestModelScore = Double.MAX_VALUE;
     private int bestModelEpoch = -1;
 
+    //Used only for asynchronous score calculation
+    private ExecutorService scoreExecutor;
+    private PendingScore<T> pendingScore;
+
     protected BaseEarlyStoppingTrainer(EarlyStoppingConfiguration<T> earlyStoppingConfiguration, T model,
                                        DataSetIterator train, MultiDataSetIterator trainMulti, EarlyStoppingListener<T> listener) {
         this.esConfig = earlyStoppingConfiguration;
@@ -106,6 +111,29 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
             bestModelScore = -Double.MAX_VALUE;
         }
 
+        if (esConfig.isAsyncScoreCalculation()) {
+            scoreExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "EarlyStopping score calculation");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+
+        try {
+            return fit(scoreVsEpoch);
+        } finally {
+            if (scoreExecutor != null) {
+                scoreExecutor.shutdownNow();
+                scoreExecutor = null;
+            }
+            pendingScore = null;
+        }
+    }
+
+    private EarlyStoppingResult<T> fit(Map<Integer, Double> scoreVsEpoch) {
         int epochCount = 0;
         while (true) {
             reset();
@@ -148,6 +176,14 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
                 }
 
                 iterCount++;
+
+                //Apply result of asynchronous score calculation as soon as it is available
+                if (pendingScore != null && pendingScore.score.isDone()) {
+                    EarlyStoppingResult<T> result = applyPendingScore(epochCount, scoreVsEpoch);
+                    if (result != null) {
+                        return result;
+                    }
+                }
             }
 
             if(!iterator.hasNext()){
@@ -160,6 +196,14 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
                 log.info("Hit per iteration epoch termination condition at epoch {}, iteration {}. Reason: {}",
                         epochCount, iterCount, terminationReason);
 
+                //Wait for the score of the previous epoch, if any, so that best model is up to date
+                if (pendingScore != null) {
+                    EarlyStoppingResult<T> result = applyPendingScore(epochCount, scoreVsEpoch);
+                    if (result != null) {
+                        return result;
+                    }
+                }
+
                 if (esConfig.isSaveLastModel()) {
                     //Save last model:
                     try {
@@ -197,99 +241,180 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
 
             if ((epochCount == 0 && esConfig.getEvaluateEveryNEpochs() == 1)
                     || epochCount % esConfig.getEvaluateEveryNEpochs() == 0) {
-                //Calculate score at this epoch:
-                ScoreCalculator sc = esConfig.getScoreCalculator();
-                double score = esConfig.getScoreCalculator().calculateScore(model);
-                scoreVsEpoch.put(epochCount, score);
-
-                boolean invalidScore = Double.isNaN(score) || Double.isInfinite(score);
-                if(invalidScore){
-                    log.warn("Score is not finite for epoch {}: score = {}", epochCount, score);
-                }
-
-                if ((sc.minimizeScore() && score < bestModelScore) || (!sc.minimizeScore() && score > bestModelScore) || (bestModelEpoch == -1 && invalidScore)) {
-                    //Save best model:
-                    if (bestModelEpoch == -1) {
-                        //First calculated/reported score
-                        log.info("Score at epoch {}: {}", epochCount, score);
-                    } else {
-                        log.info("New best model: score = {}, epoch = {} (previous: score = {}, epoch = {})", score,
-                                epochCount, bestModelScore, bestModelEpoch);
+                if (scoreExecutor != null) {
+                    //At most one score calculation is in flight: wait for the previous one before starting the next
+                    if (pendingScore != null) {
+                        EarlyStoppingResult<T> result = applyPendingScore(epochCount + 1, scoreVsEpoch);
+                        if (result != null) {
+                            return result;
+                        }
                     }
-                    bestModelScore = score;
-                    bestModelEpoch = epochCount;
 
-                    try {
-                        esConfig.getModelSaver().saveBestModel(model, score);
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error saving best model", e);
-                    }
+                    final T snapshot = snapshotModel();
+                    final ScoreCalculator<T> sc = esConfig.getScoreCalculator();
+                    Future<Double> score = scoreExecutor.submit(new Callable<Double>() {
+                        @Override
+                        public Double call() {
+                            return sc.calculateScore(snapshot);
+                        }
+                    });
+                    pendingScore = new PendingScore<>(epochCount, snapshot, sc, score);
                 } else {
-                    log.info("Score at epoch {}: {}", epochCount, score);
+                    //Calculate score at this epoch:
+                    ScoreCalculator<T> sc = esConfig.getScoreCalculator();
+                    double score = sc.calculateScore(model);
+                    EarlyStoppingResult<T> result = processEpochScore(epochCount, epochCount + 1, score, sc, model,
+                            scoreVsEpoch);
+                    if (result != null) {
+                        return result;
+                    }
                 }
+            }
+            epochCount++;
 
-                if (esConfig.isSaveLastModel()) {
-                    //Save last model:
+        }
+    }
+
+    /**
+     * Waits for the pending asynchronous score calculation (if necessary), and applies its result
+     *
+     * @param epochsCompleted Number of epochs completed by the model being trained. Up to one more than the
+     *                        number of epochs of the scored copy
+     * @return Early stopping result if training should be terminated, null otherwise
+     */
+    private EarlyStoppingResult<T> applyPendingScore(int epochsCompleted, Map<Integer, Double> scoreVsEpoch) {
+        PendingScore<T> pending = pendingScore;
+        pendingScore = null;
+
+        double score;
+        try {
+            score = pending.score.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for score calculation of epoch " + pending.epoch, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error calculating score for epoch " + pending.epoch, e.getCause());
+        }
+
+        return processEpochScore(pending.epoch, epochsCompleted, score, pending.scoreCalculator, pending.model,
+                scoreVsEpoch);
+    }
+
+    /**
+     * Records the score for the given epoch, saves the best/latest model and checks epoch termination conditions
+     *
+     * @param epochCount  Epoch the score was calculated for
+     * @param epochsCompleted Number of epochs completed by the model being trained, reported as the total number
+     *                    of epochs if training is terminated
+     * @param score       Score value
+     * @param sc          Score calculator used to calculate the score
+     * @param scoredModel Model the score was calculated for. Either the model being trained, or a copy of it
+     * @return Early stopping result if training should be terminated, null otherwise
+     */
+    private EarlyStoppingResult<T> processEpochScore(int epochCount, int epochsCompleted, double score,
+                                                     ScoreCalculator<T> sc, T scoredModel,
+                                                     Map<Integer, Double> scoreVsEpoch) {
+        scoreVsEpoch.put(epochCount, score);
+
+        boolean invalidScore = Double.isNaN(score) || Double.isInfinite(score);
+        if(invalidScore){
+            log.warn("Score is not finite for epoch {}: score = {}", epochCount, score);
+        }
+
+        if ((sc.minimizeScore() && score < bestModelScore) || (!sc.minimizeScore() && score > bestModelScore) || (bestModelEpoch == -1 && invalidScore)) {
+            //Save best model:
+            if (bestModelEpoch == -1) {
+                //First calculated/reported score
+                log.info("Score at epoch {}: {}", epochCount, score);
+            } else {
+                log.info("New best model: score = {}, epoch = {} (previous: score = {}, epoch = {})", score,
+                        epochCount, bestModelScore, bestModelEpoch);
+            }
+            bestModelScore = score;
+            bestModelEpoch = epochCount;
+
+            try {
+                esConfig.getModelSaver().saveBestModel(scoredModel, score);
+            } catch (IOException e) {
+                throw new RuntimeException("Error saving best model", e);
+            }
+        } else {
+            log.info("Score at epoch {}: {}", epochCount, score);
+        }
+
+        if (esConfig.isSaveLastModel()) {
+            //Save last model:
+            try {
+                esConfig.getModelSaver().saveLatestModel(scoredModel, score);
+            } catch (IOException e) {
+                throw new RuntimeException("Error saving most recent model", e);
+            }
+        }
+
+        if (listener != null) {
+            listener.onEpoch(epochCount, score, esConfig, scoredModel);
+        }
+
+        //Check per-epoch termination conditions:
+        boolean epochTerminate = false;
+        EpochTerminationCondition termReason = null;
+        for (EpochTerminationCondition c : esConfig.getEpochTerminationConditions()) {
+            if (c.terminate(epochCount, score)) {
+                epochTerminate = true;
+                termReason = c;
+                break;
+            }
+        }
+        if (epochTerminate) {
+            log.info("Hit epoch termination condition at epoch {}. Details: {}", epochCount,
+                    termReason.toString());
+            T bestModel;
+            try {
+                bestModel = esConfig.getModelSaver().getBestModel();
+            } catch (IOException e2) {
+                //Best model does not exist. Just save the current model
+                if(esConfig.isSaveLastModel()) {
                     try {
-                        esConfig.getModelSaver().saveLatestModel(model, score);
+                        esConfig.getModelSaver().saveBestModel(scoredModel,0.0);
+                        bestModel = scoredModel;
                     } catch (IOException e) {
-                        throw new RuntimeException("Error saving most recent model", e);
+                        log.error("Unable to save model.",e);
+                        throw new RuntimeException(e);
                     }
                 }
-
-                if (listener != null) {
-                    listener.onEpoch(epochCount, score, esConfig, model);
+                else {
+                    log.error("Error with earlystopping",e2);
+                    throw new RuntimeException(e2);
                 }
 
-                //Check per-epoch termination conditions:
-                boolean epochTerminate = false;
-                EpochTerminationCondition termReason = null;
-                for (EpochTerminationCondition c : esConfig.getEpochTerminationConditions()) {
-                    if (c.terminate(epochCount, score)) {
-                        epochTerminate = true;
-                        termReason = c;
-                        break;
-                    }
-                }
-                if (epochTerminate) {
-                    log.info("Hit epoch termination condition at epoch {}. Details: {}", epochCount,
-                            termReason.toString());
-                    T bestModel;
-                    try {
-                        bestModel = esConfig.getModelSaver().getBestModel();
-                    } catch (IOException e2) {
-                        //Best model does not exist. Just save the current model
-                        if(esConfig.isSaveLastModel()) {
-                            try {
-                                esConfig.getModelSaver().saveBestModel(model,0.0);
-                                bestModel = model;
-                            } catch (IOException e) {
-                                log.error("Unable to save model.",e);
-                                throw new RuntimeException(e);
-                            }
-                        }
-                        else {
-                            log.error("Error with earlystopping",e2);
-                            throw new RuntimeException(e2);
-                        }
-
-                    }
-
+            }
 
-                    EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
-                            EarlyStoppingResult.TerminationReason.EpochTerminationCondition,
-                            termReason.toString(), scoreVsEpoch, bestModelEpoch, bestModelScore, epochCount + 1,
-                            bestModel);
-                    if (listener != null) {
-                        listener.onCompletion(result);
-                    }
 
-                    return result;
-                }
+            EarlyStoppingResult<T> result = new EarlyStoppingResult<>(
+                    EarlyStoppingResult.TerminationReason.EpochTerminationCondition,
+                    termReason.toString(), scoreVsEpoch, bestModelEpoch, bestModelScore, epochsCompleted,
+                    bestModel);
+            if (listener != null) {
+                listener.onCompletion(result);
             }
-            epochCount++;
 
+            return result;
         }
+        return null;
+    }
+
+    /**
+     * Creates a copy of the model being trained, for asynchronous score calculation
+     */
+    @SuppressWarnings("unchecked")
+    protected T snapshotModel() {
+        if (model instanceof MultiLayerNetwork) {
+            return (T) ((MultiLayerNetwork) model).clone();
+        } else if (model instanceof ComputationGraph) {
+            return (T) ((ComputationGraph) model).clone();
+        }
+        throw new UnsupportedOperationException("Asynchronous score calculation is not supported for model of type "
+                + model.getClass().getName());
     }
 
     @Override
@@ -332,5 +457,20 @@ public abstract class BaseEarlyStoppingTrainer<T extends Model> implements IEarl
         }
     }
 
-
+    /**
+     * Score calculation in progress, for a copy of the model as of the end of the given epoch
+     */
+    private static class PendingScore<T extends Model> {
+        private final int epoch;
+        private final T model;
+        private final ScoreCalculator<T> scoreCalculator;
+        private final Future<Double> score;
+
+        private PendingScore(int epoch, T model, ScoreCalculator<T> scoreCalculator, Future<Double> score) {
+            this.epoch = epoch;
+            this.model = model;
+            this.scoreCalculator = scoreCalculator;
+            this.score = score;
+        }
+    }
 }
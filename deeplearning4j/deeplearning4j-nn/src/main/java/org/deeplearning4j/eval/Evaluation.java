@@ -71,7 +71,11 @@ import java.util.*;
  * Cost arrays (a row vector, of size equal to the number of outputs) modify the evaluation process: instead of simply
  * doing predictedClass = argMax(probabilities), we do predictedClass = argMax(cost * probabilities). Consequently, an
  * array of all 1s (or, indeed any array of equal values) will result in the same performance as no cost array; non-
- * equal values will bias the predictions for or against certain classes.
+ * equal values will bias the predictions for or against certain classes.<br>
+ * <br>
+ * Evaluation is thread safe: multiple threads (for example, threads consuming ParallelInference output) may call
+ * {@link #eval(INDArray, INDArray)} on the same instance concurrently. Alternatively, per-thread instances may be
+ * combined afterwards using {@link #merge(Evaluation)}.
  *
  * @author Adam Gibson
  */
@@ -362,20 +366,6 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
     @Override
     public void eval(final INDArray realOutcomes, final INDArray guesses,
                     final List<? extends Serializable> recordMetaData) {
-        // Add the number of rows to numRowCounter
-        numRowCounter += realOutcomes.size(0);
-
-        // If confusion is null, then Evaluation was instantiated without providing the classes -> infer # classes from
-        if (confusion == null) {
-            int nClasses = realOutcomes.columns();
-            if (nClasses == 1)
-                nClasses = 2; //Binary (single output variable) case
-            labelsList = new ArrayList<>(nClasses);
-            for (int i = 0; i < nClasses; i++)
-                labelsList.add(String.valueOf(i));
-            createConfusion(nClasses);
-        }
-
         // Length of real labels must be same as length of predicted labels
         if (!Arrays.equals(realOutcomes.shape(),guesses.shape())) {
             throw new IllegalArgumentException("Unable to evaluate. Predictions and labels arrays are not same shape." +
@@ -388,6 +378,11 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
         final int nCols = realOutcomes.columns();
         final int nRows = realOutcomes.rows();
 
+        /*
+            All per-batch statistics are calculated first, without touching this instance.
+            Only the final accumulation step below is synchronized, so multiple threads (i.e. ParallelInference
+            consumers) can evaluate into the same Evaluation instance concurrently.
+         */
         if (nCols == 1) {
             INDArray binaryGuesses = guesses.gt(binaryDecisionThreshold == null ? 0.5 : binaryDecisionThreshold);
 
@@ -401,121 +396,160 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
             int fn = notGuess.mul(realOutcomes).sumNumber().intValue();
             int tn = nRows - tp - fp - fn;
 
-            confusion().add(1, 1, tp);
-            confusion().add(1, 0, fn);
-            confusion().add(0, 1, fp);
-            confusion().add(0, 0, tn);
-
-            truePositives.incrementCount(1, tp);
-            falsePositives.incrementCount(1, fp);
-            falseNegatives.incrementCount(1, fn);
-            trueNegatives.incrementCount(1, tn);
-
-            truePositives.incrementCount(0, tn);
-            falsePositives.incrementCount(0, fn);
-            falseNegatives.incrementCount(0, fp);
-            trueNegatives.incrementCount(0, tp);
-
-            if (recordMetaData != null) {
-                for (int i = 0; i < binaryGuesses.size(0); i++) {
-                    if (i >= recordMetaData.size())
-                        break;
-                    int actual = realOutcomes.getDouble(0) == 0.0 ? 0 : 1;
-                    int predicted = binaryGuesses.getDouble(0) == 0.0 ? 0 : 1;
-                    addToMetaConfusionMatrix(actual, predicted, recordMetaData.get(i));
+            synchronized (this) {
+                prepareForBatch(realOutcomes);
+
+                confusion().add(1, 1, tp);
+                confusion().add(1, 0, fn);
+                confusion().add(0, 1, fp);
+                confusion().add(0, 0, tn);
+
+                truePositives.incrementCount(1, tp);
+                falsePositives.incrementCount(1, fp);
+                falseNegatives.incrementCount(1, fn);
+                trueNegatives.incrementCount(1, tn);
+
+                truePositives.incrementCount(0, tn);
+                falsePositives.incrementCount(0, fn);
+                falseNegatives.incrementCount(0, fp);
+                trueNegatives.incrementCount(0, tp);
+
+                if (recordMetaData != null) {
+                    for (int i = 0; i < binaryGuesses.size(0); i++) {
+                        if (i >= recordMetaData.size())
+                            break;
+                        int actual = realOutcomes.getDouble(0) == 0.0 ? 0 : 1;
+                        int predicted = binaryGuesses.getDouble(0) == 0.0 ? 0 : 1;
+                        addToMetaConfusionMatrix(actual, predicted, recordMetaData.get(i));
+                    }
                 }
             }
+            return;
+        }
 
-        } else {
-            INDArray guessIndex;
-            if (binaryDecisionThreshold != null) {
-                if (nCols != 2) {
-                    throw new IllegalStateException("Binary decision threshold is set, but number of columns for "
-                                    + "predictions is " + nCols
-                                    + ". Binary decision threshold can only be used for binary " + "prediction cases");
-                }
+        INDArray guessIndex;
+        if (binaryDecisionThreshold != null) {
+            if (nCols != 2) {
+                throw new IllegalStateException("Binary decision threshold is set, but number of columns for "
+                                + "predictions is " + nCols
+                                + ". Binary decision threshold can only be used for binary " + "prediction cases");
+            }
 
-                INDArray pClass1 = guesses.getColumn(1);
-                guessIndex = pClass1.gt(binaryDecisionThreshold);
-            } else if (costArray != null) {
-                //With a cost array: do argmax(cost * probability) instead of just argmax(probability)
-                guessIndex = Nd4j.argMax(guesses.mulRowVector(costArray), 1);
+            INDArray pClass1 = guesses.getColumn(1);
+            guessIndex = pClass1.gt(binaryDecisionThreshold);
+        } else if (costArray != null) {
+            //With a cost array: do argmax(cost * probability) instead of just argmax(probability)
+            guessIndex = Nd4j.argMax(guesses.mulRowVector(costArray), 1);
+        } else {
+            //Standard case: argmax
+            guessIndex = Nd4j.argMax(guesses, 1);
+        }
+        final int[] actualIdxs = Nd4j.argMax(realOutcomes, 1).toIntVector();
+        final int[] predictedIdxs = guessIndex.toIntVector();
+        final int nExamples = actualIdxs.length;
+
+        // we count (actual, predicted) pairs using primitives only: each pair is encoded as single long, and sorted,
+        // so the confusion matrix gets single update per distinct pair, instead of one update per example
+        long[] pairs = new long[nExamples];
+        for (int i = 0; i < nExamples; i++) {
+            pairs[i] = (long) actualIdxs[i] * nCols + predictedIdxs[i];
+        }
+        Arrays.sort(pairs);
+
+        int[] tp = new int[nCols];
+        int[] fp = new int[nCols];
+        int[] fn = new int[nCols];
+        long[] distinctPairs = new long[nExamples];
+        int[] pairCounts = new int[nExamples];
+        int numDistinct = 0;
+        for (int i = 0; i < nExamples; ) {
+            int j = i + 1;
+            while (j < nExamples && pairs[j] == pairs[i])
+                j++;
+
+            int actual = (int) (pairs[i] / nCols);
+            int predicted = (int) (pairs[i] % nCols);
+            int count = j - i;
+            if (actual == predicted) {
+                tp[actual] += count;
             } else {
-                //Standard case: argmax
-                guessIndex = Nd4j.argMax(guesses, 1);
+                fp[predicted] += count;
+                fn[actual] += count;
             }
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            val nExamples = guessIndex.length();
+            distinctPairs[numDistinct] = pairs[i];
+            pairCounts[numDistinct++] = count;
+            i = j;
+        }
 
+        int topNCorrect = 0;
+        if (topN > 1) {
+            //Calculate top N accuracy: for each example, count the number of probabilities larger than the probability
+            // of the true class, for the whole minibatch at once
+            INDArray labelProbs = Nd4j.create(nExamples, 1);
             for (int i = 0; i < nExamples; i++) {
-                int actual = (int) realOutcomeIndex.getDouble(i);
-                int predicted = (int) guessIndex.getDouble(i);
-                confusion().add(actual, predicted);
-
-                if (recordMetaData != null && recordMetaData.size() > i) {
-                    Object m = recordMetaData.get(i);
-                    addToMetaConfusionMatrix(actual, predicted, m);
+                labelProbs.putScalar(i, 0, guesses.getDouble(i, actualIdxs[i]));
+            }
+            INDArray countGreaterThan = Nd4j.getExecutioner().exec(
+                            new MatchCondition(guesses.subColumnVector(labelProbs), Conditions.greaterThan(0.0)), 1);
+            for (int i = 0; i < nExamples; i++) {
+                if (countGreaterThan.getDouble(i) < topN) {
+                    //For example, for top 3 accuracy: can have at most 2 other probabilities larger
+                    topNCorrect++;
                 }
+            }
+        }
 
-                // instead of looping through each label for confusion
-                // matrix, instead infer those values by determining if true/false negative/positive,
-                // then just add across matrix
-
-                // if actual == predicted, then it's a true positive, assign true negative to every other label
-                if (actual == predicted) {
-                    truePositives.incrementCount(actual, 1);
-                    for (int col = 0; col < nCols; col++) {
-                        if (col == actual) {
-                            continue;
-                        }
-                        trueNegatives.incrementCount(col, 1); // all cols prior
-                    }
-                } else {
-                    falsePositives.incrementCount(predicted, 1);
-                    falseNegatives.incrementCount(actual, 1);
-
-                    // first determine intervals for adding true negatives
-                    int lesserIndex, greaterIndex;
-                    if (actual < predicted) {
-                        lesserIndex = actual;
-                        greaterIndex = predicted;
-                    } else {
-                        lesserIndex = predicted;
-                        greaterIndex = actual;
-                    }
+        synchronized (this) {
+            prepareForBatch(realOutcomes);
 
-                    // now loop through intervals
-                    for (int col = 0; col < lesserIndex; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols prior
-                    }
-                    for (int col = lesserIndex + 1; col < greaterIndex; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols after
-                    }
-                    for (int col = greaterIndex + 1; col < nCols; col++) {
-                        trueNegatives.incrementCount(col, 1); // all cols after
-                    }
-                }
+            for (int i = 0; i < numDistinct; i++) {
+                confusion().add((int) (distinctPairs[i] / nCols), (int) (distinctPairs[i] % nCols), pairCounts[i]);
             }
-        }
 
-        if (nCols > 1 && topN > 1) {
-            //Calculate top N accuracy
-            //TODO: this could be more efficient
-            INDArray realOutcomeIndex = Nd4j.argMax(realOutcomes, 1);
-            val nExamples = realOutcomeIndex.length();
-            for (int i = 0; i < nExamples; i++) {
-                int labelIdx = (int) realOutcomeIndex.getDouble(i);
-                double prob = guesses.getDouble(i, labelIdx);
-                INDArray row = guesses.getRow(i);
-                int countGreaterThan = (int) Nd4j.getExecutioner()
-                                .exec(new MatchCondition(row, Conditions.greaterThan(prob)), Integer.MAX_VALUE)
-                                .getDouble(0);
-                if (countGreaterThan < topN) {
-                    //For example, for top 3 accuracy: can have at most 2 other probabilities larger
-                    topNCorrectCount++;
+            if (recordMetaData != null) {
+                for (int i = 0; i < nExamples && i < recordMetaData.size(); i++) {
+                    addToMetaConfusionMatrix(actualIdxs[i], predictedIdxs[i], recordMetaData.get(i));
                 }
-                topNTotalCount++;
             }
+
+            // every example is a true negative for all classes, except its actual and predicted classes
+            for (int col = 0; col < nCols; col++) {
+                if (tp[col] > 0)
+                    truePositives.incrementCount(col, tp[col]);
+                if (fp[col] > 0)
+                    falsePositives.incrementCount(col, fp[col]);
+                if (fn[col] > 0)
+                    falseNegatives.incrementCount(col, fn[col]);
+
+                int tn = nExamples - tp[col] - fp[col] - fn[col];
+                if (tn > 0)
+                    trueNegatives.incrementCount(col, tn);
+            }
+
+            if (topN > 1) {
+                topNCorrectCount += topNCorrect;
+                topNTotalCount += nExamples;
+            }
+        }
+    }
+
+    /**
+     * Updates row counter, and creates confusion matrix if Evaluation was instantiated without providing the classes.
+     * Should be called while holding lock on this instance.
+     */
+    private void prepareForBatch(INDArray realOutcomes) {
+        // Add the number of rows to numRowCounter
+        numRowCounter += realOutcomes.size(0);
+
+        // If confusion is null, then Evaluation was instantiated without providing the classes -> infer # classes from
+        if (confusion == null) {
+            int nClasses = realOutcomes.columns();
+            if (nClasses == 1)
+                nClasses = 2; //Binary (single output variable) case
+            labelsList = new ArrayList<>(nClasses);
+            for (int i = 0; i < nClasses; i++)
+                labelsList.add(String.valueOf(i));
+            createConfusion(nClasses);
         }
     }
 
@@ -525,7 +559,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @param predictedIdx Index of class predicted by the network
      * @param actualIdx    Index of actual class
      */
-    public void eval(int predictedIdx, int actualIdx) {
+    public synchronized void eval(int predictedIdx, int actualIdx) {
         // Add the number of rows to numRowCounter
         numRowCounter++;
 
@@ -1585,7 +1619,7 @@ public class Evaluation extends BaseEvaluation<Evaluation> {
      * @param other Evaluation object to merge into this one.
      */
     @Override
-    public void merge(Evaluation other) {
+    public synchronized void merge(Evaluation other) {
         if (other == null)
             return;
 
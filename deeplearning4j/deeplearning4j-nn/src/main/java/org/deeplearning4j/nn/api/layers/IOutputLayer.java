@@ -47,6 +47,14 @@ public interface IOutputLayer extends Layer, Classifier {
      */
     INDArray getLabels();
 
+    /**
+     * Set the factor the gradient of the loss function is multiplied by during backprop (loss scaling - see
+     * {@link org.deeplearning4j.nn.conf.LossScaling}). Set by the network before backprop; 1.0 otherwise.
+     *
+     * @param lossScale Loss scale factor
+     */
+    void setLossScale(double lossScale);
+
     /**
      * Compute score after labels and input have been set.
      *
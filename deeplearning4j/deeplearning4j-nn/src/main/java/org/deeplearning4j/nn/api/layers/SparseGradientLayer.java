@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.api.layers;
+
+/**
+ * Interface for layers that can produce row-sparse gradients for one or more of their parameters.<br>
+ * For example, the weight gradient of an embedding layer is non-zero only in the rows corresponding to the indices
+ * present in the current minibatch. When sparse updates are enabled for a parameter, the updater only applies the
+ * update (and updates the updater state - i.e., lazy Adam etc) for those rows, instead of for the full parameter array.
+ */
+public interface SparseGradientLayer {
+
+    /**
+     * @param paramName Name of the parameter
+     * @return True if row-sparse gradient updates are enabled for the specified parameter
+     */
+    boolean isSparseGradient(String paramName);
+
+    /**
+     * Get the rows of the specified (2d) parameter for which the gradient from the last backprop may be non-zero.
+     * Rows that are not returned by this method are guaranteed to have a gradient of zero.
+     *
+     * @param paramName Name of the parameter
+     * @return Unique row indices, in ascending order, or null if not available (in which case a dense update is used)
+     */
+    int[] getSparseGradientRows(String paramName);
+
+}
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.conf;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Loss scaling configuration, for training with reduced precision (i.e., {@code DataBuffer.Type.HALF}) data types.<br>
+ * With loss scaling, the gradient of the loss with respect to the network output is multiplied by a scale factor S
+ * before backpropagation, so that small gradient values don't underflow to zero in half precision. The updater then
+ * checks the resulting gradients for overflow (NaN or infinite values): if an overflow is detected, the parameter update
+ * for that iteration is skipped; otherwise, the gradients are divided by S before the updater (and gradient
+ * normalization/clipping) is applied.<br>
+ * <br>
+ * With dynamic loss scaling (the default), S is multiplied by the backoff factor whenever an overflow is detected, and
+ * multiplied by the growth factor after every growthInterval consecutive iterations without overflow. With static
+ * loss scaling, S is fixed at the initial scale.<br>
+ * Scale factors should be powers of 2, so that scaling and unscaling of the gradients is exact.<br>
+ * <br>
+ * Note that this is loss scaling only: it does not change the data type of the parameters or activations, and no
+ * separate FP32 master copy of the parameters is kept. The network is trained in the global data type (set via
+ * {@code Nd4j.setDataType(DataBuffer.Type)}); with FLOAT or DOUBLE, loss scaling has no effect on the result (other
+ * than skipping iterations with non-finite gradients).<br>
+ * The current scale is part of the updater state: it is copied by clone(), and saved/restored by ModelSerializer
+ * along with the updater state.
+ */
+@Data
+@NoArgsConstructor
+public class LossScaling implements Serializable {
+
+    private double initialScale = 65536.0;
+    private boolean dynamic = true;
+    private double growthFactor = 2.0;
+    private double backoffFactor = 0.5;
+    private int growthInterval = 2000;
+    private double minScale = 1.0;
+    private double maxScale = 16777216.0;
+
+    private LossScaling(Builder builder) {
+        this.initialScale = builder.initialScale;
+        this.dynamic = builder.dynamic;
+        this.growthFactor = builder.growthFactor;
+        this.backoffFactor = builder.backoffFactor;
+        this.growthInterval = builder.growthInterval;
+        this.minScale = builder.minScale;
+        this.maxScale = builder.maxScale;
+    }
+
+    /**
+     * @return Dynamic loss scaling with the default settings
+     */
+    public static LossScaling dynamicScaling() {
+        return new Builder().build();
+    }
+
+    /**
+     * @param scale Scale factor to use for all iterations
+     * @return Static (fixed) loss scaling, with the specified scale
+     */
+    public static LossScaling staticScaling(double scale) {
+        return new Builder().initialScale(scale).dynamic(false).build();
+    }
+
+    public static class Builder {
+        private double initialScale = 65536.0;
+        private boolean dynamic = true;
+        private double growthFactor = 2.0;
+        private double backoffFactor = 0.5;
+        private int growthInterval = 2000;
+        private double minScale = 1.0;
+        private double maxScale = 16777216.0;
+
+        /**
+         * Initial loss scale factor. Default: 2^16
+         */
+        public Builder initialScale(double initialScale) {
+            this.initialScale = initialScale;
+            return this;
+        }
+
+        /**
+         * If true (default): adjust the scale factor dynamically based on detected overflows. If false: use the initial
+         * scale factor for all iterations
+         */
+        public Builder dynamic(boolean dynamic) {
+            this.dynamic = dynamic;
+            return this;
+        }
+
+        /**
+         * Factor to multiply the scale by after growthInterval iterations without overflow. Default: 2.0
+         */
+        public Builder growthFactor(double growthFactor) {
+            this.growthFactor = growthFactor;
+            return this;
+        }
+
+        /**
+         * Factor to multiply the scale by when an overflow is detected. Default: 0.5
+         */
+        public Builder backoffFactor(double backoffFactor) {
+            this.backoffFactor = backoffFactor;
+            return this;
+        }
+
+        /**
+         * Number of consecutive iterations without overflow before the scale is increased. Default: 2000
+         */
+        public Builder growthInterval(int growthInterval) {
+            this.growthInterval = growthInterval;
+            return this;
+        }
+
+        /**
+         * Minimum and maximum values for the scale factor, with dynamic loss scaling. Default: 1.0 and 2^24
+         */
+        public Builder scaleRange(double minScale, double maxScale) {
+            this.minScale = minScale;
+            this.maxScale = maxScale;
+            return this;
+        }
+
+        public LossScaling build() {
+            if (initialScale <= 0 || growthFactor < 1.0 || backoffFactor <= 0 || backoffFactor > 1.0
+                            || growthInterval <= 0 || minScale <= 0 || maxScale < minScale) {
+                throw new IllegalStateException("Invalid loss scaling configuration: initialScale=" + initialScale
+                                + ", growthFactor=" + growthFactor + ", backoffFactor=" + backoffFactor
+                                + ", growthInterval=" + growthInterval + ", scale range=[" + minScale + ","
+                                + maxScale + "]");
+            }
+            return new LossScaling(this);
+        }
+    }
+}
@@ -92,6 +92,9 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
     // this field defines preOutput cache
     protected CacheMode cacheMode;
 
+    //Loss scaling for reduced precision training. May be null (no loss scaling)
+    protected LossScaling lossScaling;
+
     //Counter for the number of parameter updates so far for this layer.
     //Note that this is only used for pretrain layers (AE, VAE) - MultiLayerConfiguration and ComputationGraphConfiguration
     //contain counters for standard backprop training.
@@ -510,6 +513,7 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
         protected boolean setTWM = false;
         protected boolean setIWM = false;
         protected CacheMode cacheMode = CacheMode.NONE;
+        protected LossScaling lossScaling;
 
         protected ConvolutionMode convolutionMode = ConvolutionMode.Truncate;
         protected ConvolutionLayer.AlgoMode cudnnAlgoMode = ConvolutionLayer.AlgoMode.PREFER_FASTEST;
@@ -528,6 +532,7 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
                 stepFunction = newConf.stepFunction;
                 miniBatch = newConf.miniBatch;
                 pretrain = newConf.pretrain;
+                lossScaling = newConf.lossScaling;
             }
         }
 
@@ -582,6 +587,23 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
             return this;
         }
 
+        /**
+         * Loss scaling for training with reduced precision (HALF) data types. The gradients are computed for a loss
+         * multiplied by a (possibly dynamic) scale factor, avoiding underflow of small gradient values; iterations
+         * where the scaled gradients overflow are detected and skipped by the updater. See {@link LossScaling} for
+         * details.<br>
+         * Note that this only configures loss scaling: the data type itself is set globally via
+         * {@code Nd4j.setDataType(DataBuffer.Type)}, and parameters are kept in that same data type.
+         * Default: no loss scaling
+         *
+         * @param lossScaling Loss scaling configuration. May be null (no loss scaling)
+         * @return Builder
+         */
+        public Builder lossScaling(LossScaling lossScaling) {
+            this.lossScaling = lossScaling;
+            return this;
+        }
+
         /**
          * Objective function to minimize or maximize cost function
          * Default set to minimize true.
@@ -1046,6 +1068,7 @@ public class NeuralNetConfiguration implements Serializable, Cloneable {
             conf.miniBatch = miniBatch;
             conf.pretrain = pretrain;
             conf.cacheMode = this.cacheMode;
+            conf.lossScaling = this.lossScaling;
 
             configureLayer(layer);
             if (layer instanceof FrozenLayer) {
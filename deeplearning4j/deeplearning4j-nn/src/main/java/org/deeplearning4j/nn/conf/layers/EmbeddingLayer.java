@@ -50,10 +50,12 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 public class EmbeddingLayer extends FeedForwardLayer {
     private boolean hasBias = true; //Default for pre-0.9.2 implementations
+    private boolean sparseUpdates = false;
 
     private EmbeddingLayer(Builder builder) {
         super(builder);
         this.hasBias = builder.hasBias;
+        this.sparseUpdates = builder.sparseUpdates;
         initializeConstraints(builder);
     }
 
@@ -103,6 +105,7 @@ public class EmbeddingLayer extends FeedForwardLayer {
     public static class Builder extends FeedForwardLayer.Builder<Builder> {
 
         private boolean hasBias = false;
+        private boolean sparseUpdates = false;
 
         /**
          * If true: include bias parameters in the layer. False (default): no bias.
@@ -114,6 +117,19 @@ public class EmbeddingLayer extends FeedForwardLayer {
             return this;
         }
 
+        /**
+         * If true: use row-sparse updates for the weight parameters. Only the rows of the weight matrix for the
+         * indices present in the current minibatch are updated, and updater state (momentum, Adam moments, etc) is only
+         * updated for those rows ("lazy" updates). This is much faster for large embedding tables, but means that the
+         * updater state of rows not present in a minibatch is not decayed. Default: false (dense updates)
+         *
+         * @param sparseUpdates If true: update only the weight rows present in each minibatch
+         */
+        public Builder sparseUpdates(boolean sparseUpdates) {
+            this.sparseUpdates = sparseUpdates;
+            return this;
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         public EmbeddingLayer build() {
@@ -52,12 +52,14 @@ public class EmbeddingSequenceLayer extends FeedForwardLayer {
     private int inputLength = 1; // By default only use one index to embed
     private boolean hasBias = false;
     private boolean inferInputLength = false; // use input length as provided by input data
+    private boolean sparseUpdates = false;
 
     private EmbeddingSequenceLayer(Builder builder) {
         super(builder);
         this.hasBias = builder.hasBias;
         this.inputLength = builder.inputLength;
         this.inferInputLength = builder.inferInputLength;
+        this.sparseUpdates = builder.sparseUpdates;
         initializeConstraints(builder);
     }
 
@@ -113,6 +115,7 @@ public class EmbeddingSequenceLayer extends FeedForwardLayer {
     public static class Builder extends FeedForwardLayer.Builder<Builder> {
 
         private boolean hasBias = false;
+        private boolean sparseUpdates = false;
         private int inputLength = 1;
         private boolean inferInputLength = true;
 
@@ -149,6 +152,19 @@ public class EmbeddingSequenceLayer extends FeedForwardLayer {
             return this;
         }
 
+        /**
+         * If true: use row-sparse updates for the weight parameters. Only the rows of the weight matrix for the
+         * indices present in the current minibatch are updated, and updater state (momentum, Adam moments, etc) is only
+         * updated for those rows ("lazy" updates). This is much faster for large embedding tables, but means that the
+         * updater state of rows not present in a minibatch is not decayed. Default: false (dense updates)
+         *
+         * @param sparseUpdates If true: update only the weight rows present in each minibatch
+         */
+        public Builder sparseUpdates(boolean sparseUpdates) {
+            this.sparseUpdates = sparseUpdates;
+            return this;
+        }
+
         @Override
         @SuppressWarnings("unchecked")
         public EmbeddingSequenceLayer build() {
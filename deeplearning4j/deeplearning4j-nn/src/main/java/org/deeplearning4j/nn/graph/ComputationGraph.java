@@ -2503,6 +2503,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
 
         //Do backprop, in reverse topological order
         LinkedList<Triple<String, INDArray, Character>> gradients = new LinkedList<>();
+        double lossScale = getCurrentLossScale();
         boolean[] setVertexEpsilon = new boolean[topologicalOrder.length]; //If true: already set epsilon for this vertex; later epsilons should be *added* to the existing one, not set
         MemoryWorkspace initialWorkspace = Nd4j.getMemoryManager().getCurrentWorkspace();
         try{
@@ -2559,6 +2560,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                 }
                 workspaceMgr.setHelperWorkspacePointers(helperWorkspaces);
 
+                IOutputLayer outputLayer = null;
                 if (current.isOutputVertex()) {
                     //Two reasons for a vertex to be an output vertex:
                     //(a) it's an output layer (i.e., instanceof IOutputLayer), or
@@ -2570,10 +2572,11 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                         currentLayer = ((FrozenLayerWithBackprop) currentLayer).getInsideLayer();
                     }
                     if (currentLayer instanceof IOutputLayer) {
-                        IOutputLayer outputLayer = (IOutputLayer) currentLayer;
+                        outputLayer = (IOutputLayer) currentLayer;
 
                         INDArray currLabels = labels[thisOutputNumber];
                         outputLayer.setLabels(currLabels);
+                        outputLayer.setLossScale(lossScale);
                     } else {
                         if ((externalEpsilons == null || externalEpsilons.length == 0)
                                 && labels[thisOutputNumber] != null) {
@@ -2583,7 +2586,14 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                                     + "(but isn't an IOutputLayer). Only IOutputLayer layers can be fit via backprop with"
                                     + " a labels array. ");
                         }
-                        current.setEpsilon(externalEpsilons[thisOutputNumber]);
+                        INDArray externalEpsilon = externalEpsilons[thisOutputNumber];
+                        if (externalEpsilon != null && lossScale != 1.0) {
+                            //Loss scaling: external errors are scaled in the same way as the loss function gradient
+                            try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                                externalEpsilon = externalEpsilon.mul(lossScale);
+                            }
+                        }
+                        current.setEpsilon(externalEpsilon);
                         setVertexEpsilon[topologicalOrder[i]] = true;
                     }
                 }
@@ -2613,6 +2623,10 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
                     pair = current.doBackward(truncatedBPTT, workspaceMgr);
                     epsilons = pair.getSecond();
 
+                    if (outputLayer != null) {
+                        outputLayer.setLossScale(1.0);
+                    }
+
                     //Validate workspace location for the activation gradients:
                     //validateArrayWorkspaces(LayerWorkspaceMgr mgr, INDArray array, ArrayType arrayType, String vertexName, boolean isInputVertex, String op){
                     for (INDArray epsilon : epsilons) {
@@ -2708,6 +2722,7 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
             if (updaterState != null) {
                 cg.getUpdater().setStateViewArray(updaterState.dup());
             }
+            cg.getUpdater().setLossScaleState(u);
         }
         cg.trainingListeners = this.trainingListeners;
         for (int i = 0; i < topologicalOrder.length; i++) {
@@ -2810,6 +2825,26 @@ public class ComputationGraph implements Serializable, Model, NeuralNetwork {
         return trainingListeners;
     }
 
+    /**
+     * Get the current loss scale, if loss scaling is enabled (see
+     * {@link NeuralNetConfiguration.Builder#lossScaling(LossScaling)}): the gradient of the loss function (or the
+     * external errors) is multiplied by this before backprop, and the updater unscales the gradients before applying
+     * them.
+     *
+     * @return Current loss scale, or 1.0 if loss scaling is not used
+     */
+    protected double getCurrentLossScale() {
+        if (defaultConfiguration.getLossScaling() == null) {
+            return 1.0;
+        }
+        ComputationGraphUpdater u;
+        try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            //Updater state may be initialized here: must not be placed in a workspace
+            u = getUpdater(true);
+        }
+        return u.getLossScale();
+    }
+
     /**
      * Get the ComputationGraphUpdater for the network. Creates one on demand, if required
      */
@@ -0,0 +1,310 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.graph.util;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
+import org.deeplearning4j.nn.conf.graph.GraphVertex;
+import org.deeplearning4j.nn.conf.graph.LayerVertex;
+import org.deeplearning4j.nn.conf.graph.ScaleVertex;
+import org.deeplearning4j.nn.conf.graph.ShiftVertex;
+import org.deeplearning4j.nn.conf.layers.ActivationLayer;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.BatchNormalization;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.DropoutLayer;
+import org.deeplearning4j.nn.graph.ComputationGraph;
+import org.deeplearning4j.nn.params.BatchNormalizationParamInitializer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import java.util.*;
+
+/**
+ * InferenceOptimizer: creates an inference-only version of a {@link ComputationGraph}, with the following
+ * optimizations applied:<br>
+ * - Removal of vertices that are no-ops at inference time: {@link DropoutLayer}, {@link ActivationLayer} with the
+ * identity activation function, {@link ScaleVertex} with scale 1.0 and {@link ShiftVertex} with shift 0.0.
+ * Dropout is also removed from all other layers.<br>
+ * - Folding of {@link BatchNormalization} layers into the weights and biases of the preceding {@link ConvolutionLayer}
+ * or {@link DenseLayer}, using the global mean/variance statistics<br>
+ * - Fusion of {@link ActivationLayer} vertices into the preceding {@link ConvolutionLayer} or {@link DenseLayer}<br>
+ * <br>
+ * A folding/fusion is only applied when the preceding layer has the identity activation function, is not a network
+ * output and its output is not used by any other vertex. Vertices that are network outputs are never removed, hence
+ * the names and number of network outputs are unchanged.<br>
+ * Note that the returned network should be used for inference only: folding the batch normalization statistics into
+ * the weights changes the behaviour of the network in training mode.<br>
+ * The original network is not modified.
+ */
+@Slf4j
+public class InferenceOptimizer {
+
+    private InferenceOptimizer() {}
+
+    /**
+     * Create an optimized, inference-only copy of the provided network
+     *
+     * @param graph Network to optimize
+     * @return Optimized network
+     */
+    public static ComputationGraph optimize(@NonNull ComputationGraph graph) {
+        ComputationGraphConfiguration conf = graph.getConfiguration().clone();
+
+        //Copy of the parameters, by layer name - these are modified when folding batch norm layers
+        Map<String, Map<String, INDArray>> params = new HashMap<>();
+        for (Layer l : graph.getLayers()) {
+            Map<String, INDArray> m = new LinkedHashMap<>();
+            for (Map.Entry<String, INDArray> e : l.paramTable().entrySet()) {
+                m.put(e.getKey(), e.getValue().dup());
+            }
+            params.put(l.conf().getLayer().getLayerName(), m);
+        }
+
+        for (GraphVertex gv : conf.getVertices().values()) {
+            if (gv instanceof LayerVertex) {
+                ((LayerVertex) gv).getLayerConf().getLayer().setIDropout(null);
+            }
+        }
+
+        int removed = 0;
+        int folded = 0;
+        int fused = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (String name : new ArrayList<>(conf.getVertices().keySet())) {
+                if (!conf.getVertices().containsKey(name)) {
+                    continue;
+                }
+                if (isRemovableIdentity(conf, name)) {
+                    removeVertex(conf, name);
+                    params.remove(name);
+                    removed++;
+                    changed = true;
+                } else if (canFoldInto(conf, name, BatchNormalization.class)) {
+                    foldBatchNorm(conf, name, params);
+                    folded++;
+                    changed = true;
+                } else if (canFoldInto(conf, name, ActivationLayer.class)) {
+                    String target = conf.getVertexInputs().get(name).get(0);
+                    ActivationLayer a = (ActivationLayer) ((LayerVertex) conf.getVertices().get(name)).getLayerConf().getLayer();
+                    ((BaseLayer) getLayer(conf, target)).setActivationFn(a.getActivationFn());
+                    removeVertex(conf, name);
+                    fused++;
+                    changed = true;
+                }
+            }
+        }
+        log.info("Optimized network for inference: removed {} vertices, folded {} batch normalization layers, fused {} "
+                        + "activation layers", removed, folded, fused);
+
+        //Cached topological order is no longer valid
+        conf.setTopologicalOrder(null);
+        conf.setTopologicalOrderStr(null);
+
+        ComputationGraph out = new ComputationGraph(conf);
+        out.init();
+        for (Layer l : out.getLayers()) {
+            Map<String, INDArray> p = params.get(l.conf().getLayer().getLayerName());
+            for (Map.Entry<String, INDArray> e : l.paramTable().entrySet()) {
+                e.getValue().assign(p.get(e.getKey()));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Create an optimized, inference-only copy of the provided network, and verify that the outputs of the optimized
+     * network match the outputs of the original network for the provided inputs
+     *
+     * @param graph              Network to optimize
+     * @param tolerance          Maximum absolute difference between the outputs of the original and optimized networks
+     * @param verificationInputs Inputs to use for verification
+     * @return Optimized network
+     * @throws IllegalStateException If the outputs of the optimized network don't match the original network
+     */
+    public static ComputationGraph optimize(@NonNull ComputationGraph graph, double tolerance,
+                                            @NonNull INDArray... verificationInputs) {
+        ComputationGraph out = optimize(graph);
+        double maxDiff = maxAbsoluteDifference(graph, out, verificationInputs);
+        if (maxDiff > tolerance) {
+            throw new IllegalStateException("Optimized network outputs do not match original network outputs: maximum " +
+                            "absolute difference " + maxDiff + " exceeds tolerance " + tolerance);
+        }
+        return out;
+    }
+
+    /**
+     * Calculate the maximum absolute difference between the outputs (inference mode) of two networks, over all outputs
+     *
+     * @param original  First network
+     * @param optimized Second network
+     * @param inputs    Network inputs
+     * @return Maximum absolute difference
+     */
+    public static double maxAbsoluteDifference(@NonNull ComputationGraph original, @NonNull ComputationGraph optimized,
+                                               @NonNull INDArray... inputs) {
+        INDArray[] exp = original.output(false, inputs);
+        INDArray[] act = optimized.output(false, inputs);
+        if (exp.length != act.length) {
+            throw new IllegalStateException("Number of outputs differs: " + exp.length + " vs. " + act.length);
+        }
+        double maxDiff = 0.0;
+        for (int i = 0; i < exp.length; i++) {
+            if (!Arrays.equals(exp[i].shape(), act[i].shape())) {
+                throw new IllegalStateException("Shape of output " + i + " differs: " + Arrays.toString(exp[i].shape())
+                                + " vs. " + Arrays.toString(act[i].shape()));
+            }
+            maxDiff = Math.max(maxDiff, exp[i].sub(act[i]).amaxNumber().doubleValue());
+        }
+        return maxDiff;
+    }
+
+    private static org.deeplearning4j.nn.conf.layers.Layer getLayer(ComputationGraphConfiguration conf, String name) {
+        GraphVertex gv = conf.getVertices().get(name);
+        return (gv instanceof LayerVertex ? ((LayerVertex) gv).getLayerConf().getLayer() : null);
+    }
+
+    private static List<String> getConsumers(ComputationGraphConfiguration conf, String name) {
+        List<String> out = new ArrayList<>();
+        for (Map.Entry<String, List<String>> e : conf.getVertexInputs().entrySet()) {
+            for (String s : e.getValue()) {
+                if (name.equals(s)) {
+                    out.add(e.getKey());
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * A vertex can be removed if it is not a network output, has exactly one input, and has no input preprocessor
+     */
+    private static boolean isRemovable(ComputationGraphConfiguration conf, String name) {
+        GraphVertex gv = conf.getVertices().get(name);
+        List<String> inputs = conf.getVertexInputs().get(name);
+        return gv != null && !conf.getNetworkOutputs().contains(name) && inputs != null && inputs.size() == 1
+                        && !(gv instanceof LayerVertex && ((LayerVertex) gv).getPreProcessor() != null);
+    }
+
+    private static boolean isRemovableIdentity(ComputationGraphConfiguration conf, String name) {
+        if (!isRemovable(conf, name)) {
+            return false;
+        }
+        GraphVertex gv = conf.getVertices().get(name);
+        if (gv instanceof ScaleVertex) {
+            return ((ScaleVertex) gv).getScaleFactor() == 1.0;
+        } else if (gv instanceof ShiftVertex) {
+            return ((ShiftVertex) gv).getShiftFactor() == 0.0;
+        }
+        org.deeplearning4j.nn.conf.layers.Layer l = getLayer(conf, name);
+        return l instanceof DropoutLayer
+                        || (l instanceof ActivationLayer && ((ActivationLayer) l).getActivationFn() instanceof ActivationIdentity);
+    }
+
+    /**
+     * Can the specified vertex (of the specified layer type) be folded into the preceding layer? True if the preceding
+     * layer is a convolution or dense layer, with identity activation function, and this vertex is the only consumer
+     * of its output
+     */
+    private static boolean canFoldInto(ComputationGraphConfiguration conf, String name,
+                                       Class<? extends org.deeplearning4j.nn.conf.layers.Layer> layerClass) {
+        org.deeplearning4j.nn.conf.layers.Layer l = getLayer(conf, name);
+        if (l == null || l.getClass() != layerClass || !isRemovable(conf, name)) {
+            return false;
+        }
+        String inputName = conf.getVertexInputs().get(name).get(0);
+        org.deeplearning4j.nn.conf.layers.Layer input = getLayer(conf, inputName);
+        if (input == null || (input.getClass() != ConvolutionLayer.class && input.getClass() != DenseLayer.class)) {
+            return false;
+        }
+        return ((BaseLayer) input).getActivationFn() instanceof ActivationIdentity
+                        && !conf.getNetworkOutputs().contains(inputName)
+                        && getConsumers(conf, inputName).equals(Collections.singletonList(name));
+    }
+
+    private static void foldBatchNorm(ComputationGraphConfiguration conf, String name,
+                                      Map<String, Map<String, INDArray>> params) {
+        String targetName = conf.getVertexInputs().get(name).get(0);
+        BatchNormalization bn = (BatchNormalization) getLayer(conf, name);
+        org.deeplearning4j.nn.conf.layers.Layer target = getLayer(conf, targetName);
+        Map<String, INDArray> bnParams = params.get(name);
+        Map<String, INDArray> targetParams = params.get(targetName);
+
+        INDArray mean = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_MEAN);
+        INDArray var = bnParams.get(BatchNormalizationParamInitializer.GLOBAL_VAR);
+        INDArray gamma;
+        INDArray beta;
+        if (bn.isLockGammaBeta()) {
+            gamma = Nd4j.valueArrayOf(mean.shape(), bn.getGamma());
+            beta = Nd4j.valueArrayOf(mean.shape(), bn.getBeta());
+        } else {
+            gamma = bnParams.get(BatchNormalizationParamInitializer.GAMMA);
+            beta = bnParams.get(BatchNormalizationParamInitializer.BETA);
+        }
+
+        //out = gamma * (W*x + b - mean) / sqrt(var + eps) + beta = (scale .* W) * x + (b - mean) .* scale + beta
+        INDArray scale = gamma.div(Transforms.sqrt(var.add(bn.getEps()), false));
+
+        INDArray w = targetParams.get(DefaultParamInitializer.WEIGHT_KEY).dup('c');
+        INDArray b = targetParams.get(DefaultParamInitializer.BIAS_KEY);
+        if (target instanceof ConvolutionLayer) {
+            //Weights: [outDepth, inDepth, kH, kW]
+            long[] wShape = w.shape();
+            w = w.reshape('c', wShape[0], w.length() / wShape[0]).muliColumnVector(scale.reshape(wShape[0], 1))
+                            .reshape('c', wShape);
+            ((ConvolutionLayer) target).setHasBias(true);
+        } else {
+            //Weights: [nIn, nOut]
+            w.muliRowVector(scale);
+            ((DenseLayer) target).setHasBias(true);
+        }
+        if (b == null) {
+            b = Nd4j.zeros(mean.shape());
+        }
+        b = b.sub(mean).muli(scale).addi(beta);
+
+        targetParams.put(DefaultParamInitializer.WEIGHT_KEY, w);
+        targetParams.put(DefaultParamInitializer.BIAS_KEY, b);
+        params.remove(name);
+        removeVertex(conf, name);
+    }
+
+    /**
+     * Remove the specified vertex (which must have exactly 1 input), connecting its consumers to its input instead
+     */
+    private static void removeVertex(ComputationGraphConfiguration conf, String name) {
+        String input = conf.getVertexInputs().get(name).get(0);
+        for (List<String> inputs : conf.getVertexInputs().values()) {
+            for (int i = 0; i < inputs.size(); i++) {
+                if (name.equals(inputs.get(i))) {
+                    inputs.set(i, input);
+                }
+            }
+        }
+        conf.getVertices().remove(name);
+        conf.getVertexInputs().remove(name);
+    }
+}
@@ -62,6 +62,8 @@ public abstract class BaseOutputLayer<LayerConfT extends org.deeplearning4j.nn.c
     protected INDArray inputMaskArray;
     protected MaskState inputMaskArrayState;
 
+    protected double lossScale = 1.0;
+
     public BaseOutputLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -180,6 +182,9 @@ public abstract class BaseOutputLayer<LayerConfT extends org.deeplearning4j.nn.c
         INDArray labels2d = getLabels2d(workspaceMgr, ArrayType.BP_WORKING_MEM);
         //INDArray delta = lossFunction.computeGradient(labels2d, preOut, layerConf().getActivationFunction(), maskArray);
         INDArray delta = lossFunction.computeGradient(labels2d, preOut, layerConf().getActivationFn(), maskArray);
+        if (lossScale != 1.0) {
+            delta.muli(lossScale);
+        }
 
         Gradient gradient = new DefaultGradient();
 
@@ -350,6 +355,11 @@ public abstract class BaseOutputLayer<LayerConfT extends org.deeplearning4j.nn.c
         this.labels = labels;
     }
 
+    @Override
+    public void setLossScale(double lossScale) {
+        this.lossScale = lossScale;
+    }
+
     protected INDArray preOutput2d(boolean training, LayerWorkspaceMgr workspaceMgr) {
         return preOutput(training, workspaceMgr);
     }
@@ -51,6 +51,8 @@ public class LossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.LossL
     //current input and label matrices
     protected INDArray labels;
 
+    protected double lossScale = 1.0;
+
     private transient Solver solver;
 
     private double fullNetworkL1;
@@ -147,6 +149,9 @@ public class LossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.LossL
         // delta calculation
         ILossFunction lossFunction = layerConf().getLossFn();
         INDArray delta = lossFunction.computeGradient(getLabels2d(), preOut, layerConf().getActivationFn(), maskArray);
+        if (lossScale != 1.0) {
+            delta.muli(lossScale);
+        }
 
         // grab the empty gradient
         Gradient gradient = new DefaultGradient();
@@ -359,6 +364,11 @@ public class LossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.LossL
         this.labels = labels;
     }
 
+    @Override
+    public void setLossScale(double lossScale) {
+        this.lossScale = lossScale;
+    }
+
     protected INDArray getLabels2d() {
         if (labels.rank() > 2) {
             return labels.reshape(labels.size(2), labels.size(1));
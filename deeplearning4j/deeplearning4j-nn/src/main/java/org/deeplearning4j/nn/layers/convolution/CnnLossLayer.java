@@ -60,6 +60,8 @@ public class CnnLossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Cn
     @Setter
     @Getter
     protected INDArray labels;
+    @Setter
+    protected double lossScale = 1.0;
 
     public CnnLossLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -82,6 +84,9 @@ public class CnnLossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Cn
         // delta calculation
         ILossFunction lossFunction = layerConf().getLossFn();
         INDArray delta2d = lossFunction.computeGradient(labels2d, input2d.dup(input2d.ordering()), layerConf().getActivationFn(), maskReshaped);
+        if (lossScale != 1.0) {
+            delta2d.muli(lossScale);
+        }
         delta2d = workspaceMgr.leverageTo(ArrayType.ACTIVATION_GRAD, delta2d);
 
         // FIXME: int cast
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.nn.layers.feedforward.embedding;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.custom.ScatterUpdate;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+
+/**
+ * Utilities for row-sparse weight gradients in embedding layers
+ */
+class SparseRowUtils {
+
+    private SparseRowUtils() {
+    }
+
+    /**
+     * @return The unique values of the specified indices, in ascending order
+     */
+    static int[] uniqueSorted(int[] indexes) {
+        int[] sorted = Arrays.copyOf(indexes, indexes.length);
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Zero the specified rows of the weight gradients. If rows is null (no previous sparse gradient), all rows are zeroed
+     */
+    static void zeroRows(INDArray weightGradients, int[] rows) {
+        if (rows == null) {
+            weightGradients.assign(0);
+        } else if (rows.length > 0) {
+            INDArray zeros = Nd4j.zeros(rows.length, weightGradients.size(1));
+            Nd4j.getExecutioner().exec(new ScatterUpdate(weightGradients, zeros, rows, new int[] {1},
+                            ScatterUpdate.UpdateOp.ASSIGN));
+        }
+    }
+}
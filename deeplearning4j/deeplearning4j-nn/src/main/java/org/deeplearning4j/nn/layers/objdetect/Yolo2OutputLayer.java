@@ -87,6 +87,8 @@ public class Yolo2OutputLayer extends AbstractLayer<org.deeplearning4j.nn.conf.l
     //current input and label matrices
     @Setter @Getter
     protected INDArray labels;
+    @Setter
+    protected double lossScale = 1.0;
 
     private double fullNetworkL1;
     private double fullNetworkL2;
@@ -99,6 +101,10 @@ public class Yolo2OutputLayer extends AbstractLayer<org.deeplearning4j.nn.conf.l
     @Override
     public Pair<Gradient, INDArray> backpropGradient(INDArray epsilon, LayerWorkspaceMgr workspaceMgr) {
         INDArray epsOut = computeBackpropGradientAndScore(workspaceMgr, false, false);
+        if (lossScale != 1.0) {
+            //Loss scaling: the gradient is assembled from several loss terms, all of which are scaled here
+            epsOut.muli(lossScale);
+        }
 
         return new Pair<>(EMPTY_GRADIENT, epsOut);
     }
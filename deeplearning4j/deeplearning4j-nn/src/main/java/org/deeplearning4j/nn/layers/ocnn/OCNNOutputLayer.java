@@ -125,6 +125,14 @@ public class OCNNOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn.conf.
         INDArray epsilonNext = workspaceMgr.createUninitialized(ArrayType.ACTIVATION_GRAD, new long[]{inputShape, delta.length()}, 'f');
         epsilonNext = epsilonNext.assign(delta.broadcast(epsilonNext.shape())).transpose();
 
+        //Loss scaling: the gradients include terms that don't depend on delta, so all of them are scaled here
+        if (lossScale != 1.0) {
+            for (INDArray g : pair.getFirst().gradientForVariable().values()) {
+                g.muli(lossScale);
+            }
+            epsilonNext.muli(lossScale);
+        }
+
         //Normally we would clear weightNoiseParams here - but we want to reuse them for forward + backward + score
         // So this is instead done in MultiLayerNetwork/CompGraph backprop methods
 
@@ -49,6 +49,7 @@ import java.util.List;
  */
 public class RnnLossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.RnnLossLayer> implements IOutputLayer {
     @Setter @Getter protected INDArray labels;
+    @Setter protected double lossScale = 1.0;
 
     public RnnLossLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -79,6 +80,9 @@ public class RnnLossLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Rn
         // delta calculation
         ILossFunction lossFunction = layerConf().getLossFn();
         INDArray delta2d = lossFunction.computeGradient(labels2d, input2d.dup(input2d.ordering()), layerConf().getActivationFn(), maskReshaped);
+        if (lossScale != 1.0) {
+            delta2d.muli(lossScale);
+        }
 
         // FIXME: int cast
         INDArray delta3d = TimeSeriesUtils.reshape2dTo3d(delta2d, (int) input.size(0), workspaceMgr, ArrayType.ACTIVATION_GRAD);
@@ -52,6 +52,8 @@ public class SameDiffOutputLayer extends AbstractLayer<org.deeplearning4j.nn.con
 
     @Getter @Setter
     protected INDArray labels;
+    @Setter
+    protected double lossScale = 1.0;
 
     protected INDArray params;
     protected INDArray gradients;
@@ -150,13 +152,21 @@ public class SameDiffOutputLayer extends AbstractLayer<org.deeplearning4j.nn.con
                 INDArray sdGrad = sameDiff.grad(s).getArr();
                 INDArray dl4jGrad = gradTable.get(s);
                 dl4jGrad.assign(sdGrad);                                            //TODO OPTIMIZE THIS
+                if (lossScale != 1.0) {
+                    //Loss scaling: the loss gradient is computed within SameDiff, so the results are scaled instead
+                    dl4jGrad.muli(lossScale);
+                }
                 g.gradientForVariable().put(s, dl4jGrad);
             }
 
             dLdIn = sameDiff.grad(INPUT_KEY).getArr();
         }
 
-        return new Pair<>(g, workspaceMgr.dup(ArrayType.ACTIVATION_GRAD, dLdIn));   //TODO OPTIMIZE THIS
+        INDArray epsOut = workspaceMgr.dup(ArrayType.ACTIVATION_GRAD, dLdIn);   //TODO OPTIMIZE THIS
+        if (lossScale != 1.0) {
+            epsOut.muli(lossScale);
+        }
+        return new Pair<>(g, epsOut);
     }
 
     /**Returns the parameters of the neural network as a flattened row vector
@@ -170,7 +170,7 @@ public class CenterLossOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn
         INDArray epsilonNext = workspaceMgr.createUninitialized(ArrayType.ACTIVATION_GRAD, new long[]{w.size(0), delta.size(0)}, 'f');
         epsilonNext = w.mmuli(delta.transpose(), epsilonNext).transpose();
         double lambda = layerConf().getLambda();
-        epsilonNext.addi(dLcdai.muli(lambda)); // add center loss here
+        epsilonNext.addi(dLcdai.muli(lambda * lossScale)); // add center loss here
 
         weightNoiseParams.clear();
 
@@ -197,6 +197,9 @@ public class CenterLossOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn
         }
 
         INDArray delta = lossFunction.computeGradient(labels2d, preOut, layerConf().getActivationFn(), maskArray);
+        if (lossScale != 1.0) {
+            delta.muli(lossScale);
+        }
 
         Gradient gradient = new DefaultGradient();
 
@@ -221,6 +224,9 @@ public class CenterLossOutputLayer extends BaseOutputLayer<org.deeplearning4j.nn
         } else {
             deltaC = numerator.diviColumnVector(denominator);
         }
+        if (lossScale != 1.0) {
+            deltaC.muli(lossScale);
+        }
         centersGradView.assign(deltaC);
 
 
@@ -45,6 +45,7 @@ import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.deeplearning4j.nn.layers.FrozenLayerWithBackprop;
 import org.deeplearning4j.nn.layers.recurrent.BidirectionalLayer;
 import org.deeplearning4j.nn.layers.LayerHelper;
+import org.deeplearning4j.nn.updater.BaseMultiLayerUpdater;
 import org.deeplearning4j.nn.updater.MultiLayerUpdater;
 import org.deeplearning4j.nn.updater.UpdaterCreator;
 import org.deeplearning4j.nn.workspace.ArrayType;
@@ -1321,6 +1322,9 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
             if (updaterState != null) {
                 ret.getUpdater().setStateViewArray(ret, updaterState.dup(), false);
             }
+            if (u instanceof BaseMultiLayerUpdater && ret.getUpdater() instanceof BaseMultiLayerUpdater) {
+                ((BaseMultiLayerUpdater) ret.getUpdater()).setLossScaleState((BaseMultiLayerUpdater) u);
+            }
         }
 
         if (hasAFrozenLayer()) {
@@ -1682,6 +1686,26 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         }
     }
 
+    /**
+     * Get the current loss scale, if loss scaling is enabled (see
+     * {@link NeuralNetConfiguration.Builder#lossScaling(LossScaling)}): the gradient of the loss function (or the
+     * external errors) is multiplied by this before backprop, and the updater unscales the gradients before applying
+     * them.
+     *
+     * @return Current loss scale, or 1.0 if loss scaling is not used
+     */
+    protected double getCurrentLossScale() {
+        if (layerWiseConfigurations.getConf(0).getLossScaling() == null) {
+            return 1.0;
+        }
+        Updater u;
+        try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+            //Updater state may be initialized here: must not be placed in a workspace
+            u = getUpdater(true);
+        }
+        return u instanceof BaseMultiLayerUpdater ? ((BaseMultiLayerUpdater) u).getLossScale() : 1.0;
+    }
+
     /** Calculate gradients and errors. Used in two places:
      * (a) backprop (for standard multi layer network learning)
      * (b) backpropGradient (layer method, for when MultiLayerNetwork is used as a layer)
@@ -1770,6 +1794,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
         LinkedList<Triple<String, INDArray, Character>> gradientList = new LinkedList<>();
 
 
+        double lossScale = getCurrentLossScale();
         Pair<Gradient, INDArray> currPair = null;
         MemoryWorkspace wsActGradCloseNext = null;
         MemoryWorkspace wsActGradTemp = null;
@@ -1792,6 +1817,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                     if (labels == null && outputLayer.needsLabels())
                         throw new IllegalStateException("No labels found");
                     outputLayer.setLabels(labels);
+                    outputLayer.setLossScale(lossScale);
                 }
 
                 //Open activation gradients WS *then* BP working memory, so BP working memory is opened last for use in layers
@@ -1805,6 +1831,12 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                     wsBPWorking.setPreviousWorkspace(initialWorkspace);
 
                     INDArray eps = (i == layers.length - 1 ? epsilon : currPair.getRight());  //eps is null for OutputLayer
+                    if (i == layers.length - 1 && eps != null && lossScale != 1.0) {
+                        //Loss scaling: external errors are scaled in the same way as the loss function gradient
+                        try (MemoryWorkspace wsO = Nd4j.getMemoryManager().scopeOutOfWorkspaces()) {
+                            eps = eps.mul(lossScale);
+                        }
+                    }
 
                     if(!tbptt){
                         //Standard case
@@ -1819,6 +1851,10 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer, Neura
                         }
                     }
 
+                    if (withOutputLayer && i == layers.length - 1) {
+                        ((IOutputLayer) layers[i]).setLossScale(1.0);
+                    }
+
                     if(currPair.getSecond() != null) {
                         //Edge case: may be null for Embedding layer, for example
                         validateArrayWorkspaces(workspaceMgr, currPair.getSecond(), ArrayType.ACTIVATION_GRAD, numLayers - 1,
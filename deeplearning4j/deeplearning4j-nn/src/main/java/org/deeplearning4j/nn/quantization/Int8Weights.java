@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.quantization;
+
+import lombok.Getter;
+import lombok.NonNull;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Arrays;
+
+/**
+ * Symmetric, per-channel INT8 quantized weights.<br>
+ * For each output channel c, the weights are stored as {@code round(w / scale[c])} clipped to [-127, 127], with
+ * {@code scale[c] = max(abs(w_c)) / 127}. The values are stored channel-major: i.e., the K = length / nChannels
+ * values for channel c are stored contiguously at {@code values[c*K ... (c+1)*K-1]}, in the (c order) order of the
+ * remaining dimensions.
+ */
+@Getter
+public class Int8Weights {
+
+    public static final int MAX_VALUE = 127;
+
+    private final byte[] values;
+    private final float[] scales;
+    private final long[] shape;
+    private final int channelDimension;
+
+    public Int8Weights(@NonNull byte[] values, @NonNull float[] scales, @NonNull long[] shape, int channelDimension) {
+        Preconditions.checkArgument(channelDimension >= 0 && channelDimension < shape.length,
+                        "Invalid channel dimension %s for shape %s", channelDimension, shape);
+        Preconditions.checkArgument(scales.length == shape[channelDimension], "Number of scales (%s) does not match"
+                        + " size of channel dimension %s for shape %s", scales.length, channelDimension, shape);
+        Preconditions.checkArgument(values.length == length(shape), "Number of values (%s) does not match shape %s",
+                        values.length, shape);
+        this.values = values;
+        this.scales = scales;
+        this.shape = shape;
+        this.channelDimension = channelDimension;
+    }
+
+    /**
+     * Quantize the specified weights, using one scale per index along the specified dimension
+     *
+     * @param weights          Weights to quantize
+     * @param channelDimension Channel (output) dimension of the weights: for example 1 for dense layer weights with shape
+     *                         [nIn, nOut], or 0 for convolution weights with shape [outDepth, inDepth, kH, kW]
+     */
+    public static Int8Weights quantize(@NonNull INDArray weights, int channelDimension) {
+        INDArray channelFirst = permuteChannelFirst(weights, channelDimension).dup('c');
+        int nChannels = (int) weights.size(channelDimension);
+        int k = (int) (weights.length() / nChannels);
+        double[] w = channelFirst.data().asDouble();
+
+        byte[] values = new byte[w.length];
+        float[] scales = new float[nChannels];
+        for (int c = 0; c < nChannels; c++) {
+            int offset = c * k;
+            double absMax = 0.0;
+            for (int i = 0; i < k; i++) {
+                absMax = Math.max(absMax, Math.abs(w[offset + i]));
+            }
+            float scale = (absMax == 0.0 ? 1.0f : (float) (absMax / MAX_VALUE));
+            scales[c] = scale;
+            for (int i = 0; i < k; i++) {
+                values[offset + i] = quantize(w[offset + i], scale);
+            }
+        }
+        return new Int8Weights(values, scales, weights.shape(), channelDimension);
+    }
+
+    /**
+     * Quantize a single value to the range [-127, 127] using the specified scale
+     */
+    public static byte quantize(double value, float scale) {
+        long q = Math.round(value / scale);
+        if (q > MAX_VALUE) {
+            q = MAX_VALUE;
+        } else if (q < -MAX_VALUE) {
+            q = -MAX_VALUE;
+        }
+        return (byte) q;
+    }
+
+    /**
+     * @return Number of channels - i.e., size of the channel dimension
+     */
+    public int numChannels() {
+        return scales.length;
+    }
+
+    /**
+     * @return Number of values per channel
+     */
+    public int channelLength() {
+        return values.length / scales.length;
+    }
+
+    /**
+     * Convert the quantized weights back to floating point, in the original shape
+     */
+    public INDArray dequantize() {
+        int k = channelLength();
+        double[] out = new double[values.length];
+        for (int c = 0; c < scales.length; c++) {
+            int offset = c * k;
+            for (int i = 0; i < k; i++) {
+                out[offset + i] = values[offset + i] * (double) scales[c];
+            }
+        }
+
+        long[] permutedShape = new long[shape.length];
+        permutedShape[0] = shape[channelDimension];
+        for (int i = 0, j = 1; i < shape.length; i++) {
+            if (i != channelDimension) {
+                permutedShape[j++] = shape[i];
+            }
+        }
+        INDArray channelFirst = Nd4j.create(out, permutedShape, 'c');
+        return channelFirst.permute(inversePermutation(channelDimension, shape.length)).dup('c');
+    }
+
+    private static INDArray permuteChannelFirst(INDArray in, int channelDimension) {
+        if (channelDimension == 0) {
+            return in;
+        }
+        int[] perm = new int[in.rank()];
+        perm[0] = channelDimension;
+        for (int i = 0, j = 1; i < perm.length; i++) {
+            if (i != channelDimension) {
+                perm[j++] = i;
+            }
+        }
+        return in.permute(perm);
+    }
+
+    private static int[] inversePermutation(int channelDimension, int rank) {
+        //Channel-first dimension d came from original dimension: 0 -> channelDimension, others in order
+        int[] inverse = new int[rank];
+        for (int orig = 0; orig < rank; orig++) {
+            if (orig == channelDimension) {
+                inverse[orig] = 0;
+            } else {
+                inverse[orig] = (orig < channelDimension ? orig + 1 : orig);
+            }
+        }
+        return inverse;
+    }
+
+    private static long length(long[] shape) {
+        long l = 1;
+        for (long s : shape) {
+            l *= s;
+        }
+        return l;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Int8Weights)) {
+            return false;
+        }
+        Int8Weights w = (Int8Weights) o;
+        return channelDimension == w.channelDimension && Arrays.equals(shape, w.shape)
+                        && Arrays.equals(scales, w.scales) && Arrays.equals(values, w.values);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(values);
+        result = 31 * result + Arrays.hashCode(scales);
+        result = 31 * result + Arrays.hashCode(shape);
+        return 31 * result + channelDimension;
+    }
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.quantization;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.List;
+
+/**
+ * Post-training INT8 quantization of a trained {@link MultiLayerNetwork}.<br>
+ * The weights of supported layers (see {@link QuantizedMultiLayerNetwork#isQuantizable(Layer)}) are quantized
+ * symmetrically with one scale per output channel. The input (activation) scale for each layer is calibrated by
+ * running the provided calibration data through the network, and recording the maximum absolute value of the
+ * inputs to each layer.<br>
+ * The original network is not modified.
+ */
+@Slf4j
+public class PostTrainingQuantization {
+
+    private PostTrainingQuantization() {}
+
+    /**
+     * Quantize the network, using all of the examples in the provided iterator for calibration
+     *
+     * @param network     Trained network to quantize
+     * @param calibration Calibration data. Should be representative of the data used for inference
+     * @return Quantized network
+     */
+    public static QuantizedMultiLayerNetwork quantize(@NonNull MultiLayerNetwork network,
+                                                      @NonNull DataSetIterator calibration) {
+        return quantize(network, calibration, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Quantize the network
+     *
+     * @param network     Trained network to quantize
+     * @param calibration Calibration data. Should be representative of the data used for inference
+     * @param maxBatches  Maximum number of minibatches to use from the calibration iterator
+     * @return Quantized network
+     */
+    public static QuantizedMultiLayerNetwork quantize(@NonNull MultiLayerNetwork network,
+                                                      @NonNull DataSetIterator calibration, int maxBatches) {
+        float[] inputScales = calibrateInputScales(network, calibration, maxBatches);
+
+        //Only the INT8 weights and the biases are kept for the quantized layers; other layers keep all parameters
+        Layer[] layers = network.getLayers();
+        Int8Weights[] weights = new Int8Weights[layers.length];
+        INDArray[] layerParams = new INDArray[layers.length];
+        long offset = 0;
+        for (int i = 0; i < layers.length; i++) {
+            long nParams = layers[i].numParams();
+            if (QuantizedMultiLayerNetwork.isQuantizable(layers[i])) {
+                INDArray w = layers[i].getParam(DefaultParamInitializer.WEIGHT_KEY);
+                weights[i] = Int8Weights.quantize(w, QuantizedMultiLayerNetwork.weightChannelDimension(layers[i]));
+                INDArray b = layers[i].paramTable().get(DefaultParamInitializer.BIAS_KEY);
+                layerParams[i] = (b == null ? null : b.dup());
+            } else if (nParams > 0) {
+                layerParams[i] = network.params().get(NDArrayIndex.point(0),
+                                NDArrayIndex.interval(offset, offset + nParams)).dup();
+            }
+            offset += nParams;
+        }
+
+        return new QuantizedMultiLayerNetwork(network.getLayerWiseConfigurations().clone(), layerParams, weights,
+                        inputScales);
+    }
+
+    /**
+     * Calibrate the per-layer input scales: {@code scale = max(abs(input)) / 127} for the input of each layer
+     */
+    protected static float[] calibrateInputScales(MultiLayerNetwork network, DataSetIterator calibration,
+                                                  int maxBatches) {
+        int nLayers = network.getnLayers();
+        double[] absMax = new double[nLayers];
+        if (calibration.resetSupported()) {
+            calibration.reset();
+        }
+
+        int count = 0;
+        while (count < maxBatches && calibration.hasNext()) {
+            DataSet ds = calibration.next();
+            //Activations: index 0 is the network input, index i+1 is the output of layer i
+            List<INDArray> activations = network.feedForward(ds.getFeatures(), false);
+            for (int i = 0; i < nLayers; i++) {
+                INDArray layerInput = activations.get(i);
+                InputPreProcessor preProcessor = network.getLayerWiseConfigurations().getInputPreProcess(i);
+                if (preProcessor != null) {
+                    layerInput = preProcessor.preProcess(layerInput.dup(), (int) layerInput.size(0),
+                                    LayerWorkspaceMgr.noWorkspaces());
+                }
+                absMax[i] = Math.max(absMax[i], layerInput.amaxNumber().doubleValue());
+            }
+            count++;
+        }
+        if (count == 0) {
+            throw new IllegalStateException("Cannot calibrate quantization: no data in calibration iterator");
+        }
+        log.debug("Calibrated quantization input scales using {} minibatches", count);
+
+        float[] scales = new float[nLayers];
+        for (int i = 0; i < nLayers; i++) {
+            scales[i] = (absMax[i] == 0.0 ? 1.0f : (float) (absMax[i] / Int8Weights.MAX_VALUE));
+        }
+        return scales;
+    }
+}
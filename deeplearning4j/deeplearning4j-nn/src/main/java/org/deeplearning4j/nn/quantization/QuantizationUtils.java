@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.quantization;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.stream.IntStream;
+
+/**
+ * Utilities for INT8 quantized inference.<br>
+ * Note that ND4J has no INT8 GEMM or convolution kernels: the INT8 matrix multiplication here is implemented in Java
+ * (tiled, and parallelized over output tiles for large problems), and is much slower than the floating point BLAS GEMM.
+ * It is only used by {@link QuantizedMultiLayerNetwork} when {@link QuantizedMultiLayerNetwork#setInt8Gemm(boolean)}
+ * is enabled, to reproduce the numerics of INT8 inference.
+ */
+public class QuantizationUtils {
+
+    private static final int TILE_ROWS = 16;
+    private static final int TILE_COLS = 64;
+    //Minimum number of multiply-adds before the GEMM is split between threads
+    private static final long PARALLEL_THRESHOLD = 1 << 20;
+
+    private QuantizationUtils() {}
+
+    /**
+     * Quantize the values of the specified array to the range [-127, 127] using the specified scale. The values are
+     * returned in row major (c) order.
+     */
+    public static byte[] quantize(INDArray values, float scale) {
+        INDArray c = (values.isView() || values.ordering() != 'c' ? values.dup('c') : values);
+        float[] in = c.data().asFloat();
+        byte[] out = new byte[in.length];
+        for (int i = 0; i < in.length; i++) {
+            out[i] = Int8Weights.quantize(in[i], scale);
+        }
+        return out;
+    }
+
+    /**
+     * INT8 matrix multiplication with INT32 accumulation: {@code out = a * b^T}
+     *
+     * @param a Values for matrix a with shape [m, k], row major
+     * @param b Values for matrix b with shape [n, k], row major - i.e., the transpose of the right hand side matrix
+     * @return Values for the [m, n] result, row major
+     */
+    public static int[] int8Gemm(final byte[] a, final byte[] b, final int m, final int k, final int n) {
+        if (a.length != m * k || b.length != n * k) {
+            throw new IllegalArgumentException("Invalid array lengths: expected a.length == " + (m * k)
+                            + " and b.length == " + (n * k) + ", got " + a.length + " and " + b.length);
+        }
+        final int[] out = new int[m * n];
+        final int rowTiles = (m + TILE_ROWS - 1) / TILE_ROWS;
+        final int colTiles = (n + TILE_COLS - 1) / TILE_COLS;
+        if ((long) m * n * k < PARALLEL_THRESHOLD || rowTiles * colTiles == 1) {
+            gemmTile(a, b, out, 0, m, 0, n, k, n);
+        } else {
+            IntStream.range(0, rowTiles * colTiles).parallel().forEach(t -> {
+                int rowStart = (t / colTiles) * TILE_ROWS;
+                int colStart = (t % colTiles) * TILE_COLS;
+                gemmTile(a, b, out, rowStart, Math.min(m, rowStart + TILE_ROWS), colStart,
+                                Math.min(n, colStart + TILE_COLS), k, n);
+            });
+        }
+        return out;
+    }
+
+    private static void gemmTile(byte[] a, byte[] b, int[] out, int rowStart, int rowEnd, int colStart, int colEnd,
+                                 int k, int n) {
+        for (int i = rowStart; i < rowEnd; i++) {
+            int aOffset = i * k;
+            int outOffset = i * n;
+            int j = colStart;
+            //4 columns at a time: each value of a is loaded once for 4 multiply-adds
+            for (; j + 3 < colEnd; j += 4) {
+                int b0 = j * k, b1 = b0 + k, b2 = b1 + k, b3 = b2 + k;
+                int s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                for (int p = 0; p < k; p++) {
+                    int av = a[aOffset + p];
+                    s0 += av * b[b0 + p];
+                    s1 += av * b[b1 + p];
+                    s2 += av * b[b2 + p];
+                    s3 += av * b[b3 + p];
+                }
+                out[outOffset + j] = s0;
+                out[outOffset + j + 1] = s1;
+                out[outOffset + j + 2] = s2;
+                out[outOffset + j + 3] = s3;
+            }
+            for (; j < colEnd; j++) {
+                int bOffset = j * k;
+                int sum = 0;
+                for (int p = 0; p < k; p++) {
+                    sum += a[aOffset + p] * b[bOffset + p];
+                }
+                out[outOffset + j] = sum;
+            }
+        }
+    }
+}
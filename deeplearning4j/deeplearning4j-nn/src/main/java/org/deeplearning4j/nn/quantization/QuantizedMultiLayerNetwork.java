@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.deeplearning4j.nn.quantization;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.ConvolutionMode;
+import org.deeplearning4j.nn.conf.InputPreProcessor;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
+import org.deeplearning4j.optimize.api.TrainingListener;
+import org.deeplearning4j.util.ConvolutionUtils;
+import org.nd4j.base.Preconditions;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.convolution.Convolution;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Collections;
+
+/**
+ * An inference-only, INT8 quantized version of a {@link MultiLayerNetwork}, usually created via
+ * {@link PostTrainingQuantization}.<br>
+ * Only the INT8 weights (and the floating point biases) are kept for the quantized layers: there is no floating point
+ * copy of their weights. Quantized layers are handled as follows:<br>
+ * - {@link DenseLayer} and {@link OutputLayer}: the INT8 weights of the layer are dequantized into a floating point
+ * buffer that is reused for all quantized layers, and multiplied with the layer input using the ND4J (BLAS) GEMM.
+ * The bias and activation function are then applied as normal.<br>
+ * - {@link ConvolutionLayer}: the same, with the input patches extracted via im2col before the matrix
+ * multiplication.<br>
+ * All other layers are executed in floating point as normal.<br>
+ * With {@link #setInt8Gemm(boolean)}, the layer input is instead quantized to INT8 using the calibrated (per-tensor)
+ * input scale, and multiplied by the INT8 weights with INT32 accumulation (see
+ * {@link QuantizationUtils#int8Gemm(byte[], byte[], int, int, int)}). This reproduces the numerics of INT8 inference,
+ * but the INT8 matrix multiplication is implemented in Java and is much slower than the default.<br>
+ * Use {@link org.deeplearning4j.util.ModelSerializer#writeModel(QuantizedMultiLayerNetwork, java.io.File)} and
+ * {@link org.deeplearning4j.util.ModelSerializer#restoreQuantizedMultiLayerNetwork(java.io.File)} to save and load
+ * quantized networks.
+ */
+@Getter
+public class QuantizedMultiLayerNetwork {
+
+    private final MultiLayerConfiguration configuration;
+    private final Int8Weights[] weights;
+    private final float[] inputScales;
+    /**
+     * Floating point parameters for each layer: all parameters (in the same layout as {@link MultiLayerNetwork}) for
+     * layers that are not quantized, or the bias only for quantized layers. Null if the layer has no such parameters
+     */
+    private final INDArray[] layerParams;
+    //Layer instances for the layers that are executed in floating point; null for quantized layers
+    private final Layer[] layers;
+    /**
+     * If true: quantize the inputs of the quantized layers and use the (Java) INT8 matrix multiplication, instead of
+     * dequantizing the weights and using the floating point GEMM. Default: false
+     */
+    @Setter
+    private boolean int8Gemm;
+    //The weights of the quantized layer being executed are dequantized into this buffer, sized for the largest layer
+    @Getter(AccessLevel.NONE)
+    private INDArray weightBuffer;
+
+    /**
+     * @param configuration Configuration of the network
+     * @param layerParams   Floating point parameters for each layer: all parameters (as a row vector, in the same
+     *                      layout as {@link MultiLayerNetwork}) for the layers that are not quantized, and the bias only
+     *                      for the quantized layers. Null for layers without any such parameters
+     * @param weights       Quantized weights for each layer. Null entries for layers that are not quantized
+     * @param inputScales   Input (activation) scale for each layer. Only used for the quantized layers
+     */
+    public QuantizedMultiLayerNetwork(@NonNull MultiLayerConfiguration configuration, @NonNull INDArray[] layerParams,
+                                      @NonNull Int8Weights[] weights, @NonNull float[] inputScales) {
+        int nLayers = configuration.getConfs().size();
+        Preconditions.checkArgument(layerParams.length == nLayers && weights.length == nLayers
+                        && inputScales.length == nLayers, "Expected parameters, weights and input scales for all %s"
+                        + " layers: got %s, %s and %s", nLayers, layerParams.length, weights.length, inputScales.length);
+        this.configuration = configuration;
+        this.layerParams = layerParams;
+        this.weights = weights;
+        this.inputScales = inputScales;
+
+        this.layers = new Layer[nLayers];
+        for (int i = 0; i < nLayers; i++) {
+            NeuralNetConfiguration conf = configuration.getConf(i);
+            if (weights[i] != null) {
+                Preconditions.checkState(isQuantizable(conf.getLayer()), "Layer %s of type %s cannot be quantized",
+                                i, conf.getLayer().getClass().getSimpleName());
+                continue;
+            }
+            long nParams = conf.getLayer().initializer().numParams(conf);
+            Preconditions.checkState(nParams == (layerParams[i] == null ? 0 : layerParams[i].length()),
+                            "Expected %s parameters for layer %s", nParams, i);
+            layers[i] = conf.getLayer().instantiate(conf, Collections.<TrainingListener>emptyList(), i,
+                            layerParams[i], false);
+        }
+    }
+
+    /**
+     * Is the specified layer a supported layer for quantization? True for {@link DenseLayer}, {@link OutputLayer} and
+     * {@link ConvolutionLayer}
+     */
+    public static boolean isQuantizable(Layer layer) {
+        return isQuantizable(layer.conf().getLayer());
+    }
+
+    /**
+     * Is the specified layer configuration a supported layer for quantization?
+     */
+    public static boolean isQuantizable(org.deeplearning4j.nn.conf.layers.Layer layer) {
+        Class<?> c = layer.getClass();
+        return c == DenseLayer.class || c == OutputLayer.class || c == ConvolutionLayer.class;
+    }
+
+    /**
+     * Channel (output) dimension of the weights for the specified layer
+     */
+    public static int weightChannelDimension(Layer layer) {
+        //Dense: [nIn, nOut]; Convolution: [outDepth, inDepth, kH, kW]
+        return layer.conf().getLayer() instanceof ConvolutionLayer ? 0 : 1;
+    }
+
+    /**
+     * @return Number of layers in the network
+     */
+    public int getnLayers() {
+        return layers.length;
+    }
+
+    /**
+     * @return True if the specified layer is quantized
+     */
+    public boolean isQuantized(int layerIdx) {
+        return weights[layerIdx] != null;
+    }
+
+    /**
+     * Perform inference on the provided input
+     *
+     * @param input Input to the network
+     * @return Network output
+     */
+    public INDArray output(@NonNull INDArray input) {
+        LayerWorkspaceMgr mgr = LayerWorkspaceMgr.noWorkspaces();
+        INDArray current = input;
+        for (int i = 0; i < layers.length; i++) {
+            InputPreProcessor preProcessor = configuration.getInputPreProcess(i);
+            if (preProcessor != null) {
+                current = preProcessor.preProcess(current, (int) current.size(0), mgr);
+            }
+
+            if (weights[i] == null) {
+                current = layers[i].activate(current, false, mgr);
+            } else if (configuration.getConf(i).getLayer() instanceof ConvolutionLayer) {
+                current = quantizedConvolution(i, current);
+            } else {
+                current = quantizedDense(i, current);
+            }
+        }
+        return current;
+    }
+
+    protected INDArray quantizedDense(int layerIdx, INDArray input) {
+        int nIn = weights[layerIdx].channelLength();
+        Preconditions.checkState(input.rank() == 2 && input.size(1) == nIn, "Invalid input for layer %s: expected input" +
+                        " with shape [minibatch, %s], got %ndShape", layerIdx, nIn, input);
+
+        return activate(layerIdx, mmul(layerIdx, input));
+    }
+
+    protected INDArray quantizedConvolution(int layerIdx, INDArray input) {
+        ConvolutionLayer layerConf = (ConvolutionLayer) configuration.getConf(layerIdx).getLayer();
+        long[] wShape = weights[layerIdx].getShape();
+        int outDepth = (int) wShape[0];
+        int inDepth = (int) wShape[1];
+        int kH = (int) wShape[2];
+        int kW = (int) wShape[3];
+        Preconditions.checkState(input.rank() == 4 && input.size(1) == inDepth, "Invalid input for layer %s: expected"
+                        + " input with shape [minibatch, %s, height, width], got %ndShape", layerIdx, inDepth, input);
+
+        int[] kernel = layerConf.getKernelSize();
+        int[] strides = layerConf.getStride();
+        int[] dilation = layerConf.getDilation();
+        ConvolutionMode mode = layerConf.getConvolutionMode();
+        int[] pad;
+        int[] outSize;
+        if (mode == ConvolutionMode.Same) {
+            outSize = ConvolutionUtils.getOutputSize(input, kernel, strides, null, mode, dilation);
+            pad = ConvolutionUtils.getSameModeTopLeftPadding(outSize,
+                            new int[] {(int) input.size(2), (int) input.size(3)}, kernel, strides, dilation);
+        } else {
+            pad = layerConf.getPadding();
+            outSize = ConvolutionUtils.getOutputSize(input, kernel, strides, pad, mode, dilation);
+        }
+        int mb = (int) input.size(0);
+        int outH = outSize[0];
+        int outW = outSize[1];
+
+        //Same im2col layout as ConvolutionLayer: rows are [minibatch, outH, outW], columns are [inDepth, kH, kW],
+        //which matches the channel-first layout of the quantized weights
+        INDArray col = Nd4j.createUninitialized(new int[] {mb, outH, outW, inDepth, kH, kW}, 'c');
+        INDArray col2 = col.permute(0, 3, 4, 5, 1, 2);
+        Convolution.im2col(input, kH, kW, strides[0], strides[1], pad[0], pad[1], dilation[0], dilation[1],
+                        mode == ConvolutionMode.Same, col2);
+        INDArray z = mmul(layerIdx, col.reshape('c', mb * outH * outW, inDepth * kH * kW));
+        z = activate(layerIdx, z);
+        return z.reshape('c', mb, outH, outW, outDepth).permute(0, 3, 1, 2);
+    }
+
+    /**
+     * Matrix multiplication of the input (shape [rows, channelLength]) with the weights of the specified layer,
+     * followed by the bias
+     */
+    private INDArray mmul(int layerIdx, INDArray input) {
+        INDArray z = int8Gemm ? int8Mmul(layerIdx, QuantizationUtils.quantize(input, inputScales[layerIdx]),
+                        (int) input.size(0)) : dequantizedMmul(layerIdx, input);
+        INDArray b = layerParams[layerIdx];
+        if (b != null) {
+            z.addiRowVector(b);
+        }
+        return z;
+    }
+
+    private synchronized INDArray dequantizedMmul(int layerIdx, INDArray input) {
+        if (weightBuffer == null) {
+            long maxLength = 0;
+            for (Int8Weights w : weights) {
+                if (w != null) {
+                    maxLength = Math.max(maxLength, w.getValues().length);
+                }
+            }
+            weightBuffer = Nd4j.createUninitialized(maxLength);
+        }
+
+        //Dequantize channel-first: [nOut, channelLength]
+        Int8Weights w = weights[layerIdx];
+        byte[] values = w.getValues();
+        float[] scales = w.getScales();
+        int k = w.channelLength();
+        DataBuffer buffer = weightBuffer.data();
+        for (int c = 0; c < scales.length; c++) {
+            int offset = c * k;
+            for (int i = 0; i < k; i++) {
+                buffer.put(offset + i, values[offset + i] * scales[c]);
+            }
+        }
+        INDArray weightsFloat = Nd4j.create(buffer, new long[] {scales.length, k});
+        return Nd4j.gemm(input, weightsFloat, false, true);
+    }
+
+    /**
+     * INT8 matrix multiplication of the quantized input with the weights of the specified layer, followed by
+     * rescaling
+     */
+    private INDArray int8Mmul(int layerIdx, byte[] qIn, int rows) {
+        Int8Weights w = weights[layerIdx];
+        int nOut = w.numChannels();
+        int[] acc = QuantizationUtils.int8Gemm(qIn, w.getValues(), rows, w.channelLength(), nOut);
+
+        float inputScale = inputScales[layerIdx];
+        float[] scales = w.getScales();
+        float[] outScales = new float[nOut];
+        for (int j = 0; j < nOut; j++) {
+            outScales[j] = inputScale * scales[j];
+        }
+        float[] out = new float[acc.length];
+        for (int i = 0; i < rows; i++) {
+            int offset = i * nOut;
+            for (int j = 0; j < nOut; j++) {
+                out[offset + j] = acc[offset + j] * outScales[j];
+            }
+        }
+        return Nd4j.create(out, new int[] {rows, nOut}, 'c');
+    }
+
+    private INDArray activate(int layerIdx, INDArray z) {
+        return ((BaseLayer) configuration.getConf(layerIdx).getLayer()).getActivationFn().getActivation(z, false);
+    }
+}
@@ -17,10 +17,12 @@
 package org.deeplearning4j.nn.updater;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.GradientNormalization;
+import org.deeplearning4j.nn.conf.LossScaling;
 import org.deeplearning4j.nn.conf.layers.BaseLayer;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
 import org.deeplearning4j.nn.gradient.Gradient;
@@ -31,7 +33,9 @@ import org.nd4j.linalg.api.ops.CustomOp;
 import org.nd4j.linalg.api.ops.DynamicCustomOp;
 import org.nd4j.linalg.api.ops.impl.accum.Norm2;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.BooleanIndexing;
 import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.indexing.conditions.Conditions;
 import org.deeplearning4j.nn.workspace.ArrayType;
 import org.deeplearning4j.nn.workspace.LayerWorkspaceMgr;
 import org.nd4j.linalg.learning.config.IUpdater;
@@ -54,6 +58,7 @@ import java.util.Map;
  * @author Alex Black
  */
 @Getter
+@Slf4j
 public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater {
 
     protected final T network;
@@ -61,6 +66,12 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
     protected final List<UpdaterBlock> updaterBlocks;
     protected INDArray updaterStateViewArray;
 
+    //Loss scaling state: current scale (<= 0 if not yet initialized), and number of iterations since the last change
+    protected double lossScale = -1;
+    protected int lossScaleStepsSinceChange;
+    //Number of iterations skipped due to overflow of the (scaled) gradients
+    protected long lossScaleSkippedIterations;
+
     public BaseMultiLayerUpdater(T network) {
         this(network, null);
     }
@@ -227,6 +238,79 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         return updaterStateViewArray;
     }
 
+    /**
+     * @return The loss scaling configuration for the network, or null if loss scaling is not used
+     */
+    protected LossScaling getLossScaling() {
+        return network.conf() == null ? null : network.conf().getLossScaling();
+    }
+
+    /**
+     * Get the current loss scale factor: i.e., the value the gradient of the loss function should be multiplied by,
+     * before backpropagation. 1.0 if loss scaling is not used.
+     */
+    public double getLossScale() {
+        LossScaling ls = getLossScaling();
+        if (ls == null) {
+            return 1.0;
+        }
+        if (lossScale <= 0) {
+            lossScale = ls.getInitialScale();
+        }
+        return lossScale;
+    }
+
+    /**
+     * Set the loss scaling state of this updater: used when cloning or restoring a network, so that the current scale
+     * is not reset to the initial scale
+     *
+     * @param lossScale         Current loss scale. Values <= 0 mean "not yet initialized" (i.e., use the initial scale)
+     * @param stepsSinceChange  Number of iterations since the last change of the loss scale
+     * @param skippedIterations Number of iterations skipped due to overflow
+     */
+    public void setLossScaleState(double lossScale, int stepsSinceChange, long skippedIterations) {
+        this.lossScale = lossScale;
+        this.lossScaleStepsSinceChange = stepsSinceChange;
+        this.lossScaleSkippedIterations = skippedIterations;
+    }
+
+    /**
+     * Copy the loss scaling state (current scale, iterations since last change, skipped iterations) from the
+     * specified updater
+     */
+    public void setLossScaleState(BaseMultiLayerUpdater<?> from) {
+        setLossScaleState(from.lossScale, from.lossScaleStepsSinceChange, from.lossScaleSkippedIterations);
+    }
+
+    /**
+     * Check the (scaled) gradients for overflow, and update the loss scale accordingly. If no overflow is detected,
+     * the gradients are unscaled (divided by the loss scale) in-place.
+     *
+     * @return True if the gradients are OK, false if an overflow was detected (and hence the update should be skipped)
+     */
+    protected boolean unscaleGradients(LossScaling ls, INDArray gradient) {
+        double scale = getLossScale();
+        if (BooleanIndexing.or(gradient, Conditions.isNan()) || BooleanIndexing.or(gradient, Conditions.isInfinite())) {
+            lossScaleSkippedIterations++;
+            if (ls.isDynamic()) {
+                lossScale = Math.max(ls.getMinScale(), scale * ls.getBackoffFactor());
+                lossScaleStepsSinceChange = 0;
+            }
+            log.debug("Overflow detected in gradients with loss scale {}: skipping update. New loss scale: {}", scale,
+                            lossScale);
+            return false;
+        }
+
+        if (scale != 1.0) {
+            gradient.divi(scale);
+        }
+        if (ls.isDynamic() && ++lossScaleStepsSinceChange >= ls.getGrowthInterval()) {
+            lossScale = Math.min(ls.getMaxScale(), scale * ls.getGrowthFactor());
+            lossScaleStepsSinceChange = 0;
+        }
+        return true;
+    }
+
     @Override
     public void update(Trainable layer, Gradient gradient, int iteration, int epoch, int batchSize, LayerWorkspaceMgr workspaceMgr) {
         update(gradient, iteration, epoch, batchSize, workspaceMgr);
@@ -250,6 +334,15 @@ public abstract class BaseMultiLayerUpdater<T extends Model> implements Updater
         // hence should be the same object under normal circumstances
         boolean isExternal = gradient.gradient() != getFlattenedGradientsView();
 
+        //Loss scaling: check for overflow and unscale the gradients, before gradient clipping etc is applied
+        LossScaling lossScaling = getLossScaling();
+        INDArray fullGradient = (isExternal ? gradient.gradient() : getFlattenedGradientsView());
+        if (lossScaling != null && fullGradient != null && !unscaleGradients(lossScaling, fullGradient)) {
+            //Skip this iteration: zero gradients -> no parameter update, and no change to the updater state
+            fullGradient.assign(0);
+            return;
+        }
+
         //Split up the gradients on a per-layer basis, for pre-apply
         Map<String, Gradient> layerGradients = new HashMap<>();
 
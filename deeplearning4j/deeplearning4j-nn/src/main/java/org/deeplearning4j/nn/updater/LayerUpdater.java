@@ -19,6 +19,7 @@ package org.deeplearning4j.nn.updater;
 import lombok.extern.slf4j.Slf4j;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Trainable;
+import org.deeplearning4j.nn.conf.LossScaling;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.nd4j.linalg.api.ndarray.INDArray;
 
@@ -70,4 +71,11 @@ public class LayerUpdater extends BaseMultiLayerUpdater<Layer> {
     protected boolean isSingleLayerUpdater() {
         return true;
     }
+
+    @Override
+    protected LossScaling getLossScaling() {
+        //Loss scaling is applied by MultiLayerNetwork and ComputationGraph backprop only: layer-wise gradients
+        // (pretraining, for example) are not scaled
+        return null;
+    }
 }
@@ -21,10 +21,12 @@ import lombok.Data;
 import lombok.val;
 import org.deeplearning4j.nn.api.Layer;
 import org.deeplearning4j.nn.api.Trainable;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.BaseLayer;
 import org.deeplearning4j.nn.layers.FrozenLayer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.custom.ScatterUpdate;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.learning.GradientUpdater;
@@ -157,6 +159,17 @@ public class UpdaterBlock {
             return;
         }
 
+        if (!externalGradient && layersAndVariablesInBlock.size() == 1) {
+            ParamState p = layersAndVariablesInBlock.get(0);
+            if (UpdaterUtils.isSparseGradient(p.getLayer(), p.getParamName())) {
+                int[] rows = ((SparseGradientLayer) p.getLayer()).getSparseGradientRows(p.getParamName());
+                if (rows != null) {
+                    updateSparse(p, rows, iteration, epoch);
+                    return;
+                }
+            }
+        }
+
         //Apply the updater itself
         gradientUpdater.applyUpdater(blockGradViewArray, iteration, epoch);
 
@@ -178,6 +191,59 @@ public class UpdaterBlock {
         }
     }
 
+    /**
+     * Apply the updater (and L1/L2) to only the specified rows of a 2d parameter. The gradient and updater state for
+     * those rows are gathered into temporary arrays, updated, and then scattered back into the view arrays. Updater
+     * state (momentum, Adam moments, etc) for all other rows is left unchanged - i.e., "lazy" Adam etc.
+     */
+    private void updateSparse(ParamState p, int[] rows, int iteration, int epoch) {
+        if (rows.length == 0) {
+            return;
+        }
+
+        INDArray param2d = p.getLayer().paramTable(false).get(p.getParamName());
+        char order = param2d.ordering();
+        long[] shape = param2d.shape();
+        INDArray grad2d = p.getGradView().reshape(order, shape);
+        long n = param2d.length();
+        long rowsLength = rows.length * shape[1];
+        int[] dimension = {1};
+
+        INDArray gradRows = Nd4j.pullRows(grad2d, 1, rows).reshape('c', 1, rowsLength);
+
+        INDArray[] state2d = null;
+        INDArray stateRows = null;
+        if (updaterView != null) {
+            int numStateArrays = (int) (updaterView.length() / n);
+            state2d = new INDArray[numStateArrays];
+            stateRows = Nd4j.createUninitialized(new long[] {1, numStateArrays * rowsLength}, 'c');
+            for (int i = 0; i < numStateArrays; i++) {
+                state2d[i] = updaterView.get(NDArrayIndex.point(0), NDArrayIndex.interval(i * n, (i + 1) * n))
+                                .reshape(order, shape);
+                stateRows.get(NDArrayIndex.point(0), NDArrayIndex.interval(i * rowsLength, (i + 1) * rowsLength))
+                                .assign(Nd4j.pullRows(state2d[i], 1, rows).reshape('c', 1, rowsLength));
+            }
+        }
+
+        GradientUpdater rowsUpdater = p.getLayer().getConfig().getUpdaterByParam(p.getParamName())
+                        .instantiate(stateRows, false);
+        rowsUpdater.applyUpdater(gradRows, iteration, epoch);
+
+        INDArray paramRows = Nd4j.pullRows(param2d, 1, rows).reshape('c', 1, rowsLength);
+        postApply(p.getLayer(), p.getParamName(), gradRows, paramRows);
+
+        Nd4j.getExecutioner().exec(new ScatterUpdate(grad2d, gradRows.reshape('c', rows.length, shape[1]), rows,
+                        dimension, ScatterUpdate.UpdateOp.ASSIGN));
+        if (state2d != null) {
+            for (int i = 0; i < state2d.length; i++) {
+                INDArray s = stateRows.get(NDArrayIndex.point(0),
+                                NDArrayIndex.interval(i * rowsLength, (i + 1) * rowsLength));
+                Nd4j.getExecutioner().exec(new ScatterUpdate(state2d[i], s.reshape('c', rows.length, shape[1]), rows,
+                                dimension, ScatterUpdate.UpdateOp.ASSIGN));
+            }
+        }
+    }
+
     /**
      * Apply L1 and L2 regularization, if necessary. Note that L1/L2 may differ for different layers in the same block
      *
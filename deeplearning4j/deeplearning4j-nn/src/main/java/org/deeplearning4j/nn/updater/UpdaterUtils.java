@@ -18,6 +18,7 @@ package org.deeplearning4j.nn.updater;
 
 import org.deeplearning4j.nn.api.Trainable;
 import org.deeplearning4j.nn.api.TrainingConfig;
+import org.deeplearning4j.nn.api.layers.SparseGradientLayer;
 import org.nd4j.linalg.learning.config.IUpdater;
 
 /**
@@ -37,11 +38,16 @@ public class UpdaterUtils {
         //(b) If one or more of the params are pretrainable params, they are in the same layer
         //    This last point is necessary as we don't want to modify the pretrain gradient/updater state during
         //    backprop, or modify the pretrain gradient/updater state of one layer while training another
+        //(c) Neither of the params uses row-sparse updates, as these are applied only to a subset of the block
         if (!u1.equals(u2)) {
             //Different updaters or different config
             return false;
         }
 
+        if (isSparseGradient(layer1, param1) || isSparseGradient(layer2, param2)) {
+            return false;
+        }
+
         boolean isPretrainParam1 = l1.isPretrainParam(param1);
         boolean isPretrainParam2 = l2.isPretrainParam(param2);
         if (isPretrainParam1 || isPretrainParam2) {
@@ -53,4 +59,8 @@ public class UpdaterUtils {
 
         return true;
     }
+
+    public static boolean isSparseGradient(Trainable layer, String param) {
+        return layer instanceof SparseGradientLayer && ((SparseGradientLayer) layer).isSparseGradient(param);
+    }
 }
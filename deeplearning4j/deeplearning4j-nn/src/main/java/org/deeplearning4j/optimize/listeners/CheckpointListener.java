@@ -27,11 +27,13 @@ import org.deeplearning4j.optimize.api.BaseTrainingListener;
 import org.deeplearning4j.optimize.api.TrainingListener;
 import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 
 import java.io.*;
 import java.nio.charset.Charset;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  *
@@ -81,6 +83,14 @@ import java.util.concurrent.TimeUnit;
  * {@code .saveEveryEpoch().saveEvery(15, TimeUnit.MINUTES, true)}<br>
  * Note that is this last example, the <i>sinceLast</i> parameter is true. This means the 15-minute counter will be
  * reset any time a model is saved.<br>
+ * <br>
+ * <b>Asynchronous saving</b>: with {@code .asyncSaving(true)}, the parameters and updater state are copied into a
+ * reusable snapshot copy of the model on the training thread, and the model file is written on a background thread
+ * while training continues. At most one checkpoint is written at any time: the training thread only waits for a
+ * pending checkpoint when the next one is saved, or when checkpoints are listed or loaded.<br>
+ * <b>Incremental checkpoints</b>: with {@code .incrementalCheckpoints(n)}, every n-th checkpoint is a full model file;
+ * the checkpoints in between store only the blocks of the parameters and updater state that changed since the last
+ * full checkpoint. Incremental checkpoints are loaded using the same methods as full checkpoints.<br>
  *
  * @author Alex Black
  */
@@ -89,6 +99,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
 
     private enum KeepMode {ALL, LAST, LAST_AND_EVERY};
     private static final String[] MODEL_TYPES = new String[]{"MultiLayerNetwork", "ComputationGraph", "Model"};
+    private static final String DELTA_HEADER = "DL4J_CHECKPOINT_DELTA";
+    private static final int DELTA_BLOCK_SIZE = 65536;
 
     private File rootDir;
     private KeepMode keepMode;
@@ -104,6 +116,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
     private TimeUnit saveEveryUnit;
     private Long saveEveryMs;
     private boolean saveEverySinceLast;
+    private boolean asyncSaving;
+    private int fullCheckpointEvery;
 
     private int lastCheckpointNum = -1;
     private File checkpointRecordFile;
@@ -113,6 +127,16 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
     private int startIter = -1;
     private Long lastSaveEveryMsNoSinceLast;
 
+    //Asynchronous saving: snapshot copy of the model being trained, written on the background thread
+    private transient ExecutorService saveExecutor;
+    private transient Future<?> pendingSave;
+    private transient Model snapshot;
+    //Incremental checkpoints: parameters and updater state as of the last full checkpoint
+    private transient INDArray baseParams;
+    private transient INDArray baseUpdaterState;
+    private int baseCheckpointNum = -1;
+    private Map<Integer, Integer> deltaBases = new HashMap<>();
+
     private CheckpointListener(Builder builder){
         this.rootDir = builder.rootDir;
         this.keepMode = builder.keepMode;
@@ -127,6 +151,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
         this.saveEveryAmount = builder.saveEveryAmount;
         this.saveEveryUnit = builder.saveEveryUnit;
         this.saveEverySinceLast = builder.saveEverySinceLast;
+        this.asyncSaving = builder.asyncSaving;
+        this.fullCheckpointEvery = builder.fullCheckpointEvery;
 
         if(saveEveryAmount != null){
             saveEveryMs = TimeUnit.MILLISECONDS.convert(saveEveryAmount, saveEveryUnit);
@@ -143,7 +169,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
                 if(files != null && files.length > 0){
                     for(File f : files){
                         String name = f.getName();
-                        if(name.startsWith("checkpoint_") && (name.endsWith("MultiLayerNetwork.zip") || name.endsWith("ComputationGraph.zip"))){
+                        if(name.startsWith("checkpoint_") && (name.endsWith("MultiLayerNetwork.zip") || name.endsWith("ComputationGraph.zip")
+                                || name.endsWith("_delta.bin"))){
                             f.delete();
                         }
                     }
@@ -222,53 +249,284 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
     }
 
     private void saveCheckpointHelper(Model model) throws Exception {
+        //Wait for the previous checkpoint (if any): the snapshot copy and base arrays are reused
+        awaitPendingSave();
+
         if(!checkpointRecordFile.exists()){
             checkpointRecordFile.createNewFile();
             write(Checkpoint.getFileHeader() + "\n", checkpointRecordFile);
         }
 
-        Checkpoint c = new Checkpoint(++lastCheckpointNum, System.currentTimeMillis(), getIter(model), getEpoch(model),
+        final Checkpoint c = new Checkpoint(++lastCheckpointNum, System.currentTimeMillis(), getIter(model), getEpoch(model),
                 getModelType(model), null);
-        setFileName(c);
 
-        ModelSerializer.writeModel(model, new File(rootDir, c.getFilename()), true);
+        final Model toSave;
+        if(asyncSaving && (model instanceof MultiLayerNetwork || model instanceof ComputationGraph)){
+            toSave = updateSnapshot(model);
+        } else {
+            toSave = model;
+        }
+
+        final boolean delta = fullCheckpointEvery > 1 && baseCheckpointNum >= 0 && lastCheckpointNum % fullCheckpointEvery != 0
+                && canSaveDelta(toSave);
+        if(delta){
+            c.setFilename(getDeltaFileName(c.getCheckpointNum(), c.getModelType()));
+            deltaBases.put(c.getCheckpointNum(), baseCheckpointNum);
+        } else {
+            setFileName(c);
+        }
+        this.lastCheckpoint = c;
+
+        if(toSave == model){
+            writeCheckpoint(toSave, c, delta);
+        } else {
+            pendingSave = getSaveExecutor().submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    writeCheckpoint(toSave, c, delta);
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void writeCheckpoint(Model model, Checkpoint c, boolean delta) throws Exception {
+        File f = new File(rootDir, c.getFilename());
+        if(delta){
+            writeDelta(model, c, f);
+        } else {
+            ModelSerializer.writeModel(model, f, true);
+            if(fullCheckpointEvery > 1){
+                updateBase(model, c);
+            }
+        }
 
         String s = c.toFileString();
         write(s + "\n", checkpointRecordFile);
 
         if(logSaving){
             log.info("Model checkpoint saved: epoch {}, iteration {}, path: {}", c.getEpoch(), c.getIteration(),
-                    new File(rootDir, c.getFilename()).getPath() );
+                    f.getPath() );
         }
-        this.lastCheckpoint = c;
-
 
         //Finally: determine if we should delete some old models...
         if(keepMode == null || keepMode == KeepMode.ALL){
             return;
-        } else if(keepMode == KeepMode.LAST){
-            List<Checkpoint> checkpoints = availableCheckpoints();
-            Iterator<Checkpoint> iter = checkpoints.iterator();
-            while(checkpoints.size() > keepLast){
-                Checkpoint toRemove = iter.next();
-                File f = getFileForCheckpoint(toRemove);
-                f.delete();
-                iter.remove();
+        }
+
+        List<Checkpoint> checkpoints = listCheckpoints();
+        List<Checkpoint> toDelete = new ArrayList<>();
+        Set<Integer> keptBases = new HashSet<>();
+        for( int i=0; i<checkpoints.size(); i++ ){
+            Checkpoint cp = checkpoints.get(i);
+            boolean keep;
+            if(keepMode == KeepMode.LAST){
+                keep = i >= checkpoints.size() - keepLast;
+            } else {
+                //Keep mode: last N and every M
+                keep = (cp.getCheckpointNum() > 0 && (cp.getCheckpointNum()+1) % keepEvery == 0)     //One of the "every M to keep" models
+                        || cp.getCheckpointNum() > c.getCheckpointNum() - keepLast;                 //Example: latest is 5, keep last 2 -> keep checkpoints 4 and 5
+            }
+            if(keep){
+                Integer base = deltaBases.get(cp.getCheckpointNum());
+                if(base != null){
+                    keptBases.add(base);
+                }
+            } else {
+                toDelete.add(cp);
+            }
+        }
+        for(Checkpoint cp : toDelete){
+            //Full checkpoints that retained incremental checkpoints are based on can't be deleted yet
+            if(!keptBases.contains(cp.getCheckpointNum())){
+                File toRemove = getFileForCheckpoint(cp);
+                toRemove.delete();
+                deltaBases.remove(cp.getCheckpointNum());
             }
+        }
+    }
+
+    /**
+     * Copy the current parameters and updater state into the (reusable) snapshot copy of the model
+     */
+    private Model updateSnapshot(Model model){
+        INDArray params = model.params();
+        INDArray updaterState = getUpdaterState(model);
+        INDArray snapshotUpdaterState = (snapshot == null ? null : getUpdaterState(snapshot));
+        boolean reuse = snapshot != null && snapshot.getClass() == model.getClass()
+                && snapshot.params().length() == params.length()
+                && (updaterState == null ? snapshotUpdaterState == null :
+                        snapshotUpdaterState != null && snapshotUpdaterState.length() == updaterState.length());
+        if(!reuse){
+            if(model instanceof MultiLayerNetwork){
+                snapshot = ((MultiLayerNetwork) model).clone();
+            } else {
+                snapshot = ((ComputationGraph) model).clone();
+            }
+            return snapshot;
+        }
+
+        snapshot.params().assign(params);
+        if(updaterState != null){
+            snapshotUpdaterState.assign(updaterState);
+        }
+        if(snapshot instanceof MultiLayerNetwork){
+            ((MultiLayerNetwork) snapshot).getLayerWiseConfigurations().setIterationCount(getIter(model));
+            ((MultiLayerNetwork) snapshot).getLayerWiseConfigurations().setEpochCount(getEpoch(model));
         } else {
-            //Keep mode: last N and every M
-            for(Checkpoint cp : availableCheckpoints()){
-                if(cp.getCheckpointNum() > 0 && (cp.getCheckpointNum()+1) % keepEvery == 0){
-                    //One of the "every M to keep" models
-                    continue;
-                } else if(cp.getCheckpointNum() > lastCheckpointNum - keepLast ){        //Example: latest is 5, keep last 2 -> keep checkpoints 4 and 5
-                    //One of last N to keep
-                    continue;
+            ((ComputationGraph) snapshot).getConfiguration().setIterationCount(getIter(model));
+            ((ComputationGraph) snapshot).getConfiguration().setEpochCount(getEpoch(model));
+        }
+        return snapshot;
+    }
+
+    private boolean canSaveDelta(Model model){
+        if(!(model instanceof MultiLayerNetwork || model instanceof ComputationGraph) || baseParams == null){
+            return false;
+        }
+        INDArray updaterState = getUpdaterState(model);
+        return model.params().length() == baseParams.length()
+                && (updaterState == null ? baseUpdaterState == null :
+                        baseUpdaterState != null && updaterState.length() == baseUpdaterState.length());
+    }
+
+    private void updateBase(Model model, Checkpoint c){
+        if(!(model instanceof MultiLayerNetwork || model instanceof ComputationGraph) || model.params() == null){
+            baseParams = null;
+            baseUpdaterState = null;
+            baseCheckpointNum = -1;
+            return;
+        }
+        baseParams = copyInto(baseParams, model.params());
+        baseUpdaterState = copyInto(baseUpdaterState, getUpdaterState(model));
+        baseCheckpointNum = c.getCheckpointNum();
+    }
+
+    private static INDArray copyInto(INDArray target, INDArray source){
+        if(source == null){
+            return null;
+        }
+        if(target == null || target.length() != source.length()){
+            return source.dup();
+        }
+        return target.assign(source);
+    }
+
+    private void writeDelta(Model model, Checkpoint c, File f) throws IOException {
+        try(DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f)))){
+            dos.writeUTF(DELTA_HEADER);
+            dos.writeInt(baseCheckpointNum);
+            dos.writeInt(c.getIteration());
+            dos.writeInt(c.getEpoch());
+            dos.writeInt(DELTA_BLOCK_SIZE);
+            writeChangedBlocks(model.params(), baseParams, dos);
+            writeChangedBlocks(getUpdaterState(model), baseUpdaterState, dos);
+        }
+    }
+
+    private static void writeChangedBlocks(INDArray current, INDArray base, DataOutputStream dos) throws IOException {
+        if(current == null){
+            dos.writeLong(0);
+            dos.writeInt(0);
+            return;
+        }
+        long length = current.length();
+        INDArray diff = current.reshape(1, length).sub(base.reshape(1, length));
+        List<Integer> changed = new ArrayList<>();
+        for( int b=0; b * (long) DELTA_BLOCK_SIZE < length; b++ ){
+            INDArray block = diff.get(NDArrayIndex.point(0), blockInterval(b, length));
+            double maxAbsDiff = block.amaxNumber().doubleValue();
+            if(maxAbsDiff != 0.0){      //Also true for NaN
+                changed.add(b);
+            }
+        }
+
+        dos.writeLong(length);
+        dos.writeInt(changed.size());
+        INDArray flat = current.reshape(1, length);
+        for(Integer b : changed){
+            dos.writeInt(b);
+            Nd4j.write(flat.get(NDArrayIndex.point(0), blockInterval(b, length)).dup(), dos);
+        }
+    }
+
+    private static void readChangedBlocks(INDArray target, DataInputStream dis) throws IOException {
+        long length = dis.readLong();
+        int numBlocks = dis.readInt();
+        if(target == null ? length != 0 : target.length() != length){
+            throw new IllegalStateException("Incremental checkpoint does not match base checkpoint: expected array of length "
+                    + length + ", got " + (target == null ? 0 : target.length()));
+        }
+        if(numBlocks == 0){
+            return;
+        }
+        INDArray flat = target.reshape(1, length);
+        for( int i=0; i<numBlocks; i++ ){
+            int b = dis.readInt();
+            INDArray block = Nd4j.read(dis);
+            flat.get(NDArrayIndex.point(0), blockInterval(b, length)).assign(block.reshape(1, block.length()));
+        }
+    }
+
+    private static org.nd4j.linalg.indexing.INDArrayIndex blockInterval(int block, long length){
+        long start = block * (long) DELTA_BLOCK_SIZE;
+        return NDArrayIndex.interval(start, Math.min(start + DELTA_BLOCK_SIZE, length));
+    }
+
+    private static INDArray getUpdaterState(Model model){
+        if(model instanceof MultiLayerNetwork){
+            return ((MultiLayerNetwork) model).getUpdater().getStateViewArray();
+        } else if(model instanceof ComputationGraph){
+            return ((ComputationGraph) model).getUpdater().getStateViewArray();
+        }
+        return null;
+    }
+
+    private ExecutorService getSaveExecutor(){
+        if(saveExecutor == null){
+            //Non-daemon thread, so that the JVM does not exit while a checkpoint is partially written. The thread is
+            // stopped when idle, so that it does not keep the JVM alive after training has completed
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "CheckpointListener saving");
+                    t.setDaemon(false);
+                    return t;
                 }
-                //Otherwise: delete file
-                File f = getFileForCheckpoint(cp);
-                f.delete();
+            });
+            executor.allowCoreThreadTimeOut(true);
+            saveExecutor = executor;
+        }
+        return saveExecutor;
+    }
+
+    private void awaitPendingSave() throws Exception {
+        if(pendingSave == null){
+            return;
+        }
+        Future<?> f = pendingSave;
+        pendingSave = null;
+        try {
+            f.get();
+        } catch (ExecutionException e){
+            if(e.getCause() instanceof Exception){
+                throw (Exception) e.getCause();
             }
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for the checkpoint currently being saved asynchronously (if any) to be written.
+     * Has no effect unless asynchronous saving is enabled. The methods of this listener that list or load checkpoints
+     * wait automatically; this method only needs to be called before using the checkpoint files directly.
+     */
+    public void waitForPendingSave(){
+        try {
+            awaitPendingSave();
+        } catch (Exception e){
+            throw new RuntimeException("Error saving checkpoint", e);
         }
     }
 
@@ -281,6 +539,10 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
         return "checkpoint_" + checkpointNum + "_" + modelType + ".zip";
     }
 
+    private static String getDeltaFileName(int checkpointNum, String modelType){
+        return "checkpoint_" + checkpointNum + "_" + modelType + "_delta.bin";
+    }
+
     private static String write(String str, File f){
         try {
             if(!f.exists()){
@@ -330,6 +592,11 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
      * @return List of checkpoint files that can be loaded
      */
     public List<Checkpoint> availableCheckpoints(){
+        waitForPendingSave();
+        return listCheckpoints();
+    }
+
+    private List<Checkpoint> listCheckpoints(){
         if(!checkpointRecordFile.exists()){
             return Collections.emptyList();
         }
@@ -388,6 +655,10 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
             if(f.exists()){
                 return f;
             }
+            f = new File(rootDir, getDeltaFileName(checkpointNum, s));
+            if(f.exists()){
+                return f;
+            }
         }
         throw new IllegalStateException("Model file for checkpoint " + checkpointNum + " does not exist");
     }
@@ -409,8 +680,14 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
      * @return The loaded model
      */
     public MultiLayerNetwork loadCheckpointMLN(int checkpointNum) {
+        waitForPendingSave();
         File f = getFileForCheckpoint(checkpointNum);
         try {
+            if(isDelta(f)){
+                MultiLayerNetwork net = ModelSerializer.restoreMultiLayerNetwork(getFileForCheckpoint(readDeltaBase(f)), true);
+                applyDelta(f, net);
+                return net;
+            }
             return ModelSerializer.restoreMultiLayerNetwork(f, true);
         } catch (IOException e){
             throw new RuntimeException(e);
@@ -434,14 +711,61 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
      * @return The loaded model
      */
     public ComputationGraph loadCheckpointCG(int checkpointNum){
+        waitForPendingSave();
         File f = getFileForCheckpoint(checkpointNum);
         try {
+            if(isDelta(f)){
+                ComputationGraph net = ModelSerializer.restoreComputationGraph(getFileForCheckpoint(readDeltaBase(f)), true);
+                applyDelta(f, net);
+                return net;
+            }
             return ModelSerializer.restoreComputationGraph(f, true);
         } catch (IOException e){
             throw new RuntimeException(e);
         }
     }
 
+    private static boolean isDelta(File f){
+        return f.getName().endsWith("_delta.bin");
+    }
+
+    private static int readDeltaBase(File f) throws IOException {
+        try(DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))){
+            readDeltaHeader(dis, f);
+            return dis.readInt();
+        }
+    }
+
+    private static void readDeltaHeader(DataInputStream dis, File f) throws IOException {
+        String header = dis.readUTF();
+        if(!DELTA_HEADER.equals(header)){
+            throw new IllegalStateException("Not a valid incremental checkpoint file: " + f.getAbsolutePath());
+        }
+    }
+
+    private static void applyDelta(File f, Model model) throws IOException {
+        try(DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))){
+            readDeltaHeader(dis, f);
+            dis.readInt();     //Base checkpoint number
+            int iteration = dis.readInt();
+            int epoch = dis.readInt();
+            int blockSize = dis.readInt();
+            if(blockSize != DELTA_BLOCK_SIZE){
+                throw new IllegalStateException("Unsupported incremental checkpoint block size: " + blockSize);
+            }
+            readChangedBlocks(model.params(), dis);
+            readChangedBlocks(getUpdaterState(model), dis);
+
+            if(model instanceof MultiLayerNetwork){
+                ((MultiLayerNetwork) model).getLayerWiseConfigurations().setIterationCount(iteration);
+                ((MultiLayerNetwork) model).getLayerWiseConfigurations().setEpochCount(epoch);
+            } else {
+                ((ComputationGraph) model).getConfiguration().setIterationCount(iteration);
+                ((ComputationGraph) model).getConfiguration().setEpochCount(epoch);
+            }
+        }
+    }
+
     public static class Builder {
 
         private File rootDir;
@@ -457,6 +781,8 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
         private Long saveEveryAmount;
         private TimeUnit saveEveryUnit;
         private boolean saveEverySinceLast;
+        private boolean asyncSaving = false;
+        private int fullCheckpointEvery = 1;
 
         /**
          * @param rootDir Root directory to save models to
@@ -594,6 +920,37 @@ public class CheckpointListener extends BaseTrainingListener implements Serializ
             return this;
         }
 
+        /**
+         * If true: copy the parameters and updater state to a snapshot of the model on the training thread, and write
+         * the checkpoint file on a background thread while training continues. Default: false.<br>
+         * Training only waits for the pending checkpoint (if any) when the next checkpoint is saved. Listing and loading
+         * checkpoints through this listener waits for the pending checkpoint; use
+         * {@link CheckpointListener#waitForPendingSave()} before reading the checkpoint files directly. The saving thread
+         * is not a daemon thread: the JVM will not exit before a checkpoint being written has been completed. Only supported for MultiLayerNetwork and ComputationGraph - other models are saved synchronously.
+         *
+         * @param asyncSaving Whether checkpoints should be written asynchronously
+         */
+        public Builder asyncSaving(boolean asyncSaving){
+            this.asyncSaving = asyncSaving;
+            return this;
+        }
+
+        /**
+         * Save incremental checkpoints: every N-th checkpoint is saved as a full model file, and the checkpoints
+         * in between only store the blocks of parameters and updater state that changed since the last full checkpoint.
+         * Default: 1 (all checkpoints are full checkpoints).<br>
+         * Note that full checkpoints are not deleted while incremental checkpoints that depend on them are kept.
+         *
+         * @param fullCheckpointEvery Frequency of full checkpoints. Must be > 0
+         */
+        public Builder incrementalCheckpoints(int fullCheckpointEvery){
+            if(fullCheckpointEvery <= 0){
+                throw new IllegalArgumentException("Full checkpoint frequency should be > 0 (got: " + fullCheckpointEvery + ")");
+            }
+            this.fullCheckpointEvery = fullCheckpointEvery;
+            return this;
+        }
+
         public CheckpointListener build(){
             if(saveEveryNEpochs == null && saveEveryAmount == null && saveEveryNIterations == null){
                 throw new IllegalStateException("Cannot construct listener: no models will be saved (must use at least" +
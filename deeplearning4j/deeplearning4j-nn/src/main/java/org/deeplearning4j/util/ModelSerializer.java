@@ -26,8 +26,12 @@ import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.api.Updater;
 import org.deeplearning4j.nn.conf.ComputationGraphConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.graph.ComputationGraph;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.quantization.Int8Weights;
+import org.deeplearning4j.nn.quantization.QuantizedMultiLayerNetwork;
+import org.deeplearning4j.nn.updater.BaseMultiLayerUpdater;
 import org.deeplearning4j.nn.updater.graph.ComputationGraphUpdater;
 import org.nd4j.base.Preconditions;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -37,6 +41,7 @@ import org.nd4j.linalg.dataset.api.preprocessor.Normalizer;
 import org.nd4j.linalg.dataset.api.preprocessor.serializer.NormalizerSerializer;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.heartbeat.reports.Task;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.primitives.Pair;
 
 import java.io.*;
@@ -61,6 +66,8 @@ public class ModelSerializer {
     public static final String COEFFICIENTS_BIN = "coefficients.bin";
     public static final String NO_PARAMS_MARKER = "noParams.marker";
     public static final String PREPROCESSOR_BIN = "preprocessor.bin";
+    public static final String QUANTIZATION_BIN = "quantization.bin";
+    public static final String LOSS_SCALING_BIN = "lossScaling.bin";
 
     private ModelSerializer() {}
 
@@ -178,6 +185,21 @@ public class ModelSerializer {
                     dos.flush();
                 }
             }
+
+            //Loss scaling state is part of the updater state: current scale, steps since last change, skipped iterations
+            BaseMultiLayerUpdater<?> lossScalingUpdater = getLossScalingUpdater(model);
+            if (lossScalingUpdater != null) {
+                ZipEntry lossScaling = new ZipEntry(LOSS_SCALING_BIN);
+                zipfile.putNextEntry(lossScaling);
+
+                try {
+                    dos.writeDouble(lossScalingUpdater.getLossScale());
+                    dos.writeInt(lossScalingUpdater.getLossScaleStepsSinceChange());
+                    dos.writeLong(lossScalingUpdater.getLossScaleSkippedIterations());
+                } finally {
+                    dos.flush();
+                }
+            }
         }
 
 
@@ -219,6 +241,7 @@ public class ModelSerializer {
         boolean gotCoefficients = false;
         boolean gotUpdaterState = false;
         boolean gotPreProcessor = false;
+        byte[] lossScalingState = null;
 
         String json = "";
         INDArray params = null;
@@ -271,6 +294,13 @@ public class ModelSerializer {
                 dis.close();
                 gotUpdaterState = true;
             }
+
+            ZipEntry lossScalingEntry = zipFile.getEntry(LOSS_SCALING_BIN);
+            if (lossScalingEntry != null) {
+                InputStream stream = zipFile.getInputStream(lossScalingEntry);
+                lossScalingState = IOUtils.toByteArray(stream);
+                stream.close();
+            }
         }
 
         ZipEntry prep = zipFile.getEntry(PREPROCESSOR_BIN);
@@ -316,6 +346,9 @@ public class ModelSerializer {
             if (gotUpdaterState && updaterState != null) {
                 network.getUpdater().setStateViewArray(network, updaterState, false);
             }
+            if (lossScalingState != null) {
+                restoreLossScaleState(network.getUpdater(), lossScalingState);
+            }
             return network;
         } else
             throw new IllegalStateException("Model wasnt found within file: gotConfig: [" + gotConfig
@@ -545,6 +578,7 @@ public class ModelSerializer {
         boolean gotCoefficients = false;
         boolean gotUpdaterState = false;
         boolean gotPreProcessor = false;
+        byte[] lossScalingState = null;
 
         String json = "";
         INDArray params = null;
@@ -597,6 +631,13 @@ public class ModelSerializer {
                 dis.close();
                 gotUpdaterState = true;
             }
+
+            ZipEntry lossScalingEntry = zipFile.getEntry(LOSS_SCALING_BIN);
+            if (lossScalingEntry != null) {
+                InputStream stream = zipFile.getInputStream(lossScalingEntry);
+                lossScalingState = IOUtils.toByteArray(stream);
+                stream.close();
+            }
         }
 
         ZipEntry prep = zipFile.getEntry(PREPROCESSOR_BIN);
@@ -645,12 +686,201 @@ public class ModelSerializer {
             if (gotUpdaterState && updaterState != null) {
                 cg.getUpdater().setStateViewArray(updaterState);
             }
+            if (lossScalingState != null) {
+                restoreLossScaleState(cg.getUpdater(), lossScalingState);
+            }
             return cg;
         } else
             throw new IllegalStateException("Model wasnt found within file: gotConfig: [" + gotConfig
                     + "], gotCoefficients: [" + gotCoefficients + "], gotUpdater: [" + gotUpdaterState + "]");
     }
 
+    /**
+     * Write a quantized network to a file. The weights of the quantized layers are stored in INT8 format.
+     *
+     * @param model the quantized network to write
+     * @param file  the file to write to
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull QuantizedMultiLayerNetwork model, @NonNull File file) throws IOException {
+        try (BufferedOutputStream stream = new BufferedOutputStream(new FileOutputStream(file))) {
+            writeModel(model, stream);
+        }
+    }
+
+    /**
+     * Write a quantized network to an output stream. The weights of the quantized layers are stored in INT8 format.
+     *
+     * @param model  the quantized network to write
+     * @param stream the output stream to write to
+     * @throws IOException
+     */
+    public static void writeModel(@NonNull QuantizedMultiLayerNetwork model, @NonNull OutputStream stream)
+            throws IOException {
+        ZipOutputStream zipfile = new ZipOutputStream(new CloseShieldOutputStream(stream));
+
+        ZipEntry config = new ZipEntry(CONFIGURATION_JSON);
+        zipfile.putNextEntry(config);
+        zipfile.write(model.getConfiguration().toJson().getBytes());
+
+        //Save the floating point parameters only: i.e., excluding the weights of the quantized layers
+        List<INDArray> floatParams = new ArrayList<>();
+        for (INDArray p : model.getLayerParams()) {
+            if (p != null) {
+                floatParams.add(p);
+            }
+        }
+
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(zipfile));
+        if (!floatParams.isEmpty()) {
+            ZipEntry coefficients = new ZipEntry(COEFFICIENTS_BIN);
+            zipfile.putNextEntry(coefficients);
+            try {
+                Nd4j.write(Nd4j.toFlattened('c', floatParams), dos);
+            } finally {
+                dos.flush();
+            }
+        } else {
+            ZipEntry noParamsMarker = new ZipEntry(NO_PARAMS_MARKER);
+            zipfile.putNextEntry(noParamsMarker);
+        }
+
+        //Per layer: input scale, then (for quantized layers only) the INT8 weights
+        ZipEntry quantization = new ZipEntry(QUANTIZATION_BIN);
+        zipfile.putNextEntry(quantization);
+        try {
+            Int8Weights[] weights = model.getWeights();
+            float[] inputScales = model.getInputScales();
+            dos.writeInt(weights.length);
+            for (int i = 0; i < weights.length; i++) {
+                dos.writeFloat(inputScales[i]);
+                dos.writeBoolean(weights[i] != null);
+                if (weights[i] != null) {
+                    writeInt8Weights(weights[i], dos);
+                }
+            }
+        } finally {
+            dos.flush();
+        }
+
+        dos.close();
+        zipfile.close();
+    }
+
+    private static void writeInt8Weights(Int8Weights weights, DataOutputStream dos) throws IOException {
+        dos.writeInt(weights.getChannelDimension());
+        dos.writeInt(weights.getShape().length);
+        for (long l : weights.getShape()) {
+            dos.writeLong(l);
+        }
+        dos.writeInt(weights.getScales().length);
+        for (float f : weights.getScales()) {
+            dos.writeFloat(f);
+        }
+        dos.writeInt(weights.getValues().length);
+        dos.write(weights.getValues());
+    }
+
+    private static Int8Weights readInt8Weights(DataInputStream dis) throws IOException {
+        int channelDimension = dis.readInt();
+        long[] shape = new long[dis.readInt()];
+        for (int i = 0; i < shape.length; i++) {
+            shape[i] = dis.readLong();
+        }
+        float[] scales = new float[dis.readInt()];
+        for (int i = 0; i < scales.length; i++) {
+            scales[i] = dis.readFloat();
+        }
+        byte[] values = new byte[dis.readInt()];
+        dis.readFully(values);
+        return new Int8Weights(values, scales, shape, channelDimension);
+    }
+
+    /**
+     * Load a quantized network from a file, as saved by {@link #writeModel(QuantizedMultiLayerNetwork, File)}
+     *
+     * @param file the file to load from
+     * @return the loaded quantized network
+     * @throws IOException
+     */
+    public static QuantizedMultiLayerNetwork restoreQuantizedMultiLayerNetwork(@NonNull File file) throws IOException {
+        String json;
+        INDArray floatParams = null;
+        Int8Weights[] weights;
+        float[] inputScales;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            ZipEntry config = zipFile.getEntry(CONFIGURATION_JSON);
+            ZipEntry quantization = zipFile.getEntry(QUANTIZATION_BIN);
+            if (config == null || quantization == null) {
+                throw new IllegalStateException("Quantized model wasn't found within file: gotConfig: [" + (config != null)
+                        + "], gotQuantization: [" + (quantization != null) + "]");
+            }
+            try (InputStream stream = zipFile.getInputStream(config)) {
+                json = IOUtils.toString(stream);
+            }
+
+            ZipEntry coefficients = zipFile.getEntry(COEFFICIENTS_BIN);
+            if (coefficients != null) {
+                try (DataInputStream dis = new DataInputStream(new BufferedInputStream(zipFile.getInputStream(coefficients)))) {
+                    floatParams = Nd4j.read(dis);
+                }
+            }
+
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(zipFile.getInputStream(quantization)))) {
+                int nLayers = dis.readInt();
+                weights = new Int8Weights[nLayers];
+                inputScales = new float[nLayers];
+                for (int i = 0; i < nLayers; i++) {
+                    inputScales[i] = dis.readFloat();
+                    if (dis.readBoolean()) {
+                        weights[i] = readInt8Weights(dis);
+                    }
+                }
+            }
+        }
+
+        //Split the floating point parameters between layers: all parameters for layers that are not quantized, and
+        //the remaining (bias) parameters for the quantized layers
+        MultiLayerConfiguration conf = MultiLayerConfiguration.fromJson(json);
+        INDArray[] layerParams = new INDArray[weights.length];
+        long offset = 0;
+        for (int i = 0; i < weights.length; i++) {
+            NeuralNetConfiguration layerConf = conf.getConf(i);
+            long length = layerConf.getLayer().initializer().numParams(layerConf);
+            if (weights[i] != null) {
+                length -= weights[i].getValues().length;
+            }
+            if (length > 0) {
+                layerParams[i] = floatParams.get(NDArrayIndex.point(0), NDArrayIndex.interval(offset, offset + length)).dup();
+                offset += length;
+            }
+        }
+
+        return new QuantizedMultiLayerNetwork(conf, layerParams, weights, inputScales);
+    }
+
+    /**
+     * Load a quantized network from an input stream, as saved by {@link #writeModel(QuantizedMultiLayerNetwork, OutputStream)}<br>
+     * Note: the input stream is read fully and closed by this method. Consequently, the input stream cannot be re-used.
+     *
+     * @param is the input stream to load from
+     * @return the loaded quantized network
+     * @throws IOException
+     */
+    public static QuantizedMultiLayerNetwork restoreQuantizedMultiLayerNetwork(@NonNull InputStream is) throws IOException {
+        checkInputStream(is);
+
+        File tmpFile = null;
+        try{
+            tmpFile = tempFileFromStream(is);
+            return restoreQuantizedMultiLayerNetwork(tmpFile);
+        } finally {
+            if(tmpFile != null){
+                tmpFile.delete();
+            }
+        }
+    }
+
     /**
      *
      * @param model
@@ -771,7 +1001,8 @@ public class ModelSerializer {
         Preconditions.checkState(f.exists(), "File must exist: %s", f);
         Preconditions.checkArgument(!(UPDATER_BIN.equalsIgnoreCase(key) || NORMALIZER_BIN.equalsIgnoreCase(key)
                 || CONFIGURATION_JSON.equalsIgnoreCase(key) || COEFFICIENTS_BIN.equalsIgnoreCase(key)
-                || NO_PARAMS_MARKER.equalsIgnoreCase(key) || PREPROCESSOR_BIN.equalsIgnoreCase(key)),
+                || NO_PARAMS_MARKER.equalsIgnoreCase(key) || PREPROCESSOR_BIN.equalsIgnoreCase(key)
+                || QUANTIZATION_BIN.equalsIgnoreCase(key) || LOSS_SCALING_BIN.equalsIgnoreCase(key)),
                 "Invalid key: Key is reserved for internal use: \"%s\"", key);
         File tempFile = null;
         try {
@@ -838,7 +1069,8 @@ public class ModelSerializer {
         Preconditions.checkState(f.exists(), "File must exist: %s", f);
         Preconditions.checkArgument(!(UPDATER_BIN.equalsIgnoreCase(key) || NORMALIZER_BIN.equalsIgnoreCase(key)
                         || CONFIGURATION_JSON.equalsIgnoreCase(key) || COEFFICIENTS_BIN.equalsIgnoreCase(key)
-                        || NO_PARAMS_MARKER.equalsIgnoreCase(key) || PREPROCESSOR_BIN.equalsIgnoreCase(key)),
+                        || NO_PARAMS_MARKER.equalsIgnoreCase(key) || PREPROCESSOR_BIN.equalsIgnoreCase(key)
+                        || QUANTIZATION_BIN.equalsIgnoreCase(key) || LOSS_SCALING_BIN.equalsIgnoreCase(key)),
                 "Invalid key: Key is reserved for internal use: \"%s\"", key);
 
         try (ZipFile zipFile = new ZipFile(f)) {
@@ -966,6 +1198,30 @@ public class ModelSerializer {
     }
 
 
+    private static BaseMultiLayerUpdater<?> getLossScalingUpdater(Model model) {
+        Updater updater = null;
+        if (model instanceof MultiLayerNetwork) {
+            updater = ((MultiLayerNetwork) model).getUpdater();
+        } else if (model instanceof ComputationGraph) {
+            updater = ((ComputationGraph) model).getUpdater();
+        }
+
+        if (updater instanceof BaseMultiLayerUpdater && model.conf() != null && model.conf().getLossScaling() != null) {
+            return (BaseMultiLayerUpdater<?>) updater;
+        }
+        return null;
+    }
+
+    private static void restoreLossScaleState(Updater updater, byte[] state) throws IOException {
+        if (!(updater instanceof BaseMultiLayerUpdater)) {
+            return;
+        }
+
+        try (DataInputStream dis = new DataInputStream(new ByteArrayInputStream(state))) {
+            ((BaseMultiLayerUpdater<?>) updater).setLossScaleState(dis.readDouble(), dis.readInt(), dis.readLong());
+        }
+    }
+
     private static void checkInputStream(InputStream inputStream) throws IOException {
 
         /*
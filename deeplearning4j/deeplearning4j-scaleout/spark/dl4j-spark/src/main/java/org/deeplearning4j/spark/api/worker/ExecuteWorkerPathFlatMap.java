@@ -22,12 +22,16 @@ import org.deeplearning4j.api.loader.DataSetLoader;
 import org.deeplearning4j.spark.api.TrainingResult;
 import org.deeplearning4j.spark.api.TrainingWorker;
 import org.deeplearning4j.spark.api.WorkerConfiguration;
+import org.deeplearning4j.spark.data.loader.ContainerFile;
 import org.deeplearning4j.spark.iterator.PathSparkDataSetIterator;
 import org.nd4j.linalg.dataset.DataSet;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A FlatMapFunction for executing training on serialized DataSet objects, that can be loaded from a path (local or HDFS)
@@ -48,7 +52,9 @@ public class ExecuteWorkerPathFlatMap<R extends TrainingResult>
 /**
  * A FlatMapFunction for executing training on serialized DataSet objects, that can be loaded from a path (local or HDFS)
  * that is specified as a String
- * Used in both SparkDl4jMultiLayer and SparkComputationGraph implementations
+ * Used in both SparkDl4jMultiLayer and SparkComputationGraph implementations<br>
+ * Paths that refer to entries of container files (see {@link ContainerFile}) are grouped by container, so that each
+ * container file only needs to be opened once by the worker
  *
  * @author Alex Black
  */
@@ -87,6 +93,38 @@ class ExecuteWorkerPathFlatMapAdapter<R extends TrainingResult> implements FlatM
             list.add(iter.next());
         }
 
-        return workerFlatMap.call(new PathSparkDataSetIterator(list.iterator(), dataSetLoader));
+        return workerFlatMap.call(new PathSparkDataSetIterator(groupByContainer(list).iterator(), dataSetLoader));
+    }
+
+    /**
+     * Reorder the paths so that entries of the same container file are adjacent (in the order the container was
+     * first seen, and the entries within it were listed). Paths that are not container entries are left in place.
+     */
+    protected static List<String> groupByContainer(List<String> paths) {
+        Map<String, List<String>> byContainer = new HashMap<>();
+        List<List<String>> groups = new ArrayList<>(paths.size());
+        for (String s : paths) {
+            if (!ContainerFile.isEntryPath(s)) {
+                groups.add(Collections.singletonList(s));
+                continue;
+            }
+            String container = ContainerFile.containerPath(s);
+            List<String> entries = byContainer.get(container);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                byContainer.put(container, entries);
+                groups.add(entries);
+            }
+            entries.add(s);
+        }
+
+        if (byContainer.isEmpty())
+            return paths;
+
+        List<String> grouped = new ArrayList<>(paths.size());
+        for (List<String> l : groups) {
+            grouped.addAll(l);
+        }
+        return grouped;
     }
 }
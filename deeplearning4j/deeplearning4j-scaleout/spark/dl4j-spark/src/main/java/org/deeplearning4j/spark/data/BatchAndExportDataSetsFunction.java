@@ -16,11 +16,13 @@
 
 package org.deeplearning4j.spark.data;
 
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.function.Function2;
+import org.deeplearning4j.spark.data.loader.ContainerFile;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.primitives.Pair;
@@ -38,6 +40,13 @@ import java.util.*;
  * Naming convention for exported files:
  * "dataset_" + partitionIdx + JVM_UID + "_" + idx + ".bin"
  * where 'idx' is the index of the DataSet objects in this partition
+ * <p>
+ * Alternatively, when minibatchesPerFile is greater than 1, up to minibatchesPerFile DataSet objects are written to
+ * each container file (see {@link ContainerFile}), substantially reducing the number of files created (and opened
+ * during training). Naming convention for container files:
+ * "datasets_" + partitionIdx + JVM_UID + "_" + containerIdx + ".dl4jc"
+ * In this case, the returned paths refer to individual entries of the container files: "containerPath#entryIdx".
+ * These can be used directly with {@code SparkDl4jMultiLayer.fitPaths(JavaRDD)} and similar methods.
  *
  * @author Alex Black
  */
@@ -47,21 +56,49 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
     private final int minibatchSize;
     private final String exportBaseDirectory;
     private final String jvmuid;
+    private final int minibatchesPerFile;
+
+    private transient FSDataOutputStream containerOut;
+    private transient String containerPath;
+    private transient List<Long> containerOffsets;
+    private transient int containerCount;
 
     /**
      * @param minibatchSize       Minibatch size to combine examples to (if necessary)
      * @param exportBaseDirectory Base directory for exporting
      */
     public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory) {
+        this(minibatchSize, exportBaseDirectory, 1);
+    }
+
+    /**
+     * @param minibatchSize       Minibatch size to combine examples to (if necessary)
+     * @param exportBaseDirectory Base directory for exporting
+     * @param minibatchesPerFile  Maximum number of minibatches to write to each file. If 1: one file per minibatch
+     *                            (saved with {@link DataSet#save(java.io.OutputStream)}); otherwise minibatches are
+     *                            written to container files
+     */
+    public BatchAndExportDataSetsFunction(int minibatchSize, String exportBaseDirectory, int minibatchesPerFile) {
+        if (minibatchesPerFile < 1)
+            throw new IllegalArgumentException("Minibatches per file must be >= 1, got " + minibatchesPerFile);
         this.minibatchSize = minibatchSize;
         this.exportBaseDirectory = exportBaseDirectory;
+        this.minibatchesPerFile = minibatchesPerFile;
         String fullUID = UIDProvider.getJVMUID();
         this.jvmuid = (fullUID.length() <= 8 ? fullUID : fullUID.substring(0, 8));
     }
 
     @Override
     public Iterator<String> call(Integer partitionIdx, Iterator<DataSet> iterator) throws Exception {
+        containerCount = 0;
+        try {
+            return doCall(partitionIdx, iterator);
+        } finally {
+            closeContainer();
+        }
+    }
 
+    private Iterator<String> doCall(Integer partitionIdx, Iterator<DataSet> iterator) throws Exception {
         List<String> outputPaths = new ArrayList<>();
         LinkedList<DataSet> tempList = new LinkedList<>();
 
@@ -132,6 +169,10 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
     }
 
     private String export(DataSet dataSet, int partitionIdx, int outputCount) throws Exception {
+        if (minibatchesPerFile > 1) {
+            return exportToContainer(dataSet, partitionIdx);
+        }
+
         String filename = "dataset_" + partitionIdx + jvmuid + "_" + outputCount + ".bin";
 
         URI uri = new URI(exportBaseDirectory
@@ -144,4 +185,45 @@ public class BatchAndExportDataSetsFunction implements Function2<Integer, Iterat
 
         return uri.getPath();
     }
+
+    private String exportToContainer(DataSet dataSet, int partitionIdx) throws Exception {
+        if (containerOut == null) {
+            String filename = "datasets_" + partitionIdx + jvmuid + "_" + containerCount++ + ContainerFile.EXTENSION;
+            URI uri = new URI(exportBaseDirectory
+                            + (exportBaseDirectory.endsWith("/") || exportBaseDirectory.endsWith("\\") ? "" : "/")
+                            + filename);
+            FileSystem file = FileSystem.get(uri, conf);
+            containerOut = file.create(new Path(uri));
+            containerPath = uri.getPath();
+            containerOffsets = new ArrayList<>(minibatchesPerFile);
+        }
+
+        int entry = containerOffsets.size();
+        containerOffsets.add(containerOut.getPos());
+        //DataSet.save closes the stream it is given
+        dataSet.save(new CloseShieldOutputStream(containerOut));
+        String path = ContainerFile.entryPath(containerPath, entry);
+
+        if (containerOffsets.size() >= minibatchesPerFile) {
+            closeContainer();
+        }
+        return path;
+    }
+
+    private void closeContainer() throws Exception {
+        if (containerOut == null)
+            return;
+        try {
+            long[] offsets = new long[containerOffsets.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = containerOffsets.get(i);
+            }
+            ContainerFile.writeIndex(containerOut, offsets, containerOut.getPos());
+        } finally {
+            containerOut.close();
+            containerOut = null;
+            containerPath = null;
+            containerOffsets = null;
+        }
+    }
 }
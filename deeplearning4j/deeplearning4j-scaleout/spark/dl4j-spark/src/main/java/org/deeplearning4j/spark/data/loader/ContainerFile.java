@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.data.loader;
+
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utilities for container files: a single file holding many serialized objects (usually DataSets saved with
+ * {@link org.nd4j.linalg.dataset.DataSet#save(java.io.OutputStream)}), followed by an offset index.<br>
+ * Layout:<br>
+ * [entry 0][entry 1]...[entry N-1][offset 0]...[offset N-1][end offset][N (int)][index offset (long)][MAGIC (int)]<br>
+ * Container files use the extension {@link #EXTENSION}. Individual entries are referenced by String paths of the
+ * form {@code <container path>#<entry index>}, so that the existing path-based training methods (such as
+ * {@code SparkDl4jMultiLayer.fitPaths(JavaRDD)}) can be used without any changes to the RDD of paths.
+ */
+public class ContainerFile {
+    public static final int MAGIC = 0x444C3443;     //"DL4C"
+    public static final int FOOTER_LENGTH = 16;
+    public static final char ENTRY_SEPARATOR = '#';
+    public static final String EXTENSION = ".dl4jc";
+
+    private ContainerFile() {}
+
+    /**
+     * @param containerPath Path of the container file
+     * @param entry         Index of the entry in the container
+     * @return Path that refers to a single entry in the container
+     */
+    public static String entryPath(String containerPath, int entry) {
+        return containerPath + ENTRY_SEPARATOR + entry;
+    }
+
+    /**
+     * @param path Path to check
+     * @return True if the path refers to a single entry of a container file (i.e., it is of the form
+     *         "path.dl4jc#" + entry index)
+     */
+    public static boolean isEntryPath(String path) {
+        int idx = path.lastIndexOf(ENTRY_SEPARATOR);
+        if (idx == path.length() - 1 || !path.startsWith(EXTENSION, idx - EXTENSION.length()))
+            return false;
+        for (int i = idx + 1; i < path.length(); i++) {
+            if (!Character.isDigit(path.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param entryPath Entry path, as returned by {@link #entryPath(String, int)}
+     * @return Path of the container file
+     */
+    public static String containerPath(String entryPath) {
+        return entryPath.substring(0, entryPath.lastIndexOf(ENTRY_SEPARATOR));
+    }
+
+    /**
+     * @param entryPath Entry path, as returned by {@link #entryPath(String, int)}
+     * @return Index of the entry within the container file
+     */
+    public static int entryIndex(String entryPath) {
+        return Integer.parseInt(entryPath.substring(entryPath.lastIndexOf(ENTRY_SEPARATOR) + 1));
+    }
+
+    /**
+     * Write the offset index and footer. Must be called after the last entry has been written.
+     *
+     * @param out       Output stream, positioned after the last entry
+     * @param offsets   Start offset of each entry
+     * @param endOffset Offset immediately after the last entry (i.e., the current position of the stream)
+     */
+    public static void writeIndex(DataOutputStream out, long[] offsets, long endOffset) throws IOException {
+        for (long l : offsets) {
+            out.writeLong(l);
+        }
+        out.writeLong(endOffset);
+        out.writeInt(offsets.length);
+        out.writeLong(endOffset);
+        out.writeInt(MAGIC);
+        out.flush();
+    }
+
+    /**
+     * Read the offset index of a container file
+     *
+     * @param in         Input stream for the container file
+     * @param fileLength Length of the container file, in bytes
+     * @return Offsets of each entry, followed by the end offset of the last entry (length: number of entries + 1)
+     */
+    public static long[] readIndex(FSDataInputStream in, long fileLength) throws IOException {
+        if (fileLength < FOOTER_LENGTH)
+            throw new IOException("Invalid container file: length " + fileLength + " is less than footer length");
+        in.seek(fileLength - FOOTER_LENGTH);
+        int numEntries = in.readInt();
+        long indexOffset = in.readLong();
+        int magic = in.readInt();
+        if (magic != MAGIC)
+            throw new IOException("Invalid container file: footer does not contain the expected magic number");
+        if (numEntries < 0 || indexOffset < 0 || indexOffset + 8L * (numEntries + 1) + FOOTER_LENGTH != fileLength)
+            throw new IOException("Invalid container file: corrupt index (entries=" + numEntries + ", index offset="
+                            + indexOffset + ", file length=" + fileLength + ")");
+
+        long[] offsets = new long[numEntries + 1];
+        in.seek(indexOffset);
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = in.readLong();
+        }
+        return offsets;
+    }
+
+    /**
+     * Get an input stream for a single entry of an already open container file. Closing the returned stream does
+     * not close the underlying container stream, so that the container can be used to read further entries.
+     *
+     * @param in      Input stream for the container file
+     * @param offsets Offsets as returned by {@link #readIndex(FSDataInputStream, long)}
+     * @param entry   Index of the entry to read
+     */
+    public static InputStream openEntry(FSDataInputStream in, long[] offsets, int entry) throws IOException {
+        BoundedInputStream bis = new BoundedInputStream(in, seekToEntry(in, offsets, entry));
+        bis.setPropagateClose(false);
+        return bis;
+    }
+
+    /**
+     * Open a single entry of a container file. Closing the returned stream closes the container file.
+     *
+     * @param fileSystem File system for the container
+     * @param entryPath  Entry path, as returned by {@link #entryPath(String, int)}
+     * @param bufferSize Buffer size to use when opening the container
+     */
+    public static InputStream openEntry(FileSystem fileSystem, String entryPath, int bufferSize) throws IOException {
+        Path p = new Path(containerPath(entryPath));
+        long length = fileSystem.getFileStatus(p).getLen();
+        FSDataInputStream in = fileSystem.open(p, bufferSize);
+        try {
+            long[] offsets = readIndex(in, length);
+            return new BoundedInputStream(in, seekToEntry(in, offsets, entryIndex(entryPath)));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Position the container stream at the start of the specified entry
+     *
+     * @return Length of the entry, in bytes
+     */
+    private static long seekToEntry(FSDataInputStream in, long[] offsets, int entry) throws IOException {
+        if (entry < 0 || entry >= offsets.length - 1)
+            throw new IOException("Invalid entry index " + entry + ": container has " + (offsets.length - 1)
+                            + " entries");
+        in.seek(offsets[entry]);
+        return offsets[entry + 1] - offsets[entry];
+    }
+}
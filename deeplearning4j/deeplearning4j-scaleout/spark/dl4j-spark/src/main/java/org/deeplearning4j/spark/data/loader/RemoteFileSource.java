@@ -26,7 +26,8 @@ import java.io.IOException;
 import java.io.InputStream;
 
 /**
- * Generate a {@link Source} from a Hadoop-compatible filesystem
+ * Generate a {@link Source} from a Hadoop-compatible filesystem.<br>
+ * Paths referring to a single entry of a container file (see {@link ContainerFile}) are also supported.
  *
  * @author Alex Black
  */
@@ -44,6 +45,9 @@ public class RemoteFileSource implements Source {
 
     @Override
     public InputStream getInputStream() throws IOException {
+        if (ContainerFile.isEntryPath(path)) {
+            return ContainerFile.openEntry(fileSystem, path, bufferSize);
+        }
         return fileSystem.open(new Path(path), bufferSize);
     }
 }
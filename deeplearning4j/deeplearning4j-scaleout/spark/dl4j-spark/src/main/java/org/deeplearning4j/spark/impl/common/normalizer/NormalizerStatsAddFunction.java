@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.impl.common.normalizer;
+
+import org.apache.spark.api.java.function.Function2;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.preprocessor.AbstractDataSetNormalizer;
+import org.nd4j.linalg.dataset.api.preprocessor.stats.NormalizerStats;
+
+/**
+ * Function used with {@code RDD<DataSet>.treeAggregate} to accumulate normalizer statistics.
+ * The aggregate value is an array of length 2: the feature statistics builder, and the label statistics builder
+ * (null if the normalizer does not fit labels).
+ * Use with {@link NormalizerStatsMergeFunction} to merge the per-partition statistics
+ */
+public class NormalizerStatsAddFunction implements Function2<NormalizerStats.Builder[], DataSet, NormalizerStats.Builder[]> {
+
+    private final AbstractDataSetNormalizer<?> normalizer;
+
+    /**
+     * @param normalizer Normalizer to accumulate statistics for. Used only to create the statistics builders
+     */
+    public NormalizerStatsAddFunction(AbstractDataSetNormalizer<?> normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    @Override
+    public NormalizerStats.Builder[] call(NormalizerStats.Builder[] builders, DataSet dataSet) throws Exception {
+        if (builders == null) {
+            builders = new NormalizerStats.Builder[] {normalizer.newStatsBuilder(),
+                            normalizer.isFitLabel() ? normalizer.newStatsBuilder() : null};
+        }
+        builders[0].addFeatures(dataSet);
+        if (builders[1] != null) {
+            builders[1].addLabels(dataSet);
+        }
+        return builders;
+    }
+}
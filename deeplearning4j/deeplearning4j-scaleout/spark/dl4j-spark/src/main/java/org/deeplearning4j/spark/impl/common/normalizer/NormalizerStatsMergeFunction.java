@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.impl.common.normalizer;
+
+import org.apache.spark.api.java.function.Function2;
+import org.nd4j.linalg.dataset.api.preprocessor.stats.NormalizerStats;
+
+/**
+ * A simple function to merge normalizer statistics builders, as produced by {@link NormalizerStatsAddFunction}.
+ * Uses {@link NormalizerStats.Builder#merge(NormalizerStats.Builder)}, which is the same merge logic used for
+ * multi-threaded fitting of normalizers
+ */
+public class NormalizerStatsMergeFunction
+                implements Function2<NormalizerStats.Builder[], NormalizerStats.Builder[], NormalizerStats.Builder[]> {
+    @Override
+    public NormalizerStats.Builder[] call(NormalizerStats.Builder[] v1, NormalizerStats.Builder[] v2) throws Exception {
+        if (v1 == null)
+            return v2;
+        if (v2 == null)
+            return v1;
+        for (int i = 0; i < v1.length; i++) {
+            if (v1[i] == null) {
+                v1[i] = v2[i];
+            } else if (v2[i] != null) {
+                v1[i].merge(v2[i]);
+            }
+        }
+        return v1;
+    }
+}
@@ -70,6 +70,7 @@ public abstract class BaseTrainingMaster<R extends TrainingResult, W extends Tra
     protected String lastRDDExportPath;
     protected int batchSizePerWorker;
     protected String exportDirectory = null;
+    protected int exportMinibatchesPerFile = 1;
     protected Random rng;
 
     protected String trainingMasterUID;
@@ -197,7 +198,8 @@ public abstract class BaseTrainingMaster<R extends TrainingResult, W extends Tra
 
         log.info("Initiating RDD<DataSet> export at {}", baseDir);
         JavaRDD<String> paths = trainingData
-                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir), true);
+                        .mapPartitionsWithIndex(new BatchAndExportDataSetsFunction(batchSizePerWorker, dataDir,
+                                        exportMinibatchesPerFile), true);
         paths.saveAsTextFile(pathsDir);
         log.info("RDD<DataSet> export complete at {}", baseDir);
 
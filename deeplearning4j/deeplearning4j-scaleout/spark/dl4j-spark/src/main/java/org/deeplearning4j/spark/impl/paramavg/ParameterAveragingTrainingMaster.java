@@ -121,6 +121,7 @@ public class ParameterAveragingTrainingMaster
         this.storageLevelStreams = builder.storageLevelStreams;
         this.rddTrainingApproach = builder.rddTrainingApproach;
         this.exportDirectory = builder.exportDirectory;
+        this.exportMinibatchesPerFile = builder.exportMinibatchesPerFile;
         this.trainingHookList = builder.trainingHooks;
         this.collectTrainingStats = builder.collectTrainingStats;
         if (collectTrainingStats)
@@ -761,6 +762,7 @@ public class ParameterAveragingTrainingMaster
         protected StorageLevel storageLevelStreams = StorageLevel.MEMORY_ONLY();
         protected RDDTrainingApproach rddTrainingApproach = RDDTrainingApproach.Export;
         protected String exportDirectory = null;
+        protected int exportMinibatchesPerFile = 1;
         protected Long rngSeed;
         protected Collection<TrainingHook> trainingHooks;
         protected boolean collectTrainingStats = false;
@@ -979,6 +981,25 @@ public class ParameterAveragingTrainingMaster
             return this;
         }
 
+        /**
+         * When {@link #rddTrainingApproach(RDDTrainingApproach)} is set to {@link RDDTrainingApproach#Export} (as it is by default)
+         * the data is exported to a temporary directory first. This setting controls how many minibatches are written
+         * to each exported file: with the default of 1, one file is created per minibatch. Larger values write
+         * minibatches to container files (see {@link org.deeplearning4j.spark.data.loader.ContainerFile}), which can
+         * be much faster on file systems such as HDFS where creating and opening many small files is expensive.
+         * Note: currently only applies to {@code RDD<DataSet>} export.
+         * <p>
+         * Default: 1
+         *
+         * @param exportMinibatchesPerFile Maximum number of minibatches per exported file
+         */
+        public Builder exportMinibatchesPerFile(int exportMinibatchesPerFile) {
+            if (exportMinibatchesPerFile < 1)
+                throw new IllegalArgumentException("Minibatches per file must be >= 1, got " + exportMinibatchesPerFile);
+            this.exportMinibatchesPerFile = exportMinibatchesPerFile;
+            return this;
+        }
+
         /**
          * Random number generator seed, used mainly for enforcing repeatable splitting on RDDs
          * Default: no seed set (i.e., random seed)
@@ -17,11 +17,17 @@
 package org.deeplearning4j.spark.iterator;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.deeplearning4j.api.loader.DataSetLoader;
+import org.deeplearning4j.spark.data.loader.ContainerFile;
 import org.deeplearning4j.spark.data.loader.RemoteFileSource;
+import org.nd4j.api.loader.Source;
 import org.nd4j.linalg.dataset.DataSet;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.Collection;
@@ -29,7 +35,9 @@ import java.util.Iterator;
 
 /**
  * A DataSetIterator that loads serialized DataSet objects (saved with {@link DataSet#save(OutputStream)}) from
- * a String that represents the path (for example, on HDFS)
+ * a String that represents the path (for example, on HDFS).<br>
+ * Paths may also refer to entries of a container file (see {@link ContainerFile}): in this case, the container file
+ * is kept open (and its index is read only once) while consecutive paths refer to entries of the same container.
  *
  * @author Alex Black
  */
@@ -38,6 +46,9 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
     public static final int BUFFER_SIZE = 4194304; //4 MB
     private FileSystem fileSystem;
     private DataSetLoader dataSetLoader;
+    private String containerPath;
+    private FSDataInputStream containerStream;
+    private long[] containerIndex;
 
     public PathSparkDataSetIterator(Iterator<String> iter, DataSetLoader dataSetLoader) {
         this.dataSetStreams = null;
@@ -51,6 +62,20 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
         this.dataSetLoader = dataSetLoader;
     }
 
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = super.hasNext();
+        if (!hasNext)
+            closeContainer();
+        return hasNext;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        closeContainer();
+    }
+
     @Override
     public DataSet next() {
         DataSet ds;
@@ -81,10 +106,51 @@ public class PathSparkDataSetIterator extends BaseDataSetIterator<String> {
         }
         cursor++;
         try{
+            if (ContainerFile.isEntryPath(path)) {
+                return dataSetLoader.load(containerEntrySource(path));
+            }
             return dataSetLoader.load(new RemoteFileSource(path, fileSystem, BUFFER_SIZE));
         } catch (Exception e){
             throw new RuntimeException("Error loading DataSet at path " + path + " - DataSet may be corrupt or invalid." +
                     " Spark DataSets can be validated using org.deeplearning4j.spark.util.data.SparkDataValidation", e);
         }
     }
+
+    private Source containerEntrySource(final String path) throws IOException {
+        String container = ContainerFile.containerPath(path);
+        if (!container.equals(containerPath)) {
+            closeContainer();
+            Path p = new Path(container);
+            long length = fileSystem.getFileStatus(p).getLen();
+            containerStream = fileSystem.open(p, BUFFER_SIZE);
+            containerIndex = ContainerFile.readIndex(containerStream, length);
+            containerPath = container;
+        }
+
+        final InputStream is = ContainerFile.openEntry(containerStream, containerIndex, ContainerFile.entryIndex(path));
+        return new Source() {
+            @Override
+            public InputStream getInputStream() {
+                return is;
+            }
+
+            @Override
+            public String getPath() {
+                return path;
+            }
+        };
+    }
+
+    protected synchronized void closeContainer() {
+        if (containerStream != null) {
+            try {
+                containerStream.close();
+            } catch (IOException e) {
+                //Ignore - already finished reading from this container
+            }
+        }
+        containerStream = null;
+        containerIndex = null;
+        containerPath = null;
+    }
 }
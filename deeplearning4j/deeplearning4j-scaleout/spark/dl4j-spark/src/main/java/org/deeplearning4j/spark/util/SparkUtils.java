@@ -39,6 +39,8 @@ import org.deeplearning4j.spark.data.shuffle.SplitDataSetExamplesPairFlatMapFunc
 import org.deeplearning4j.spark.impl.common.CountPartitionsFunction;
 import org.deeplearning4j.spark.impl.common.SplitPartitionsFunction;
 import org.deeplearning4j.spark.impl.common.SplitPartitionsFunction2;
+import org.deeplearning4j.spark.impl.common.normalizer.NormalizerStatsAddFunction;
+import org.deeplearning4j.spark.impl.common.normalizer.NormalizerStatsMergeFunction;
 import org.deeplearning4j.spark.impl.common.repartition.BalancedPartitioner;
 import org.deeplearning4j.spark.impl.common.repartition.EqualPartitioner;
 import org.deeplearning4j.spark.impl.common.repartition.HashingBalancedPartitioner;
@@ -47,6 +49,8 @@ import org.deeplearning4j.spark.impl.repartitioner.EqualRepartitioner;
 import org.deeplearning4j.util.UIDProvider;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.preprocessor.AbstractDataSetNormalizer;
+import org.nd4j.linalg.dataset.api.preprocessor.stats.NormalizerStats;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.MathUtils;
 import org.slf4j.Logger;
@@ -569,6 +573,24 @@ public class SparkUtils {
         return singleExampleDataSets.values().mapPartitions(new BatchDataSetsFunction(newBatchSize));
     }
 
+    /**
+     * Fit a normalizer (such as {@link org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize} or
+     * {@link org.nd4j.linalg.dataset.api.preprocessor.NormalizerMinMaxScaler}) on the data in the RDD.
+     * Partial statistics are computed for each partition, and merged using a tree aggregation.
+     * Labels are also fit if {@link AbstractDataSetNormalizer#isFitLabel()} is true.
+     *
+     * @param rdd        Data to fit the normalizer on
+     * @param normalizer Normalizer to fit
+     */
+    public static void fitNormalizer(JavaRDD<DataSet> rdd, AbstractDataSetNormalizer<?> normalizer) {
+        NormalizerStats.Builder[] builders = rdd.treeAggregate(null, new NormalizerStatsAddFunction(normalizer),
+                        new NormalizerStatsMergeFunction());
+        if (builders == null) {
+            throw new IllegalStateException("Cannot fit normalizer: RDD is empty");
+        }
+        normalizer.fit(builders[0], builders[1]);
+    }
+
     /**
      * Get the Spark executor ID<br>
      * The ID is parsed from the JVM launch args. If that is not specified (or can't be obtained) then the value
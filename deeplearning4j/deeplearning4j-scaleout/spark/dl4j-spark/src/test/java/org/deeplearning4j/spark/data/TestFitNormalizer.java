@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.deeplearning4j.spark.data;
+
+import org.apache.spark.api.java.JavaRDD;
+import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.util.SparkUtils;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerMinMaxScaler;
+import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestFitNormalizer extends BaseSparkTest {
+
+    @Test
+    public void testFitNormalizer() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray features = Nd4j.randn(200, 5).muli(10).addi(50);
+        INDArray labels = Nd4j.rand(200, 3);
+        DataSet all = new DataSet(features, labels);
+
+        List<DataSet> list = new ArrayList<>();
+        for (int i = 0; i < 200; i += 10) {
+            list.add(new DataSet(features.get(NDArrayIndex.interval(i, i + 10), NDArrayIndex.all()).dup(),
+                            labels.get(NDArrayIndex.interval(i, i + 10), NDArrayIndex.all()).dup()));
+        }
+        JavaRDD<DataSet> rdd = sc.parallelize(list, 4);
+
+        NormalizerStandardize expected = new NormalizerStandardize();
+        expected.fitLabel(true);
+        expected.fit(all);
+
+        NormalizerStandardize norm = new NormalizerStandardize();
+        norm.fitLabel(true);
+        SparkUtils.fitNormalizer(rdd, norm);
+
+        assertTrue(expected.getMean().equalsWithEps(norm.getMean(), 1e-3));
+        assertTrue(expected.getStd().equalsWithEps(norm.getStd(), 1e-3));
+        assertTrue(expected.getLabelMean().equalsWithEps(norm.getLabelMean(), 1e-4));
+        assertTrue(expected.getLabelStd().equalsWithEps(norm.getLabelStd(), 1e-4));
+
+        NormalizerMinMaxScaler expectedMinMax = new NormalizerMinMaxScaler();
+        expectedMinMax.fit(all);
+        NormalizerMinMaxScaler minMax = new NormalizerMinMaxScaler();
+        SparkUtils.fitNormalizer(rdd, minMax);
+
+        assertEquals(expectedMinMax.getMin(), minMax.getMin());
+        assertEquals(expectedMinMax.getMax(), minMax.getMax());
+    }
+}
@@ -19,9 +19,12 @@ package org.deeplearning4j.spark.datavec;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.spark.api.java.JavaRDD;
+import org.deeplearning4j.api.loader.impl.SerializedDataSetLoader;
 import org.deeplearning4j.spark.BaseSparkTest;
 import org.deeplearning4j.spark.data.BatchAndExportDataSetsFunction;
 import org.deeplearning4j.spark.data.BatchAndExportMultiDataSetsFunction;
+import org.deeplearning4j.spark.data.loader.ContainerFile;
+import org.deeplearning4j.spark.iterator.PathSparkDataSetIterator;
 import org.junit.Test;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.MultiDataSet;
@@ -34,7 +37,9 @@ import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by Alex on 29/08/2016.
@@ -99,6 +104,65 @@ public class TestExport extends BaseSparkTest {
         FileUtils.deleteDirectory(f);
     }
 
+    @Test
+    public void testBatchAndExportDataSetsFunctionContainers() throws Exception {
+        String baseDir = System.getProperty("java.io.tmpdir");
+        baseDir = FilenameUtils.concat(baseDir, "dl4j_spark_testBatchAndExportContainers/");
+        baseDir = baseDir.replaceAll("\\\\", "/");
+        File f = new File(baseDir);
+        if (f.exists())
+            FileUtils.deleteDirectory(f);
+        f.mkdir();
+        f.deleteOnExit();
+        int minibatchSize = 5;
+        int minibatchesPerFile = 8;
+        int nIn = 4;
+        int nOut = 3;
+
+        List<DataSet> dataSets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            dataSets.add(new DataSet(Nd4j.rand(minibatchSize, nIn), Nd4j.rand(minibatchSize, nOut)));
+        }
+
+        JavaRDD<DataSet> rdd = sc.parallelize(dataSets, 1);
+
+        JavaRDD<String> pathsRdd = rdd.mapPartitionsWithIndex(
+                        new BatchAndExportDataSetsFunction(minibatchSize, "file:///" + baseDir, minibatchesPerFile), true);
+
+        List<String> paths = pathsRdd.collect();
+        assertEquals(100, paths.size());
+        for (String s : paths) {
+            assertTrue(s, ContainerFile.isEntryPath(s));
+        }
+        //Plain files whose name happens to end in "#<digits>" are not container entries
+        assertFalse(ContainerFile.isEntryPath(baseDir + "dataset#3"));
+        assertFalse(ContainerFile.isEntryPath(baseDir + "dataset_0.bin#3"));
+
+        File[] files = f.listFiles();
+        assertNotNull(files);
+        int numContainers = 0;
+        for (File file : files) {
+            if (file.getPath().endsWith(ContainerFile.EXTENSION))
+                numContainers++;
+        }
+        assertEquals(13, numContainers); //ceil(100/8)
+
+        //Load in reverse order, to check seeking within (and switching between) containers
+        List<String> reversed = new ArrayList<>(paths);
+        Collections.reverse(reversed);
+        PathSparkDataSetIterator iter = new PathSparkDataSetIterator(reversed, new SerializedDataSetLoader());
+        List<DataSet> loaded = new ArrayList<>();
+        while (iter.hasNext()) {
+            loaded.add(iter.next());
+        }
+        Collections.reverse(loaded);
+
+        //Single partition, no repartitioning: export order matches the original order
+        assertEquals(dataSets, loaded);
+
+        FileUtils.deleteDirectory(f);
+    }
+
     @Test
     public void testBatchAndExportMultiDataSetsFunction() throws Exception {
         String baseDir = System.getProperty("java.io.tmpdir");
@@ -19,6 +19,7 @@ package org.nd4j.linalg.dataset.api.iterator;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
 import org.nd4j.linalg.dataset.api.iterator.cache.DataSetCache;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +37,8 @@ public class CachingDataSetIterator implements DataSetIterator {
     private int currentIndex = 0;
     private boolean usingCache = false;
     private boolean allowPrefetching;
+    private boolean shuffle;
+    private int[] order;
 
     public CachingDataSetIterator(DataSetIterator sourceIterator, DataSetCache cache, String namespace) {
         this(sourceIterator, cache, namespace, false);
@@ -43,6 +46,19 @@ public class CachingDataSetIterator implements DataSetIterator {
 
     public CachingDataSetIterator(DataSetIterator sourceIterator, DataSetCache cache, String namespace,
                     boolean allowPrefetching) {
+        this(sourceIterator, cache, namespace, allowPrefetching, false);
+    }
+
+    /**
+     * @param sourceIterator the iterator to cache
+     * @param cache the cache to use
+     * @param namespace the namespace of the cached DataSets
+     * @param allowPrefetching whether asynchronous prefetching is supported
+     * @param shuffle if true: once the cache is complete, each {@link #reset()} shuffles the order in which
+     *                the cached DataSets are returned (using {@link Nd4j#getRandom()})
+     */
+    public CachingDataSetIterator(DataSetIterator sourceIterator, DataSetCache cache, String namespace,
+                    boolean allowPrefetching, boolean shuffle) {
         this.sourceIterator = sourceIterator;
         this.cache = cache;
         this.namespace = namespace;
@@ -50,6 +66,7 @@ public class CachingDataSetIterator implements DataSetIterator {
 
         this.usingCache = cache.isComplete(namespace);
         this.allowPrefetching = allowPrefetching;
+        this.shuffle = shuffle;
     }
 
     public CachingDataSetIterator(DataSetIterator sourceIterator, DataSetCache cache) {
@@ -89,6 +106,28 @@ public class CachingDataSetIterator implements DataSetIterator {
     public void reset() {
         sourceIterator.reset();
         currentIndex = 0;
+        if (usingCache && shuffle) {
+            order = shuffledOrder();
+        }
+    }
+
+    private int[] shuffledOrder() {
+        int numCached = 0;
+        while (cache.contains(makeKey(numCached))) {
+            numCached++;
+        }
+
+        int[] ret = new int[numCached];
+        for (int i = 0; i < numCached; i++) {
+            ret[i] = i;
+        }
+        for (int i = numCached - 1; i > 0; i--) {
+            int j = Nd4j.getRandom().nextInt(i + 1);
+            int tmp = ret[i];
+            ret[i] = ret[j];
+            ret[j] = tmp;
+        }
+        return ret;
     }
 
     @Override
@@ -114,6 +153,9 @@ public class CachingDataSetIterator implements DataSetIterator {
     @Override
     public boolean hasNext() {
         if (usingCache) {
+            if (order != null) {
+                return currentIndex < order.length;
+            }
             return cache.contains(makeKey(currentIndex));
         } else {
             if (sourceIterator.hasNext()) {
@@ -128,7 +170,7 @@ public class CachingDataSetIterator implements DataSetIterator {
 
     @Override
     public DataSet next() {
-        String key = makeKey(currentIndex);
+        String key = makeKey(usingCache && order != null ? order[currentIndex] : currentIndex);
 
         DataSet ds;
 
@@ -0,0 +1,451 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.linalg.dataset.api.iterator.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bytedeco.javacpp.BytePointer;
+import org.bytedeco.javacpp.Pointer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.factory.DataBufferFactory;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.util.ArrayUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * A {@link DataSetCache} that appends all DataSets to a few large segment files,
+ * instead of writing one file per DataSet as {@link InFileDataSetCache} does.
+ * An index (key to segment, offset and length) is kept in memory, and is written to disk whenever a namespace
+ * is completed, so a cache directory can be reused by later runs.
+ *
+ * Segments are memory mapped for reading: getting a DataSet is a copy of each array's bytes from the mapped
+ * file in to a new (off heap) array, with no deserialization.
+ * Reading a cached DataSet only needs an index lookup, so cached DataSets can be read in any order at no
+ * extra cost (as {@link org.nd4j.linalg.dataset.api.iterator.CachingDataSetIterator} does when shuffling).
+ * The keys of all cached DataSets can be listed via {@link #keys()}.
+ *
+ * Floating point arrays can optionally be stored as float16 ({@link Compression#FLOAT16}) to halve the
+ * size of the cache, at the cost of precision.
+ *
+ * Records are written in native byte order, so a cache directory should only be read on the platform it
+ * was written on.
+ */
+@Slf4j
+public class SegmentedFileDataSetCache implements DataSetCache, Closeable {
+    public static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+    private static final String INDEX_FILE = "segments.index";
+    private static final int INDEX_VERSION = 1;
+    private static final int ALIGNMENT = 8;
+    private static final int NUM_ARRAYS = 4;
+    private static final byte ENCODING_NONE = 0;
+    private static final byte ENCODING_FLOAT16 = 1;
+
+    public enum Compression {
+        /** Arrays are stored as-is */
+        NONE,
+        /** Float and double arrays are stored as float16 */
+        FLOAT16
+    }
+
+    private final File cacheDirectory;
+    private final long segmentSize;
+    private final Compression compression;
+    private final Map<String, Entry> index = new HashMap<>();
+    private final Set<String> completeNamespaces = new HashSet<>();
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+    private int numSegments;
+    private RandomAccessFile currentSegment;
+    private ByteBuffer writeBuffer;
+
+    public SegmentedFileDataSetCache(File cacheDirectory) {
+        this(cacheDirectory, DEFAULT_SEGMENT_SIZE, Compression.NONE);
+    }
+
+    public SegmentedFileDataSetCache(Path cacheDirectory) {
+        this(cacheDirectory.toFile());
+    }
+
+    public SegmentedFileDataSetCache(String cacheDirectory) {
+        this(new File(cacheDirectory));
+    }
+
+    /**
+     * @param cacheDirectory the directory to store the segment and index files in
+     * @param segmentSize the size (in bytes) after which a new segment file is started. At most 2GB
+     * @param compression compression of the arrays in the cache
+     */
+    public SegmentedFileDataSetCache(File cacheDirectory, long segmentSize, Compression compression) {
+        if (cacheDirectory.exists() && !cacheDirectory.isDirectory()) {
+            throw new IllegalArgumentException("can't use path " + cacheDirectory + " as file cache directory "
+                            + "because it already exists, but is not a directory");
+        }
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between 1 and " + Integer.MAX_VALUE
+                            + " bytes, got " + segmentSize);
+        }
+        this.cacheDirectory = cacheDirectory;
+        this.segmentSize = segmentSize;
+        this.compression = compression;
+
+        File indexFile = new File(cacheDirectory, INDEX_FILE);
+        if (indexFile.exists()) {
+            readIndex(indexFile);
+        }
+    }
+
+    @Override
+    public synchronized boolean isComplete(String namespace) {
+        return completeNamespaces.contains(namespace);
+    }
+
+    @Override
+    public synchronized void setComplete(String namespace, boolean value) {
+        boolean changed = value ? completeNamespaces.add(namespace) : completeNamespaces.remove(namespace);
+        if (changed) {
+            writeIndex();
+        }
+    }
+
+    @Override
+    public synchronized DataSet get(String key) {
+        Entry entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        ByteBuffer record = mapping(entry.segment, entry.offset + entry.length).duplicate().order(ByteOrder.nativeOrder());
+        record.position((int) entry.offset);
+        record.limit((int) (entry.offset + entry.length));
+        record = record.slice().order(ByteOrder.nativeOrder());
+
+        INDArray[] arrays = new INDArray[NUM_ARRAYS];
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            arrays[i] = readArray(record);
+        }
+        return new DataSet(arrays[0], arrays[1], arrays[2], arrays[3]);
+    }
+
+    @Override
+    public synchronized void put(String key, DataSet dataSet) {
+        INDArray[] arrays = new INDArray[] {dataSet.getFeatures(), dataSet.getLabels(), dataSet.getFeaturesMaskArray(),
+                        dataSet.getLabelsMaskArray()};
+        long length = 0;
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            arrays[i] = prepare(arrays[i]);
+            length += recordLength(arrays[i]);
+        }
+        if (length > segmentSize) {
+            throw new IllegalArgumentException("DataSet " + key + " (" + length + " bytes) is larger than the segment size of "
+                            + segmentSize + " bytes");
+        }
+
+        ByteBuffer buffer = writeBuffer(length);
+        for (int i = 0; i < NUM_ARRAYS; i++) {
+            writeArray(buffer, arrays[i]);
+        }
+        buffer.flip();
+
+        try {
+            if (currentSegment == null || currentSegment.length() + length > segmentSize) {
+                startSegment();
+            }
+            FileChannel channel = currentSegment.getChannel();
+            long offset = channel.size();
+            channel.position(offset);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            index.put(key, new Entry(numSegments - 1, offset, length));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write DataSet " + key + " to cache directory " + cacheDirectory, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * @return the keys of all DataSets in the cache
+     */
+    public synchronized Set<String> keys() {
+        return new HashSet<>(index.keySet());
+    }
+
+    /**
+     * @return the number of segment files in use
+     */
+    public synchronized int numSegments() {
+        return numSegments;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (currentSegment != null) {
+            currentSegment.close();
+            currentSegment = null;
+        }
+        mappings.clear();
+    }
+
+    private INDArray prepare(INDArray arr) {
+        if (arr == null) {
+            return null;
+        }
+        if (arr.isCompressed()) {
+            arr = arr.dup();
+            Nd4j.getCompressor().decompressi(arr);
+        }
+        if (arr.isView()) {
+            arr = arr.dup(arr.ordering());
+        }
+        switch (arr.data().dataType()) {
+            case DOUBLE:
+            case FLOAT:
+            case INT:
+            case LONG:
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported data type in DataSet cache: " + arr.data().dataType());
+        }
+        Nd4j.getAffinityManager().ensureLocation(arr, AffinityManager.Location.HOST);
+        return arr;
+    }
+
+    private long recordLength(INDArray arr) {
+        if (arr == null) {
+            return ALIGNMENT;
+        }
+        //present, encoding, data type, order + rank + shape + data
+        long header = 4 + 4 + 8L * arr.rank();
+        return header + align(arr.length() * storedElementSize(arr));
+    }
+
+    private int storedElementSize(INDArray arr) {
+        return isFloat16(arr) ? 2 : arr.data().getElementSize();
+    }
+
+    private boolean isFloat16(INDArray arr) {
+        DataBuffer.Type type = arr.data().dataType();
+        return compression == Compression.FLOAT16 && (type == DataBuffer.Type.FLOAT || type == DataBuffer.Type.DOUBLE);
+    }
+
+    private void writeArray(ByteBuffer buffer, INDArray arr) {
+        int start = buffer.position();
+        if (arr == null) {
+            buffer.put((byte) 0);
+            buffer.position(start + ALIGNMENT);
+            return;
+        }
+
+        boolean float16 = isFloat16(arr);
+        buffer.put((byte) 1);
+        buffer.put(float16 ? ENCODING_FLOAT16 : ENCODING_NONE);
+        buffer.put((byte) arr.data().dataType().ordinal());
+        buffer.put((byte) arr.ordering());
+        buffer.putInt(arr.rank());
+        for (int i = 0; i < arr.rank(); i++) {
+            buffer.putLong(arr.size(i));
+        }
+
+        long numBytes = arr.length() * storedElementSize(arr);
+        if (numBytes > 0) {
+            Pointer target = new BytePointer(buffer).position(buffer.position());
+            if (float16) {
+                Nd4j.getNDArrayFactory().convertDataEx(typeEx(arr.data().dataType()), arr.data().addressPointer(),
+                                DataBuffer.TypeEx.FLOAT16, target, arr.length());
+            } else {
+                Pointer.memcpy(target, arr.data().addressPointer(), numBytes);
+            }
+        }
+        buffer.position((int) (start + recordLength(arr)));
+    }
+
+    private INDArray readArray(ByteBuffer record) {
+        int start = record.position();
+        if (record.get() == 0) {
+            record.position(start + ALIGNMENT);
+            return null;
+        }
+
+        byte encoding = record.get();
+        DataBuffer.Type type = DataBuffer.Type.values()[record.get()];
+        char order = (char) record.get();
+        int rank = record.getInt();
+        long[] shape = new long[rank];
+        for (int i = 0; i < rank; i++) {
+            shape[i] = record.getLong();
+        }
+
+        long length = ArrayUtil.prodLong(shape);
+        DataBuffer data = createBuffer(type, length);
+        Pointer source = new BytePointer(record).position(record.position());
+        if (encoding == ENCODING_FLOAT16) {
+            Nd4j.getNDArrayFactory().convertDataEx(DataBuffer.TypeEx.FLOAT16, source, typeEx(type),
+                            data.addressPointer(), length);
+            record.position((int) (record.position() + align(length * 2)));
+        } else {
+            Pointer.memcpy(data.addressPointer(), source, length * data.getElementSize());
+            record.position((int) (record.position() + align(length * data.getElementSize())));
+        }
+
+        long[] stride = order == 'f' ? ArrayUtil.calcStridesFortran(shape) : ArrayUtil.calcStrides(shape);
+        return Nd4j.create(data, shape, stride, 0, order);
+    }
+
+    private static DataBuffer createBuffer(DataBuffer.Type type, long length) {
+        DataBufferFactory factory = Nd4j.getDataBufferFactory();
+        switch (type) {
+            case DOUBLE:
+                return factory.createDouble(length, false);
+            case FLOAT:
+                return factory.createFloat(length, false);
+            case INT:
+                return factory.createInt(length, false);
+            case LONG:
+                return factory.createLong(length, false);
+            default:
+                throw new IllegalStateException("Unsupported data type in DataSet cache: " + type);
+        }
+    }
+
+    private static DataBuffer.TypeEx typeEx(DataBuffer.Type type) {
+        return type == DataBuffer.Type.DOUBLE ? DataBuffer.TypeEx.DOUBLE : DataBuffer.TypeEx.FLOAT;
+    }
+
+    private static long align(long length) {
+        return (length + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private ByteBuffer writeBuffer(long length) {
+        if (writeBuffer == null || writeBuffer.capacity() < length) {
+            long capacity = writeBuffer == null ? length
+                            : Math.max(length, Math.min(2L * writeBuffer.capacity(), segmentSize));
+            writeBuffer = ByteBuffer.allocateDirect((int) capacity).order(ByteOrder.nativeOrder());
+        }
+        writeBuffer.clear();
+        writeBuffer.limit((int) length);
+        return writeBuffer;
+    }
+
+    private void startSegment() throws IOException {
+        if (currentSegment != null) {
+            currentSegment.close();
+        }
+        if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+            throw new IllegalStateException("ERROR: cannot create cache directory: " + cacheDirectory);
+        }
+        File file = segmentFile(numSegments);
+        currentSegment = new RandomAccessFile(file, "rw");
+        currentSegment.setLength(0);
+        mappings.add(null);
+        numSegments++;
+        log.debug("Started DataSet cache segment {}", file);
+    }
+
+    private MappedByteBuffer mapping(int segment, long minLength) {
+        MappedByteBuffer mapping = mappings.get(segment);
+        if (mapping == null || mapping.capacity() < minLength) {
+            try (RandomAccessFile file = new RandomAccessFile(segmentFile(segment), "r")) {
+                mapping = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to map DataSet cache segment " + segmentFile(segment), e);
+            }
+            mappings.set(segment, mapping);
+        }
+        return mapping;
+    }
+
+    private File segmentFile(int segment) {
+        return new File(cacheDirectory, String.format("segment-%05d.bin", segment));
+    }
+
+    private void writeIndex() {
+        if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+            throw new IllegalStateException("ERROR: cannot create cache directory: " + cacheDirectory);
+        }
+        File indexFile = new File(cacheDirectory, INDEX_FILE);
+        File tmp = new File(cacheDirectory, INDEX_FILE + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            dos.writeInt(INDEX_VERSION);
+            dos.writeInt(numSegments);
+            dos.writeInt(completeNamespaces.size());
+            for (String namespace : completeNamespaces) {
+                dos.writeUTF(namespace);
+            }
+            dos.writeInt(index.size());
+            for (Map.Entry<String, Entry> e : index.entrySet()) {
+                dos.writeUTF(e.getKey());
+                dos.writeInt(e.getValue().segment);
+                dos.writeLong(e.getValue().offset);
+                dos.writeLong(e.getValue().length);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to write DataSet cache index " + indexFile, e);
+        }
+        if (indexFile.exists() && !indexFile.delete() || !tmp.renameTo(indexFile)) {
+            throw new IllegalStateException("ERROR: cannot replace DataSet cache index " + indexFile);
+        }
+    }
+
+    private void readIndex(File indexFile) {
+        try (DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            int version = dis.readInt();
+            if (version != INDEX_VERSION) {
+                throw new IllegalStateException("Unsupported DataSet cache index version " + version + " in " + indexFile);
+            }
+            numSegments = dis.readInt();
+            for (int i = 0; i < numSegments; i++) {
+                mappings.add(null);
+            }
+            int numNamespaces = dis.readInt();
+            for (int i = 0; i < numNamespaces; i++) {
+                completeNamespaces.add(dis.readUTF());
+            }
+            int numEntries = dis.readInt();
+            for (int i = 0; i < numEntries; i++) {
+                index.put(dis.readUTF(), new Entry(dis.readInt(), dis.readLong(), dis.readLong()));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to read DataSet cache index " + indexFile, e);
+        }
+    }
+
+    private static class Entry {
+        private final int segment;
+        private final long offset;
+        private final long length;
+
+        private Entry(int segment, long offset, long length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -26,6 +26,11 @@ import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.preprocessor.stats.NormalizerStats;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Abstract base class for normalizers
  * that act upon {@link DataSet} instances
@@ -119,6 +124,131 @@ public abstract class AbstractDataSetNormalizer<S extends NormalizerStats> exten
         iterator.reset();
     }
 
+    /**
+     * Fit the given model, using multiple threads to compute the statistics. The iterator is consumed by the calling
+     * thread; each worker thread accumulates partial statistics for the DataSets it receives, and the partial
+     * statistics are merged once the iterator is exhausted (see {@link NormalizerStats.Builder#merge(NormalizerStats.Builder)}).
+     * Useful when computing the statistics (rather than loading the data) is the bottleneck.
+     *
+     * @param iterator   for the data to iterate over
+     * @param numThreads number of threads to use for computing statistics. If 1: equivalent to {@link #fit(DataSetIterator)}
+     */
+    public void fit(DataSetIterator iterator, int numThreads) {
+        if (numThreads <= 1) {
+            fit(iterator);
+            return;
+        }
+
+        final BlockingQueue<DataSet> queue = new ArrayBlockingQueue<>(2 * numThreads);
+        final DataSet terminal = new org.nd4j.linalg.dataset.DataSet();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final NormalizerStats.Builder[] featureBuilders = new NormalizerStats.Builder[numThreads];
+        final NormalizerStats.Builder[] labelBuilders = new NormalizerStats.Builder[numThreads];
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            featureBuilders[i] = newBuilder();
+            labelBuilders[i] = newBuilder();
+            final int idx = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            DataSet next = queue.take();
+                            if (next == terminal) {
+                                return;
+                            }
+                            featureBuilders[idx].addFeatures(next);
+                            if (fitLabels) {
+                                labelBuilders[idx].addLabels(next);
+                            }
+                        }
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                    }
+                }
+            }, "NormalizerFit-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        try {
+            iterator.reset();
+            while (iterator.hasNext() && error.get() == null) {
+                DataSet next = iterator.next();
+                //Arrays may be in a (cyclic) workspace that is reused by the iterator for later DataSets
+                next.detach();
+                while (!queue.offer(next, 100, TimeUnit.MILLISECONDS)) {
+                    if (error.get() != null) {
+                        break;
+                    }
+                }
+            }
+            for (int i = 0; i < numThreads; i++) {
+                while (!queue.offer(terminal, 100, TimeUnit.MILLISECONDS)) {
+                    if (error.get() != null) {
+                        break;
+                    }
+                }
+            }
+            if (error.get() != null) {
+                //Worker failed: make sure the remaining workers exit
+                queue.clear();
+                for (Thread t : threads) {
+                    t.interrupt();
+                }
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+        } catch (InterruptedException e) {
+            for (Thread t : threads) {
+                t.interrupt();
+            }
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fitting normalizer", e);
+        }
+
+        if (error.get() != null) {
+            throw new RuntimeException("Error fitting normalizer", error.get());
+        }
+
+        for (int i = 1; i < numThreads; i++) {
+            featureBuilders[0].merge(featureBuilders[i]);
+            if (fitLabels) {
+                labelBuilders[0].merge(labelBuilders[i]);
+            }
+        }
+        fit(featureBuilders[0], fitLabels ? labelBuilders[0] : null);
+        iterator.reset();
+    }
+
+    /**
+     * Fit using statistics that were accumulated externally: for example, partial statistics computed in parallel
+     * (on different threads or machines) using builders from {@link #newStatsBuilder()}, and merged using
+     * {@link NormalizerStats.Builder#merge(NormalizerStats.Builder)}
+     *
+     * @param featureStatsBuilder builder containing the feature statistics
+     * @param labelStatsBuilder   builder containing the label statistics. Required only if {@link #isFitLabel()} is true
+     */
+    public void fit(@NonNull NormalizerStats.Builder featureStatsBuilder, NormalizerStats.Builder labelStatsBuilder) {
+        featureStats = (S) featureStatsBuilder.build();
+        if (fitLabels) {
+            if (labelStatsBuilder == null) {
+                throw new ND4JIllegalStateException("Label statistics must be provided when fitLabel is true");
+            }
+            labelStats = (S) labelStatsBuilder.build();
+        }
+    }
+
+    /**
+     * @return a new (empty) builder for the type of statistics used by this normalizer, for accumulating statistics
+     * outside of the fit methods. See {@link #fit(NormalizerStats.Builder, NormalizerStats.Builder)}
+     */
+    public NormalizerStats.Builder newStatsBuilder() {
+        return newBuilder();
+    }
+
     protected abstract S.Builder newBuilder();
 
     /**
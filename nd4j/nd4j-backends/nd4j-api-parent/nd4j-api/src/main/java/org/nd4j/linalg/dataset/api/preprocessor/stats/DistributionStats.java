@@ -85,6 +85,8 @@ public class DistributionStats implements NormalizerStats {
      * large set of data
      */
     public static class Builder implements NormalizerStats.Builder<DistributionStats> {
+        private static final long serialVersionUID = 1L;
+
         private long runningCount = 0;
         private INDArray runningMean;
         private INDArray runningVariance;
@@ -122,36 +124,64 @@ public class DistributionStats implements NormalizerStats {
             INDArray variance = data.var(false, 0);
             long count = data.size(0);
 
+            if (data.size(0) == 1) {
+                //Handle edge case: currently, reduction ops may return the same array
+                //But we don't want to modify this array in-place later
+                mean = mean.dup();
+                variance = variance.dup();
+            }
+            merge(mean, variance, count);
+
+            return this;
+        }
+
+        /**
+         * Merge the statistics of another DistributionStats builder into this one, using the parallel algorithm of
+         * Chan et al. The other builder is not modified
+         */
+        @Override
+        public Builder merge(@NonNull NormalizerStats.Builder<DistributionStats> other) {
+            if (!(other instanceof Builder)) {
+                throw new IllegalArgumentException("Cannot merge DistributionStats.Builder with builder of type "
+                                + other.getClass().getName());
+            }
+            Builder b = (Builder) other;
+            if (b.runningMean != null) {
+                merge(b.runningMean.dup(), b.runningVariance.dup(), b.runningCount);
+            }
+            return this;
+        }
+
+        /**
+         * Merge the mean and (population) variance of a batch of count values into the running statistics.
+         * Using https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Parallel_algorithm
+         * Note that the batch mean and variance arrays may be modified (or used directly) by this method
+         */
+        private void merge(INDArray mean, INDArray variance, long count) {
+            if (count == 0) {
+                return;
+            }
             if (runningMean == null) {
                 // First batch
                 runningMean = mean;
                 runningVariance = variance;
                 runningCount = count;
-
-                if (data.size(0) == 1) {
-                    //Handle edge case: currently, reduction ops may return the same array
-                    //But we don't want to modify this array in-place later
-                    runningMean = runningMean.dup();
-                    runningVariance = runningVariance.dup();
-                }
-            } else {
-                // Update running variance
-                INDArray deltaSquared = Transforms.pow(mean.subRowVector(runningMean), 2);
-                INDArray mB = variance.muli(count);
-                runningVariance.muli(runningCount).addiRowVector(mB)
-                                .addiRowVector(deltaSquared
-                                                .muli((float) (runningCount * count) / (runningCount + count)))
-                                .divi(runningCount + count);
-
-                // Update running count
-                runningCount += count;
-
-                // Update running mean
-                INDArray xMinusMean = data.subRowVector(runningMean);
-                runningMean.addi(xMinusMean.sum(0).divi(runningCount));
+                return;
             }
 
-            return this;
+            long totalCount = runningCount + count;
+            INDArray delta = mean.subi(runningMean);
+
+            // Update running variance: (M2_a + M2_b + delta^2 * n_a * n_b / n) / n
+            INDArray deltaSquared = Transforms.pow(delta, 2, true);
+            runningVariance.muli(runningCount).addi(variance.muli(count))
+                            .addi(deltaSquared.muli((double) runningCount * count / totalCount)).divi(totalCount);
+
+            // Update running mean: mean_a + delta * n_b / n
+            runningMean.addi(delta.muli((double) count / totalCount));
+
+            // Update running count
+            runningCount = totalCount;
         }
 
         /**
@@ -88,6 +88,8 @@ public class MinMaxStats implements NormalizerStats {
      * large set of data
      */
     public static class Builder implements NormalizerStats.Builder<MinMaxStats> {
+        private static final long serialVersionUID = 1L;
+
         private INDArray runningLower;
         private INDArray runningUpper;
 
@@ -140,6 +142,29 @@ public class MinMaxStats implements NormalizerStats {
             return this;
         }
 
+        /**
+         * Merge the bounds of another MinMaxStats builder into this one. The other builder is not modified
+         */
+        @Override
+        public MinMaxStats.Builder merge(@NonNull NormalizerStats.Builder<MinMaxStats> other) {
+            if (!(other instanceof MinMaxStats.Builder)) {
+                throw new IllegalArgumentException("Cannot merge MinMaxStats.Builder with builder of type "
+                                + other.getClass().getName());
+            }
+            MinMaxStats.Builder b = (MinMaxStats.Builder) other;
+            if (b.runningLower == null) {
+                return this;
+            }
+            if (runningLower == null) {
+                runningLower = b.runningLower.dup();
+                runningUpper = b.runningUpper.dup();
+            } else {
+                Transforms.min(runningLower, b.runningLower, false);
+                Transforms.max(runningUpper, b.runningUpper, false);
+            }
+            return this;
+        }
+
         /**
          * Create a DistributionStats object from the data ingested so far. Can be used multiple times when updating
          * online.
@@ -28,7 +28,7 @@ import java.io.Serializable;
  * @author Ede Meijer
  */
 public interface NormalizerStats extends Serializable {
-    interface Builder<S extends NormalizerStats> {
+    interface Builder<S extends NormalizerStats> extends Serializable {
         Builder<S> addFeatures(org.nd4j.linalg.dataset.api.DataSet dataSet);
 
         /**
@@ -44,6 +44,19 @@ public interface NormalizerStats extends Serializable {
          */
         Builder<S> add(INDArray data, INDArray mask);
 
+        /**
+         * Merge the statistics accumulated by another builder (of the same type) into this builder. The result is
+         * the same as if all of the data added to the other builder had been added to this builder instead. This
+         * allows partial statistics to be computed in parallel (on different threads, or on different machines).<br>
+         * Not supported by default: builders that support merging must override this method
+         *
+         * @param other builder to merge into this one. Is not modified
+         * @throws UnsupportedOperationException if this builder does not support merging
+         */
+        default Builder<S> merge(Builder<S> other) {
+            throw new UnsupportedOperationException("Merging is not supported by " + getClass().getName());
+        }
+
         /**
          * DynamicCustomOpsBuilder pattern
          * @return
@@ -29,12 +29,17 @@ import org.nd4j.linalg.dataset.api.iterator.SamplingDataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.cache.DataSetCache;
 import org.nd4j.linalg.dataset.api.iterator.cache.InFileDataSetCache;
 import org.nd4j.linalg.dataset.api.iterator.cache.InMemoryDataSetCache;
+import org.nd4j.linalg.dataset.api.iterator.cache.SegmentedFileDataSetCache;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.factory.Nd4jBackend;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -70,6 +75,89 @@ public class CachingDataSetIteratorTest extends BaseNd4jTest {
         FileUtils.deleteDirectory(cacheDir.toFile());
     }
 
+    @Test
+    public void testSegmentedFile() throws IOException {
+        Path cacheDir = Files.createTempDirectory("nd4j-data-set-cache-test");
+        //Small segments: DataSets are spread over several segment files
+        SegmentedFileDataSetCache cache = new SegmentedFileDataSetCache(cacheDir.toFile(), 10000,
+                        SegmentedFileDataSetCache.Compression.NONE);
+
+        runDataSetTest(cache);
+        assertTrue(cache.numSegments() > 1);
+        cache.close();
+
+        FileUtils.deleteDirectory(cacheDir.toFile());
+    }
+
+    @Test
+    public void testSegmentedFileRoundTrip() throws IOException {
+        Path cacheDir = Files.createTempDirectory("nd4j-data-set-cache-test");
+
+        DataSet withMasks = new DataSet(Nd4j.rand(new int[] {3, 4, 5}), Nd4j.rand('f', new int[] {3, 2, 5}),
+                        Nd4j.ones(3, 5), Nd4j.zeros(3, 5));
+        DataSet noMasks = new DataSet(Nd4j.linspace(1, 20, 20).reshape(4, 5).getColumns(1, 3), Nd4j.ones(4, 2));
+
+        for (SegmentedFileDataSetCache.Compression compression : SegmentedFileDataSetCache.Compression.values()) {
+            File dir = new File(cacheDir.toFile(), compression.name());
+            SegmentedFileDataSetCache cache = new SegmentedFileDataSetCache(dir,
+                            SegmentedFileDataSetCache.DEFAULT_SEGMENT_SIZE, compression);
+            cache.put("a", withMasks);
+            cache.put("b", noMasks);
+            cache.setComplete("ns", true);
+            cache.close();
+
+            //Reopen from the index written on completion
+            SegmentedFileDataSetCache reopened = new SegmentedFileDataSetCache(dir,
+                            SegmentedFileDataSetCache.DEFAULT_SEGMENT_SIZE, compression);
+            assertTrue(reopened.isComplete("ns"));
+            assertEquals(2, reopened.keys().size());
+            assertNull(reopened.get("c"));
+
+            double eps = compression == SegmentedFileDataSetCache.Compression.FLOAT16 ? 1e-2 : 0.0;
+            DataSet a = reopened.get("a");
+            assertTrue(withMasks.getFeatures().equalsWithEps(a.getFeatures(), eps));
+            assertTrue(withMasks.getLabels().equalsWithEps(a.getLabels(), eps));
+            assertEquals(withMasks.getFeaturesMaskArray(), a.getFeaturesMaskArray());
+            assertEquals(withMasks.getLabelsMaskArray(), a.getLabelsMaskArray());
+
+            DataSet b = reopened.get("b");
+            assertEquals(noMasks.getFeatures(), b.getFeatures());
+            assertEquals(noMasks.getLabels(), b.getLabels());
+            assertNull(b.getFeaturesMaskArray());
+            assertNull(b.getLabelsMaskArray());
+            reopened.close();
+        }
+
+        FileUtils.deleteDirectory(cacheDir.toFile());
+    }
+
+    @Test
+    public void testShuffle() {
+        int numExamples = 50;
+        DataSet dataSet = new DataSet(Nd4j.linspace(1, numExamples, numExamples).transpose(), Nd4j.ones(numExamples, 1));
+        DataSetIterator it = new ViewIterator(dataSet, 5);
+
+        CachingDataSetIterator cachedIt = new CachingDataSetIterator(it, new InMemoryDataSetCache(), "shuffle",
+                        false, true);
+        List<Double> firstEpoch = new ArrayList<>();
+        while (cachedIt.hasNext()) {
+            firstEpoch.add(cachedIt.next().getFeatures().getDouble(0));
+        }
+
+        Nd4j.getRandom().setSeed(12345);
+        cachedIt.reset();
+        List<Double> secondEpoch = new ArrayList<>();
+        while (cachedIt.hasNext()) {
+            secondEpoch.add(cachedIt.next().getFeatures().getDouble(0));
+        }
+
+        assertEquals(numExamples / 5, secondEpoch.size());
+        assertNotEquals(firstEpoch, secondEpoch);
+        List<Double> sorted = new ArrayList<>(secondEpoch);
+        Collections.sort(sorted);
+        assertEquals(firstEpoch, sorted);
+    }
+
     private void runDataSetTest(DataSetCache cache) {
         int rows = 500;
         int inputColumns = 100;
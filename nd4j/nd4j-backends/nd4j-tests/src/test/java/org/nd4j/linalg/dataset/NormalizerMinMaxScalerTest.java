@@ -173,6 +173,27 @@ public class NormalizerMinMaxScalerTest extends BaseNd4jTest {
         assertTrue(maxdeltaPerc < tolerancePerc);
     }
 
+    @Test
+    public void testParallelFit() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray features = Nd4j.randn(500, 4).muli(10);
+        INDArray labels = Nd4j.rand(500, 2);
+        DataSet dataSet = new DataSet(features, labels);
+
+        NormalizerMinMaxScaler expected = new NormalizerMinMaxScaler();
+        expected.fitLabel(true);
+        expected.fit(dataSet);
+
+        NormalizerMinMaxScaler norm = new NormalizerMinMaxScaler();
+        norm.fitLabel(true);
+        norm.fit(new TestDataSetIterator(dataSet, 13), 3);
+
+        assertEquals(expected.getMin(), norm.getMin());
+        assertEquals(expected.getMax(), norm.getMax());
+        assertEquals(expected.getLabelMin(), norm.getLabelMin());
+        assertEquals(expected.getLabelMax(), norm.getLabelMax());
+    }
+
     @Test
     public void testConstant() {
         double tolerancePerc = 0.01; // 0.01% of correct value
@@ -24,6 +24,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
 import org.nd4j.linalg.dataset.api.iterator.TestDataSetIterator;
 import org.nd4j.linalg.dataset.api.preprocessor.NormalizerStandardize;
+import org.nd4j.linalg.dataset.api.preprocessor.stats.DistributionStats;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.factory.Nd4jBackend;
 import org.nd4j.linalg.ops.transforms.Transforms;
@@ -197,6 +198,55 @@ public class NormalizerStandardizeTest extends BaseNd4jTest {
         assertEquals(1.70783f, norm4.getStd().getFloat(0), 1e-4);
     }
 
+    @Test
+    public void testParallelFit() {
+        int nSamples = 1000;
+        int nFeatures = 5;
+        Nd4j.getRandom().setSeed(12345);
+        INDArray features = Nd4j.randn(nSamples, nFeatures).muli(10).addi(100);
+        INDArray labels = Nd4j.rand(nSamples, 2);
+        DataSet dataSet = new DataSet(features, labels);
+
+        NormalizerStandardize expected = new NormalizerStandardize();
+        expected.fitLabel(true);
+        expected.fit(dataSet);
+
+        for (int batchSize : new int[] {1, 7, 64}) {
+            for (int numThreads : new int[] {2, 4}) {
+                NormalizerStandardize norm = new NormalizerStandardize();
+                norm.fitLabel(true);
+                norm.fit(new TestDataSetIterator(dataSet, batchSize), numThreads);
+
+                String msg = "batchSize=" + batchSize + ", numThreads=" + numThreads;
+                assertTrue(msg, expected.getMean().equalsWithEps(norm.getMean(), 1e-3));
+                assertTrue(msg, expected.getStd().equalsWithEps(norm.getStd(), 1e-3));
+                assertTrue(msg, expected.getLabelMean().equalsWithEps(norm.getLabelMean(), 1e-4));
+                assertTrue(msg, expected.getLabelStd().equalsWithEps(norm.getLabelStd(), 1e-4));
+            }
+        }
+    }
+
+    @Test
+    public void testMergeStats() {
+        Nd4j.getRandom().setSeed(12345);
+        INDArray first = Nd4j.randn(30, 3).addi(5);
+        INDArray second = Nd4j.randn(70, 3).muli(3);
+        INDArray all = Nd4j.vstack(first, second);
+
+        DistributionStats.Builder b1 = new DistributionStats.Builder().add(first, null);
+        DistributionStats.Builder b2 = new DistributionStats.Builder().add(second, null);
+        DistributionStats merged = b1.merge(b2).build();
+        DistributionStats expected = new DistributionStats.Builder().add(all, null).build();
+
+        assertTrue(expected.getMean().equalsWithEps(merged.getMean(), 1e-4));
+        assertTrue(expected.getStd().equalsWithEps(merged.getStd(), 1e-4));
+
+        //Other builder should be unchanged, and merging an empty builder should be a no-op
+        assertEquals(new DistributionStats.Builder().add(second, null).build(), b2.build());
+        DistributionStats afterEmpty = b1.merge(new DistributionStats.Builder()).build();
+        assertEquals(merged, afterEmpty);
+    }
+
     @Test
     public void testUnderOverflow() {
         // This dataset will be basically constant with a small std deviation
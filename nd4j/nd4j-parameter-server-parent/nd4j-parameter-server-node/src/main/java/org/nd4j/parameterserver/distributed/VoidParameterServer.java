@@ -84,6 +84,9 @@ public class VoidParameterServer {
     protected transient Thread[] processingThreads;
     protected transient Runnable[] processingRunnables;
 
+    // this thread sends out partially filled Frames, see VoidConfiguration.frameFlushInterval
+    protected transient Thread flushThread;
+
     // FIXME: we want trainer to be configurable here
     protected transient TrainingDriver<? extends TrainingMessage> trainer;
 
@@ -311,6 +314,23 @@ public class VoidParameterServer {
                 transport.launch(Transport.ThreadingModel.DEDICATED_THREADS);
                 trainer.init(this.voidConfiguration, this.transport, storage, clipboard);
 
+                final long flushInterval = voidConfiguration.getFrameFlushInterval();
+                if (flushInterval > 0) {
+                    flushThread = new Thread(() -> {
+                        while (!Thread.currentThread().isInterrupted()) {
+                            try {
+                                Thread.sleep(flushInterval);
+                                flushFrames();
+                            } catch (InterruptedException e) {
+                                break;
+                            }
+                        }
+                    });
+                    flushThread.setDaemon(true);
+                    flushThread.setName("VoidParameterServer frames flushing thread");
+                    flushThread.start();
+                }
+
                 initFinished.set(true);
             }
         }
@@ -385,6 +405,18 @@ public class VoidParameterServer {
             // do shutdown
             log.info("Shutting down transport...");
 
+            if (flushThread != null) {
+                flushThread.interrupt();
+                flushThread = null;
+            }
+
+            // we don't want to lose partially filled frames
+            try {
+                flushFrames();
+            } catch (Exception e) {
+                log.warn("Unable to flush pending frames: {}", e.getMessage());
+            }
+
             // we just sending out ShutdownRequestMessage
             //transport.sendMessage(new ShutdownRequestMessage());
             transport.shutdown();
@@ -481,8 +513,8 @@ public class VoidParameterServer {
 
         currentFrame.stackMessage(message);
 
-        // TODO: make this threshold variable
-        if (currentFrame.size() >= 128) {
+        int frameSize = voidConfiguration.getFrameSize() > 0 ? voidConfiguration.getFrameSize() : 128;
+        if (currentFrame.size() >= frameSize) {
             transport.sendMessage(currentFrame);
             currentFrame = new Frame<>(BasicSequenceProvider.getInstance().getNextValue());
             frames.put(message.getClass().getSimpleName(), currentFrame);
@@ -491,6 +523,25 @@ public class VoidParameterServer {
         //transport.sendMessage(message);
     }
 
+    /**
+     * This method sends out all partially filled Frames accumulated by execDistributed(TrainingMessage)
+     *
+     * PLEASE NOTE: This method is synchronized
+     */
+    public synchronized void flushFrames() {
+        if (transport == null)
+            return;
+
+        for (Map.Entry<String, Frame<TrainingMessage>> entry : frames.entrySet()) {
+            Frame<TrainingMessage> frame = entry.getValue();
+            if (frame.size() == 0)
+                continue;
+
+            entry.setValue(new Frame<>(BasicSequenceProvider.getInstance().getNextValue()));
+            transport.sendMessage(frame);
+        }
+    }
+
     public void execDistributedImmediately(@NonNull TrainingMessage message) {
         transport.sendMessageToAllShards(message);
     }
@@ -153,6 +153,19 @@ public class VoidConfiguration implements Serializable {
     @Builder.Default
     private long responseTimeout = 30000;
 
+    /**
+     * This variable defines, how many TrainingMessages will be coalesced into single Frame before sending it over the wire.
+     */
+    @Builder.Default
+    private int frameSize = 128;
+
+    /**
+     * This variable defines, how often partially filled Frames will be sent out, regardless of their size.
+     * Measured in milliseconds. Set to 0 to disable time-based flushes.
+     */
+    @Builder.Default
+    private long frameFlushInterval = 50;
+
     /**
      * This optional variable defines IP address of the box which acts as master for gradients training.
      * Leave it null, and Spark Master node will be used as Master for parameter server as well.
@@ -53,6 +53,9 @@ public interface VoidMessage extends Serializable {
     UnsafeBuffer asUnsafeBuffer();
 
     static <T extends VoidMessage> T fromBytes(byte[] array) {
+        if (VoidMessageCodec.isEncoded(array))
+            return VoidMessageCodec.decode(array);
+
         try {
             ObjectInputStream in = new ClassLoaderObjectInputStream(Thread.currentThread().getContextClassLoader(),
                             new ByteArrayInputStream(array));
@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.parameterserver.distributed.messages;
+
+import lombok.NonNull;
+import org.apache.commons.lang3.SerializationUtils;
+import org.nd4j.parameterserver.distributed.messages.intercom.DistributedVectorMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.CbowRequestMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.SkipGramRequestMessage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary codec for the most frequent VoidMessages: SkipGram/Cbow training requests,
+ * DistributedVectorMessage, and Frames of training requests.
+ *
+ * Encoded messages start with {@link #MAGIC}, which never starts a Java serialization stream (0xACED),
+ * so both formats can share the same channel. All other messages fall back to Java serialization.
+ */
+public class VoidMessageCodec {
+    public static final byte MAGIC = (byte) 0x5D;
+
+    protected static final byte TYPE_SKIPGRAM = 1;
+    protected static final byte TYPE_CBOW = 2;
+    protected static final byte TYPE_VECTOR = 3;
+    protected static final byte TYPE_FRAME = 4;
+
+    // messageType, originatorId, taskId, targetId
+    protected static final int HEADER_LENGTH = 4 + 8 + 8 + 2;
+
+    private VoidMessageCodec() {
+        //
+    }
+
+    /**
+     * This method checks, if given message can be encoded without Java serialization
+     *
+     * @param message
+     * @return
+     */
+    public static boolean isSupported(@NonNull VoidMessage message) {
+        if (message.getClass() == Frame.class) {
+            for (Object m : ((Frame<?>) message).getList())
+                if (typeOf((VoidMessage) m) != TYPE_SKIPGRAM && typeOf((VoidMessage) m) != TYPE_CBOW)
+                    return false;
+
+            return true;
+        }
+
+        return typeOf(message) > 0;
+    }
+
+    /**
+     * This method checks, if given byte array was produced by this codec
+     *
+     * @param data
+     * @return
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    /**
+     * This method encodes given message, using compact binary format if possible, and Java serialization otherwise
+     *
+     * @param message
+     * @return
+     */
+    public static byte[] encode(@NonNull VoidMessage message) {
+        if (!isSupported(message))
+            return SerializationUtils.serialize(message);
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 + lengthOf(message));
+        buffer.put(MAGIC);
+        write(buffer, message);
+        return buffer.array();
+    }
+
+    /**
+     * This method restores message from byte array produced by {@link #encode(VoidMessage)}
+     *
+     * @param data
+     * @param <T>
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends VoidMessage> T decode(@NonNull byte[] data) {
+        if (!isEncoded(data))
+            throw new IllegalArgumentException("Data wasn't produced by VoidMessageCodec");
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        buffer.get();
+        return (T) read(buffer);
+    }
+
+    protected static byte typeOf(VoidMessage message) {
+        Class<?> cls = message.getClass();
+        if (cls == SkipGramRequestMessage.class)
+            return TYPE_SKIPGRAM;
+        else if (cls == CbowRequestMessage.class) {
+            CbowRequestMessage cbow = (CbowRequestMessage) message;
+            // these arrays are mandatory for CbowRequestMessage constructor
+            return cbow.getSyn0rows() != null && cbow.getSyn1rows() != null ? TYPE_CBOW : -1;
+        } else if (cls == DistributedVectorMessage.class)
+            return TYPE_VECTOR;
+        else if (cls == Frame.class)
+            return TYPE_FRAME;
+
+        return -1;
+    }
+
+    protected static int lengthOf(VoidMessage message) {
+        switch (typeOf(message)) {
+            case TYPE_SKIPGRAM: {
+                SkipGramRequestMessage sg = (SkipGramRequestMessage) message;
+                return HEADER_LENGTH + 8 + 8 + 4 + 4 + lengthOf(sg.getPoints()) + lengthOf(sg.getCodes())
+                                + lengthOf(sg.getNegatives()) + 2 + 8 + 1;
+            }
+            case TYPE_CBOW: {
+                CbowRequestMessage cbow = (CbowRequestMessage) message;
+                return HEADER_LENGTH + 1 + 8 + 4 + lengthOf(cbow.getSyn0rows()) + lengthOf(cbow.getSyn1rows()) + 8
+                                + 8 + 4 + lengthOf(cbow.getCodes()) + lengthOf(cbow.getNegatives());
+            }
+            case TYPE_VECTOR:
+                return HEADER_LENGTH + 4 + 4;
+            case TYPE_FRAME: {
+                int length = 8 + 8 + 2 + 4;
+                for (Object m : ((Frame<?>) message).getList())
+                    length += 1 + lengthOf((VoidMessage) m);
+
+                return length;
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported message: " + message.getClass().getSimpleName());
+        }
+    }
+
+    protected static void write(ByteBuffer buffer, VoidMessage message) {
+        byte type = typeOf(message);
+        buffer.put(type);
+
+        if (type == TYPE_FRAME) {
+            Frame<?> frame = (Frame<?>) message;
+            buffer.putLong(frame.getOriginatorId());
+            buffer.putLong(frame.getTaskId());
+            buffer.putShort(frame.getTargetId());
+            buffer.putInt(frame.size());
+            for (Object m : frame.getList())
+                write(buffer, (VoidMessage) m);
+
+            return;
+        }
+
+        buffer.putInt(message.getMessageType());
+        buffer.putLong(message.getOriginatorId());
+        buffer.putLong(message.getTaskId());
+        buffer.putShort(message.getTargetId());
+
+        switch (type) {
+            case TYPE_SKIPGRAM: {
+                SkipGramRequestMessage sg = (SkipGramRequestMessage) message;
+                buffer.putDouble(sg.getAlpha());
+                buffer.putLong(sg.getFrameId());
+                buffer.putInt(sg.getW1());
+                buffer.putInt(sg.getW2());
+                write(buffer, sg.getPoints());
+                write(buffer, sg.getCodes());
+                write(buffer, sg.getNegatives());
+                buffer.putShort(sg.getNegSamples());
+                buffer.putLong(sg.getNextRandom());
+                buffer.put(sg.getCounter());
+            }
+                break;
+            case TYPE_CBOW: {
+                CbowRequestMessage cbow = (CbowRequestMessage) message;
+                buffer.put(cbow.getCounter());
+                buffer.putLong(cbow.getFrameId());
+                buffer.putInt(cbow.getW1());
+                write(buffer, cbow.getSyn0rows());
+                write(buffer, cbow.getSyn1rows());
+                buffer.putDouble(cbow.getAlpha());
+                buffer.putLong(cbow.getNextRandom());
+                buffer.putInt(cbow.getNegSamples());
+                write(buffer, cbow.getCodes());
+                write(buffer, cbow.getNegatives());
+            }
+                break;
+            case TYPE_VECTOR: {
+                DistributedVectorMessage dvm = (DistributedVectorMessage) message;
+                buffer.putInt(dvm.getKey());
+                buffer.putInt(dvm.getRowIndex());
+            }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported message: " + message.getClass().getSimpleName());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static VoidMessage read(ByteBuffer buffer) {
+        byte type = buffer.get();
+
+        if (type == TYPE_FRAME) {
+            long originatorId = buffer.getLong();
+            Frame<TrainingMessage> frame = new Frame<>(buffer.getLong());
+            frame.setTargetId(buffer.getShort());
+
+            int size = buffer.getInt();
+            List<TrainingMessage> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++)
+                list.add((TrainingMessage) read(buffer));
+
+            // we bypass stackMessage() here, messages were joined on sender side already
+            frame.setList(list);
+            frame.originatorId = originatorId;
+            return frame;
+        }
+
+        int messageType = buffer.getInt();
+        long originatorId = buffer.getLong();
+        long taskId = buffer.getLong();
+        short targetId = buffer.getShort();
+
+        BaseVoidMessage message;
+        switch (type) {
+            case TYPE_SKIPGRAM: {
+                double alpha = buffer.getDouble();
+                long frameId = buffer.getLong();
+                int w1 = buffer.getInt();
+                int w2 = buffer.getInt();
+                int[] points = readInts(buffer);
+                byte[] codes = readBytes(buffer);
+                int[] negatives = readInts(buffer);
+                short negSamples = buffer.getShort();
+                long nextRandom = buffer.getLong();
+
+                SkipGramRequestMessage sg =
+                                new SkipGramRequestMessage(w1, w2, points, codes, negSamples, alpha, nextRandom);
+                sg.setFrameId(frameId);
+                sg.setNegatives(negatives);
+                sg.setCounter(buffer.get());
+                message = sg;
+            }
+                break;
+            case TYPE_CBOW: {
+                byte counter = buffer.get();
+                long frameId = buffer.getLong();
+                int w1 = buffer.getInt();
+                int[] syn0rows = readInts(buffer);
+                int[] syn1rows = readInts(buffer);
+                double alpha = buffer.getDouble();
+                long nextRandom = buffer.getLong();
+                int negSamples = buffer.getInt();
+                byte[] codes = readBytes(buffer);
+
+                CbowRequestMessage cbow =
+                                new CbowRequestMessage(syn0rows, syn1rows, w1, codes, negSamples, alpha, nextRandom);
+                cbow.setCounter(counter);
+                cbow.setFrameId(frameId);
+                cbow.setNegatives(readInts(buffer));
+                message = cbow;
+            }
+                break;
+            case TYPE_VECTOR: {
+                DistributedVectorMessage dvm = new DistributedVectorMessage();
+                dvm.setKey(buffer.getInt());
+                dvm.setRowIndex(buffer.getInt());
+                message = dvm;
+            }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown encoded message type: " + type);
+        }
+
+        message.setMessageType(messageType);
+        message.setOriginatorId(originatorId);
+        message.setTaskId(taskId);
+        message.setTargetId(targetId);
+        return message;
+    }
+
+    protected static int lengthOf(int[] array) {
+        return 4 + (array == null ? 0 : array.length * 4);
+    }
+
+    protected static int lengthOf(byte[] array) {
+        return 4 + (array == null ? 0 : array.length);
+    }
+
+    protected static void write(ByteBuffer buffer, int[] array) {
+        if (array == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        buffer.putInt(array.length);
+        for (int v : array)
+            buffer.putInt(v);
+    }
+
+    protected static void write(ByteBuffer buffer, byte[] array) {
+        if (array == null) {
+            buffer.putInt(-1);
+            return;
+        }
+
+        buffer.putInt(array.length);
+        buffer.put(array);
+    }
+
+    protected static int[] readInts(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++)
+            array[i] = buffer.getInt();
+
+        return array;
+    }
+
+    protected static byte[] readBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0)
+            return null;
+
+        byte[] array = new byte[length];
+        buffer.get(array);
+        return array;
+    }
+}
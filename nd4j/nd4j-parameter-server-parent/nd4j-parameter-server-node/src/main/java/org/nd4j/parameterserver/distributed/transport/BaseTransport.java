@@ -86,6 +86,9 @@ public abstract class BaseTransport implements Transport {
 
     protected AtomicLong frameCount = new AtomicLong(0);
 
+    @Getter
+    protected TransportCounters counters = new TransportCounters();
+
     // TODO: make this configurable?
     protected IdleStrategy idler = new SleepingIdleStrategy(1000);
     protected IdleStrategy feedbackIdler = new SleepingIdleStrategy(100000);
@@ -226,6 +229,8 @@ public abstract class BaseTransport implements Transport {
         buffer.getBytes(offset, data);
 
         VoidMessage message = VoidMessage.fromBytes(data);
+        counters.registerReceived(message, length);
+
         if (message.getMessageType() == 7) {
             // if that's vector request message - it's special case, we don't send it to other shards yet
             //log.info("Shortcut for vector request");
@@ -252,6 +257,7 @@ public abstract class BaseTransport implements Transport {
         buffer.getBytes(offset, data);
 
         VoidMessage message = VoidMessage.fromBytes(data);
+        counters.registerReceived(message, length);
 
         messages.add(message);
 
@@ -277,6 +283,7 @@ public abstract class BaseTransport implements Transport {
         buffer.getBytes(offset, data);
 
         MeaningfulMessage message = (MeaningfulMessage) VoidMessage.fromBytes(data);
+        counters.registerReceived(message, length);
         completed.put(message.getTaskId(), message);
     }
 
@@ -545,6 +552,8 @@ public abstract class BaseTransport implements Transport {
 
         if (result < 0)
             throw new RuntimeException("Unable to send message over the wire. Error code: " + result);
+
+        counters.registerSent(message, buffer.capacity());
     }
 
     /**
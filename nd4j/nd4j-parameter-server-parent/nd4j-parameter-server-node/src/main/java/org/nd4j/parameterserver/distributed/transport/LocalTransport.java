@@ -29,6 +29,8 @@ import org.nd4j.parameterserver.distributed.messages.VoidMessage;
  */
 @Deprecated
 public class LocalTransport implements Transport {
+    protected TransportCounters counters = new TransportCounters();
+
     /**
      * This method does initialization of Transport instance
      *
@@ -181,4 +183,9 @@ public class LocalTransport implements Transport {
     public long getOwnOriginatorId() {
         return 0;
     }
+
+    @Override
+    public TransportCounters getCounters() {
+        return counters;
+    }
 }
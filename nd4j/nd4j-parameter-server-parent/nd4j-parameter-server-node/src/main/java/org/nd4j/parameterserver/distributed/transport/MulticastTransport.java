@@ -22,6 +22,7 @@ import io.aeron.driver.MediaDriver;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.agrona.CloseHelper;
+import org.agrona.DirectBuffer;
 import org.nd4j.linalg.exception.ND4JIllegalStateException;
 import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
 import org.nd4j.parameterserver.distributed.enums.NodeRole;
@@ -188,7 +189,9 @@ public class MulticastTransport extends BaseTransport {
         //log.info("Sending CC: {}", message.getClass().getCanonicalName());
 
         message.setTargetId((short) -1);
-        publicationForShards.offer(message.asUnsafeBuffer());
+        DirectBuffer buffer = message.asUnsafeBuffer();
+        if (publicationForShards.offer(buffer) >= 0)
+            counters.registerSent(message, buffer.capacity());
     }
 
     /**
@@ -208,6 +211,8 @@ public class MulticastTransport extends BaseTransport {
         //log.info("Sending FC: {}", message.getClass().getCanonicalName());
 
         message.setTargetId((short) -1);
-        publicationForClients.offer(message.asUnsafeBuffer());
+        DirectBuffer buffer = message.asUnsafeBuffer();
+        if (publicationForClients.offer(buffer) >= 0)
+            counters.registerSent(message, buffer.capacity());
     }
 }
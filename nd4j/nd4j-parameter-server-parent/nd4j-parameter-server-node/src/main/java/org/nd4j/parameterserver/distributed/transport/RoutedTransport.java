@@ -267,6 +267,7 @@ public class RoutedTransport extends BaseTransport {
                     case MESSAGE_SENT:
                         delivered = true;
                         rc.getActivated().set(true);
+                        counters.registerSent(message, buffer.capacity());
                         break;
                 }
             }
@@ -350,6 +351,7 @@ public class RoutedTransport extends BaseTransport {
                     case MESSAGE_SENT:
                         delivered = true;
                         rc.getActivated().set(true);
+                        counters.registerSent(message, buffer.capacity());
                         break;
                 }
 
@@ -390,10 +392,12 @@ public class RoutedTransport extends BaseTransport {
             throw new RuntimeException();
         }
 
+        // message is serialized once, and reused for retransmits
+        final DirectBuffer buffer = message.asUnsafeBuffer();
+
         while (!delivered) {
             synchronized (connection.locker) {
-                result = RetransmissionHandler
-                                .getTransmissionStatus(connection.getPublication().offer(message.asUnsafeBuffer()));
+                result = RetransmissionHandler.getTransmissionStatus(connection.getPublication().offer(buffer));
             }
 
             switch (result) {
@@ -416,6 +420,8 @@ public class RoutedTransport extends BaseTransport {
                 // do not break here, we can't do too much here, if client is dead
                 case MESSAGE_SENT:
                     delivered = true;
+                    if (result == RetransmissionHandler.TransmissionStatus.MESSAGE_SENT)
+                        counters.registerSent(message, buffer.capacity());
                     break;
             }
         }
@@ -489,10 +495,12 @@ public class RoutedTransport extends BaseTransport {
         boolean delivered = false;
         RemoteConnection connection = shards.get(targetShard);
 
+        // message is serialized once, and reused for retransmits
+        final DirectBuffer buffer = message.asUnsafeBuffer();
+
         while (!delivered) {
             synchronized (connection.locker) {
-                result = RetransmissionHandler
-                                .getTransmissionStatus(connection.getPublication().offer(message.asUnsafeBuffer()));
+                result = RetransmissionHandler.getTransmissionStatus(connection.getPublication().offer(buffer));
             }
 
             switch (result) {
@@ -524,6 +532,7 @@ public class RoutedTransport extends BaseTransport {
                 case MESSAGE_SENT:
                     delivered = true;
                     connection.getActivated().set(true);
+                    counters.registerSent(message, buffer.capacity());
                     break;
             }
         }
@@ -547,6 +556,7 @@ public class RoutedTransport extends BaseTransport {
         buffer.getBytes(offset, data);
 
         VoidMessage message = VoidMessage.fromBytes(data);
+        counters.registerReceived(message, length);
 
         //        log.info("sI_{} received message: {}", shardIndex, message.getClass().getSimpleName());
 
@@ -146,4 +146,10 @@ public interface Transport {
      * @return
      */
     long getOwnOriginatorId();
+
+    /**
+     * This method returns per-message-type throughput counters of this Transport instance
+     * @return
+     */
+    TransportCounters getCounters();
 }
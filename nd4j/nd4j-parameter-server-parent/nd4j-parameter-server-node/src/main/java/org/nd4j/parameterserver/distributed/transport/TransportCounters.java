@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.parameterserver.distributed.transport;
+
+import lombok.NonNull;
+import org.nd4j.parameterserver.distributed.messages.Frame;
+import org.nd4j.parameterserver.distributed.messages.VoidMessage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-message-type throughput counters for Transport implementations.
+ *
+ * Messages are grouped by their simple class name. For Frames, wire bytes are attributed to the Frame itself,
+ * while each stacked message is counted under its own type as well, without bytes.
+ */
+public class TransportCounters {
+    protected final Map<String, Counter> sent = new ConcurrentHashMap<>();
+    protected final Map<String, Counter> received = new ConcurrentHashMap<>();
+
+    protected volatile long startTime = System.currentTimeMillis();
+
+    /**
+     * This method registers message sent over the wire
+     *
+     * @param message
+     * @param bytes number of bytes sent
+     */
+    public void registerSent(@NonNull VoidMessage message, long bytes) {
+        register(sent, message, bytes);
+    }
+
+    /**
+     * This method registers message received from the wire
+     *
+     * @param message
+     * @param bytes number of bytes received
+     */
+    public void registerReceived(@NonNull VoidMessage message, long bytes) {
+        register(received, message, bytes);
+    }
+
+    protected static void register(Map<String, Counter> counters, VoidMessage message, long bytes) {
+        counter(counters, message.getClass().getSimpleName()).add(1, bytes);
+
+        if (message instanceof Frame)
+            for (Object m : ((Frame<?>) message).getMessages())
+                counter(counters, m.getClass().getSimpleName()).add(1, 0);
+    }
+
+    protected static Counter counter(Map<String, Counter> counters, String type) {
+        return counters.computeIfAbsent(type, k -> new Counter());
+    }
+
+    /**
+     * This method returns names of all message types seen so far
+     *
+     * @return
+     */
+    public Set<String> getMessageTypes() {
+        Set<String> types = new TreeSet<>(sent.keySet());
+        types.addAll(received.keySet());
+        return types;
+    }
+
+    public long getMessagesSent(@NonNull String type) {
+        Counter counter = sent.get(type);
+        return counter == null ? 0 : counter.messages.get();
+    }
+
+    public long getBytesSent(@NonNull String type) {
+        Counter counter = sent.get(type);
+        return counter == null ? 0 : counter.bytes.get();
+    }
+
+    public long getMessagesReceived(@NonNull String type) {
+        Counter counter = received.get(type);
+        return counter == null ? 0 : counter.messages.get();
+    }
+
+    public long getBytesReceived(@NonNull String type) {
+        Counter counter = received.get(type);
+        return counter == null ? 0 : counter.bytes.get();
+    }
+
+    /**
+     * This method returns number of messages of given type sent per second, since creation or last reset() call
+     *
+     * @param type
+     * @return
+     */
+    public double getSentPerSecond(@NonNull String type) {
+        return perSecond(getMessagesSent(type));
+    }
+
+    /**
+     * This method returns number of messages of given type received per second, since creation or last reset() call
+     *
+     * @param type
+     * @return
+     */
+    public double getReceivedPerSecond(@NonNull String type) {
+        return perSecond(getMessagesReceived(type));
+    }
+
+    protected double perSecond(long value) {
+        long timeSpent = Math.max(1, System.currentTimeMillis() - startTime);
+        return value * 1000.0 / timeSpent;
+    }
+
+    /**
+     * This method resets all counters
+     */
+    public void reset() {
+        sent.clear();
+        received.clear();
+        startTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (String type : getMessageTypes()) {
+            builder.append(type).append(": sent ").append(getMessagesSent(type)).append(" msg / ")
+                            .append(getBytesSent(type)).append(" bytes, received ").append(getMessagesReceived(type))
+                            .append(" msg / ").append(getBytesReceived(type)).append(" bytes; ")
+                            .append(String.format("%.1f", getSentPerSecond(type))).append(" msg/s sent, ")
+                            .append(String.format("%.1f", getReceivedPerSecond(type))).append(" msg/s received\n");
+        }
+
+        return builder.toString();
+    }
+
+    protected static class Counter {
+        protected final AtomicLong messages = new AtomicLong(0);
+        protected final AtomicLong bytes = new AtomicLong(0);
+
+        protected void add(long messages, long bytes) {
+            this.messages.addAndGet(messages);
+            this.bytes.addAndGet(bytes);
+        }
+    }
+}
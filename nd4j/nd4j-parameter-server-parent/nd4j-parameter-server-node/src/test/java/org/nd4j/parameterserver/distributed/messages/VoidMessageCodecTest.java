@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.parameterserver.distributed.messages;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+import org.nd4j.parameterserver.distributed.messages.intercom.DistributedVectorMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.CbowRequestMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.IntroductionRequestMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.SkipGramRequestMessage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VoidMessageCodecTest {
+
+    @Test(timeout = 30000L)
+    public void testSkipGramSerDe() throws Exception {
+        SkipGramRequestMessage message = new SkipGramRequestMessage(10, 12, new int[] {10, 20, 30, 40},
+                        new byte[] {(byte) 0, (byte) 0, (byte) 1, (byte) 0}, (short) 3, 0.025, 117L);
+        message.setNegatives(new int[] {7, 8, 9});
+        message.setOriginatorId(119L);
+        message.setTargetId((short) 2);
+        message.setFrameId(17L);
+        message.joinMessage(message);
+
+        byte[] bytes = message.asBytes();
+        assertTrue(VoidMessageCodec.isEncoded(bytes));
+        assertTrue(bytes.length < SerializationUtils.serialize(message).length);
+
+        SkipGramRequestMessage restored = VoidMessage.fromBytes(bytes);
+
+        assertEquals(message, restored);
+        assertEquals(message.getTaskId(), restored.getTaskId());
+        assertEquals(119L, restored.getOriginatorId());
+        assertEquals(2, restored.getTargetId());
+        assertEquals(17L, restored.getFrameId());
+        assertEquals(2, restored.getCounter());
+        assertEquals(0.025, restored.getAlpha(), 1e-10);
+        assertEquals(117L, restored.getNextRandom());
+        assertArrayEquals(new int[] {7, 8, 9}, restored.getNegatives());
+    }
+
+    @Test(timeout = 30000L)
+    public void testCbowSerDe() throws Exception {
+        CbowRequestMessage message = new CbowRequestMessage(new int[] {1, 2, 3}, new int[] {4, 5}, 7,
+                        new byte[] {1, 0}, 5, 0.01, 119L);
+        message.setOriginatorId(42L);
+
+        byte[] bytes = message.asBytes();
+        assertTrue(VoidMessageCodec.isEncoded(bytes));
+
+        CbowRequestMessage restored = VoidMessage.fromBytes(bytes);
+
+        assertEquals(message.getTaskId(), restored.getTaskId());
+        assertEquals(message.getMessageType(), restored.getMessageType());
+        assertEquals(42L, restored.getOriginatorId());
+        assertEquals(7, restored.getW1());
+        assertEquals(5, restored.getNegSamples());
+        assertArrayEquals(new int[] {1, 2, 3}, restored.getSyn0rows());
+        assertArrayEquals(new int[] {4, 5}, restored.getSyn1rows());
+        assertArrayEquals(new byte[] {1, 0}, restored.getCodes());
+        assertNull(restored.getNegatives());
+    }
+
+    @Test(timeout = 30000L)
+    public void testVectorMessageSerDe() throws Exception {
+        DistributedVectorMessage message = new DistributedVectorMessage(1, 119);
+        message.setTaskId(12L);
+
+        DistributedVectorMessage restored = VoidMessage.fromBytes(message.asBytes());
+
+        assertEquals(20, restored.getMessageType());
+        assertEquals(12L, restored.getTaskId());
+        assertEquals(1, restored.getKey());
+        assertEquals(119, restored.getRowIndex());
+    }
+
+    @Test(timeout = 30000L)
+    public void testFrameSerDe() throws Exception {
+        Frame<SkipGramRequestMessage> frame = new Frame<>(31L);
+        List<SkipGramRequestMessage> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add(new SkipGramRequestMessage(i, i + 1, new int[] {i, i + 2}, new byte[] {1, 0}, (short) 0, 0.01,
+                            119L));
+        }
+        frame.stackMessages(list);
+        frame.setOriginatorId(1234L);
+        frame.setTargetId((short) 1);
+
+        byte[] bytes = frame.asBytes();
+        assertTrue(VoidMessageCodec.isEncoded(bytes));
+        assertTrue(bytes.length < SerializationUtils.serialize(frame).length);
+
+        Frame<SkipGramRequestMessage> restored = VoidMessage.fromBytes(bytes);
+
+        assertEquals(31L, restored.getTaskId());
+        assertEquals(1234L, restored.getOriginatorId());
+        assertEquals(1, restored.getTargetId());
+        assertEquals(frame.size(), restored.size());
+
+        Iterator<SkipGramRequestMessage> iterator = restored.iterator();
+        for (SkipGramRequestMessage message : frame) {
+            SkipGramRequestMessage other = iterator.next();
+            assertEquals(message, other);
+            assertEquals(message.getTaskId(), other.getTaskId());
+            assertEquals(31L, other.getFrameId());
+        }
+    }
+
+    @Test(timeout = 30000L)
+    public void testJavaSerializationFallback() throws Exception {
+        IntroductionRequestMessage message = new IntroductionRequestMessage("127.0.0.1", 1234);
+
+        byte[] bytes = message.asBytes();
+        assertFalse(VoidMessageCodec.isSupported(message));
+        assertFalse(VoidMessageCodec.isEncoded(bytes));
+
+        IntroductionRequestMessage restored = VoidMessage.fromBytes(bytes);
+        assertEquals(message.getTaskId(), restored.getTaskId());
+        assertEquals(message.getMessageType(), restored.getMessageType());
+    }
+}
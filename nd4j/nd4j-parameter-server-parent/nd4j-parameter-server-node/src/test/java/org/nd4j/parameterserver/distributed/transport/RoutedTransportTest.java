@@ -24,8 +24,10 @@ import org.nd4j.parameterserver.distributed.conf.VoidConfiguration;
 import org.nd4j.parameterserver.distributed.enums.NodeRole;
 import org.nd4j.parameterserver.distributed.logic.ClientRouter;
 import org.nd4j.parameterserver.distributed.logic.completion.Clipboard;
+import org.nd4j.parameterserver.distributed.messages.Frame;
 import org.nd4j.parameterserver.distributed.messages.VoidMessage;
 import org.nd4j.parameterserver.distributed.messages.requests.IntroductionRequestMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.SkipGramRequestMessage;
 import org.nd4j.parameterserver.distributed.logic.routing.InterleavedRouter;
 
 import java.util.ArrayList;
@@ -119,4 +121,74 @@ public class RoutedTransportTest {
 
         clientTransport.shutdown();
     }
+
+    /**
+     * This test checks delivery of coalesced Frame between nodes on localhost, and throughput counters on both sides
+     *
+     * @throws Exception
+     */
+    @Test(timeout = 30000)
+    public void testFrameMessaging1() throws Exception {
+        List<String> list = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            list.add("127.0.0.1:3848" + t);
+        }
+
+        VoidConfiguration voidConfiguration = VoidConfiguration.builder().shardAddresses(list).unicastPort(43130)
+                        .numberOfShards(list.size()).build();
+
+        RoutedTransport[] transports = new RoutedTransport[list.size()];
+        for (int t = 0; t < transports.length; t++) {
+            transports[t] = new RoutedTransport();
+            transports[t].setIpAndPort("127.0.0.1", Integer.valueOf("3848" + t));
+            transports[t].init(voidConfiguration, new Clipboard(), NodeRole.SHARD, "127.0.0.1",
+                            voidConfiguration.getUnicastPort(), (short) t);
+        }
+
+        for (int t = 0; t < transports.length; t++) {
+            transports[t].launch(Transport.ThreadingModel.DEDICATED_THREADS);
+        }
+
+        RoutedTransport clientTransport = new RoutedTransport();
+        clientTransport.setIpAndPort("127.0.0.1", voidConfiguration.getUnicastPort());
+
+        ClientRouter router = new InterleavedRouter(0);
+        clientTransport.setRouter(router);
+        router.init(voidConfiguration, clientTransport);
+
+        clientTransport.init(voidConfiguration, new Clipboard(), NodeRole.CLIENT, "127.0.0.1",
+                        voidConfiguration.getUnicastPort(), (short) -1);
+        clientTransport.launch(Transport.ThreadingModel.DEDICATED_THREADS);
+
+        // introduction messages are not relevant for this test
+        Thread.sleep(500);
+        for (RoutedTransport transport : transports)
+            transport.messages.clear();
+
+        Frame<SkipGramRequestMessage> frame = new Frame<>(119L);
+        for (int i = 0; i < 128; i++) {
+            frame.stackMessage(new SkipGramRequestMessage(i, i + 1, new int[] {i, i + 1}, new byte[] {0, 1},
+                            (short) 0, 0.01, 119L));
+        }
+
+        clientTransport.sendCommandToShard(frame);
+
+        VoidMessage message = transports[0].messages.poll(5, TimeUnit.SECONDS);
+        assertNotEquals(null, message);
+        assertTrue(message instanceof Frame);
+        assertEquals(128, ((Frame) message).size());
+
+        assertEquals(1, clientTransport.getCounters().getMessagesSent("Frame"));
+        assertEquals(128, clientTransport.getCounters().getMessagesSent("SkipGramRequestMessage"));
+        assertEquals(1, transports[0].getCounters().getMessagesReceived("Frame"));
+        assertEquals(clientTransport.getCounters().getBytesSent("Frame"),
+                        transports[0].getCounters().getBytesReceived("Frame"));
+        assertEquals(0, transports[1].getCounters().getMessagesReceived("Frame"));
+
+        for (RoutedTransport transport : transports) {
+            transport.shutdown();
+        }
+
+        clientTransport.shutdown();
+    }
 }
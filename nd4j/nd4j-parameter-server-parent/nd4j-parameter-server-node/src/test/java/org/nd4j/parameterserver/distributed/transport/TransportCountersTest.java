@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.parameterserver.distributed.transport;
+
+import org.junit.Test;
+import org.nd4j.parameterserver.distributed.messages.Frame;
+import org.nd4j.parameterserver.distributed.messages.requests.SkipGramRequestMessage;
+import org.nd4j.parameterserver.distributed.messages.requests.VectorRequestMessage;
+
+import static org.junit.Assert.*;
+
+public class TransportCountersTest {
+
+    @Test(timeout = 30000L)
+    public void testCounters() throws Exception {
+        TransportCounters counters = new TransportCounters();
+
+        Frame<SkipGramRequestMessage> frame = new Frame<>(1L);
+        for (int i = 0; i < 10; i++)
+            frame.stackMessage(new SkipGramRequestMessage(i, i + 1, new int[] {i}, new byte[] {0}, (short) 0, 0.01,
+                            119L));
+
+        counters.registerSent(frame, 1000);
+        counters.registerSent(frame, 1000);
+        counters.registerReceived(new VectorRequestMessage(0, 1), 50);
+
+        assertEquals(2, counters.getMessagesSent("Frame"));
+        assertEquals(2000, counters.getBytesSent("Frame"));
+        assertEquals(20, counters.getMessagesSent("SkipGramRequestMessage"));
+        assertEquals(0, counters.getBytesSent("SkipGramRequestMessage"));
+        assertEquals(1, counters.getMessagesReceived("VectorRequestMessage"));
+        assertEquals(50, counters.getBytesReceived("VectorRequestMessage"));
+        assertEquals(0, counters.getMessagesReceived("Frame"));
+        assertEquals(3, counters.getMessageTypes().size());
+        assertTrue(counters.getSentPerSecond("Frame") > 0);
+
+        counters.reset();
+        assertEquals(0, counters.getMessagesSent("Frame"));
+        assertTrue(counters.getMessageTypes().isEmpty());
+    }
+}
@@ -18,12 +18,16 @@ package org.nd4j.aeron.ipc;
 
 import io.aeron.Aeron;
 import io.aeron.Publication;
+import io.aeron.Subscription;
 import io.aeron.exceptions.DriverTimeoutException;
+import io.aeron.logbuffer.FragmentHandler;
 import lombok.Builder;
 import lombok.Data;
 import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
 import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.nd4j.aeron.ipc.chunk.NDArrayMessageChunk;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -33,11 +37,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
 
 /**
  * NDArray publisher
  * for aeron
  *
+ * Setting a credit stream id enables flow control:
+ * the publisher then has at most {@link #getMaxInFlightMessages()} messages
+ * that are not yet acknowledged by a subscriber
+ * (see {@link CreditGrantingNDArrayCallback}) and blocks in {@link #publish(NDArrayMessage)}
+ * until credits arrive, instead of overrunning a slow subscriber.
+ *
  * @author Adam Gibson
  */
 @Data
@@ -56,13 +67,30 @@ public class AeronNDArrayPublisher implements AutoCloseable {
     public final static int NUM_RETRIES = 100;
     private boolean compress = true;
     private static final BusySpinIdleStrategy busySpinIdleStrategy = new BusySpinIdleStrategy();
+    private final IdleStrategy creditIdleStrategy =
+                    new BackoffIdleStrategy(100, 10, TimeUnit.MICROSECONDS.toNanos(1), TimeUnit.MICROSECONDS.toNanos(100));
     private int publishRetryTimeOut = 3000;
+    // The channel and stream to receive credits from. Flow control is disabled if the stream id is 0
+    private String creditChannel;
+    private int creditStreamId;
+    // The maximum number of messages sent but not yet acknowledged by the subscriber
+    private int maxInFlightMessages;
+    // The maximum time (in ms) to wait for credits before failing
+    private long creditTimeOut;
+    private Subscription creditSubscription;
+    private long sentMessages;
+    private long grantedCredits;
+    private AeronStreamMetrics metrics;
 
     private void init() {
         channel = channel == null ? "aeron:udp?endpoint=localhost:40123" : channel;
         streamId = streamId == 0 ? 10 : streamId;
         publishRetryTimeOut = publishRetryTimeOut == 0 ? 3000 : publishRetryTimeOut;
         ctx = ctx == null ? ctx = new Aeron.Context() : ctx;
+        creditChannel = creditChannel == null ? "aeron:udp?endpoint=localhost:40124" : creditChannel;
+        maxInFlightMessages = maxInFlightMessages == 0 ? 16 : maxInFlightMessages;
+        creditTimeOut = creditTimeOut == 0 ? 30000 : creditTimeOut;
+        metrics = metrics == null ? new AeronStreamMetrics() : metrics;
         init = true;
         log.info("Channel publisher" + channel + " and stream " + streamId);
     }
@@ -113,6 +141,9 @@ public class AeronNDArrayPublisher implements AutoCloseable {
         }
 
 
+        if (creditStreamId > 0)
+            awaitCredit();
+
         // Allocate enough buffer size to hold maximum message length
         // The UnsafeBuffer class is part of the Agrona library and is used for efficient buffer management
         log.info("Publishing to " + channel + " on stream Id " + streamId);
@@ -140,6 +171,34 @@ public class AeronNDArrayPublisher implements AutoCloseable {
 
         }
 
+        sentMessages++;
+        metrics.onMessage();
+    }
+
+    /**
+     * Block until the subscriber has acknowledged enough messages
+     * for another message to be sent
+     */
+    private void awaitCredit() {
+        if (creditSubscription == null) {
+            creditSubscription = aeron.addSubscription(creditChannel, creditStreamId);
+            log.info("Receiving credits on channel " + creditChannel + " and stream " + creditStreamId);
+        }
+
+        FragmentHandler creditHandler = (buffer, offset, length, header) -> grantedCredits =
+                        Math.max(grantedCredits, buffer.getLong(offset));
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(creditTimeOut);
+        creditSubscription.poll(creditHandler, Integer.MAX_VALUE);
+        while (sentMessages - grantedCredits >= maxInFlightMessages) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for credits on channel " + creditChannel
+                                + " and stream " + creditStreamId + ": " + (sentMessages - grantedCredits)
+                                + " messages not acknowledged");
+            }
+            creditIdleStrategy.idle(creditSubscription.poll(creditHandler, Integer.MAX_VALUE));
+        }
+        metrics.onCreditWait(System.nanoTime() - start);
     }
 
 
@@ -151,6 +210,7 @@ public class AeronNDArrayPublisher implements AutoCloseable {
         int tries = 0;
         while ((result = publication.offer(buffer, 0, buffer.capacity())) < 0L && tries < 5) {
             if (result == Publication.BACK_PRESSURED) {
+                metrics.onBackPressure();
                 log.info("Offer failed due to back pressure");
             } else if (result == Publication.NOT_CONNECTED) {
                 log.info("Offer failed because publisher is not connected to subscriber " + channel + " and stream "
@@ -173,6 +233,7 @@ public class AeronNDArrayPublisher implements AutoCloseable {
 
         if (tries >= 5 && result == 0)
             throw new IllegalStateException("Failed to send message");
+        metrics.onBuffer(buffer.capacity());
 
     }
 
@@ -236,6 +297,9 @@ public class AeronNDArrayPublisher implements AutoCloseable {
         if (publication != null) {
             CloseHelper.quietClose(publication);
         }
+        if (creditSubscription != null) {
+            CloseHelper.quietClose(creditSubscription);
+        }
 
     }
 }
@@ -18,11 +18,17 @@ package org.nd4j.aeron.ipc;
 
 import io.aeron.Aeron;
 import io.aeron.FragmentAssembler;
+import io.aeron.Publication;
 import io.aeron.Subscription;
 import lombok.Builder;
 import lombok.Data;
 import org.agrona.CloseHelper;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.SigInt;
+import org.nd4j.aeron.ipc.chunk.ChunkAccumulator;
+import org.nd4j.aeron.ipc.chunk.InMemoryChunkAccumulator;
+import org.nd4j.aeron.ipc.chunk.OffHeapChunkAccumulator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,6 +68,14 @@ public class AeronNDArraySubscriber implements AutoCloseable {
     private Subscription subscription;
     private AtomicBoolean launched = new AtomicBoolean(false);
     private Executor executors;
+    // The channel and stream to send credits to a flow controlled publisher on. Disabled if the stream id is 0
+    private String creditChannel;
+    private int creditStreamId;
+    private Publication creditPublication;
+    // Reassembles chunked messages. If not specified, a bounded OffHeapChunkAccumulator when flow controlled
+    // (credits are returned for evicted messages) and an unbounded InMemoryChunkAccumulator otherwise
+    private ChunkAccumulator chunkAccumulator;
+    private AeronStreamMetrics metrics;
 
 
 
@@ -71,6 +85,10 @@ public class AeronNDArraySubscriber implements AutoCloseable {
         fragmentLimitCount = fragmentLimitCount == 0 ? 1000 : fragmentLimitCount;
         streamId = streamId == 0 ? 10 : streamId;
         running = running == null ? new AtomicBoolean(true) : running;
+        creditChannel = creditChannel == null ? "aeron:udp?endpoint=localhost:40124" : creditChannel;
+        if (chunkAccumulator == null)
+            chunkAccumulator = creditStreamId > 0 ? new OffHeapChunkAccumulator() : new InMemoryChunkAccumulator();
+        metrics = metrics == null ? new AeronStreamMetrics() : metrics;
         if (ndArrayCallback == null)
             throw new IllegalStateException("NDArray callback must be specified in the builder.");
         init.set(true);
@@ -123,13 +141,31 @@ public class AeronNDArraySubscriber implements AutoCloseable {
             throw new IllegalStateException("No stream for subscriber defined");
         if (aeron == null)
             throw new IllegalStateException("No aeron instance defined");
+        NDArrayCallback callback = ndArrayCallback;
+        IdleStrategy idleStrategy = new BusySpinIdleStrategy();
+        if (creditStreamId > 0) {
+            creditPublication = aeron.addPublication(creditChannel, creditStreamId);
+            final CreditGrantingNDArrayCallback creditCallback =
+                            new CreditGrantingNDArrayCallback(ndArrayCallback, creditPublication, 1000);
+            callback = creditCallback;
+            if (chunkAccumulator instanceof OffHeapChunkAccumulator) {
+                //return the credits of dropped messages, and keep evicting while the publisher waits for them
+                OffHeapChunkAccumulator accumulator = (OffHeapChunkAccumulator) chunkAccumulator;
+                accumulator.setEvictionListener(id -> creditCallback.onMessageDropped());
+                idleStrategy = new EvictingIdleStrategy(idleStrategy, accumulator);
+            } else {
+                log.warn("Credits are not returned for messages dropped by " + chunkAccumulator.getClass().getName());
+            }
+            log.info("Sending credits on channel " + creditChannel + " and stream " + creditStreamId);
+        }
+
         boolean started = false;
         while (!started) {
             try (final Subscription subscription = aeron.addSubscription(channel, streamId)) {
                 this.subscription = subscription;
                 log.info("Beginning subscribe on channel " + channel + " and stream " + streamId);
-                AeronUtil.subscriberLoop(new FragmentAssembler(new NDArrayFragmentHandler(ndArrayCallback)),
-                                fragmentLimitCount, running, launched).accept(subscription);
+                AeronUtil.subscriberLoop(new FragmentAssembler(new NDArrayFragmentHandler(callback, chunkAccumulator, metrics)),
+                                fragmentLimitCount, running, idleStrategy, launched).accept(subscription);
                 started = true;
 
             } catch (Exception e) {
@@ -266,7 +302,38 @@ public class AeronNDArraySubscriber implements AutoCloseable {
     @Override
     public void close() throws Exception {
         CloseHelper.quietClose(subscription);
+        CloseHelper.quietClose(creditPublication);
     }
-}
 
+    /**
+     * Evicts expired reassemblies whenever a poll returns no fragments,
+     * so incomplete messages are dropped (and their credits returned) even when no more chunks arrive.
+     */
+    private static class EvictingIdleStrategy implements IdleStrategy {
+        private final IdleStrategy delegate;
+        private final OffHeapChunkAccumulator accumulator;
+
+        private EvictingIdleStrategy(IdleStrategy delegate, OffHeapChunkAccumulator accumulator) {
+            this.delegate = delegate;
+            this.accumulator = accumulator;
+        }
 
+        @Override
+        public void idle(int workCount) {
+            if (workCount == 0)
+                accumulator.evictExpired();
+            delegate.idle(workCount);
+        }
+
+        @Override
+        public void idle() {
+            accumulator.evictExpired();
+            delegate.idle();
+        }
+
+        @Override
+        public void reset() {
+            delegate.reset();
+        }
+    }
+}
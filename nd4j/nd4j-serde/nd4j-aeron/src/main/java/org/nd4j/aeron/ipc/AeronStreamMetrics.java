@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.aeron.ipc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency counters for a publisher
+ * or subscriber of {@link NDArrayMessage}.
+ *
+ * Latency is measured from {@link NDArrayMessage#getSent()}
+ * to the message being handed to the {@link NDArrayCallback},
+ * and therefore assumes synchronized clocks (or the same host) for publisher and subscriber.
+ *
+ * All counters are thread safe.
+ */
+public class AeronStreamMetrics {
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong buffers = new AtomicLong();
+    private final AtomicLong backPressureEvents = new AtomicLong();
+    private final AtomicLong creditWaitNanos = new AtomicLong();
+    private final AtomicLong latencyCount = new AtomicLong();
+    private final AtomicLong latencySumMs = new AtomicLong();
+    private final AtomicLong latencyMaxMs = new AtomicLong();
+
+    /**
+     * Record a published or received message
+     */
+    public void onMessage() {
+        messages.incrementAndGet();
+    }
+
+    /**
+     * Record a buffer sent or received over the transport:
+     * either a whole message or a chunk of one
+     * @param numBytes the size of the buffer in bytes
+     */
+    public void onBuffer(long numBytes) {
+        buffers.incrementAndGet();
+        bytes.addAndGet(numBytes);
+    }
+
+    /**
+     * Record the latency of a received message
+     * @param message the received message
+     */
+    public void onLatency(NDArrayMessage message) {
+        long latency = Math.max(0, NDArrayMessage.getCurrentTimeUtc() - message.getSent());
+        latencyCount.incrementAndGet();
+        latencySumMs.addAndGet(latency);
+        long max;
+        while ((max = latencyMaxMs.get()) < latency && !latencyMaxMs.compareAndSet(max, latency));
+    }
+
+    /**
+     * Record an offer that was rejected due to back pressure
+     */
+    public void onBackPressure() {
+        backPressureEvents.incrementAndGet();
+    }
+
+    /**
+     * Record time spent waiting for credits from the subscriber
+     * @param nanos the time spent waiting
+     */
+    public void onCreditWait(long nanos) {
+        creditWaitNanos.addAndGet(nanos);
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public long getBuffers() {
+        return buffers.get();
+    }
+
+    public long getBackPressureEvents() {
+        return backPressureEvents.get();
+    }
+
+    public long getCreditWaitMs() {
+        return TimeUnit.NANOSECONDS.toMillis(creditWaitNanos.get());
+    }
+
+    public long getMaxLatencyMs() {
+        return latencyMaxMs.get();
+    }
+
+    /**
+     * @return the mean latency in milliseconds, or 0 if no latency was recorded
+     */
+    public double getMeanLatencyMs() {
+        long count = latencyCount.get();
+        return count == 0 ? 0.0 : latencySumMs.get() / (double) count;
+    }
+
+    /**
+     * @return messages per second since these metrics were created
+     */
+    public double getMessagesPerSecond() {
+        return messages.get() / elapsedSeconds();
+    }
+
+    /**
+     * @return bytes per second since these metrics were created
+     */
+    public double getBytesPerSecond() {
+        return bytes.get() / elapsedSeconds();
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AeronStreamMetrics(messages=%d, bytes=%d, buffers=%d, messages/sec=%.2f, bytes/sec=%.2f, "
+                        + "backPressureEvents=%d, creditWaitMs=%d, meanLatencyMs=%.2f, maxLatencyMs=%d)",
+                        getMessages(), getBytes(), getBuffers(), getMessagesPerSecond(), getBytesPerSecond(),
+                        getBackPressureEvents(), getCreditWaitMs(), getMeanLatencyMs(), getMaxLatencyMs());
+    }
+}
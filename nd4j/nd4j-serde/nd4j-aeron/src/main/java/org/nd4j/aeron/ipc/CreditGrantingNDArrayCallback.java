@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.aeron.ipc;
+
+import io.aeron.Publication;
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An {@link NDArrayCallback} that grants credits to a flow controlled
+ * {@link AeronNDArrayPublisher} once a message has been handled by the wrapped callback.
+ *
+ * A credit is the cumulative number of messages handled so far (a single long),
+ * so a credit that can not be delivered is superseded by the next one.
+ * Messages dropped before reaching this callback (for example evicted incomplete chunked
+ * messages, see {@link org.nd4j.aeron.ipc.chunk.OffHeapChunkAccumulator.EvictionListener})
+ * must be reported through {@link #onMessageDropped()}, otherwise the publisher runs out of credits.
+ * A message of which nothing arrives at all can not be detected here; the publisher
+ * fails after its credit timeout in that case.
+ *
+ * @see AeronNDArrayPublisher#getCreditStreamId()
+ */
+@Slf4j
+public class CreditGrantingNDArrayCallback implements NDArrayCallback {
+    private final NDArrayCallback delegate;
+    private final Publication creditPublication;
+    private final long offerTimeoutMs;
+    private final UnsafeBuffer creditBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(8));
+    private long consumed;
+
+    /**
+     * @param delegate the callback handling the messages
+     * @param creditPublication the publication to send credits on
+     * @param offerTimeoutMs how long to keep retrying a credit that can not be sent
+     */
+    public CreditGrantingNDArrayCallback(NDArrayCallback delegate, Publication creditPublication,
+                    long offerTimeoutMs) {
+        this.delegate = delegate;
+        this.creditPublication = creditPublication;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    @Override
+    public void onNDArrayMessage(NDArrayMessage message) {
+        delegate.onNDArrayMessage(message);
+        grant();
+    }
+
+    @Override
+    public void onNDArrayPartial(INDArray arr, long idx, int... dimensions) {
+        delegate.onNDArrayPartial(arr, idx, dimensions);
+        grant();
+    }
+
+    @Override
+    public void onNDArray(INDArray arr) {
+        delegate.onNDArray(arr);
+        grant();
+    }
+
+    /**
+     * Grant the credit for a message that was dropped instead of being handled.
+     */
+    public void onMessageDropped() {
+        grant();
+    }
+
+    private synchronized void grant() {
+        creditBuffer.putLong(0, ++consumed);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        long result;
+        while ((result = creditPublication.offer(creditBuffer, 0, 8)) < 0L) {
+            if (result == Publication.CLOSED || System.nanoTime() > deadline) {
+                log.warn("Unable to send credit {} on stream {}: offer result {}", consumed,
+                                creditPublication.streamId(), result);
+                return;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+}
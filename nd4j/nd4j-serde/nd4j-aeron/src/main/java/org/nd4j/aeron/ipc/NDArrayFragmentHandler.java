@@ -38,11 +38,24 @@ import java.nio.ByteOrder;
 public class NDArrayFragmentHandler implements FragmentHandler {
     private NDArrayCallback ndArrayCallback;
     private ChunkAccumulator chunkAccumulator = new InMemoryChunkAccumulator();
+    private AeronStreamMetrics metrics;
 
     public NDArrayFragmentHandler(NDArrayCallback ndArrayCallback) {
         this.ndArrayCallback = ndArrayCallback;
     }
 
+    /**
+     * @param ndArrayCallback the callback for complete messages
+     * @param chunkAccumulator the accumulator used to reassemble chunked messages
+     * @param metrics the metrics to record received buffers and messages in (may be null)
+     */
+    public NDArrayFragmentHandler(NDArrayCallback ndArrayCallback, ChunkAccumulator chunkAccumulator,
+                    AeronStreamMetrics metrics) {
+        this.ndArrayCallback = ndArrayCallback;
+        this.chunkAccumulator = chunkAccumulator;
+        this.metrics = metrics;
+    }
+
     /**
      * Callback for handling
      * fragments of data being read from a log.
@@ -71,6 +84,9 @@ public class NDArrayFragmentHandler implements FragmentHandler {
             byteBuffer.order(ByteOrder.nativeOrder());
         }
 
+        if (metrics != null)
+            metrics.onBuffer(length);
+
         int messageTypeIndex = byteBuffer.getInt();
         if (messageTypeIndex >= NDArrayMessage.MessageType.values().length)
             throw new IllegalStateException(
@@ -89,13 +105,21 @@ public class NDArrayFragmentHandler implements FragmentHandler {
 
             if (chunkAccumulator.allPresent(chunk.getId())) {
                 NDArrayMessage message = chunkAccumulator.reassemble(chunk.getId());
-                ndArrayCallback.onNDArrayMessage(message);
+                onMessage(message);
             }
         } else {
             NDArrayMessage message = NDArrayMessage.fromBuffer(buffer, offset);
-            ndArrayCallback.onNDArrayMessage(message);
+            onMessage(message);
         }
 
 
     }
+
+    private void onMessage(NDArrayMessage message) {
+        if (metrics != null) {
+            metrics.onMessage();
+            metrics.onLatency(message);
+        }
+        ndArrayCallback.onNDArrayMessage(message);
+    }
 }
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.aeron.ipc.chunk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.nd4j.aeron.ipc.NDArrayMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded {@link ChunkAccumulator}.
+ *
+ * Chunks are copied in to one direct buffer per message as they arrive,
+ * so no reference to the (reused) transport buffers is kept.
+ * Incomplete messages are evicted (oldest first) when they are older than the
+ * given timeout, or when the total size of the reassembly buffers would exceed
+ * the configured maximum. Expired messages are also evicted by {@link #evictExpired()},
+ * which should be called periodically when no chunks arrive.
+ * The ids of dropped messages are remembered for a while, so late chunks of a dropped
+ * message are discarded and every dropped message is reported to the
+ * {@link EvictionListener} exactly once.
+ */
+@Slf4j
+public class OffHeapChunkAccumulator implements ChunkAccumulator {
+    public static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+    public static final int DEFAULT_MAX_MESSAGES = 64;
+    public static final long DEFAULT_TIMEOUT_MS = 30000;
+
+    private final long maxBytes;
+    private final int maxMessages;
+    private final long timeoutMs;
+    //insertion ordered: the first entry is always the oldest reassembly
+    private final Map<String, Reassembly> pending = new LinkedHashMap<>();
+    private final Set<String> dropped;
+    private long pendingBytes;
+    private long evicted;
+    private EvictionListener evictionListener;
+
+    public OffHeapChunkAccumulator() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_MAX_MESSAGES, DEFAULT_TIMEOUT_MS);
+    }
+
+    /**
+     * @param maxBytes the maximum total size of all reassembly buffers
+     * @param maxMessages the maximum number of messages being reassembled at the same time
+     * @param timeoutMs the time after which an incomplete message is evicted
+     */
+    public OffHeapChunkAccumulator(long maxBytes, int maxMessages, long timeoutMs) {
+        if (maxBytes <= 0 || maxMessages <= 0 || timeoutMs <= 0)
+            throw new IllegalArgumentException("maxBytes, maxMessages and timeoutMs must be positive");
+        this.maxBytes = maxBytes;
+        this.maxMessages = maxMessages;
+        this.timeoutMs = timeoutMs;
+        final int maxDropped = 16 * maxMessages;
+        this.dropped = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxDropped;
+            }
+        });
+    }
+
+    /**
+     * @param evictionListener notified once for every message that is dropped
+     *                         without being reassembled (may be null)
+     */
+    public synchronized void setEvictionListener(EvictionListener evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    @Override
+    public synchronized int numChunksSoFar(String id) {
+        Reassembly reassembly = pending.get(id);
+        return reassembly == null ? 0 : reassembly.received.cardinality();
+    }
+
+    @Override
+    public synchronized boolean allPresent(String id) {
+        Reassembly reassembly = pending.get(id);
+        return reassembly != null && reassembly.received.cardinality() == reassembly.numChunks;
+    }
+
+    @Override
+    public synchronized NDArrayMessage reassemble(String id) {
+        Reassembly reassembly = pending.get(id);
+        if (reassembly == null)
+            throw new IllegalStateException("No chunks for message " + id + " (never received or evicted)");
+        if (reassembly.received.cardinality() != reassembly.numChunks)
+            throw new IllegalStateException("Unable to reassemble message chunk " + id + " missing "
+                            + (reassembly.numChunks - reassembly.received.cardinality()) + " chunks");
+        remove(id);
+        return NDArrayMessage.fromBuffer(new UnsafeBuffer(reassembly.buffer, 0, reassembly.length), 0);
+    }
+
+    @Override
+    public synchronized void accumulateChunk(NDArrayMessageChunk chunk) {
+        long now = System.currentTimeMillis();
+        evictExpired(now);
+
+        String id = chunk.getId();
+        Reassembly reassembly = pending.get(id);
+        if (reassembly == null) {
+            if (dropped.contains(id))
+                return;
+            long capacity = (long) chunk.getNumChunks() * chunk.getChunkSize();
+            if (capacity > maxBytes || capacity > Integer.MAX_VALUE) {
+                log.warn("Dropping message {}: message size {} exceeds maximum of {} bytes", id, capacity,
+                                maxBytes);
+                onDropped(id);
+                return;
+            }
+            while (!pending.isEmpty() && (pendingBytes + capacity > maxBytes || pending.size() >= maxMessages)) {
+                evict(pending.keySet().iterator().next());
+            }
+            reassembly = new Reassembly(chunk.getNumChunks(), (int) capacity, now);
+            pending.put(id, reassembly);
+            pendingBytes += capacity;
+        }
+
+        int index = chunk.getChunkIndex();
+        if (index < 0 || index >= reassembly.numChunks || reassembly.received.get(index))
+            return;
+
+        ByteBuffer data = chunk.getData().duplicate();
+        int position = index * chunk.getChunkSize();
+        int length = Math.min(data.remaining(), chunk.getChunkSize());
+        data.limit(data.position() + length);
+        ByteBuffer target = reassembly.buffer.duplicate();
+        target.position(position);
+        target.put(data);
+        reassembly.received.set(index);
+        reassembly.length = Math.max(reassembly.length, position + length);
+    }
+
+    /**
+     * @return the number of incomplete messages evicted so far
+     */
+    public synchronized long getEvictedMessages() {
+        return evicted;
+    }
+
+    /**
+     * @return the number of messages currently being reassembled
+     */
+    public synchronized int getPendingMessages() {
+        return pending.size();
+    }
+
+    /**
+     * @return the total size of the reassembly buffers currently allocated
+     */
+    public synchronized long getPendingBytes() {
+        return pendingBytes;
+    }
+
+    /**
+     * Evict all incomplete messages older than the timeout.
+     * This also happens whenever a chunk arrives.
+     */
+    public synchronized void evictExpired() {
+        evictExpired(System.currentTimeMillis());
+    }
+
+    private void evictExpired(long now) {
+        while (!pending.isEmpty()) {
+            Map.Entry<String, Reassembly> oldest = pending.entrySet().iterator().next();
+            if (now - oldest.getValue().created < timeoutMs)
+                break;
+            evict(oldest.getKey());
+        }
+    }
+
+    private void evict(String id) {
+        Reassembly reassembly = remove(id);
+        evicted++;
+        log.warn("Evicting incomplete message {}: {} of {} chunks received", id, reassembly.received.cardinality(),
+                        reassembly.numChunks);
+        onDropped(id);
+    }
+
+    private void onDropped(String id) {
+        dropped.add(id);
+        if (evictionListener != null)
+            evictionListener.onEvicted(id);
+    }
+
+    private Reassembly remove(String id) {
+        Reassembly reassembly = pending.remove(id);
+        pendingBytes -= reassembly.buffer.capacity();
+        return reassembly;
+    }
+
+    /**
+     * Notified when a message is dropped without being reassembled,
+     * either evicted while incomplete or too large to accumulate.
+     */
+    public interface EvictionListener {
+        void onEvicted(String id);
+    }
+
+    private static class Reassembly {
+        private final int numChunks;
+        private final ByteBuffer buffer;
+        private final BitSet received;
+        private final long created;
+        private int length;
+
+        private Reassembly(int numChunks, int capacity, long created) {
+            this.numChunks = numChunks;
+            this.buffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+            this.received = new BitSet(numChunks);
+            this.created = created;
+        }
+    }
+}
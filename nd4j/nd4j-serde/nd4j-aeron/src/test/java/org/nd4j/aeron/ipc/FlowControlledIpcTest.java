@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.aeron.ipc;
+
+import io.aeron.Aeron;
+import io.aeron.driver.MediaDriver;
+import org.agrona.CloseHelper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.aeron.ipc.chunk.OffHeapChunkAccumulator;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class FlowControlledIpcTest {
+    private MediaDriver mediaDriver;
+    private Aeron aeron;
+
+    @Before
+    public void before() {
+        mediaDriver = MediaDriver.launchEmbedded(AeronUtil.getMediaDriverContext(1000));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+    }
+
+    @After
+    public void after() {
+        CloseHelper.quietClose(aeron);
+        CloseHelper.quietClose(mediaDriver);
+    }
+
+    @Test(timeout = 60000L)
+    public void testSlowSubscriberLimitsInFlightMessages() throws Exception {
+        int numMessages = 10;
+        int maxInFlight = 2;
+        final AtomicLong published = new AtomicLong();
+        final AtomicLong maxObservedInFlight = new AtomicLong();
+        final List<INDArray> received = Collections.synchronizedList(new ArrayList<INDArray>());
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        AeronStreamMetrics subscriberMetrics = new AeronStreamMetrics();
+        OffHeapChunkAccumulator accumulator = new OffHeapChunkAccumulator();
+        final AeronNDArraySubscriber subscriber = AeronNDArraySubscriber.builder().aeron(aeron)
+                        .ctx(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()))
+                        .channel("aeron:ipc").streamId(10).creditChannel("aeron:ipc").creditStreamId(11)
+                        .chunkAccumulator(accumulator).metrics(subscriberMetrics).running(running)
+                        .ndArrayCallback(new NDArrayCallback() {
+                            @Override
+                            public void onNDArrayMessage(NDArrayMessage message) {
+                                maxObservedInFlight.set(Math.max(maxObservedInFlight.get(),
+                                                published.get() - received.size()));
+                                received.add(message.getArr());
+                                try {
+                                    Thread.sleep(50);
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+
+                            @Override
+                            public void onNDArrayPartial(INDArray arr, long idx, int... dimensions) {}
+
+                            @Override
+                            public void onNDArray(INDArray arr) {}
+                        }).build();
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    subscriber.launch();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        t.start();
+        while (!subscriber.launched())
+            Thread.sleep(10);
+
+        AeronNDArrayPublisher publisher = AeronNDArrayPublisher.builder().aeron(aeron).channel("aeron:ipc")
+                        .streamId(10).creditChannel("aeron:ipc").creditStreamId(11)
+                        .maxInFlightMessages(maxInFlight).build();
+        //large enough to be chunked
+        int length = 100000;
+        List<INDArray> sent = new ArrayList<>();
+        for (int i = 0; i < numMessages; i++) {
+            INDArray arr = Nd4j.linspace(1, length, length).addi(i);
+            sent.add(arr);
+            publisher.publish(arr);
+            published.incrementAndGet();
+        }
+
+        while (received.size() < numMessages)
+            Thread.sleep(10);
+        running.set(false);
+        t.join();
+
+        assertEquals(sent, received);
+        assertTrue("In flight messages: " + maxObservedInFlight.get(), maxObservedInFlight.get() <= maxInFlight);
+        assertEquals(numMessages, publisher.getMetrics().getMessages());
+        assertEquals(numMessages, subscriberMetrics.getMessages());
+        assertTrue(publisher.getMetrics().getBuffers() > numMessages);
+        assertEquals(publisher.getMetrics().getBytes(), subscriberMetrics.getBytes());
+        assertEquals(0, accumulator.getPendingMessages());
+        assertEquals(0, accumulator.getEvictedMessages());
+
+        CloseHelper.close(publisher);
+        CloseHelper.close(subscriber);
+    }
+}
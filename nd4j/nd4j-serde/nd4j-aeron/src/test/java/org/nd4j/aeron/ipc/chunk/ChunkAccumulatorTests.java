@@ -20,7 +20,12 @@ import org.junit.Test;
 import org.nd4j.aeron.ipc.NDArrayMessage;
 import org.nd4j.linalg.factory.Nd4j;
 
-import static org.junit.Assert.assertEquals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
 
 /**
  * Created by agibsonccc on 11/20/16.
@@ -41,4 +46,87 @@ public class ChunkAccumulatorTests {
         assertEquals(message, message1);
     }
 
+    @Test
+    public void testOffHeapAccumulator() {
+        OffHeapChunkAccumulator chunkAccumulator = new OffHeapChunkAccumulator();
+        NDArrayMessage message = NDArrayMessage.wholeArrayUpdate(Nd4j.linspace(1, 1000, 1000));
+        NDArrayMessageChunk[] chunks = NDArrayMessage.chunks(message, 128);
+        //out of order, with a duplicate
+        for (int i = chunks.length - 1; i >= 0; i--) {
+            chunkAccumulator.accumulateChunk(chunks[i]);
+        }
+        chunkAccumulator.accumulateChunk(chunks[0]);
+
+        assertTrue(chunkAccumulator.allPresent(chunks[0].getId()));
+        assertEquals(chunks.length, chunkAccumulator.numChunksSoFar(chunks[0].getId()));
+        NDArrayMessage message1 = chunkAccumulator.reassemble(chunks[0].getId());
+        assertEquals(message, message1);
+        assertEquals(0, chunkAccumulator.getPendingMessages());
+        assertEquals(0, chunkAccumulator.getPendingBytes());
+    }
+
+    @Test
+    public void testOffHeapAccumulatorEviction() throws Exception {
+        int chunkSize = 128;
+        NDArrayMessageChunk[][] chunks = new NDArrayMessageChunk[3][];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = NDArrayMessage.chunks(NDArrayMessage.wholeArrayUpdate(Nd4j.ones(1000)), chunkSize);
+        }
+        long messageBytes = (long) chunks[0].length * chunkSize;
+
+        //room for two messages: starting a third evicts the oldest incomplete one
+        OffHeapChunkAccumulator bySize = new OffHeapChunkAccumulator(2 * messageBytes, 10, 60000);
+        for (int i = 0; i < chunks.length; i++) {
+            bySize.accumulateChunk(chunks[i][0]);
+        }
+        assertEquals(1, bySize.getEvictedMessages());
+        assertEquals(2, bySize.getPendingMessages());
+        assertEquals(0, bySize.numChunksSoFar(chunks[0][0].getId()));
+        assertTrue(bySize.getPendingBytes() <= 2 * messageBytes);
+
+        OffHeapChunkAccumulator byTime = new OffHeapChunkAccumulator(Long.MAX_VALUE, 10, 50);
+        byTime.accumulateChunk(chunks[0][0]);
+        Thread.sleep(100);
+        byTime.accumulateChunk(chunks[1][0]);
+        assertEquals(1, byTime.getEvictedMessages());
+        assertFalse(byTime.allPresent(chunks[0][0].getId()));
+        assertEquals(1, byTime.numChunksSoFar(chunks[1][0].getId()));
+    }
+
+    @Test
+    public void testOffHeapAccumulatorEvictionListener() throws Exception {
+        int chunkSize = 128;
+        NDArrayMessageChunk[][] chunks = new NDArrayMessageChunk[2][];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = NDArrayMessage.chunks(NDArrayMessage.wholeArrayUpdate(Nd4j.ones(1000)), chunkSize);
+        }
+        List<String> evicted = new ArrayList<>();
+
+        OffHeapChunkAccumulator accumulator = new OffHeapChunkAccumulator(Long.MAX_VALUE, 10, 50);
+        accumulator.setEvictionListener(evicted::add);
+        accumulator.accumulateChunk(chunks[0][0]);
+        Thread.sleep(100);
+        //expired without any further chunks arriving
+        accumulator.evictExpired();
+        assertEquals(Collections.singletonList(chunks[0][0].getId()), evicted);
+        assertEquals(0, accumulator.getPendingMessages());
+
+        //late chunks of the evicted message are dropped, not reassembled and evicted again
+        for (int i = 1; i < chunks[0].length; i++) {
+            accumulator.accumulateChunk(chunks[0][i]);
+        }
+        assertEquals(0, accumulator.getPendingMessages());
+        Thread.sleep(100);
+        accumulator.evictExpired();
+        assertEquals(1, evicted.size());
+
+        //too large to accumulate: reported once
+        OffHeapChunkAccumulator small = new OffHeapChunkAccumulator(chunkSize, 10, 60000);
+        small.setEvictionListener(evicted::add);
+        for (int i = 0; i < chunks[1].length; i++) {
+            small.accumulateChunk(chunks[1][i]);
+        }
+        assertEquals(Arrays.asList(chunks[0][0].getId(), chunks[1][0].getId()), evicted);
+    }
+
 }
@@ -0,0 +1,424 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.arrow;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.apache.arrow.flatbuf.*;
+import org.bytedeco.javacpp.*;
+import org.bytedeco.javacpp.indexer.*;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Reading and writing of {@link INDArray} as arrow IPC tensor messages
+ * directly in (typically memory mapped) direct {@link ByteBuffer}s.
+ *
+ * A message is laid out as in the arrow IPC format:
+ * an int32 (little endian) metadata length, a flatbuffers {@link Message}
+ * with a {@link Tensor} header, padding up to a 64 byte boundary and then the tensor body.
+ *
+ * Unlike {@link ArrowSerde}, no intermediate buffers are used:
+ * the body is copied straight from the {@link DataBuffer} pointer into the target region,
+ * and {@link #readTensorMessage(ByteBuffer, int)} wraps the body region as an {@link INDArray}
+ * without copying it.
+ *
+ * The metadata length is written last, with release semantics (an ordered store, see {@link #publishInt(ByteBuffer, int, int)}),
+ * and read with acquire semantics, so that a reader polling the region never sees a partially written message.
+ * A metadata length of 0 means no message has been published at that position yet, {@link #END_OF_STREAM}
+ * marks the end of the stream and {@link #NEXT_SEGMENT} marks that the stream continues in the next segment.
+ */
+public class ArrowTensorIpc {
+
+    /**
+     * Alignment (in bytes) of every message and every tensor body
+     */
+    public static final int ALIGNMENT = 64;
+    /**
+     * Metadata length marking the end of the stream
+     */
+    public static final int END_OF_STREAM = -1;
+    /**
+     * Metadata length marking that the stream continues at the start of the next segment
+     */
+    public static final int NEXT_SEGMENT = -2;
+    /**
+     * Number of bytes needed for the end of stream (or next segment) marker
+     */
+    public static final int END_OF_STREAM_LENGTH = 8;
+
+    private static final Unsafe UNSAFE;
+
+    static {
+        try {
+            Field f = Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            UNSAFE = (Unsafe) f.get(null);
+        } catch (Exception e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ArrowTensorIpc() {
+    }
+
+    /**
+     * Get the number of bytes {@link #writeTensorMessage(ByteBuffer, int, INDArray)} needs for the given array,
+     * excluding the end of stream marker
+     * @param arr the array to write
+     * @return the length of the message, in bytes
+     */
+    public static long messageLength(INDArray arr) {
+        long bodyLength = arr.length() * arr.data().getElementSize();
+        return align(4 + tensorMetadata(arr, bodyLength).remaining()) + align(bodyLength);
+    }
+
+    /**
+     * Write the given array as a tensor message in to the target buffer.
+     * Views are duplicated first; any other array is copied straight from its
+     * {@link DataBuffer} pointer in to the target.
+     * @param target the (direct) buffer to write to
+     * @param position the (aligned) position to write the message at
+     * @param arr the array to write
+     * @return the position after the message, which is where the next message should be written
+     */
+    public static int writeTensorMessage(ByteBuffer target, int position, INDArray arr) {
+        if (!target.isDirect()) {
+            throw new IllegalArgumentException("Target buffer must be a direct buffer");
+        }
+        if (position % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Position must be a multiple of " + ALIGNMENT + ", got " + position);
+        }
+
+        INDArray toWrite = arr.isView() ? arr.dup() : arr;
+        DataBuffer data = toWrite.data();
+        long bodyLength = toWrite.length() * data.getElementSize();
+        ByteBuffer metadata = tensorMetadata(toWrite, bodyLength);
+
+        long bodyStart = align(position + 4 + metadata.remaining());
+        long end = bodyStart + align(bodyLength);
+        if (end + END_OF_STREAM_LENGTH > target.capacity()) {
+            throw new ND4JIllegalStateException("Not enough space left to write array of " + bodyLength
+                            + " bytes at position " + position + ": buffer capacity is " + target.capacity());
+        }
+
+        ByteBuffer header = region(target, position + 4, (int) (bodyStart - position - 4));
+        header.put(metadata);
+        while (header.hasRemaining()) {
+            header.put((byte) 0);
+        }
+
+        if (bodyLength > 0) {
+            Pointer.memcpy(new BytePointer(region(target, (int) bodyStart, (int) bodyLength)), data.addressPointer(),
+                            bodyLength);
+        }
+
+        publishInt(target, position, (int) (bodyStart - position - 4));
+        return (int) end;
+    }
+
+    /**
+     * Write the end of stream marker at the given position
+     * @param target the buffer to write to
+     * @param position the position to write the marker at
+     */
+    public static void writeEndOfStream(ByteBuffer target, int position) {
+        target.order(ByteOrder.LITTLE_ENDIAN).putInt(position + 4, 0);
+        publishInt(target, position, END_OF_STREAM);
+    }
+
+    /**
+     * Write the marker that the stream continues at the start of the next segment at the given position.
+     * The next segment must be available to readers before the marker is written.
+     * @param target the buffer to write to
+     * @param position the position to write the marker at
+     */
+    public static void writeNextSegment(ByteBuffer target, int position) {
+        target.order(ByteOrder.LITTLE_ENDIAN).putInt(position + 4, 0);
+        publishInt(target, position, NEXT_SEGMENT);
+    }
+
+    /**
+     * Read the metadata length at the given position, with acquire semantics: once a non zero
+     * length has been read, the whole message it belongs to is visible.
+     * @param source the (direct) buffer to read from
+     * @param position the position of the message
+     * @return the metadata length, 0 if no message was published at this position yet,
+     * {@link #END_OF_STREAM} or {@link #NEXT_SEGMENT}
+     */
+    public static int metadataLength(ByteBuffer source, int position) {
+        checkBounds(source, position);
+        return fromLittleEndian(UNSAFE.getIntVolatile(null, address(source) + position));
+    }
+
+    /**
+     * Write a (little endian) int at the given position with release semantics (an ordered store):
+     * all writes made before are visible to any thread or process that observes the written value.
+     * This is how message lengths and markers are published.
+     * @param target the (direct) buffer to write to
+     * @param position the position to write the value at
+     * @param value the value to write
+     */
+    public static void publishInt(ByteBuffer target, int position, int value) {
+        checkBounds(target, position);
+        UNSAFE.putOrderedInt(null, address(target) + position, fromLittleEndian(value));
+    }
+
+    /**
+     * Get the position directly after the message at the given position
+     * @param source the buffer holding the message
+     * @param position the position of the message
+     * @return the position of the next message
+     */
+    public static int nextMessagePosition(ByteBuffer source, int position) {
+        int metadataLength = metadataLength(source, position);
+        Message message = readMessage(source, position, metadataLength);
+        return (int) (position + 4 + metadataLength + align(message.bodyLength()));
+    }
+
+    /**
+     * Wrap the tensor message at the given position as an {@link INDArray}.
+     * The returned array is a view of the source buffer: no data is copied,
+     * and changes to the array are visible to anything sharing the buffer.
+     * The source buffer is referenced by the returned array's {@link DataBuffer}
+     * so a mapping stays valid for as long as the array is in use.
+     * @param source the (direct) buffer to read from
+     * @param position the position of the message
+     * @return the wrapped array
+     */
+    public static INDArray readTensorMessage(ByteBuffer source, int position) {
+        if (!source.isDirect()) {
+            throw new IllegalArgumentException("Source buffer must be a direct buffer");
+        }
+
+        int metadataLength = metadataLength(source, position);
+        if (metadataLength <= 0) {
+            throw new ND4JIllegalStateException("No tensor message at position " + position);
+        }
+
+        Message message = readMessage(source, position, metadataLength);
+        if (message.headerType() != MessageHeader.Tensor) {
+            throw new ND4JIllegalStateException("Expected a tensor message but got header type " + message.headerType());
+        }
+        Tensor tensor = (Tensor) message.header(new Tensor());
+        DataBuffer.Type type = typeOf(tensor);
+        int elementSize = elementSize(type);
+
+        long[] shape = new long[tensor.shapeLength()];
+        long[] stride = new long[tensor.stridesLength()];
+        for (int i = 0; i < shape.length; i++) {
+            shape[i] = tensor.shape(i).size();
+            //arrow strides are in bytes
+            stride[i] = tensor.strides(i) / elementSize;
+        }
+
+        long length = Shape.lengthOf(shape);
+        org.apache.arrow.flatbuf.Buffer data = tensor.data();
+        int bodyStart = position + 4 + metadataLength;
+        ByteBuffer body = region(source, (int) (bodyStart + data.offset()), (int) (length * elementSize));
+
+        Pointer pointer;
+        Indexer indexer;
+        switch (type) {
+            case DOUBLE:
+                pointer = new MappedDoublePointer(body);
+                indexer = DoubleIndexer.create((DoublePointer) pointer);
+                break;
+            case FLOAT:
+                pointer = new MappedFloatPointer(body);
+                indexer = FloatIndexer.create((FloatPointer) pointer);
+                break;
+            case INT:
+                pointer = new MappedIntPointer(body);
+                indexer = IntIndexer.create((IntPointer) pointer);
+                break;
+            case LONG:
+                pointer = new MappedLongPointer(body);
+                indexer = LongIndexer.create((LongPointer) pointer);
+                break;
+            default:
+                throw new ND4JIllegalStateException("Unsupported data type " + type);
+        }
+
+        DataBuffer buffer = Nd4j.createBuffer(pointer, type, length, indexer);
+        return Nd4j.create(buffer, shape, stride, 0, Shape.getOrder(shape, stride, 1));
+    }
+
+    /**
+     * Create the flatbuffers {@link Message} for the given array
+     * @param arr the array to create the metadata for
+     * @param bodyLength the length of the tensor body in bytes
+     * @return the serialized message
+     */
+    public static ByteBuffer tensorMetadata(INDArray arr, long bodyLength) {
+        FlatBufferBuilder bufferBuilder = new FlatBufferBuilder(1024);
+        int typeOffset;
+        byte typeType;
+        switch (arr.data().dataType()) {
+            case DOUBLE:
+                typeType = Type.FloatingPoint;
+                typeOffset = FloatingPoint.createFloatingPoint(bufferBuilder, Precision.DOUBLE);
+                break;
+            case FLOAT:
+                typeType = Type.FloatingPoint;
+                typeOffset = FloatingPoint.createFloatingPoint(bufferBuilder, Precision.SINGLE);
+                break;
+            case INT:
+                typeType = Type.Int;
+                typeOffset = Int.createInt(bufferBuilder, 32, true);
+                break;
+            case LONG:
+                typeType = Type.Int;
+                typeOffset = Int.createInt(bufferBuilder, 64, true);
+                break;
+            default:
+                throw new ND4JIllegalStateException("Unsupported data type " + arr.data().dataType());
+        }
+
+        int shapeOffset = ArrowSerde.createDims(bufferBuilder, arr);
+        int stridesOffset = Tensor.createStridesVector(bufferBuilder, ArrowSerde.getArrowStrides(arr));
+
+        Tensor.startTensor(bufferBuilder);
+        Tensor.addTypeType(bufferBuilder, typeType);
+        Tensor.addType(bufferBuilder, typeOffset);
+        Tensor.addShape(bufferBuilder, shapeOffset);
+        Tensor.addStrides(bufferBuilder, stridesOffset);
+        Tensor.addData(bufferBuilder, org.apache.arrow.flatbuf.Buffer.createBuffer(bufferBuilder, 0, bodyLength));
+        int tensorOffset = Tensor.endTensor(bufferBuilder);
+
+        Message.startMessage(bufferBuilder);
+        Message.addVersion(bufferBuilder, MetadataVersion.V4);
+        Message.addHeaderType(bufferBuilder, MessageHeader.Tensor);
+        Message.addHeader(bufferBuilder, tensorOffset);
+        Message.addBodyLength(bufferBuilder, bodyLength);
+        Message.finishMessageBuffer(bufferBuilder, Message.endMessage(bufferBuilder));
+        return bufferBuilder.dataBuffer();
+    }
+
+    /**
+     * Get the nd4j data type of the given tensor
+     * @param tensor the tensor
+     * @return the equivalent {@link DataBuffer.Type}
+     */
+    public static DataBuffer.Type typeOf(Tensor tensor) {
+        if (tensor.typeType() == Type.FloatingPoint) {
+            FloatingPoint floatingPoint = (FloatingPoint) tensor.type(new FloatingPoint());
+            if (floatingPoint.precision() == Precision.DOUBLE) {
+                return DataBuffer.Type.DOUBLE;
+            } else if (floatingPoint.precision() == Precision.SINGLE) {
+                return DataBuffer.Type.FLOAT;
+            }
+        } else if (tensor.typeType() == Type.Int) {
+            Int intType = (Int) tensor.type(new Int());
+            if (intType.isSigned() && intType.bitWidth() == 32) {
+                return DataBuffer.Type.INT;
+            } else if (intType.isSigned() && intType.bitWidth() == 64) {
+                return DataBuffer.Type.LONG;
+            }
+        }
+
+        throw new IllegalArgumentException("Only signed 32/64 bit integer and single/double precision floating point tensors are supported");
+    }
+
+    private static int elementSize(DataBuffer.Type type) {
+        return type == DataBuffer.Type.DOUBLE || type == DataBuffer.Type.LONG ? 8 : 4;
+    }
+
+    private static Message readMessage(ByteBuffer source, int position, int metadataLength) {
+        return Message.getRootAsMessage(region(source, position + 4, metadataLength));
+    }
+
+    private static ByteBuffer region(ByteBuffer buffer, int position, int length) {
+        ByteBuffer ret = buffer.duplicate();
+        ret.limit(position + length);
+        ret.position(position);
+        return ret.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long address(ByteBuffer buffer) {
+        if (!buffer.isDirect()) {
+            throw new IllegalArgumentException("Buffer must be a direct buffer");
+        }
+        ByteBuffer start = buffer.duplicate();
+        start.position(0);
+        return new Pointer(start).address();
+    }
+
+    private static void checkBounds(ByteBuffer buffer, int position) {
+        if (position < 0 || position + 4 > buffer.capacity()) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for buffer of capacity "
+                            + buffer.capacity());
+        }
+    }
+
+    //Converts between little endian (the stream format) and native byte order, in either direction
+    private static int fromLittleEndian(int value) {
+        return ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    //The pointers below hold on to the buffer they were created from:
+    //a mapping is only released once no array referencing it is reachable
+
+    private static class MappedDoublePointer extends DoublePointer {
+        private final ByteBuffer source;
+
+        private MappedDoublePointer(ByteBuffer source) {
+            super(source.asDoubleBuffer());
+            this.source = source;
+        }
+    }
+
+    private static class MappedFloatPointer extends FloatPointer {
+        private final ByteBuffer source;
+
+        private MappedFloatPointer(ByteBuffer source) {
+            super(source.asFloatBuffer());
+            this.source = source;
+        }
+    }
+
+    private static class MappedIntPointer extends IntPointer {
+        private final ByteBuffer source;
+
+        private MappedIntPointer(ByteBuffer source) {
+            super(source.asIntBuffer());
+            this.source = source;
+        }
+    }
+
+    private static class MappedLongPointer extends LongPointer {
+        private final ByteBuffer source;
+
+        private MappedLongPointer(ByteBuffer source) {
+            super(source.asLongBuffer());
+            this.source = source;
+        }
+    }
+}
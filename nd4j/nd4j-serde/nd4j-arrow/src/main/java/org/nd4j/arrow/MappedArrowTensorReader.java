@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.arrow;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads the {@link INDArray} written by a {@link MappedArrowTensorWriter}.
+ *
+ * Arrays are wrapped around the mapped file without copying: they are views
+ * of memory shared with the writer (and with any other reader of the same file),
+ * so {@link INDArray#dup()} them before modifying them in place.
+ * Arrays stay valid after this reader is closed.
+ */
+public class MappedArrowTensorReader implements Closeable {
+
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RandomAccessFile file;
+    private final long segmentSize;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int position;
+    private boolean endOfStream;
+
+    /**
+     * @param file the file to read from. The file must have been created by a {@link MappedArrowTensorWriter}
+     * @throws IOException if the file could not be mapped
+     */
+    public MappedArrowTensorReader(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        long length = this.file.length();
+        long segmentSize = length < MappedArrowTensorWriter.HEADER_LENGTH ? 0 : Long.reverseBytes(this.file.readLong());
+        if (segmentSize <= MappedArrowTensorWriter.HEADER_LENGTH || segmentSize > Integer.MAX_VALUE
+                        || segmentSize > length) {
+            this.file.close();
+            throw new IllegalArgumentException("File " + file + " is not a tensor stream: length " + length
+                            + ", segment size " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        //Mappings remain valid after the file is closed
+        this.segment = map(0);
+        this.position = MappedArrowTensorWriter.HEADER_LENGTH;
+    }
+
+    private MappedByteBuffer map(long segmentIndex) throws IOException {
+        return file.getChannel().map(FileChannel.MapMode.READ_WRITE, segmentIndex * segmentSize, segmentSize);
+    }
+
+    /**
+     * Get the next array, if one has been published
+     * @return the next array, or null if no new array is available (yet)
+     * @throws IOException if the next segment of the file could not be mapped
+     */
+    public synchronized INDArray poll() throws IOException {
+        if (endOfStream) {
+            return null;
+        }
+        int metadataLength = ArrowTensorIpc.metadataLength(segment, position);
+        if (metadataLength == ArrowTensorIpc.NEXT_SEGMENT) {
+            segment = map(segmentIndex + 1);
+            segmentIndex++;
+            position = 0;
+            metadataLength = ArrowTensorIpc.metadataLength(segment, position);
+        }
+        if (metadataLength == 0) {
+            return null;
+        }
+        if (metadataLength == ArrowTensorIpc.END_OF_STREAM) {
+            endOfStream = true;
+            return null;
+        }
+
+        INDArray ret = ArrowTensorIpc.readTensorMessage(segment, position);
+        position = ArrowTensorIpc.nextMessagePosition(segment, position);
+        return ret;
+    }
+
+    /**
+     * Get the next array, waiting up to the given time for it to be published
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return the next array, or null if the timeout elapsed or the end of the stream was reached
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IOException if the next segment of the file could not be mapped
+     */
+    public INDArray poll(long timeout, TimeUnit unit) throws InterruptedException, IOException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            INDArray ret = poll();
+            if (ret != null || isEndOfStream() || System.nanoTime() >= deadline) {
+                return ret;
+            }
+            LockSupport.parkNanos(POLL_INTERVAL_NANOS);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * @return true if the writer closed the stream and all arrays have been read
+     */
+    public synchronized boolean isEndOfStream() {
+        return endOfStream;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        endOfStream = true;
+        file.close();
+    }
+}
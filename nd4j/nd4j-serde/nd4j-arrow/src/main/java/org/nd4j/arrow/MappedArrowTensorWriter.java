@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+package org.nd4j.arrow;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a stream of {@link INDArray} as arrow IPC tensor messages
+ * in to a memory mapped file, for consumption by a {@link MappedArrowTensorReader}
+ * in the same or another JVM on the same host (for example, with the file on /dev/shm).
+ *
+ * Array data is copied once, straight from the array's off heap buffer in to the mapping.
+ *
+ * The file is mapped one fixed size segment at a time. When a message does not fit in to the
+ * rest of the current segment, the next segment is mapped (growing the file) and a
+ * {@link ArrowTensorIpc#NEXT_SEGMENT} marker is published, so the stream is not limited
+ * to the 2GB that can be mapped at once. A single message must fit in to one segment.
+ * Segments are never reused, as readers may hold arrays wrapping them: the file grows for
+ * as long as the stream is written to.
+ *
+ * The first {@link #HEADER_LENGTH} bytes of the file hold the segment size (int64, little endian).
+ * See {@link ArrowTensorIpc} for the message layout.
+ */
+public class MappedArrowTensorWriter implements Closeable {
+
+    /**
+     * Length of the file header, at the start of the first segment
+     */
+    public static final int HEADER_LENGTH = ArrowTensorIpc.ALIGNMENT;
+
+    private final RandomAccessFile file;
+    private final long segmentSize;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private int position;
+    private boolean closed;
+
+    /**
+     * @param file the file to write to. Any existing content is discarded
+     * @param segmentSize the size of each mapped segment, in bytes. Must be a multiple of
+     *                    {@link ArrowTensorIpc#ALIGNMENT}, and large enough for the largest array written
+     * @throws IOException if the file could not be created or mapped
+     */
+    public MappedArrowTensorWriter(File file, long segmentSize) throws IOException {
+        if (segmentSize <= HEADER_LENGTH + ArrowTensorIpc.END_OF_STREAM_LENGTH || segmentSize > Integer.MAX_VALUE
+                        || segmentSize % ArrowTensorIpc.ALIGNMENT != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + ArrowTensorIpc.ALIGNMENT
+                            + " between " + (HEADER_LENGTH + ArrowTensorIpc.END_OF_STREAM_LENGTH) + " and "
+                            + Integer.MAX_VALUE + " bytes, got " + segmentSize);
+        }
+        this.segmentSize = segmentSize;
+        this.file = new RandomAccessFile(file, "rw");
+        //Truncate first so that the whole region reads as zeros: no messages published yet
+        this.file.setLength(0);
+        this.segment = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        this.segment.order(ByteOrder.LITTLE_ENDIAN).putLong(0, segmentSize);
+        this.position = HEADER_LENGTH;
+    }
+
+    /**
+     * Write (and publish) the given array
+     * @param arr the array to write
+     * @throws IOException if the next segment could not be mapped
+     */
+    public synchronized void write(INDArray arr) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer has been closed");
+        }
+        INDArray toWrite = arr.isView() ? arr.dup() : arr;
+        long length = ArrowTensorIpc.messageLength(toWrite) + ArrowTensorIpc.END_OF_STREAM_LENGTH;
+        if (position + length > segmentSize) {
+            if (length > segmentSize) {
+                throw new ND4JIllegalStateException("Array of " + toWrite.length() + " elements needs " + length
+                                + " bytes, which is more than the segment size of " + segmentSize + " bytes");
+            }
+            nextSegment();
+        }
+        position = ArrowTensorIpc.writeTensorMessage(segment, position, toWrite);
+    }
+
+    private void nextSegment() throws IOException {
+        //Map (and so grow the file) before publishing the marker: readers map the next segment when they see it
+        MappedByteBuffer next = file.getChannel().map(FileChannel.MapMode.READ_WRITE,
+                        (segmentIndex + 1) * segmentSize, segmentSize);
+        ArrowTensorIpc.writeNextSegment(segment, position);
+        segment = next;
+        segmentIndex++;
+        position = 0;
+    }
+
+    /**
+     * @return the number of bytes of the file used so far, including unused space at the end of earlier segments
+     */
+    public synchronized long position() {
+        return segmentIndex * segmentSize + position;
+    }
+
+    /**
+     * Marks the end of the stream and releases the file. Readers may keep reading
+     * the messages written so far.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ArrowTensorIpc.writeEndOfStream(segment, position);
+        file.close();
+    }
+}
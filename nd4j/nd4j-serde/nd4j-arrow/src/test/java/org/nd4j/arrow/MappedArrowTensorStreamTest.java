@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j.arrow;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.exception.ND4JIllegalStateException;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MappedArrowTensorStreamTest {
+
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    @Test
+    public void testWriteRead() throws Exception {
+        File f = testDir.newFile();
+        INDArray matrix = Nd4j.linspace(1, 12, 12).reshape('c', 3, 4);
+        INDArray fOrder = Nd4j.rand('f', new int[] {5, 3});
+        INDArray ints = Nd4j.create(Nd4j.createBuffer(new int[] {1, 2, 3, 4}), new int[] {1, 4});
+
+        try (MappedArrowTensorWriter writer = new MappedArrowTensorWriter(f, 1 << 16);
+             MappedArrowTensorReader reader = new MappedArrowTensorReader(f)) {
+            assertNull(reader.poll());
+
+            writer.write(matrix);
+            writer.write(fOrder);
+            writer.write(matrix.getRow(1));
+            writer.write(ints);
+
+            assertEquals(matrix, reader.poll());
+            INDArray readF = reader.poll();
+            assertEquals('f', readF.ordering());
+            assertEquals(fOrder, readF);
+            assertEquals(matrix.getRow(1), reader.poll());
+            INDArray readInts = reader.poll();
+            assertEquals(DataBuffer.Type.INT, readInts.data().dataType());
+            assertArrayEquals(new int[] {1, 2, 3, 4}, readInts.data().asInt());
+
+            assertNull(reader.poll());
+            assertFalse(reader.isEndOfStream());
+            writer.close();
+            assertNull(reader.poll(1, TimeUnit.SECONDS));
+            assertTrue(reader.isEndOfStream());
+        }
+    }
+
+    @Test
+    public void testZeroCopy() throws Exception {
+        File f = testDir.newFile();
+        try (MappedArrowTensorWriter writer = new MappedArrowTensorWriter(f, 1 << 16)) {
+            writer.write(Nd4j.linspace(1, 4, 4));
+        }
+
+        //Both readers wrap the same mapped region: a change through one is visible through the other
+        INDArray first = new MappedArrowTensorReader(f).poll();
+        INDArray second = new MappedArrowTensorReader(f).poll();
+        first.putScalar(0, 100.0);
+        assertEquals(100.0, second.getDouble(0), 0.0);
+    }
+
+    @Test(expected = ND4JIllegalStateException.class)
+    public void testSegmentSizeExceeded() throws Exception {
+        File f = testDir.newFile();
+        try (MappedArrowTensorWriter writer = new MappedArrowTensorWriter(f, 1024)) {
+            writer.write(Nd4j.create(1, 1024));
+        }
+    }
+
+    @Test
+    public void testMultipleSegments() throws Exception {
+        File f = testDir.newFile();
+        int segmentSize = 1024;
+        INDArray[] written = new INDArray[50];
+        try (MappedArrowTensorWriter writer = new MappedArrowTensorWriter(f, segmentSize);
+             MappedArrowTensorReader reader = new MappedArrowTensorReader(f)) {
+            for (int i = 0; i < written.length; i++) {
+                written[i] = Nd4j.rand(1, 1 + i % 20);
+                writer.write(written[i]);
+            }
+            assertTrue(writer.position() > 10 * segmentSize);
+            writer.close();
+            assertTrue(f.length() > 10 * segmentSize);
+
+            INDArray[] read = new INDArray[written.length];
+            for (int i = 0; i < written.length; i++) {
+                read[i] = reader.poll();
+                assertEquals(written[i], read[i]);
+            }
+            assertNull(reader.poll());
+            assertTrue(reader.isEndOfStream());
+
+            //Arrays from earlier segments are still valid
+            for (int i = 0; i < written.length; i++) {
+                assertEquals(written[i], read[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentWriteRead() throws Exception {
+        final File f = testDir.newFile();
+        final int n = 2000;
+        final MappedArrowTensorWriter writer = new MappedArrowTensorWriter(f, 4096);
+        MappedArrowTensorReader reader = new MappedArrowTensorReader(f);
+
+        Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < n; i++) {
+                        writer.write(Nd4j.valueArrayOf(new int[] {1, 1 + i % 50}, i));
+                    }
+                    writer.close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        t.start();
+
+        for (int i = 0; i < n; i++) {
+            INDArray arr = reader.poll(10, TimeUnit.SECONDS);
+            assertNotNull(arr);
+            assertEquals(1 + i % 50, arr.length());
+            assertEquals(i, arr.minNumber().intValue());
+            assertEquals(i, arr.maxNumber().intValue());
+        }
+        assertNull(reader.poll(10, TimeUnit.SECONDS));
+        assertTrue(reader.isEndOfStream());
+        t.join();
+        reader.close();
+    }
+}
@@ -0,0 +1,241 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.bytedeco.javacpp.BytePointer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.factory.DataBufferFactory;
+import org.nd4j.linalg.api.concurrency.AffinityManager;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Kryo serializer for {@link INDArray} that copies the array's off heap buffer
+ * straight in to Kryo's output (and back out of Kryo's input) in fixed size chunks,
+ * instead of serializing the whole array to an intermediate byte array as {@link Nd4jSerializer} does.
+ *
+ * Optionally, chunks are compressed with LZ4. A chunk is stored uncompressed if LZ4 does not reduce its size;
+ * once a chunk compresses poorly, the rest of the array is stored uncompressed without trying.
+ *
+ * Compressed (in the {@link org.nd4j.linalg.compression.CompressedDataBuffer} sense) and empty arrays,
+ * and arrays of any other data type than double, float, int and long are written using {@link Nd4j#write(INDArray, DataOutputStream)}.
+ *
+ * Like Kryo itself, an instance is not thread safe.
+ */
+public class Nd4jDirectSerializer extends Serializer<INDArray> {
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private static final byte FORMAT_RAW = 0;
+    private static final byte FORMAT_LZ4 = 1;
+    private static final byte FORMAT_ND4J = 2;
+    //Stop trying to compress once a chunk compresses to more than this fraction of its size
+    private static final double MIN_COMPRESSION = 0.9;
+
+    private final boolean compress;
+    private final int chunkSize;
+    private byte[] chunk;
+    private byte[] compressed;
+    private LZ4Compressor compressor;
+    private LZ4FastDecompressor decompressor;
+
+    public Nd4jDirectSerializer() {
+        this(false);
+    }
+
+    /**
+     * @param compress if true: compress the array data with LZ4
+     */
+    public Nd4jDirectSerializer(boolean compress) {
+        this(compress, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param compress if true: compress the array data with LZ4
+     * @param chunkSize the number of bytes copied (and compressed) at a time
+     */
+    public Nd4jDirectSerializer(boolean compress, int chunkSize) {
+        if (chunkSize <= 0)
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize);
+        this.compress = compress;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public void write(Kryo kryo, Output output, INDArray object) {
+        if (!isSupported(object)) {
+            output.writeByte(FORMAT_ND4J);
+            try {
+                Nd4j.write(object, new DataOutputStream(output));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            return;
+        }
+
+        INDArray arr = object.isView() ? object.dup(object.ordering()) : object;
+        Nd4j.getAffinityManager().ensureLocation(arr, AffinityManager.Location.HOST);
+        DataBuffer data = arr.data();
+
+        output.writeByte(compress ? FORMAT_LZ4 : FORMAT_RAW);
+        output.writeByte((byte) data.dataType().ordinal());
+        output.writeChar(arr.ordering());
+        output.writeVarInt(arr.rank(), true);
+        for (int i = 0; i < arr.rank(); i++) {
+            output.writeLong(arr.size(i));
+            output.writeLong(arr.stride(i));
+        }
+
+        long numBytes = arr.length() * data.getElementSize();
+        BytePointer pointer = new BytePointer(data.addressPointer());
+        byte[] chunk = chunk();
+        boolean tryCompress = compress;
+        for (long position = 0; position < numBytes; position += chunkSize) {
+            int length = (int) Math.min(chunkSize, numBytes - position);
+            pointer.position(position).get(chunk, 0, length);
+            if (!compress) {
+                output.writeBytes(chunk, 0, length);
+                continue;
+            }
+
+            int compressedLength = tryCompress ? compress(chunk, length) : length;
+            if (compressedLength < length) {
+                output.writeInt(compressedLength);
+                output.writeBytes(compressed, 0, compressedLength);
+            } else {
+                output.writeInt(-length);
+                output.writeBytes(chunk, 0, length);
+            }
+            tryCompress = compressedLength <= MIN_COMPRESSION * length;
+        }
+        //Note: output should NOT be closed manually here - may be needed elsewhere (and closing here will cause serialization to fail)
+    }
+
+    @Override
+    public INDArray read(Kryo kryo, Input input, Class<INDArray> type) {
+        byte format = input.readByte();
+        if (format == FORMAT_ND4J) {
+            try {
+                return Nd4j.read(new DataInputStream(input));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else if (format != FORMAT_RAW && format != FORMAT_LZ4) {
+            throw new IllegalStateException("Unknown INDArray serialization format: " + format);
+        }
+
+        DataBuffer.Type dataType = DataBuffer.Type.values()[input.readByte()];
+        char order = input.readChar();
+        int rank = input.readVarInt(true);
+        long[] shape = new long[rank];
+        long[] stride = new long[rank];
+        long length = 1;
+        for (int i = 0; i < rank; i++) {
+            shape[i] = input.readLong();
+            stride[i] = input.readLong();
+            length *= shape[i];
+        }
+
+        DataBuffer data = createBuffer(dataType, length);
+        long numBytes = length * data.getElementSize();
+        BytePointer pointer = new BytePointer(data.addressPointer());
+        byte[] chunk = chunk();
+        for (long position = 0; position < numBytes; position += chunkSize) {
+            int chunkLength = (int) Math.min(chunkSize, numBytes - position);
+            int storedLength = format == FORMAT_LZ4 ? input.readInt() : -chunkLength;
+            if (storedLength < 0) {
+                input.readBytes(chunk, 0, chunkLength);
+            } else {
+                byte[] compressed = compressedChunk();
+                input.readBytes(compressed, 0, storedLength);
+                decompressor().decompress(compressed, 0, chunk, 0, chunkLength);
+            }
+            pointer.position(position).put(chunk, 0, chunkLength);
+        }
+
+        return Nd4j.create(data, shape, stride, 0, order);
+    }
+
+    private static boolean isSupported(INDArray arr) {
+        if (arr.isCompressed() || arr.isEmpty())
+            return false;
+        switch (arr.data().dataType()) {
+            case DOUBLE:
+            case FLOAT:
+            case INT:
+            case LONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static DataBuffer createBuffer(DataBuffer.Type dataType, long length) {
+        DataBufferFactory factory = Nd4j.getDataBufferFactory();
+        switch (dataType) {
+            case DOUBLE:
+                return factory.createDouble(length, false);
+            case FLOAT:
+                return factory.createFloat(length, false);
+            case INT:
+                return factory.createInt(length, false);
+            case LONG:
+                return factory.createLong(length, false);
+            default:
+                throw new IllegalStateException("Unsupported data type: " + dataType);
+        }
+    }
+
+    private int compress(byte[] chunk, int length) {
+        if (compressor == null)
+            compressor = LZ4Factory.fastestInstance().fastCompressor();
+        byte[] compressed = compressedChunk();
+        return compressor.compress(chunk, 0, length, compressed, 0, compressed.length);
+    }
+
+    private LZ4FastDecompressor decompressor() {
+        if (decompressor == null)
+            decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+        return decompressor;
+    }
+
+    private byte[] chunk() {
+        if (chunk == null)
+            chunk = new byte[chunkSize];
+        return chunk;
+    }
+
+    private byte[] compressedChunk() {
+        if (compressed == null) {
+            if (compressor == null)
+                compressor = LZ4Factory.fastestInstance().fastCompressor();
+            compressed = new byte[compressor.maxCompressedLength(chunkSize)];
+        }
+        return compressed;
+    }
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j;
+
+import com.esotericsoftware.kryo.Serializer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Spark KryoRegistrator for using Nd4j with Spark + Kryo,
+ * with array data compressed using LZ4. Useful when shuffling compressible
+ * (for example: sparse or one-hot) arrays over a slow network.
+ * Use via:
+ * sparkConf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
+ * sparkConf.set("spark.kryo.registrator", "org.nd4j.Nd4jLZ4Registrator");
+ */
+public class Nd4jLZ4Registrator extends Nd4jRegistrator {
+    @Override
+    protected Serializer<INDArray> ndArraySerializer() {
+        return new Nd4jDirectSerializer(true);
+    }
+}
@@ -17,9 +17,11 @@
 package org.nd4j;
 
 import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
 import de.javakaffee.kryoserializers.SynchronizedCollectionsSerializer;
 import de.javakaffee.kryoserializers.UnmodifiableCollectionsSerializer;
 import org.apache.spark.serializer.KryoRegistrator;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.primitives.AtomicDouble;
 import org.nd4j.primitives.AtomicDoubleSerializer;
@@ -30,16 +32,26 @@ import org.nd4j.primitives.AtomicDoubleSerializer;
  * sparkConf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
  * sparkConf.set("spark.kryo.registrator", "org.nd4j.Nd4jRegistrator");
  *
+ * Arrays are serialized with {@link Nd4jDirectSerializer}; use {@link Nd4jLZ4Registrator}
+ * to also LZ4 compress the array data.
+ *
  * @author Alex Black
  */
 public class Nd4jRegistrator implements KryoRegistrator {
     @Override
     public void registerClasses(Kryo kryo) {
-        kryo.register(Nd4j.getBackend().getNDArrayClass(), new Nd4jSerializer());
+        kryo.register(Nd4j.getBackend().getNDArrayClass(), ndArraySerializer());
         kryo.register(AtomicDouble.class, new AtomicDoubleSerializer());
 
         //Also register Java types (synchronized/unmodifiable collections), which will fail by default
         UnmodifiableCollectionsSerializer.registerSerializers(kryo);
         SynchronizedCollectionsSerializer.registerSerializers(kryo);
     }
+
+    /**
+     * @return the serializer to register for the backend's {@link INDArray} class
+     */
+    protected Serializer<INDArray> ndArraySerializer() {
+        return new Nd4jDirectSerializer();
+    }
 }
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2015-2018 Skymind, Inc.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Apache License, Version 2.0 which is available at
+ * https://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * SPDX-License-Identifier: Apache-2.0
+ ******************************************************************************/
+
+
+package org.nd4j;
+
+import com.esotericsoftware.kryo.Kryo;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.apache.spark.serializer.SerializerInstance;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@link Nd4jSerializer} against {@link Nd4jDirectSerializer} (with and without LZ4),
+ * both directly through Spark's Kryo serializer instance and for a shuffle in Spark local mode.
+ * Ignored by default: run manually.
+ */
+@Slf4j
+@Ignore
+public class Nd4jKryoSerializerBenchmark {
+
+    private static final int NUM_ARRAYS = 200;
+    private static final int ARRAY_LENGTH = 250000;
+    private static final int ITERATIONS = 5;
+
+    @Test
+    public void benchmark() {
+        for (String registrator : new String[] {LegacyRegistrator.class.getName(), Nd4jRegistrator.class.getName(),
+                        Nd4jLZ4Registrator.class.getName()}) {
+            SparkConf sparkConf = new SparkConf();
+            sparkConf.setMaster("local[*]");
+            sparkConf.set("spark.driver.host", "localhost");
+            sparkConf.setAppName("Nd4jKryoSerializerBenchmark");
+            sparkConf.set("spark.serializer", "org.apache.spark.serializer.KryoSerializer");
+            sparkConf.set("spark.kryo.registrator", registrator);
+            sparkConf.set("spark.kryoserializer.buffer.max", "512m");
+
+            JavaSparkContext sc = new JavaSparkContext(sparkConf);
+            try {
+                List<INDArray> dense = new ArrayList<>();
+                List<INDArray> sparse = new ArrayList<>();
+                for (int i = 0; i < NUM_ARRAYS; i++) {
+                    dense.add(Nd4j.rand(1, ARRAY_LENGTH));
+                    INDArray oneHot = Nd4j.zeros(1, ARRAY_LENGTH);
+                    oneHot.putScalar(i, 1.0);
+                    sparse.add(oneHot);
+                }
+
+                log.info(registrator);
+                benchmark(sc, "dense", dense);
+                benchmark(sc, "sparse", sparse);
+            } finally {
+                sc.close();
+            }
+        }
+    }
+
+    private static void benchmark(JavaSparkContext sc, String name, List<INDArray> arrays) {
+        SerializerInstance si = sc.env().serializer().newInstance();
+        long bytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (INDArray arr : arrays) {
+                ByteBuffer bb = si.serialize(arr, null);
+                bytes += bb.remaining();
+                si.deserialize(bb, null);
+            }
+        }
+        long serdeMs = (System.nanoTime() - start) / 1000000;
+
+        JavaRDD<INDArray> rdd = sc.parallelize(arrays, 4);
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            rdd.repartition(8).count();
+        }
+        long shuffleMs = (System.nanoTime() - start) / 1000000;
+
+        log.info("  {}: serialize + deserialize: {} ms ({} MB/iteration), shuffle: {} ms", name, serdeMs,
+                        String.format("%.1f", bytes / (double) ITERATIONS / (1024 * 1024)), shuffleMs);
+    }
+
+    public static class LegacyRegistrator implements KryoRegistrator {
+        @Override
+        public void registerClasses(Kryo kryo) {
+            kryo.register(Nd4j.getBackend().getNDArrayClass(), new Nd4jSerializer());
+        }
+    }
+}
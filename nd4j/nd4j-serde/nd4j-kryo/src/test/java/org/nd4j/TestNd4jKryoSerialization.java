@@ -16,6 +16,9 @@
 
 package org.nd4j;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import lombok.AllArgsConstructor;
 import org.apache.spark.SparkConf;
 import org.apache.spark.api.java.JavaRDD;
@@ -28,6 +31,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.primitives.*;
 import scala.Tuple2;
 
@@ -35,6 +39,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -107,6 +112,53 @@ public class TestNd4jKryoSerialization {
         }
     }
 
+    @Test
+    public void testDirectSerializer() {
+        SerializerInstance si = sc.env().serializer().newInstance();
+
+        INDArray matrix = Nd4j.linspace(1, 100000, 100000).reshape(200, 500);
+        INDArray[] arrs = new INDArray[] {matrix, Nd4j.rand('f', new int[] {30, 40}), matrix.getColumn(3),
+                        matrix.get(NDArrayIndex.interval(10, 20), NDArrayIndex.interval(5, 50)), Nd4j.scalar(3.0)};
+        for (INDArray arr : arrs) {
+            ByteBuffer bb = si.serialize(arr, null);
+            INDArray deserialized = si.deserialize(bb, null);
+            assertEquals(arr, deserialized);
+        }
+
+        INDArray ints = Nd4j.create(Nd4j.createBuffer(new int[] {1, 2, 3, 4}), new int[] {2, 2});
+        INDArray deserialized = si.deserialize(si.serialize(ints, null), null);
+        assertArrayEquals(ints.shape(), deserialized.shape());
+        assertArrayEquals(ints.data().asInt(), deserialized.data().asInt());
+    }
+
+    @Test
+    public void testDirectSerializerLZ4() {
+        INDArray sparse = Nd4j.zeros(500, 500);
+        sparse.putScalar(10, 10, 1.0);
+        INDArray random = Nd4j.rand(100, 100);
+        INDArray linspace = Nd4j.linspace(1, 1000, 1000);
+
+        for (INDArray arr : new INDArray[] {sparse, random, linspace}) {
+            byte[] raw = serialize(new Nd4jDirectSerializer(false, 4096), arr);
+            byte[] compressed = serialize(new Nd4jDirectSerializer(true, 4096), arr);
+            if (arr == sparse) {
+                assertTrue(compressed.length < raw.length / 10);
+            }
+            assertEquals(arr, deserialize(new Nd4jDirectSerializer(true, 4096), compressed));
+            assertEquals(arr, deserialize(new Nd4jDirectSerializer(false, 4096), raw));
+        }
+    }
+
+    private static byte[] serialize(Nd4jDirectSerializer serializer, INDArray arr) {
+        Output output = new Output(1024, -1);
+        serializer.write(new Kryo(), output, arr);
+        return output.toBytes();
+    }
+
+    private static INDArray deserialize(Nd4jDirectSerializer serializer, byte[] bytes) {
+        return serializer.read(new Kryo(), new Input(bytes), INDArray.class);
+    }
+
     private <T> void testSerialization(T in, SerializerInstance si) {
         ByteBuffer bb = si.serialize(in, null);
         T deserialized = (T)si.deserialize(bb, null);